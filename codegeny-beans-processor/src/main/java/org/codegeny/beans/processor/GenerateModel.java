@@ -0,0 +1,73 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.processor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Request the generation (by the {@link ModelProcessor}) of a class holding a static
+ * <code>org.codegeny.beans.model.Model</code> constant named <code>MODEL</code> for the annotated bean class.
+ * Properties are derived from public getters (<code>getX()</code> or <code>isX()</code> for booleans) in declaration
+ * order (superclasses first) and from the matching public setters (<code>setX(value)</code>) if any.
+ * <ul>
+ * <li>Primitives, their wrappers, strings, enums and other {@link Comparable}s are mapped to value models.</li>
+ * <li><code>List</code>s, <code>Set</code>s and <code>Map</code>s are mapped to list, set and map models.</li>
+ * <li>Classes which are also annotated with {@link GenerateModel} (including the annotated class itself) are mapped to
+ * their generated model (lazily referenced).</li>
+ * </ul>
+ * The generated code only uses method references (no reflection).
+ *
+ * @author Xavier DURY
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateModel {
+
+    /**
+     * Exclude a getter from the generated model.
+     */
+    @Documented
+    @Retention(RetentionPolicy.SOURCE)
+    @Target(ElementType.METHOD)
+    @interface Ignore {
+    }
+
+    /**
+     * The simple name of the generated class (which is generated in the same package as the annotated class). Defaults
+     * to the name of the annotated class (prefixed with the names of its enclosing classes separated by
+     * <code>_</code>) followed by <code>Model</code>.
+     *
+     * @return The simple name of the generated class.
+     */
+    String name() default "";
+
+    /**
+     * Also generate a static <code>org.codegeny.beans.model.ModelCompiler</code> constant named <code>COMPILER</code>
+     * (compiled comparison, equality, hash code, string representation and diff).
+     *
+     * @return <code>true</code> to generate the compiled model.
+     */
+    boolean compiled() default false;
+}
@@ -0,0 +1,417 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor which generates models for classes annotated with {@link GenerateModel}.
+ * For each annotated class <code>Foo</code>, a final class <code>FooModel</code> is generated in the same package:
+ * <pre>{@code
+ * public final class FooModel {
+ *     public static final Model<Foo> MODEL = Model.bean(Foo.class, Foo::new,
+ *             Model.property("bar", Foo::getBar, Foo::setBar, Model.STRING),
+ *             ...);
+ * }
+ * }</pre>
+ * Properties of type <code>int</code>, <code>long</code>, <code>double</code> and <code>boolean</code> are generated as
+ * primitive properties (accessed without boxing). References to other generated models (including the model itself) are lazy so that recursive and mutually
+ * recursive classes are supported. Errors (unsupported property types, generic beans...) are reported on the offending
+ * elements.
+ *
+ * @author Xavier DURY
+ */
+@SupportedAnnotationTypes("org.codegeny.beans.processor.GenerateModel")
+public final class ModelProcessor extends AbstractProcessor {
+
+    /**
+     * The fully qualified name of the model class.
+     */
+    private static final String MODEL = "org.codegeny.beans.model.Model";
+
+    /**
+     * The predefined value models.
+     */
+    private static final Map<String, String> CONSTANTS = new LinkedHashMap<>();
+
+    static {
+        CONSTANTS.put("java.lang.Boolean", "BOOLEAN");
+        CONSTANTS.put("java.lang.Byte", "BYTE");
+        CONSTANTS.put("java.lang.Short", "SHORT");
+        CONSTANTS.put("java.lang.Integer", "INTEGER");
+        CONSTANTS.put("java.lang.Long", "LONG");
+        CONSTANTS.put("java.lang.Float", "FLOAT");
+        CONSTANTS.put("java.lang.Double", "DOUBLE");
+        CONSTANTS.put("java.lang.Character", "CHARACTER");
+        CONSTANTS.put("java.lang.String", "STRING");
+    }
+
+    /**
+     * The primitive types which have specialized properties (accessed without boxing).
+     */
+    private static final Map<TypeKind, String> PRIMITIVES = new EnumMap<>(TypeKind.class);
+
+    static {
+        PRIMITIVES.put(TypeKind.INT, "int");
+        PRIMITIVES.put(TypeKind.LONG, "long");
+        PRIMITIVES.put(TypeKind.DOUBLE, "double");
+        PRIMITIVES.put(TypeKind.BOOLEAN, "boolean");
+    }
+
+    /**
+     * Exception thrown when a model cannot be generated.
+     */
+    private static final class GenerationException extends Exception {
+
+        /**
+         * Serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The offending element.
+         */
+        private final Element element;
+
+        /**
+         * Constructor.
+         *
+         * @param element The offending element.
+         * @param message The message.
+         */
+        GenerationException(Element element, String message) {
+            super(message);
+            this.element = element;
+        }
+    }
+
+    /**
+     * A bean property.
+     */
+    private static final class PropertyDefinition {
+
+        /**
+         * The property name.
+         */
+        final String name;
+
+        /**
+         * The getter.
+         */
+        final ExecutableElement getter;
+
+        /**
+         * The setter (or null).
+         */
+        ExecutableElement setter;
+
+        /**
+         * Constructor.
+         *
+         * @param name   The property name.
+         * @param getter The getter.
+         */
+        PropertyDefinition(String name, ExecutableElement getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+        for (TypeElement type : ElementFilter.typesIn(roundEnvironment.getElementsAnnotatedWith(GenerateModel.class))) {
+            try {
+                generate(type);
+            } catch (GenerationException exception) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, exception.getMessage(), exception.element);
+            } catch (IOException exception) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write model: " + exception.getMessage(), type);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Generate the model class for the given type.
+     *
+     * @param type The annotated type.
+     * @throws GenerationException If the model cannot be generated.
+     * @throws IOException         If the source file cannot be written.
+     */
+    private void generate(TypeElement type) throws GenerationException, IOException {
+        if (type.getKind() != ElementKind.CLASS) {
+            throw new GenerationException(type, "@GenerateModel can only be used on classes");
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new GenerationException(type, "@GenerateModel cannot be used on generic classes");
+        }
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String modelName = modelName(type);
+        String typeName = type.getQualifiedName().toString();
+
+        StringBuilder properties = new StringBuilder();
+        for (PropertyDefinition property : properties(type)) {
+            TypeMirror propertyType = property.getter.getReturnType();
+            String primitive = PRIMITIVES.get(propertyType.getKind());
+            properties.append(",\n            ").append(MODEL).append(primitive == null ? ".property(\"" : "." + primitive + "Property(\"").append(property.name).append("\", ")
+                    .append(typeName).append("::").append(property.getter.getSimpleName());
+            if (property.setter != null) {
+                properties.append(", ").append(typeName).append("::").append(property.setter.getSimpleName());
+            }
+            if (primitive == null) {
+                properties.append(", ").append(model(propertyType, property.getter));
+            }
+            properties.append(")");
+        }
+
+        boolean instantiable = !type.getModifiers().contains(Modifier.ABSTRACT) && (!type.getNestingKind().isNested() || type.getModifiers().contains(Modifier.STATIC))
+                && ElementFilter.constructorsIn(type.getEnclosedElements()).stream().anyMatch(constructor -> constructor.getModifiers().contains(Modifier.PUBLIC) && constructor.getParameters().isEmpty());
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? modelName : packageName + "." + modelName, type).openWriter()) {
+            if (!packageName.isEmpty()) {
+                writer.append("package ").append(packageName).append(";\n\n");
+            }
+            writer.append("/**\n * Model for {@link ").append(typeName).append("} (generated by {@code ").append(ModelProcessor.class.getName()).append("}).\n */\n");
+            writer.append("public final class ").append(modelName).append(" {\n\n");
+            writer.append("    /**\n     * The model.\n     */\n");
+            writer.append("    public static final ").append(MODEL).append("<").append(typeName).append("> MODEL = ").append(MODEL).append(".bean(").append(typeName).append(".class");
+            if (instantiable) {
+                writer.append(", ").append(typeName).append("::new");
+            }
+            writer.append(properties).append(");\n");
+            if (type.getAnnotation(GenerateModel.class).compiled()) {
+                writer.append("\n    /**\n     * The compiled model.\n     */\n");
+                writer.append("    public static final org.codegeny.beans.model.ModelCompiler<").append(typeName).append("> COMPILER = org.codegeny.beans.model.ModelCompiler.of(MODEL);\n");
+            }
+            writer.append("\n    /**\n     * Not instantiable.\n     */\n");
+            writer.append("    private ").append(modelName).append("() {\n    }\n}\n");
+        }
+    }
+
+    /**
+     * Compute the simple name of the generated class for the given type.
+     *
+     * @param type The annotated type.
+     * @return The simple name.
+     */
+    private static String modelName(TypeElement type) {
+        String name = type.getAnnotation(GenerateModel.class).name();
+        if (!name.isEmpty()) {
+            return name;
+        }
+        StringBuilder result = new StringBuilder(type.getSimpleName());
+        for (Element enclosing = type.getEnclosingElement(); !(enclosing instanceof PackageElement); enclosing = enclosing.getEnclosingElement()) {
+            result.insert(0, '_').insert(0, enclosing.getSimpleName());
+        }
+        return result.append("Model").toString();
+    }
+
+    /**
+     * Collect the properties of a type (superclasses first).
+     *
+     * @param type The type.
+     * @return The properties.
+     */
+    private List<PropertyDefinition> properties(TypeElement type) {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        for (TypeElement current = type; current != null && !current.getQualifiedName().contentEquals("java.lang.Object"); current = superclass(current)) {
+            hierarchy.add(0, current);
+        }
+        Map<String, PropertyDefinition> properties = new LinkedHashMap<>();
+        for (TypeElement current : hierarchy) {
+            for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                String name = getterProperty(method);
+                if (name != null && method.getAnnotation(GenerateModel.Ignore.class) == null) {
+                    properties.putIfAbsent(name, new PropertyDefinition(name, method));
+                }
+            }
+        }
+        for (TypeElement current : hierarchy) {
+            for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+                String name = method.getSimpleName().toString();
+                if (isAccessor(method) && method.getParameters().size() == 1 && name.length() > 3 && name.startsWith("set")) {
+                    PropertyDefinition property = properties.get(decapitalize(name.substring(3)));
+                    if (property != null && property.setter == null && isSameType(method.getParameters().get(0).asType(), property.getter.getReturnType())) {
+                        property.setter = method;
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(properties.values());
+    }
+
+    /**
+     * Get the superclass of a type.
+     *
+     * @param type The type.
+     * @return The superclass (or null).
+     */
+    private static TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    /**
+     * Check if a method is a public instance method.
+     *
+     * @param method The method.
+     * @return <code>true</code> if it may be an accessor.
+     */
+    private static boolean isAccessor(ExecutableElement method) {
+        return method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC) && method.getTypeParameters().isEmpty();
+    }
+
+    /**
+     * Get the property name of a getter.
+     *
+     * @param method The method.
+     * @return The property name or null if the method is not a getter.
+     */
+    private static String getterProperty(ExecutableElement method) {
+        if (!isAccessor(method) || !method.getParameters().isEmpty() || method.getReturnType().getKind() == TypeKind.VOID) {
+            return null;
+        }
+        String name = method.getSimpleName().toString();
+        if (name.length() > 3 && name.startsWith("get") && !name.equals("getClass")) {
+            return decapitalize(name.substring(3));
+        }
+        TypeMirror returnType = method.getReturnType();
+        if (name.length() > 2 && name.startsWith("is") && (returnType.getKind() == TypeKind.BOOLEAN || returnType.toString().equals("java.lang.Boolean"))) {
+            return decapitalize(name.substring(2));
+        }
+        return null;
+    }
+
+    /**
+     * Decapitalize a name (following the java beans convention).
+     *
+     * @param name The name.
+     * @return The decapitalized name.
+     */
+    private static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Check if 2 types are the same.
+     *
+     * @param left  The left type.
+     * @param right The right type.
+     * @return <code>true</code> if they are the same.
+     */
+    private boolean isSameType(TypeMirror left, TypeMirror right) {
+        return processingEnv.getTypeUtils().isSameType(left, right);
+    }
+
+    /**
+     * Generate the model expression for the given type.
+     *
+     * @param type    The type.
+     * @param element The element (for error reporting).
+     * @return The model expression.
+     * @throws GenerationException If no model can be derived for that type.
+     */
+    private String model(TypeMirror type, Element element) throws GenerationException {
+        if (type.getKind().isPrimitive()) {
+            return model(processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).asType(), element);
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            throw new GenerationException(element, String.format("Cannot derive a model for type %s", type));
+        }
+        DeclaredType declared = (DeclaredType) type;
+        TypeElement typeElement = (TypeElement) declared.asElement();
+        String name = typeElement.getQualifiedName().toString();
+        if (CONSTANTS.containsKey(name)) {
+            return MODEL + "." + CONSTANTS.get(name);
+        }
+        if (typeElement.getAnnotation(GenerateModel.class) != null) {
+            String packageName = processingEnv.getElementUtils().getPackageOf(typeElement).getQualifiedName().toString();
+            return MODEL + ".lazy(() -> " + (packageName.isEmpty() ? "" : packageName + ".") + modelName(typeElement) + ".MODEL)";
+        }
+        List<? extends TypeMirror> arguments = declared.getTypeArguments();
+        switch (name) {
+            case "java.util.List":
+                return MODEL + ".list(" + model(argument(arguments, 0, element), element) + ")";
+            case "java.util.Set":
+                return MODEL + ".set(" + model(argument(arguments, 0, element), element) + ")";
+            case "java.util.Map":
+                return MODEL + ".map(" + model(argument(arguments, 0, element), element) + ", " + model(argument(arguments, 1, element), element) + ")";
+            default:
+                TypeMirror comparable = processingEnv.getTypeUtils().erasure(processingEnv.getElementUtils().getTypeElement("java.lang.Comparable").asType());
+                if (typeElement.getTypeParameters().isEmpty() && processingEnv.getTypeUtils().isAssignable(type, comparable)) {
+                    return MODEL + ".value(" + name + ".class)";
+                }
+                throw new GenerationException(element, String.format("Cannot derive a model for type %s (annotate it with @GenerateModel)", type));
+        }
+    }
+
+    /**
+     * Get a type argument.
+     *
+     * @param arguments The type arguments.
+     * @param index     The index.
+     * @param element   The element (for error reporting).
+     * @return The type argument.
+     * @throws GenerationException If the argument is missing or is a wildcard.
+     */
+    private static TypeMirror argument(List<? extends TypeMirror> arguments, int index, Element element) throws GenerationException {
+        if (index >= arguments.size() || arguments.get(index).getKind() != TypeKind.DECLARED) {
+            throw new GenerationException(element, "Raw, wildcard or type variable collections are not supported");
+        }
+        return arguments.get(index);
+    }
+}
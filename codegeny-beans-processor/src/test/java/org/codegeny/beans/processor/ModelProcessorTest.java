@@ -0,0 +1,113 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.processor;
+
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.IntProperty;
+import org.codegeny.beans.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ModelProcessorTest {
+
+    private static final String SOURCE = String.join("\n",
+            "package sample;",
+            "import org.codegeny.beans.processor.GenerateModel;",
+            "import java.util.*;",
+            "@GenerateModel(compiled = true)",
+            "public class Person {",
+            "    private String name;",
+            "    private int age;",
+            "    private boolean active;",
+            "    private List<Address> addresses = new ArrayList<>();",
+            "    private Map<String, Integer> scores = new HashMap<>();",
+            "    public String getName() { return name; }",
+            "    public void setName(String name) { this.name = name; }",
+            "    public int getAge() { return age; }",
+            "    public void setAge(int age) { this.age = age; }",
+            "    public boolean isActive() { return active; }",
+            "    public List<Address> getAddresses() { return addresses; }",
+            "    public Map<String, Integer> getScores() { return scores; }",
+            "    public List<Person> getFriends() { return new ArrayList<>(); }",
+            "    @GenerateModel.Ignore public String getSecret() { return \"secret\"; }",
+            "    @GenerateModel public static class Address {",
+            "        private String street;",
+            "        public String getStreet() { return street; }",
+            "        public void setStreet(String street) { this.street = street; }",
+            "    }",
+            "}");
+
+    private DiagnosticCollector<JavaFileObject> compile(Path directory, String source) throws Exception {
+        Path file = directory.resolve("sample/Person.java");
+        Files.createDirectories(file.getParent());
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            compiler.getTask(null, fileManager, diagnostics,
+                    Arrays.asList("-d", directory.toString(), "-s", directory.toString(), "-classpath", System.getProperty("java.class.path"), "-processor", ModelProcessor.class.getName()),
+                    null, fileManager.getJavaFileObjects(file.toFile())).call();
+        }
+        return diagnostics;
+    }
+
+    @Test
+    public void processorShouldGenerateModel(@TempDir Path directory) throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(directory, SOURCE);
+        assertFalse(diagnostics.getDiagnostics().stream().anyMatch(d -> d.getKind() == Diagnostic.Kind.ERROR), diagnostics.getDiagnostics().toString());
+        assertTrue(Files.exists(directory.resolve("sample/PersonModel.java")));
+        assertTrue(Files.exists(directory.resolve("sample/Person_AddressModel.java")));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> personClass = loader.loadClass("sample.Person");
+            Model<?> model = (Model<?>) loader.loadClass("sample.PersonModel").getField("MODEL").get(null);
+            BeanModel<?> bean = (BeanModel<?>) model;
+            assertEquals(personClass, bean.getType());
+            assertEquals(Arrays.asList("name", "age", "active", "addresses", "scores", "friends"), bean.getProperties().stream().map(p -> p.getName()).collect(Collectors.toList()));
+            assertTrue(bean.getProperties().get(1) instanceof IntProperty<?>);
+            assertTrue(loader.loadClass("sample.PersonModel").getField("COMPILER").get(null) != null);
+            assertTrue(model.describe().contains("Recursive[sample.Person]"));
+        }
+    }
+
+    @Test
+    public void processorShouldReportUnsupportedTypes(@TempDir Path directory) throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(directory, SOURCE.replace("public List<Address> getAddresses()", "public Thread getThread() { return null; }\n    public List<Address> getAddresses()"));
+        assertTrue(diagnostics.getDiagnostics().stream().anyMatch(d -> d.getKind() == Diagnostic.Kind.ERROR && d.getMessage(null).contains("java.lang.Thread")), diagnostics.getDiagnostics().toString());
+    }
+}
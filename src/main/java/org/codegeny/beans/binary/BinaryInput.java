@@ -0,0 +1,302 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.binary;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Binary input reading from a {@link ByteBuffer} or an {@link InputStream} (the reverse of {@link BinaryOutput}).
+ * Streams are never read past the end of the encoded value.
+ *
+ * @author Xavier DURY
+ */
+abstract class BinaryInput {
+
+    /**
+     * Create an input for the given buffer.
+     *
+     * @param buffer The buffer.
+     * @return A new input.
+     */
+    static BinaryInput of(ByteBuffer buffer) {
+        return new BinaryInput() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            int readByte() throws IOException {
+                try {
+                    return buffer.get() & 0xFF;
+                } catch (BufferUnderflowException exception) {
+                    throw new EOFException();
+                }
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            void readBytes(byte[] bytes, int offset, int length) throws IOException {
+                try {
+                    buffer.get(bytes, offset, length);
+                } catch (BufferUnderflowException exception) {
+                    throw new EOFException();
+                }
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            int available() {
+                return buffer.remaining();
+            }
+        };
+    }
+
+    /**
+     * Create an input for the given stream.
+     *
+     * @param stream The stream.
+     * @return A new input.
+     */
+    static BinaryInput of(InputStream stream) {
+        return new BinaryInput() {
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            int readByte() throws IOException {
+                int value = stream.read();
+                if (value < 0) {
+                    throw new EOFException();
+                }
+                return value;
+            }
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            void readBytes(byte[] bytes, int offset, int length) throws IOException {
+                for (int end = offset + length, count; offset < end; offset += count) {
+                    if ((count = stream.read(bytes, offset, end - offset)) < 0) {
+                        throw new EOFException();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Initial size of buffers allocated for a length read from the input (they grow as data is actually read so that a
+     * malformed length cannot force a huge allocation).
+     */
+    private static final int CHUNK = 8192;
+
+    /**
+     * The decoded chars of the last string.
+     */
+    private char[] chars = new char[64];
+
+    /**
+     * Read a single byte.
+     *
+     * @return The byte (as an unsigned int).
+     * @throws IOException If an I/O error occurs or the end of input was reached.
+     */
+    abstract int readByte() throws IOException;
+
+    /**
+     * Fill a range of the given array.
+     *
+     * @param bytes  The array to fill.
+     * @param offset The range offset.
+     * @param length The range length.
+     * @throws IOException If an I/O error occurs or the end of input was reached.
+     */
+    abstract void readBytes(byte[] bytes, int offset, int length) throws IOException;
+
+    /**
+     * Get the number of bytes which are known to remain in this input.
+     *
+     * @return The number of remaining bytes (or {@link Integer#MAX_VALUE} if unknown).
+     */
+    int available() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Read the given number of bytes (read from the input) into a new array.
+     *
+     * @param length The number of bytes.
+     * @return The bytes.
+     * @throws IOException If an I/O error occurs or the end of input was reached before that many bytes were read.
+     */
+    byte[] readBytes(int length) throws IOException {
+        checkLength(length);
+        byte[] bytes = new byte[Math.min(length, CHUNK)];
+        for (int offset = 0; offset < length; offset = bytes.length) {
+            if (offset == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, bytes.length * 2L));
+            }
+            readBytes(bytes, offset, bytes.length - offset);
+        }
+        return bytes;
+    }
+
+    /**
+     * Check that a length read from the input is plausible (i.e. that this input has at least that many bytes left).
+     *
+     * @param length The length in bytes.
+     * @throws IOException If this input cannot contain that many bytes.
+     */
+    private void checkLength(int length) throws IOException {
+        if (length > available()) {
+            throw new EOFException(String.format("Length %d exceeds the %d remaining bytes", length, available()));
+        }
+    }
+
+    /**
+     * Read an unsigned variable-length integer.
+     *
+     * @return The value.
+     * @throws IOException If an I/O error occurs or the end of input was reached.
+     */
+    long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable-length integer");
+    }
+
+    /**
+     * Read an unsigned variable-length integer which must fit in a positive int (lengths, ordinals...).
+     *
+     * @return The value.
+     * @throws IOException If an I/O error occurs or the end of input was reached.
+     */
+    int readVarInt() throws IOException {
+        long value = readVarLong();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Malformed length");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Read a signed (zigzag encoded) variable-length integer.
+     *
+     * @return The value.
+     * @throws IOException If an I/O error occurs or the end of input was reached.
+     */
+    long readZigZag() throws IOException {
+        long value = readVarLong();
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /**
+     * Read a fixed-length 64 bits integer (big-endian).
+     *
+     * @return The value.
+     * @throws IOException If an I/O error occurs or the end of input was reached.
+     */
+    long readLong() throws IOException {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | readByte();
+        }
+        return value;
+    }
+
+    /**
+     * Read a fixed-length 32 bits integer (big-endian).
+     *
+     * @return The value.
+     * @throws IOException If an I/O error occurs or the end of input was reached.
+     */
+    int readInt() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = value << 8 | readByte();
+        }
+        return value;
+    }
+
+    /**
+     * Read a string written by {@link BinaryOutput#writeString(String)}.
+     *
+     * @return The string.
+     * @throws IOException If an I/O error occurs or the end of input was reached.
+     */
+    String readString() throws IOException {
+        int remaining = readVarInt();
+        checkLength(remaining);
+        int length = 0;
+        while (remaining > 0) {
+            int c = readByte();
+            if (c < 0x80) {
+                remaining--;
+            } else if (c >= 0xC0 && c < 0xE0) {
+                c = (c & 0x1F) << 6 | continuation();
+                remaining -= 2;
+            } else if (c >= 0xE0 && c < 0xF0) {
+                c = (c & 0x0F) << 12 | continuation() << 6 | continuation();
+                remaining -= 3;
+            } else {
+                throw new IllegalArgumentException("Malformed string");
+            }
+            if (remaining < 0) {
+                throw new IllegalArgumentException("Malformed string");
+            }
+            if (length == chars.length) {
+                chars = Arrays.copyOf(chars, (int) Math.min(length + 1L + remaining, chars.length * 2L));
+            }
+            chars[length++] = (char) c;
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Read a continuation byte.
+     *
+     * @return The 6 bits of payload.
+     * @throws IOException If an I/O error occurs or the end of input was reached.
+     */
+    private int continuation() throws IOException {
+        int c = readByte();
+        if ((c & 0xC0) != 0x80) {
+            throw new IllegalArgumentException("Malformed string");
+        }
+        return c & 0x3F;
+    }
+}
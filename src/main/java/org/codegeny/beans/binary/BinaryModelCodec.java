@@ -0,0 +1,1279 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.binary;
+
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.BooleanProperty;
+import org.codegeny.beans.model.DoubleProperty;
+import org.codegeny.beans.model.IntProperty;
+import org.codegeny.beans.model.LazyModel;
+import org.codegeny.beans.model.ListModel;
+import org.codegeny.beans.model.LongProperty;
+import org.codegeny.beans.model.MapModel;
+import org.codegeny.beans.model.Model;
+import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
+import org.codegeny.beans.model.Property;
+import org.codegeny.beans.model.PropertyVisitor;
+import org.codegeny.beans.model.SetModel;
+import org.codegeny.beans.model.ValueModel;
+import org.codegeny.beans.model.visitor.TypeModelVisitor;
+import org.codegeny.beans.path.ConverterRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compact tag-less binary codec driven by a {@link Model}. The model is compiled once into a tree of codecs and acts as
+ * the schema, so nothing but the data itself is written:
+ * <ul>
+ * <li>The encoded form starts with a 64 bits fingerprint of the model (see {@link #getFingerprint()}) which is checked
+ * when decoding to detect schema mismatches.</li>
+ * <li>Beans are written as a null bitmap (one bit per property) followed by the non-null property values in
+ * property index order.</li>
+ * <li>Lists and sets are written as a length, a null bitmap and the non-null elements. Maps are written as a length,
+ * a null bitmap (2 bits per entry) and the non-null keys and values.</li>
+ * <li>Integral numbers are written as zigzag variable-length integers, floating point numbers as raw bits, enums as
+ * their ordinal and strings as a length followed by their encoded chars. Common <code>java.time</code> and
+ * <code>java.math</code> values have dedicated encodings, all other values are written as strings and parsed back with
+ * the {@link ConverterRegistry}.</li>
+ * </ul>
+ * Decoding populates beans the same way {@link org.codegeny.beans.json.JsonModelReader} does (new beans are created
+ * through {@link BeanModel#newInstance()}, existing nested beans and collections are populated in place and read-only
+ * value properties are ignored). Malformed input is reported with an {@link IllegalArgumentException}. Instances are
+ * immutable and thread-safe.
+ *
+ * @param <T> The type of the root object.
+ * @author Xavier DURY
+ */
+public final class BinaryModelCodec<T> {
+
+    /**
+     * A compiled codec for non-null values.
+     *
+     * @param <T> The value type.
+     */
+    private interface Codec<T> {
+
+        /**
+         * Encode a non-null value.
+         *
+         * @param value  The value.
+         * @param output The output.
+         * @throws IOException If an I/O error occurs.
+         */
+        void encode(T value, BinaryOutput output) throws IOException;
+
+        /**
+         * Decode a non-null value.
+         *
+         * @param input    The input.
+         * @param existing The existing value to populate (may be null).
+         * @return The decoded value (which may be the existing one).
+         * @throws IOException If an I/O error occurs.
+         */
+        T decode(BinaryInput input, T existing) throws IOException;
+
+        /**
+         * Skip a non-null value.
+         *
+         * @param input The input.
+         * @throws IOException If an I/O error occurs.
+         */
+        default void skip(BinaryInput input) throws IOException {
+            decode(input, null);
+        }
+    }
+
+    /**
+     * Value encoder.
+     *
+     * @param <T> The value type.
+     */
+    @FunctionalInterface
+    private interface Encoder<T> {
+
+        /**
+         * Encode a non-null value.
+         *
+         * @param value  The value.
+         * @param output The output.
+         * @throws IOException If an I/O error occurs.
+         */
+        void encode(T value, BinaryOutput output) throws IOException;
+    }
+
+    /**
+     * Value decoder.
+     *
+     * @param <T> The value type.
+     */
+    @FunctionalInterface
+    private interface Decoder<T> {
+
+        /**
+         * Decode a non-null value.
+         *
+         * @param input The input.
+         * @return The value.
+         * @throws IOException If an I/O error occurs.
+         */
+        T decode(BinaryInput input) throws IOException;
+    }
+
+    /**
+     * Codec for values.
+     *
+     * @param <T> The value type.
+     */
+    private static final class ValueCodec<T> implements Codec<T> {
+
+        /**
+         * The encoder.
+         */
+        private final Encoder<? super T> encoder;
+
+        /**
+         * The decoder.
+         */
+        private final Decoder<? extends T> decoder;
+
+        /**
+         * Constructor.
+         *
+         * @param encoder The encoder.
+         * @param decoder The decoder.
+         */
+        ValueCodec(Encoder<? super T> encoder, Decoder<? extends T> decoder) {
+            this.encoder = encoder;
+            this.decoder = decoder;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void encode(T value, BinaryOutput output) throws IOException {
+            encoder.encode(value, output);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public T decode(BinaryInput input, T existing) throws IOException {
+            return decoder.decode(input);
+        }
+    }
+
+    /**
+     * Encoder of a primitive property value (without boxing).
+     *
+     * @param <B> The bean type.
+     */
+    @FunctionalInterface
+    private interface PrimitiveEncoder<B> {
+
+        /**
+         * Encode the property value of a (non-null) bean.
+         *
+         * @param bean   The bean.
+         * @param output The output.
+         * @throws IOException If an I/O error occurs.
+         */
+        void encode(B bean, BinaryOutput output) throws IOException;
+    }
+
+    /**
+     * Decoder of a primitive property value (without boxing).
+     *
+     * @param <B> The bean type.
+     */
+    @FunctionalInterface
+    private interface PrimitiveDecoder<B> {
+
+        /**
+         * Decode the property value and set it on the (non-null) bean.
+         *
+         * @param bean  The bean.
+         * @param input The input.
+         * @throws IOException If an I/O error occurs.
+         */
+        void decode(B bean, BinaryInput input) throws IOException;
+    }
+
+    /**
+     * Codec for a bean property.
+     *
+     * @param <B> The bean type.
+     * @param <P> The property type.
+     */
+    private static final class PropertyCodec<B, P> {
+
+        /**
+         * Marker for present primitive values (which are not extracted).
+         */
+        private static final Object PRIMITIVE = new Object();
+
+        /**
+         * The property.
+         */
+        private final Property<? super B, P> property;
+
+        /**
+         * The property value codec.
+         */
+        private final Codec<P> codec;
+
+        /**
+         * Whether an existing property value must be populated in place.
+         */
+        private final boolean populate;
+
+        /**
+         * The primitive encoder (or null if the property is not primitive).
+         */
+        private final PrimitiveEncoder<B> primitiveEncoder;
+
+        /**
+         * The primitive decoder (or null if the property is not primitive or read-only).
+         */
+        private final PrimitiveDecoder<B> primitiveDecoder;
+
+        /**
+         * Constructor.
+         *
+         * @param property         The property.
+         * @param primitiveEncoder The primitive encoder (or null if the property is not primitive).
+         * @param primitiveDecoder The primitive decoder (or null if the property is not primitive or read-only).
+         */
+        private PropertyCodec(Property<? super B, P> property, PrimitiveEncoder<B> primitiveEncoder, PrimitiveDecoder<B> primitiveDecoder) {
+            this.property = property;
+            this.codec = property.accept(new CodecModelVisitor<>());
+            this.populate = !(property.getModel() instanceof ValueModel<?>);
+            this.primitiveEncoder = primitiveEncoder;
+            this.primitiveDecoder = primitiveDecoder;
+        }
+
+        /**
+         * Create a property codec (primitive properties are encoded and decoded without boxing).
+         *
+         * @param property The property.
+         * @param <B>      The bean type.
+         * @param <P>      The property type.
+         * @return The property codec.
+         */
+        static <B, P> PropertyCodec<B, P> of(Property<? super B, P> property) {
+            return property.accept(new PropertyVisitor<B, P, PropertyCodec<B, P>>() {
+
+                @Override
+                public PropertyCodec<B, P> visitProperty(Property<? super B, P> property) {
+                    return new PropertyCodec<>(property, null, null);
+                }
+
+                @Override
+                public PropertyCodec<B, P> visitInt(IntProperty<? super B> intProperty) {
+                    return new PropertyCodec<>(property,
+                            (bean, output) -> output.writeZigZag(intProperty.getInt(bean)),
+                            property.isReadOnly() ? null : (bean, input) -> intProperty.setInt(bean, (int) input.readZigZag()));
+                }
+
+                @Override
+                public PropertyCodec<B, P> visitLong(LongProperty<? super B> longProperty) {
+                    return new PropertyCodec<>(property,
+                            (bean, output) -> output.writeZigZag(longProperty.getLong(bean)),
+                            property.isReadOnly() ? null : (bean, input) -> longProperty.setLong(bean, input.readZigZag()));
+                }
+
+                @Override
+                public PropertyCodec<B, P> visitDouble(DoubleProperty<? super B> doubleProperty) {
+                    return new PropertyCodec<>(property,
+                            (bean, output) -> output.writeLong(Double.doubleToRawLongBits(doubleProperty.getDouble(bean))),
+                            property.isReadOnly() ? null : (bean, input) -> doubleProperty.setDouble(bean, Double.longBitsToDouble(input.readLong())));
+                }
+
+                @Override
+                public PropertyCodec<B, P> visitBoolean(BooleanProperty<? super B> booleanProperty) {
+                    return new PropertyCodec<>(property,
+                            (bean, output) -> output.writeByte(booleanProperty.getBoolean(bean) ? 1 : 0),
+                            property.isReadOnly() ? null : (bean, input) -> booleanProperty.set(bean, input.readByte() != 0));
+                }
+            });
+        }
+
+        /**
+         * Get the property value (or a marker for primitive values which are always present).
+         *
+         * @param bean The bean.
+         * @return The value.
+         */
+        Object get(B bean) {
+            return primitiveEncoder != null ? PRIMITIVE : property.get(bean);
+        }
+
+        /**
+         * Encode a non-null property value.
+         *
+         * @param bean   The bean.
+         * @param value  The value (as returned by {@link #get(Object)}).
+         * @param output The output.
+         * @throws IOException If an I/O error occurs.
+         */
+        @SuppressWarnings("unchecked")
+        void encode(B bean, Object value, BinaryOutput output) throws IOException {
+            if (primitiveEncoder != null) {
+                primitiveEncoder.encode(bean, output);
+            } else {
+                codec.encode((P) value, output);
+            }
+        }
+
+        /**
+         * Decode the property value and set it on the bean.
+         *
+         * @param bean    The bean.
+         * @param input   The input.
+         * @param present Whether the value is present (non-null) in the input.
+         * @throws IOException If an I/O error occurs.
+         */
+        void decode(B bean, BinaryInput input, boolean present) throws IOException {
+            if (present && primitiveDecoder != null) {
+                primitiveDecoder.decode(bean, input);
+                return;
+            }
+            P existing = populate ? property.get(bean) : null;
+            if (property.isReadOnly()) {
+                if (present && existing == null) {
+                    codec.skip(input);
+                } else if (present) {
+                    codec.decode(input, existing);
+                }
+            } else {
+                P value = present ? codec.decode(input, existing) : null;
+                if (!populate || value != existing) {
+                    property.set(bean, value);
+                }
+            }
+        }
+
+        /**
+         * Skip the property value.
+         *
+         * @param input The input.
+         * @throws IOException If an I/O error occurs.
+         */
+        void skip(BinaryInput input) throws IOException {
+            codec.skip(input);
+        }
+    }
+
+    /**
+     * Codec for beans.
+     *
+     * @param <B> The bean type.
+     */
+    private static final class BeanCodec<B> implements Codec<B> {
+
+        /**
+         * The bean model.
+         */
+        private final BeanModel<B> model;
+
+        /**
+         * The property codecs in property index order.
+         */
+        private final PropertyCodec<B, ?>[] properties;
+
+        /**
+         * Constructor.
+         *
+         * @param model The bean model.
+         */
+        @SuppressWarnings("unchecked")
+        BeanCodec(BeanModel<B> model) {
+            this.model = model;
+            this.properties = model.getProperties().stream().map(PropertyCodec::of).toArray(PropertyCodec[]::new);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void encode(B bean, BinaryOutput output) throws IOException {
+            Object[] values = new Object[properties.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = properties[i].get(bean);
+            }
+            Bitmap.write(output, values.length, i -> values[i] != null);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    properties[i].encode(bean, values[i], output);
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public B decode(BinaryInput input, B existing) throws IOException {
+            B bean = existing != null ? existing : model.newInstance();
+            Bitmap bitmap = Bitmap.read(input, properties.length);
+            for (int i = 0; i < properties.length; i++) {
+                properties[i].decode(bean, input, bitmap.get(i));
+            }
+            return bean;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void skip(BinaryInput input) throws IOException {
+            Bitmap bitmap = Bitmap.read(input, properties.length);
+            for (int i = 0; i < properties.length; i++) {
+                if (bitmap.get(i)) {
+                    properties[i].skip(input);
+                }
+            }
+        }
+    }
+
+    /**
+     * Base codec for lists and sets.
+     *
+     * @param <C> The collection type.
+     * @param <E> The element type.
+     */
+    private abstract static class CollectionCodec<C, E> implements Codec<C> {
+
+        /**
+         * The element codec.
+         */
+        private final Codec<E> codec;
+
+        /**
+         * Constructor.
+         *
+         * @param codec The element codec.
+         */
+        CollectionCodec(Codec<E> codec) {
+            this.codec = codec;
+        }
+
+        /**
+         * Convert the value to a collection.
+         *
+         * @param value The value.
+         * @return The collection.
+         */
+        abstract Collection<E> toCollection(C value);
+
+        /**
+         * Create the value from the decoded elements or populate the existing value.
+         *
+         * @param elements The decoded elements.
+         * @param existing The existing value (may be null).
+         * @return The value.
+         */
+        abstract C fromCollection(List<E> elements, C existing);
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void encode(C value, BinaryOutput output) throws IOException {
+            Collection<E> elements = toCollection(value);
+            output.writeVarLong(elements.size());
+            Bitmap.write(output, elements, element -> element != null);
+            for (E element : elements) {
+                if (element != null) {
+                    codec.encode(element, output);
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public C decode(BinaryInput input, C existing) throws IOException {
+            int size = input.readVarInt();
+            Bitmap bitmap = Bitmap.read(input, size);
+            List<E> elements = new ArrayList<>(Math.min(size, 1024));
+            for (int i = 0; i < size; i++) {
+                elements.add(bitmap.get(i) ? codec.decode(input, null) : null);
+            }
+            return fromCollection(elements, existing);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void skip(BinaryInput input) throws IOException {
+            int size = input.readVarInt();
+            Bitmap bitmap = Bitmap.read(input, size);
+            for (int i = 0; i < size; i++) {
+                if (bitmap.get(i)) {
+                    codec.skip(input);
+                }
+            }
+        }
+    }
+
+    /**
+     * Codec for maps.
+     *
+     * @param <M> The map type.
+     * @param <K> The key type.
+     * @param <V> The value type.
+     */
+    private static final class MapCodec<M, K, V> implements Codec<M> {
+
+        /**
+         * The map model.
+         */
+        private final MapModel<M, K, V> model;
+
+        /**
+         * The key codec.
+         */
+        private final Codec<K> keyCodec;
+
+        /**
+         * The value codec.
+         */
+        private final Codec<V> valueCodec;
+
+        /**
+         * Constructor.
+         *
+         * @param model The map model.
+         */
+        MapCodec(MapModel<M, K, V> model) {
+            this.model = model;
+            this.keyCodec = model.acceptKey(new CodecModelVisitor<>());
+            this.valueCodec = model.acceptValue(new CodecModelVisitor<>());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void encode(M value, BinaryOutput output) throws IOException {
+            Map<K, V> map = model.toMap(value);
+            output.writeVarLong(map.size());
+            Bitmap.write(output, map.entrySet(), entry -> entry.getKey() != null, entry -> entry.getValue() != null);
+            for (Map.Entry<K, V> entry : map.entrySet()) {
+                if (entry.getKey() != null) {
+                    keyCodec.encode(entry.getKey(), output);
+                }
+                if (entry.getValue() != null) {
+                    valueCodec.encode(entry.getValue(), output);
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public M decode(BinaryInput input, M existing) throws IOException {
+            int size = input.readVarInt();
+            Bitmap bitmap = Bitmap.read(input, size * 2L);
+            Map<K, V> entries = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                K key = bitmap.get(2 * i) ? keyCodec.decode(input, null) : null;
+                entries.put(key, bitmap.get(2 * i + 1) ? valueCodec.decode(input, null) : null);
+            }
+            if (existing == null) {
+                return model.fromMap(entries);
+            }
+            Map<K, V> target = model.toMap(existing);
+            target.clear();
+            target.putAll(entries);
+            return existing;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void skip(BinaryInput input) throws IOException {
+            int size = input.readVarInt();
+            Bitmap bitmap = Bitmap.read(input, size * 2L);
+            for (int i = 0; i < size; i++) {
+                if (bitmap.get(2 * i)) {
+                    keyCodec.skip(input);
+                }
+                if (bitmap.get(2 * i + 1)) {
+                    valueCodec.skip(input);
+                }
+            }
+        }
+    }
+
+    /**
+     * Null bitmap (bit <code>i</code> is set if the <code>i</code>th value is not null).
+     */
+    private static final class Bitmap {
+
+        /**
+         * A predicate on an index.
+         */
+        @FunctionalInterface
+        private interface IndexPredicate {
+
+            /**
+             * Test an index.
+             *
+             * @param index The index.
+             * @return The result.
+             */
+            boolean test(int index);
+        }
+
+        /**
+         * Write a bitmap for indexes.
+         *
+         * @param output    The output.
+         * @param count     The number of bits.
+         * @param predicate The predicate on indexes.
+         * @throws IOException If an I/O error occurs.
+         */
+        static void write(BinaryOutput output, int count, IndexPredicate predicate) throws IOException {
+            for (int i = 0; i < count; i += 8) {
+                int bits = 0;
+                for (int j = 0; j < 8 && i + j < count; j++) {
+                    if (predicate.test(i + j)) {
+                        bits |= 1 << j;
+                    }
+                }
+                output.writeByte(bits);
+            }
+        }
+
+        /**
+         * Write a bitmap for elements (each predicate gives one bit for each element).
+         *
+         * @param output     The output.
+         * @param elements   The elements.
+         * @param predicates The predicates.
+         * @param <E>        The element type.
+         * @throws IOException If an I/O error occurs.
+         */
+        @SafeVarargs
+        static <E> void write(BinaryOutput output, Iterable<? extends E> elements, Predicate<? super E>... predicates) throws IOException {
+            int bits = 0;
+            int count = 0;
+            for (E element : elements) {
+                for (Predicate<? super E> predicate : predicates) {
+                    if (predicate.test(element)) {
+                        bits |= 1 << count;
+                    }
+                    if (++count == 8) {
+                        output.writeByte(bits);
+                        bits = 0;
+                        count = 0;
+                    }
+                }
+            }
+            if (count > 0) {
+                output.writeByte(bits);
+            }
+        }
+
+        /**
+         * Read a bitmap.
+         *
+         * @param input The input.
+         * @param count The number of bits.
+         * @return The bitmap.
+         * @throws IOException If an I/O error occurs.
+         */
+        static Bitmap read(BinaryInput input, long count) throws IOException {
+            if (count <= 64) {
+                long bits = 0;
+                for (int i = 0; i < count; i += 8) {
+                    bits |= (long) input.readByte() << i;
+                }
+                return new Bitmap(bits, null);
+            }
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Malformed length");
+            }
+            return new Bitmap(0, input.readBytes((int) ((count + 7) / 8)));
+        }
+
+        /**
+         * The bits (for small bitmaps).
+         */
+        private final long bits;
+
+        /**
+         * The bytes (for large bitmaps).
+         */
+        private final byte[] bytes;
+
+        /**
+         * Constructor.
+         *
+         * @param bits  The bits (for small bitmaps).
+         * @param bytes The bytes (for large bitmaps).
+         */
+        private Bitmap(long bits, byte[] bytes) {
+            this.bits = bits;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Get a bit.
+         *
+         * @param index The bit index.
+         * @return The bit.
+         */
+        boolean get(int index) {
+            return bytes == null ? (bits >>> index & 1) != 0 : (bytes[index >>> 3] >> (index & 7) & 1) != 0;
+        }
+    }
+
+    /**
+     * Visitor which compiles a model into a codec.
+     *
+     * @param <T> The value type.
+     */
+    private static final class CodecModelVisitor<T> implements ModelVisitor<T, Codec<T>> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Codec<T> visitBean(BeanModel<T> bean) {
+            return new BeanCodec<>(bean);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Codec<T> visitList(ListModel<T, E> list) {
+            return new CollectionCodec<T, E>(list.acceptElement(new CodecModelVisitor<>())) {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                Collection<E> toCollection(T value) {
+                    return list.toList(value);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                T fromCollection(List<E> elements, T existing) {
+                    if (existing == null) {
+                        return list.fromList(elements);
+                    }
+                    List<E> target = list.toList(existing);
+                    for (int i = 0; i < elements.size(); i++) {
+                        if (i < target.size()) {
+                            target.set(i, elements.get(i));
+                        } else {
+                            target.add(elements.get(i));
+                        }
+                    }
+                    while (target.size() > elements.size()) {
+                        target.remove(target.size() - 1);
+                    }
+                    return existing;
+                }
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <K, V> Codec<T> visitMap(MapModel<T, K, V> map) {
+            return new MapCodec<>(map);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Codec<T> visitSet(SetModel<T, E> set) {
+            return new CollectionCodec<T, E>(set.acceptElement(new CodecModelVisitor<>())) {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                Collection<E> toCollection(T value) {
+                    return set.toSet(value);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                T fromCollection(List<E> elements, T existing) {
+                    if (existing == null) {
+                        return set.fromSet(new LinkedHashSet<>(elements));
+                    }
+                    Set<E> target = set.toSet(existing);
+                    target.clear();
+                    target.addAll(elements);
+                    return existing;
+                }
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public Codec<T> visitValue(ValueModel<T> value) {
+            return (Codec<T>) valueCodec(value.getType());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Codec<T> visitPolymorphic(PolymorphicModel<T> polymorphic) {
+            throw new IllegalArgumentException(String.format("Cannot encode polymorphic model of %s", TypeModelVisitor.typeOf(polymorphic).getTypeName()));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Codec<T> visitLazy(LazyModel<T> lazy) {
+            return lazy.compile(CodecModelVisitor.class, model -> model.accept(new CodecModelVisitor<>()), codec -> new Codec<T>() {
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void encode(T value, BinaryOutput output) throws IOException {
+                    codec.get().encode(value, output);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public T decode(BinaryInput input, T existing) throws IOException {
+                    return codec.get().decode(input, existing);
+                }
+
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void skip(BinaryInput input) throws IOException {
+                    codec.get().skip(input);
+                }
+            });
+        }
+    }
+
+    /**
+     * Visitor which computes a fingerprint of a model by hashing (FNV-1a) a canonical description of its structure.
+     *
+     * @param <T> The value type.
+     */
+    private static final class FingerprintModelVisitor<T> implements ModelVisitor<T, StringBuilder> {
+
+        /**
+         * The description.
+         */
+        private final StringBuilder description;
+
+        /**
+         * Constructor.
+         *
+         * @param description The description.
+         */
+        FingerprintModelVisitor(StringBuilder description) {
+            this.description = description;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public StringBuilder visitBean(BeanModel<T> bean) {
+            description.append("bean(").append(bean.getType().getName()).append("){");
+            for (Property<? super T, ?> property : bean.getProperties()) {
+                description.append(property.getName()).append(':');
+                property.accept(new FingerprintModelVisitor<>(description)).append(';');
+            }
+            return description.append('}');
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> StringBuilder visitList(ListModel<T, E> list) {
+            return list.acceptElement(new FingerprintModelVisitor<>(description.append("list<"))).append('>');
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <K, V> StringBuilder visitMap(MapModel<T, K, V> map) {
+            map.acceptKey(new FingerprintModelVisitor<>(description.append("map<"))).append(',');
+            return map.acceptValue(new FingerprintModelVisitor<>(description)).append('>');
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> StringBuilder visitSet(SetModel<T, E> set) {
+            return set.acceptElement(new FingerprintModelVisitor<>(description.append("set<"))).append('>');
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public StringBuilder visitValue(ValueModel<T> value) {
+            description.append("value(").append(value.getType().getName());
+            if (value.getType().isEnum()) {
+                for (Object constant : value.getType().getEnumConstants()) {
+                    description.append(':').append(((Enum<?>) constant).name());
+                }
+            }
+            return description.append(')');
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public StringBuilder visitLazy(LazyModel<T> lazy) {
+            return lazy.compile(FingerprintModelVisitor.class, model -> model.accept(this), recursive -> description.append("recursive(").append(TypeModelVisitor.typeOf(lazy).getTypeName()).append(')'));
+        }
+    }
+
+    /**
+     * The root codec.
+     */
+    private final Codec<T> codec;
+
+    /**
+     * The model fingerprint.
+     */
+    private final long fingerprint;
+
+    /**
+     * Constructor which compiles the given model.
+     *
+     * @param model The model.
+     */
+    public BinaryModelCodec(Model<T> model) {
+        this.codec = requireNonNull(model).accept(new CodecModelVisitor<>());
+        this.fingerprint = fingerprint(model.accept(new FingerprintModelVisitor<>(new StringBuilder())).toString());
+    }
+
+    /**
+     * Get the fingerprint of the model (which changes when property names, property order, value types, enum constants
+     * or the structure of the model change).
+     *
+     * @return The fingerprint.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Encode a value to a stream (the stream is neither flushed nor closed).
+     *
+     * @param value  The value (may be null).
+     * @param stream The stream.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void encode(T value, OutputStream stream) throws IOException {
+        BinaryOutput output = BinaryOutput.of(requireNonNull(stream));
+        encode(value, output);
+        output.flush();
+    }
+
+    /**
+     * Encode a value to a byte buffer.
+     *
+     * @param value  The value (may be null).
+     * @param buffer The buffer.
+     * @throws java.nio.BufferOverflowException If there is insufficient space in the buffer.
+     */
+    public void encode(T value, ByteBuffer buffer) {
+        BinaryOutput output = BinaryOutput.of(requireNonNull(buffer));
+        try {
+            encode(value, output);
+            output.flush();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Encode a value to a byte array.
+     *
+     * @param value The value (may be null).
+     * @return The bytes.
+     */
+    public byte[] encode(T value) {
+        BinaryOutput output = BinaryOutput.inMemory();
+        try {
+            encode(value, output);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Decode a value from a stream (the stream is never read past the end of the value and is not closed).
+     *
+     * @param stream The stream.
+     * @return The value (may be null).
+     * @throws IOException If an I/O error occurs (or {@link java.io.EOFException} if the stream ends prematurely).
+     */
+    public T decode(InputStream stream) throws IOException {
+        return decode(BinaryInput.of(requireNonNull(stream)));
+    }
+
+    /**
+     * Decode a value from a byte buffer (the buffer position is moved past the end of the value).
+     *
+     * @param buffer The buffer.
+     * @return The value (may be null).
+     */
+    public T decode(ByteBuffer buffer) {
+        try {
+            return decode(BinaryInput.of(requireNonNull(buffer)));
+        } catch (IOException exception) {
+            throw new IllegalArgumentException("Truncated input", exception);
+        }
+    }
+
+    /**
+     * Decode a value from a byte array.
+     *
+     * @param bytes The bytes.
+     * @return The value (may be null).
+     */
+    public T decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Encode the fingerprint, a presence flag and the value.
+     *
+     * @param value  The value (may be null).
+     * @param output The output.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void encode(T value, BinaryOutput output) throws IOException {
+        output.writeLong(fingerprint);
+        output.writeByte(value == null ? 0 : 1);
+        if (value != null) {
+            codec.encode(value, output);
+        }
+    }
+
+    /**
+     * Check the fingerprint and decode the value.
+     *
+     * @param input The input.
+     * @return The value (may be null).
+     * @throws IOException If an I/O error occurs.
+     */
+    private T decode(BinaryInput input) throws IOException {
+        long actual = input.readLong();
+        if (actual != fingerprint) {
+            throw new IllegalArgumentException(String.format("Model fingerprint mismatch (expected %016x but got %016x)", fingerprint, actual));
+        }
+        return input.readByte() == 0 ? null : codec.decode(input, null);
+    }
+
+    /**
+     * Create the codec for a value type.
+     *
+     * @param type The value type.
+     * @param <V>  The value type.
+     * @return The codec.
+     */
+    private static <V> Codec<?> valueCodec(Class<V> type) {
+        if (type == String.class) {
+            return new ValueCodec<String>((value, output) -> output.writeString(value), BinaryInput::readString);
+        }
+        if (type == Boolean.class) {
+            return new ValueCodec<Boolean>((value, output) -> output.writeByte(value ? 1 : 0), input -> input.readByte() != 0);
+        }
+        if (type == Byte.class) {
+            return new ValueCodec<Byte>((value, output) -> output.writeByte(value), input -> (byte) input.readByte());
+        }
+        if (type == Short.class) {
+            return new ValueCodec<Short>((value, output) -> output.writeZigZag(value), input -> (short) input.readZigZag());
+        }
+        if (type == Integer.class) {
+            return new ValueCodec<Integer>((value, output) -> output.writeZigZag(value), input -> (int) input.readZigZag());
+        }
+        if (type == Long.class) {
+            return new ValueCodec<Long>((value, output) -> output.writeZigZag(value), BinaryInput::readZigZag);
+        }
+        if (type == Character.class) {
+            return new ValueCodec<Character>((value, output) -> output.writeVarLong(value), input -> (char) input.readVarInt());
+        }
+        if (type == Float.class) {
+            return new ValueCodec<Float>((value, output) -> output.writeInt(Float.floatToRawIntBits(value)), input -> Float.intBitsToFloat(input.readInt()));
+        }
+        if (type == Double.class) {
+            return new ValueCodec<Double>((value, output) -> output.writeLong(Double.doubleToRawLongBits(value)), input -> Double.longBitsToDouble(input.readLong()));
+        }
+        if (type == BigInteger.class) {
+            return new ValueCodec<>(BinaryModelCodec::writeBigInteger, BinaryModelCodec::readBigInteger);
+        }
+        if (type == BigDecimal.class) {
+            return new ValueCodec<BigDecimal>((value, output) -> {
+                output.writeZigZag(value.scale());
+                writeBigInteger(value.unscaledValue(), output);
+            }, input -> {
+                int scale = (int) input.readZigZag();
+                return new BigDecimal(readBigInteger(input), scale);
+            });
+        }
+        if (type == LocalDate.class) {
+            return new ValueCodec<LocalDate>((value, output) -> output.writeZigZag(value.toEpochDay()), input -> LocalDate.ofEpochDay(input.readZigZag()));
+        }
+        if (type == LocalTime.class) {
+            return new ValueCodec<LocalTime>((value, output) -> output.writeVarLong(value.toNanoOfDay()), input -> LocalTime.ofNanoOfDay(input.readVarLong()));
+        }
+        if (type == LocalDateTime.class) {
+            return new ValueCodec<LocalDateTime>((value, output) -> {
+                output.writeZigZag(value.toLocalDate().toEpochDay());
+                output.writeVarLong(value.toLocalTime().toNanoOfDay());
+            }, input -> {
+                LocalDate date = LocalDate.ofEpochDay(input.readZigZag());
+                return LocalDateTime.of(date, LocalTime.ofNanoOfDay(input.readVarLong()));
+            });
+        }
+        if (type == Instant.class) {
+            return new ValueCodec<Instant>((value, output) -> {
+                output.writeZigZag(value.getEpochSecond());
+                output.writeVarLong(value.getNano());
+            }, input -> {
+                long seconds = input.readZigZag();
+                return Instant.ofEpochSecond(seconds, input.readVarLong());
+            });
+        }
+        if (type == Duration.class) {
+            return new ValueCodec<Duration>((value, output) -> {
+                output.writeZigZag(value.getSeconds());
+                output.writeVarLong(value.getNano());
+            }, input -> {
+                long seconds = input.readZigZag();
+                return Duration.ofSeconds(seconds, input.readVarLong());
+            });
+        }
+        if (type.isEnum()) {
+            V[] constants = type.getEnumConstants();
+            return new ValueCodec<V>((value, output) -> output.writeVarLong(((Enum<?>) value).ordinal()), input -> {
+                int ordinal = input.readVarInt();
+                if (ordinal >= constants.length) {
+                    throw new IllegalArgumentException(String.format("Unknown ordinal %d for %s", ordinal, type.getName()));
+                }
+                return constants[ordinal];
+            });
+        }
+        Function<String, V> parser = ConverterRegistry.defaults().parser(type);
+        return new ValueCodec<V>((value, output) -> output.writeString(value.toString()), input -> parser.apply(input.readString()));
+    }
+
+    /**
+     * Write a big integer as a length followed by its two's-complement bytes.
+     *
+     * @param value  The big integer.
+     * @param output The output.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void writeBigInteger(BigInteger value, BinaryOutput output) throws IOException {
+        byte[] bytes = value.toByteArray();
+        output.writeVarLong(bytes.length);
+        output.writeBytes(bytes);
+    }
+
+    /**
+     * Read a big integer written by {@link #writeBigInteger(BigInteger, BinaryOutput)}.
+     *
+     * @param input The input.
+     * @return The big integer.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static BigInteger readBigInteger(BinaryInput input) throws IOException {
+        return new BigInteger(input.readBytes(input.readVarInt()));
+    }
+
+    /**
+     * Hash a string with FNV-1a (64 bits) over its UTF-8 bytes.
+     *
+     * @param string The string.
+     * @return The hash.
+     */
+    private static long fingerprint(String string) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : string.getBytes(UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,250 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Buffered binary output which can be flushed to an {@link OutputStream}, a {@link ByteBuffer} or kept in memory.
+ *
+ * @author Xavier DURY
+ */
+final class BinaryOutput {
+
+    /**
+     * Where bytes go when the buffer is full.
+     */
+    @FunctionalInterface
+    interface Sink {
+
+        /**
+         * Flush bytes.
+         *
+         * @param bytes  The bytes.
+         * @param length The number of bytes to flush.
+         * @throws IOException If an I/O error occurs.
+         */
+        void flush(byte[] bytes, int length) throws IOException;
+    }
+
+    /**
+     * Create an output for the given stream.
+     *
+     * @param stream The stream.
+     * @return A new output.
+     */
+    static BinaryOutput of(OutputStream stream) {
+        return new BinaryOutput((bytes, length) -> stream.write(bytes, 0, length), 8192);
+    }
+
+    /**
+     * Create an output for the given byte buffer.
+     *
+     * @param buffer The buffer.
+     * @return A new output.
+     */
+    static BinaryOutput of(ByteBuffer buffer) {
+        return new BinaryOutput((bytes, length) -> buffer.put(bytes, 0, length), 8192);
+    }
+
+    /**
+     * Create an in-memory output (the buffer grows instead of being flushed).
+     *
+     * @return A new output.
+     */
+    static BinaryOutput inMemory() {
+        return new BinaryOutput(null, 256);
+    }
+
+    /**
+     * The sink (or null for in-memory).
+     */
+    private final Sink sink;
+
+    /**
+     * The buffer.
+     */
+    private byte[] buffer;
+
+    /**
+     * The number of bytes in the buffer.
+     */
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param sink     The sink (or null for in-memory).
+     * @param capacity The initial buffer capacity.
+     */
+    private BinaryOutput(Sink sink, int capacity) {
+        this.sink = sink;
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Make sure there is room for the given number of bytes.
+     *
+     * @param count The number of bytes.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void require(int count) throws IOException {
+        if (size + count > buffer.length) {
+            if (sink == null || count > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + count));
+            } else {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Write a single byte.
+     *
+     * @param value The byte.
+     * @throws IOException If an I/O error occurs.
+     */
+    void writeByte(int value) throws IOException {
+        require(1);
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Write raw bytes.
+     *
+     * @param bytes The bytes.
+     * @throws IOException If an I/O error occurs.
+     */
+    void writeBytes(byte[] bytes) throws IOException {
+        require(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    /**
+     * Write an unsigned variable-length integer (7 bits per byte, least significant group first).
+     *
+     * @param value The value.
+     * @throws IOException If an I/O error occurs.
+     */
+    void writeVarLong(long value) throws IOException {
+        require(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Write a signed variable-length integer (zigzag encoded so that small negative values stay small).
+     *
+     * @param value The value.
+     * @throws IOException If an I/O error occurs.
+     */
+    void writeZigZag(long value) throws IOException {
+        writeVarLong(value << 1 ^ value >> 63);
+    }
+
+    /**
+     * Write a fixed-length 64 bits integer (big-endian).
+     *
+     * @param value The value.
+     * @throws IOException If an I/O error occurs.
+     */
+    void writeLong(long value) throws IOException {
+        require(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * Write a fixed-length 32 bits integer (big-endian).
+     *
+     * @param value The value.
+     * @throws IOException If an I/O error occurs.
+     */
+    void writeInt(int value) throws IOException {
+        require(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * Write a string as its encoded length followed by its bytes. Each char is encoded separately on 1 to 3 bytes like
+     * in UTF-8 (which means that supplementary characters are encoded as 2 surrogates like in CESU-8).
+     *
+     * @param value The string.
+     * @throws IOException If an I/O error occurs.
+     */
+    void writeString(String value) throws IOException {
+        int length = value.length();
+        int utf8 = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                utf8 += 2;
+            } else if (c >= 0x80) {
+                utf8++;
+            }
+        }
+        writeVarLong(utf8);
+        require(utf8);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[size++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[size++] = (byte) (0xC0 | c >> 6);
+                buffer[size++] = (byte) (0x80 | c & 0x3F);
+            } else {
+                buffer[size++] = (byte) (0xE0 | c >> 12);
+                buffer[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[size++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    /**
+     * Flush the buffer to the sink.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void flush() throws IOException {
+        if (sink != null && size > 0) {
+            sink.flush(buffer, size);
+            size = 0;
+        }
+    }
+
+    /**
+     * Get the bytes written so far (for in-memory outputs).
+     *
+     * @return A copy of the bytes.
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+}
@@ -19,12 +19,22 @@
  */
 package org.codegeny.beans.diff;
 
+import org.codegeny.beans.model.PropertyIndex;
+
+import java.util.AbstractMap;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
-import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
 
 /**
  * Implementation of <code>{@link Diff}</code> for beans.
+ * Property diffs are stored in an array aligned with the bean model properties and names are resolved through the
+ * (shared) {@link PropertyIndex} of that model.
  *
  * @param <B> The type of bean.
  * @author Xavier DURY
@@ -34,12 +44,35 @@ public final class BeanDiff<B> extends Diff<B> {
     /**
      * @see java.io.Serializable
      */
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
     /**
-     * The map of diffs.
+     * The property names index.
+     */
+    private final PropertyIndex index;
+
+    /**
+     * The diffs (one per property in index order).
+     */
+    private final Diff<?>[] properties;
+
+    /**
+     * Constructor.
+     *
+     * @param status     The status.
+     * @param left       The left value.
+     * @param right      The right value.
+     * @param index      The property names index.
+     * @param properties The diffs (one per property in index order, this array is not copied).
      */
-    private final Map<String, Diff<?>> properties;
+    BeanDiff(Status status, B left, B right, PropertyIndex index, Diff<?>[] properties) {
+        super(status, left, right);
+        if (properties.length != index.size()) {
+            throw new IllegalArgumentException(String.format("Expected %d property diffs but got %d", index.size(), properties.length));
+        }
+        this.index = index;
+        this.properties = properties;
+    }
 
     /**
      * Constructor.
@@ -50,8 +83,7 @@ public final class BeanDiff<B> extends Diff<B> {
      * @param properties The map of diffs.
      */
     BeanDiff(Status status, B left, B right, Map<String, ? extends Diff<?>> properties) {
-        super(status, left, right);
-        this.properties = unmodifiableMap(properties);
+        this(status, left, right, new PropertyIndex(properties.keySet()), properties.values().toArray(new Diff<?>[0]));
     }
 
     /**
@@ -63,21 +95,90 @@ public final class BeanDiff<B> extends Diff<B> {
     }
 
     /**
-     * Get the map of diff'ed properties.
+     * Get the map of diff'ed properties (a read-only view in property order).
      *
      * @return The properties.
      */
     public Map<String, Diff<?>> getProperties() {
-        return properties;
+        return new AbstractMap<String, Diff<?>>() {
+
+            @Override
+            public Set<Entry<String, Diff<?>>> entrySet() {
+                return new AbstractSet<Entry<String, Diff<?>>>() {
+
+                    @Override
+                    public Iterator<Entry<String, Diff<?>>> iterator() {
+                        return new Iterator<Entry<String, Diff<?>>>() {
+
+                            private int position;
+
+                            @Override
+                            public boolean hasNext() {
+                                return position < properties.length;
+                            }
+
+                            @Override
+                            public Entry<String, Diff<?>> next() {
+                                if (!hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                int current = position++;
+                                return new SimpleImmutableEntry<>(index.getName(current), properties[current]);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return properties.length;
+                    }
+                };
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return key instanceof String && index.indexOf((String) key) >= 0;
+            }
+
+            @Override
+            public Diff<?> get(Object key) {
+                return key instanceof String ? getProperty((String) key) : null;
+            }
+
+            @Override
+            public int size() {
+                return properties.length;
+            }
+        };
     }
 
     /**
      * Get the diff'ed for the given property name.
      *
      * @param name The property name.
-     * @return That property's diff.
+     * @return That property's diff (or null if there is no such property).
      */
     public Diff<?> getProperty(String name) {
-        return properties.get(name);
+        int position = index.indexOf(requireNonNull(name));
+        return position < 0 ? null : properties[position];
+    }
+
+    /**
+     * Get the diff for the property at the given position.
+     *
+     * @param position The property position (see {@link #getPropertyIndex()}).
+     * @return That property's diff.
+     */
+    public Diff<?> getProperty(int position) {
+        return properties[position];
+    }
+
+    /**
+     * Get the property names index (shared with the bean model).
+     *
+     * @return The property names index.
+     */
+    public PropertyIndex getPropertyIndex() {
+        return index;
     }
 }
@@ -20,7 +20,9 @@
 package org.codegeny.beans.diff;
 
 import org.codegeny.beans.diff.visitor.GetDiffVisitor;
+import org.codegeny.beans.diff.visitor.RetainDiffVisitor;
 import org.codegeny.beans.diff.visitor.TraversingDiffVisitor;
+import org.codegeny.beans.model.PropertyIndex;
 import org.codegeny.beans.path.Path;
 
 import java.io.Serializable;
@@ -88,7 +90,7 @@ public abstract class Diff<T> implements Serializable {
     }
 
     /**
-     * Static method factory for <code>{@link MapDiff}</code>.
+     * Static method factory for <code>{@link BeanDiff}</code>.
      *
      * @param status The status.
      * @param left   The left bean.
@@ -101,6 +103,21 @@ public abstract class Diff<T> implements Serializable {
         return new BeanDiff<>(status, left, right, map);
     }
 
+    /**
+     * Static method factory for <code>{@link BeanDiff}</code> sharing the property index of a bean model.
+     *
+     * @param status     The status.
+     * @param left       The left bean.
+     * @param right      The right bean.
+     * @param index      The property names index.
+     * @param properties The diffed properties (one per property in index order, the array is not copied).
+     * @param <B>        The type of the bean.
+     * @return A <code>{@link BeanDiff}</code>.
+     */
+    public static <B> BeanDiff<B> bean(Status status, B left, B right, PropertyIndex index, Diff<?>[] properties) {
+        return new BeanDiff<>(status, left, right, requireNonNull(index), requireNonNull(properties));
+    }
+
     /**
      * Static method factory for <code>{@link SimpleDiff}<c/ode>.
      *
@@ -223,6 +240,40 @@ public abstract class Diff<T> implements Serializable {
         accept(new TraversingDiffVisitor<>(consumer));
     }
 
+    /**
+     * Copy this diff tree keeping only the values allowed by the given retention. Statuses and structure (hence paths)
+     * are preserved so that the result can be kept around without retaining both compared object graphs.
+     *
+     * @param retention The retention.
+     * @return A diff (this diff for {@link Retention#ALL}).
+     */
+    public final Diff<T> retain(Retention retention) {
+        return retention == Retention.ALL ? this : accept(new RetainDiffVisitor<>(retention));
+    }
+
+    /**
+     * Which left/right values a <code>{@link Diff}</code> tree retains (see {@link Diff#retain(Retention)}). Map keys
+     * are always retained as they identify entries in paths while set elements follow the retention like any other
+     * value (only retained elements can be looked up by path).
+     */
+    public enum Retention {
+
+        /**
+         * All values are retained.
+         */
+        ALL,
+
+        /**
+         * Values are only retained by changed leaves (simple diffs which are not <code>UNCHANGED</code>).
+         */
+        CHANGED_LEAVES,
+
+        /**
+         * No value is retained.
+         */
+        NONE
+    }
+
     /**
      * The status of the <code>{@link Diff}</code>. Can be:
      * <ul>
@@ -301,6 +352,20 @@ public abstract class Diff<T> implements Serializable {
             return diffs.stream().map(Diff::getStatus).reduce(Status::combineWith).orElse(UNCHANGED);
         }
 
+        /**
+         * Reduce a status from an array of diffs.
+         *
+         * @param diffs The diffs.
+         * @return The combined status.
+         */
+        public static Status combineAll(Diff<?>[] diffs) {
+            Status result = diffs.length == 0 ? UNCHANGED : diffs[0].getStatus();
+            for (int i = 1; i < diffs.length && result != MODIFIED; i++) {
+                result = result.combineWith(diffs[i].getStatus());
+            }
+            return result;
+        }
+
         /**
          * Print a diff.
          *
@@ -0,0 +1,123 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.diff.visitor;
+
+import org.codegeny.beans.diff.BeanDiff;
+import org.codegeny.beans.diff.Diff;
+import org.codegeny.beans.diff.Diff.Retention;
+import org.codegeny.beans.diff.DiffVisitor;
+import org.codegeny.beans.diff.ListDiff;
+import org.codegeny.beans.diff.MapDiff;
+import org.codegeny.beans.diff.SetDiff;
+import org.codegeny.beans.diff.SimpleDiff;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Visitor which copies a diff tree while dropping the values which must not be retained (see {@link Retention}).
+ * Statuses and structure (hence paths) are preserved.
+ *
+ * @param <T> The diff'ed type.
+ * @author Xavier DURY
+ */
+public final class RetainDiffVisitor<T> implements DiffVisitor<T, Diff<T>> {
+
+    /**
+     * The retention.
+     */
+    private final Retention retention;
+
+    /**
+     * Constructor.
+     *
+     * @param retention The retention.
+     */
+    public RetainDiffVisitor(Retention retention) {
+        this.retention = requireNonNull(retention);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> Diff<T> visitSet(SetDiff<T, E> setDiff) {
+        Set<Diff<E>> set = new LinkedHashSet<>();
+        setDiff.getSet().forEach(element -> set.add(retain(element)));
+        return Diff.set(setDiff.getStatus(), null, null, set);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> Diff<T> visitList(ListDiff<T, E> listDiff) {
+        return Diff.list(listDiff.getStatus(), null, null, listDiff.getList().stream().map(this::retain).collect(toList()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <K, V> Diff<T> visitMap(MapDiff<T, K, V> mapDiff) {
+        // Keys are kept as they are since they are part of the paths.
+        Map<Diff<K>, Diff<V>> map = new LinkedHashMap<>();
+        mapDiff.getMap().forEach((key, value) -> map.put(key, retain(value)));
+        return Diff.map(mapDiff.getStatus(), null, null, map);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Diff<T> visitSimple(SimpleDiff<T> simpleDiff) {
+        return retention == Retention.CHANGED_LEAVES && simpleDiff.getStatus().isChanged()
+                ? simpleDiff
+                : Diff.simple(simpleDiff.getStatus(), null, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Diff<T> visitBean(BeanDiff<T> beanDiff) {
+        Diff<?>[] properties = new Diff<?>[beanDiff.getPropertyIndex().size()];
+        for (int i = 0; i < properties.length; i++) {
+            properties[i] = retain(beanDiff.getProperty(i));
+        }
+        return Diff.bean(beanDiff.getStatus(), null, null, beanDiff.getPropertyIndex(), properties);
+    }
+
+    /**
+     * Copy a child diff.
+     *
+     * @param diff The child diff.
+     * @param <C>  The child diff'ed type.
+     * @return The copy.
+     */
+    private <C> Diff<C> retain(Diff<C> diff) {
+        return diff.accept(new RetainDiffVisitor<>(retention));
+    }
+}
@@ -26,6 +26,7 @@ import org.codegeny.beans.diff.ListDiff;
 import org.codegeny.beans.diff.MapDiff;
 import org.codegeny.beans.diff.SetDiff;
 import org.codegeny.beans.diff.SimpleDiff;
+import org.codegeny.beans.model.PropertyIndex;
 import org.codegeny.beans.path.Path;
 
 import java.util.function.BiConsumer;
@@ -142,7 +143,10 @@ public final class TraversingDiffVisitor<T> implements DiffVisitor<T, Void> {
     @Override
     public Void visitBean(BeanDiff<T> beanDiff) {
         if (processor.test(path, beanDiff)) {
-            beanDiff.getProperties().forEach((k, v) -> v.accept(newVisitor(path.append(k))));
+            PropertyIndex index = beanDiff.getPropertyIndex();
+            for (int i = 0; i < index.size(); i++) {
+                beanDiff.getProperty(i).accept(newVisitor(path.append(index.getName(i))));
+            }
         }
         return null;
     }
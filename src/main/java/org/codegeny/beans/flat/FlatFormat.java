@@ -0,0 +1,648 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.flat;
+
+import org.codegeny.beans.json.JsonModelReader;
+import org.codegeny.beans.json.JsonModelWriter;
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.LazyModel;
+import org.codegeny.beans.model.ListModel;
+import org.codegeny.beans.model.MapModel;
+import org.codegeny.beans.model.Model;
+import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
+import org.codegeny.beans.model.Property;
+import org.codegeny.beans.model.PropertyIndex;
+import org.codegeny.beans.model.SetModel;
+import org.codegeny.beans.model.ValueModel;
+import org.codegeny.beans.path.ConverterRegistry;
+import org.codegeny.beans.path.Path;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Streaming flat (CSV/TSV) export and import of objects described by a {@link Model}.
+ * Columns are derived once from the leaf paths of the model (nested beans are flattened, each column being named after
+ * its path of property names joined with dots) and compiled into accessors and setters, so that no path is resolved per
+ * row.
+ * <ul>
+ * <li>Values are written with <code>toString()</code> (or <code>name()</code> for enums) and read back with the
+ * {@link ConverterRegistry}.</li>
+ * <li>Lists, sets and maps are written as JSON in a single cell (see {@link JsonModelWriter} and
+ * {@link JsonModelReader}).</li>
+ * <li>Fields are quoted when needed as in RFC 4180. A <code>null</code> is written as an empty field while an empty
+ * string is written as <code>""</code>.</li>
+ * <li>When reading, beans are created through {@link BeanModel#newInstance()}, nested beans are only created when one
+ * of their cells is not empty and read-only value properties are ignored.</li>
+ * </ul>
+ * Instances are immutable and thread-safe.
+ *
+ * @param <T> The type of the rows.
+ * @author Xavier DURY
+ */
+public final class FlatFormat<T> {
+
+    /**
+     * A compiled column.
+     */
+    private static final class FlatColumn {
+
+        /**
+         * The path.
+         */
+        private final Path<String> path;
+
+        /**
+         * The header name.
+         */
+        private final String name;
+
+        /**
+         * Function which extracts the cell from a row.
+         */
+        private final Function<Object, String> getter;
+
+        /**
+         * Consumer which sets the cell on a row.
+         */
+        private final BiConsumer<Object, String> setter;
+
+        /**
+         * Function which parses a cell (for non-bean roots).
+         */
+        private final Function<String, ?> parser;
+
+        /**
+         * Constructor.
+         *
+         * @param path   The path.
+         * @param getter Function which extracts the cell from a row.
+         * @param setter Consumer which sets the cell on a row.
+         * @param parser Function which parses a cell (for non-bean roots).
+         */
+        FlatColumn(Path<String> path, Function<Object, String> getter, BiConsumer<Object, String> setter, Function<String, ?> parser) {
+            this.path = path;
+            this.name = path.iterator().hasNext() ? path.toString(".", "", "") : "value";
+            this.getter = getter;
+            this.setter = setter;
+            this.parser = parser;
+        }
+    }
+
+    /**
+     * Visitor which compiles the leaves of a model into columns.
+     *
+     * @param <T> The type of the current node.
+     */
+    private static final class ColumnModelVisitor<T> implements ModelVisitor<T, List<FlatColumn>> {
+
+        /**
+         * The path of the current node.
+         */
+        private final Path<String> path;
+
+        /**
+         * Function which extracts the current node from a row (or null).
+         */
+        private final Function<Object, ? extends T> getter;
+
+        /**
+         * Function which extracts the current node from a row, creating missing beans on the way (or null if they
+         * cannot be created).
+         */
+        private final Function<Object, ? extends T> creator;
+
+        /**
+         * Consumer which sets the current node on a row (or null if it cannot be set).
+         */
+        private final BiConsumer<Object, ? super T> setter;
+
+        /**
+         * The columns.
+         */
+        private final List<FlatColumn> columns;
+
+        /**
+         * Constructor.
+         *
+         * @param path    The path of the current node.
+         * @param getter  Function which extracts the current node from a row (or null).
+         * @param creator Function which extracts the current node from a row, creating missing beans on the way.
+         * @param setter  Consumer which sets the current node on a row (or null if it cannot be set).
+         * @param columns The columns.
+         */
+        ColumnModelVisitor(Path<String> path, Function<Object, ? extends T> getter, Function<Object, ? extends T> creator, BiConsumer<Object, ? super T> setter, List<FlatColumn> columns) {
+            this.path = path;
+            this.getter = getter;
+            this.creator = creator;
+            this.setter = setter;
+            this.columns = columns;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<FlatColumn> visitBean(BeanModel<T> bean) {
+            bean.getProperties().forEach(this::visitProperty);
+            return columns;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> List<FlatColumn> visitList(ListModel<T, E> list) {
+            return json(list);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <K, V> List<FlatColumn> visitMap(MapModel<T, K, V> map) {
+            return json(map);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> List<FlatColumn> visitSet(SetModel<T, E> set) {
+            return json(set);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<FlatColumn> visitLazy(LazyModel<T> lazy) {
+            return lazy.compile(ColumnModelVisitor.class, model -> model.accept(this), recursive -> {
+                throw new IllegalArgumentException(String.format("Cannot flatten recursive model at %s", path));
+            });
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<FlatColumn> visitValue(ValueModel<T> value) {
+            Function<String, ? extends T> parser = ConverterRegistry.defaults().parser(value.getType());
+            Function<Object, String> formatter = value.getType().isEnum()
+                    ? object -> ((Enum<?>) object).name()
+                    : Object::toString;
+            return leaf(formatter, parser, setter == null ? (row, cell) -> {
+            } : (row, cell) -> {
+                if (cell != null) {
+                    setter.accept(row, parser.apply(cell));
+                } else if (getter.apply(row) != null) {
+                    setter.accept(row, null);
+                }
+            });
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<FlatColumn> visitPolymorphic(PolymorphicModel<T> polymorphic) {
+            throw new IllegalArgumentException(String.format("Cannot flatten polymorphic model at %s", path));
+        }
+
+        /**
+         * Create a column which holds the JSON representation of the current node. Existing collections are populated
+         * in place so that read-only collection properties can also be read.
+         *
+         * @param model The model of the current node.
+         * @return The columns.
+         */
+        @SuppressWarnings("unchecked")
+        private List<FlatColumn> json(Model<T> model) {
+            JsonModelWriter<T> writer = new JsonModelWriter<>(model);
+            JsonModelReader<T> reader = new JsonModelReader<>(model);
+            return leaf(object -> writer.toJson((T) object), reader::fromJson, (row, cell) -> {
+                T existing = getter.apply(row);
+                if (cell == null) {
+                    if (existing != null && setter != null) {
+                        setter.accept(row, null);
+                    }
+                } else if (existing != null) {
+                    T value = reader.read(cell.getBytes(UTF_8), existing);
+                    if (value != existing && setter != null) {
+                        setter.accept(row, value);
+                    }
+                } else if (setter != null) {
+                    setter.accept(row, reader.fromJson(cell));
+                }
+            });
+        }
+
+        /**
+         * Add a leaf column.
+         *
+         * @param formatter Function which converts a non-null value to a cell.
+         * @param parser    Function which converts a cell to a value.
+         * @param cellSetter Consumer which sets a cell on a row.
+         * @return The columns.
+         */
+        private List<FlatColumn> leaf(Function<Object, String> formatter, Function<String, ? extends T> parser, BiConsumer<Object, String> cellSetter) {
+            Function<Object, ? extends T> valueGetter = getter;
+            columns.add(new FlatColumn(path, row -> {
+                T value = valueGetter.apply(row);
+                return value == null ? null : formatter.apply(value);
+            }, cellSetter, parser));
+            return columns;
+        }
+
+        /**
+         * Visit a property.
+         *
+         * @param property The property.
+         * @param <P>      The property type.
+         */
+        private <P> void visitProperty(Property<? super T, P> property) {
+            Function<Object, P> propertyGetter = row -> property.get(getter.apply(row));
+            Function<Object, P> propertyCreator = creator(property);
+            BiConsumer<Object, P> propertySetter = property.isReadOnly() ? null : (row, value) -> {
+                T bean = value == null ? getter.apply(row) : creator.apply(row);
+                if (bean != null) {
+                    property.set(bean, value);
+                }
+            };
+            property.accept(new ColumnModelVisitor<>(path.append(property.getName()), propertyGetter, propertyCreator, propertySetter, columns));
+        }
+
+        /**
+         * Create a function which extracts a property value from a row, creating it if it is a missing bean.
+         *
+         * @param property The property.
+         * @param <P>      The property type.
+         * @return The function.
+         */
+        private <P> Function<Object, P> creator(Property<? super T, P> property) {
+            Model<P> model = resolve(property.getModel());
+            if (!(model instanceof BeanModel<?>) || !((BeanModel<P>) model).isInstantiable() || property.isReadOnly()) {
+                return row -> property.get(creator.apply(row));
+            }
+            BeanModel<P> bean = (BeanModel<P>) model;
+            return row -> {
+                T parent = creator.apply(row);
+                if (parent == null) {
+                    return null;
+                }
+                P value = property.get(parent);
+                if (value == null) {
+                    property.set(parent, value = bean.newInstance());
+                }
+                return value;
+            };
+        }
+    }
+
+    /**
+     * Parser for delimited records.
+     */
+    private static final class RecordReader {
+
+        /**
+         * The reader.
+         */
+        private final Reader reader;
+
+        /**
+         * The separator.
+         */
+        private final char separator;
+
+        /**
+         * The char buffer.
+         */
+        private final char[] buffer = new char[8192];
+
+        /**
+         * The position in the buffer.
+         */
+        private int position;
+
+        /**
+         * The number of valid chars in the buffer.
+         */
+        private int limit;
+
+        /**
+         * The current field.
+         */
+        private final StringBuilder field = new StringBuilder();
+
+        /**
+         * The current line number (for error messages).
+         */
+        private long line = 1;
+
+        /**
+         * Constructor.
+         *
+         * @param reader    The reader.
+         * @param separator The separator.
+         */
+        RecordReader(Reader reader, char separator) {
+            this.reader = reader;
+            this.separator = separator;
+        }
+
+        /**
+         * Read the next char.
+         *
+         * @return The char or -1 at the end of input.
+         * @throws IOException If an I/O error occurs.
+         */
+        private int next() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        /**
+         * Read the next record.
+         *
+         * @param fields The list which will receive the fields (null for unquoted empty fields).
+         * @return <code>false</code> at the end of input.
+         * @throws IOException If an I/O error occurs.
+         */
+        boolean read(List<String> fields) throws IOException {
+            fields.clear();
+            int c = next();
+            if (c == -1) {
+                return false;
+            }
+            while (true) {
+                field.setLength(0);
+                boolean quoted = false;
+                if (c == '"') {
+                    quoted = true;
+                    while (true) {
+                        c = next();
+                        if (c == -1) {
+                            throw new IllegalArgumentException(String.format("Unterminated quoted field at line %d", line));
+                        }
+                        if (c == '"') {
+                            c = next();
+                            if (c != '"') {
+                                break;
+                            }
+                        } else if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else {
+                    while (c != separator && c != '\n' && c != '\r' && c != -1) {
+                        field.append((char) c);
+                        c = next();
+                    }
+                }
+                fields.add(quoted || field.length() > 0 ? field.toString() : null);
+                if (c == separator) {
+                    c = next();
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r' && (c = next()) != '\n' && c != -1) {
+                        position--;
+                    }
+                    line++;
+                    return true;
+                } else {
+                    throw new IllegalArgumentException(String.format("Unexpected char after quoted field at line %d", line));
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a CSV (comma-separated values) format for the given model.
+     *
+     * @param model The model.
+     * @param <T>   The type of the rows.
+     * @return The format.
+     */
+    public static <T> FlatFormat<T> csv(Model<T> model) {
+        return new FlatFormat<>(model, ',');
+    }
+
+    /**
+     * Create a TSV (tab-separated values) format for the given model.
+     *
+     * @param model The model.
+     * @param <T>   The type of the rows.
+     * @return The format.
+     */
+    public static <T> FlatFormat<T> tsv(Model<T> model) {
+        return new FlatFormat<>(model, '\t');
+    }
+
+    /**
+     * The model.
+     */
+    private final Model<T> model;
+
+    /**
+     * The separator.
+     */
+    private final char separator;
+
+    /**
+     * The columns.
+     */
+    private final FlatColumn[] columns;
+
+    /**
+     * The column names index.
+     */
+    private final PropertyIndex index;
+
+    /**
+     * Constructor.
+     *
+     * @param model     The model.
+     * @param separator The separator.
+     */
+    @SuppressWarnings("unchecked")
+    private FlatFormat(Model<T> model, char separator) {
+        this.model = requireNonNull(model);
+        this.separator = separator;
+        Function<Object, T> identity = row -> (T) row;
+        this.columns = model.accept(new ColumnModelVisitor<>(Path.root(), identity, identity, null, new ArrayList<>())).toArray(new FlatColumn[0]);
+        this.index = new PropertyIndex(Arrays.stream(columns).map(column -> column.name).collect(toList()));
+    }
+
+    /**
+     * Get the column paths.
+     *
+     * @return The paths.
+     */
+    public List<Path<String>> getColumns() {
+        return unmodifiableList(Arrays.stream(columns).map(column -> column.path).collect(toList()));
+    }
+
+    /**
+     * Write a header followed by one record per row. Each record is written with a single call to the writer which is
+     * neither flushed nor closed.
+     *
+     * @param rows   The rows (which may be lazily computed).
+     * @param writer The writer.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void write(Iterable<? extends T> rows, Writer writer) throws IOException {
+        StringBuilder record = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            appendField(record, i, columns[i].name);
+        }
+        writer.append(record.append("\r\n"));
+        for (T row : rows) {
+            record.setLength(0);
+            for (int i = 0; i < columns.length; i++) {
+                appendField(record, i, columns[i].getter.apply(row));
+            }
+            writer.append(record.append("\r\n"));
+        }
+    }
+
+    /**
+     * Read a header followed by records and pass each row to the given consumer. Columns may appear in any order in
+     * the header and unknown columns are ignored.
+     *
+     * @param reader   The reader (which is not closed).
+     * @param consumer The row consumer.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void read(Reader reader, Consumer<? super T> consumer) throws IOException {
+        RecordReader records = new RecordReader(requireNonNull(reader), separator);
+        List<String> fields = new ArrayList<>();
+        if (!records.read(fields)) {
+            return;
+        }
+        FlatColumn[] mapping = new FlatColumn[fields.size()];
+        for (int i = 0; i < mapping.length; i++) {
+            int position = fields.get(i) == null ? -1 : index.indexOf(fields.get(i));
+            mapping[i] = position < 0 ? null : columns[position];
+        }
+        while (records.read(fields)) {
+            consumer.accept(toRow(mapping, fields));
+        }
+    }
+
+    /**
+     * Read a header followed by records.
+     *
+     * @param reader The reader (which is not closed).
+     * @return The rows.
+     * @throws IOException If an I/O error occurs.
+     */
+    public List<T> read(Reader reader) throws IOException {
+        List<T> rows = new ArrayList<>();
+        read(reader, rows::add);
+        return rows;
+    }
+
+    /**
+     * Resolve lazy models.
+     *
+     * @param model The model.
+     * @param <M>   The model type.
+     * @return The referenced model (if lazy) or the model itself.
+     */
+    private static <M> Model<M> resolve(Model<M> model) {
+        return model instanceof LazyModel<?> ? resolve(((LazyModel<M>) model).getModel()) : model;
+    }
+
+    /**
+     * Convert a record to a row.
+     *
+     * @param mapping The columns for each field.
+     * @param fields  The fields.
+     * @return The row.
+     */
+    @SuppressWarnings("unchecked")
+    private T toRow(FlatColumn[] mapping, List<String> fields) {
+        Model<T> resolved = resolve(model);
+        if (!(resolved instanceof BeanModel<?>)) {
+            return mapping.length > 0 && mapping[0] != null && fields.get(0) != null ? (T) mapping[0].parser.apply(fields.get(0)) : null;
+        }
+        T row = ((BeanModel<T>) resolved).newInstance();
+        for (int i = 0; i < mapping.length && i < fields.size(); i++) {
+            if (mapping[i] != null) {
+                mapping[i].setter.accept(row, fields.get(i));
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Append a field (quoted if needed).
+     *
+     * @param record The record.
+     * @param column The column index.
+     * @param field  The field (or null).
+     */
+    private void appendField(StringBuilder record, int column, String field) {
+        if (column > 0) {
+            record.append(separator);
+        }
+        if (field == null) {
+            return;
+        }
+        boolean quote = field.isEmpty();
+        for (int i = 0; !quote && i < field.length(); i++) {
+            char c = field.charAt(i);
+            quote = c == separator || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            record.append(field);
+            return;
+        }
+        record.append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') {
+                record.append('"');
+            }
+            record.append(c);
+        }
+        record.append('"');
+    }
+}
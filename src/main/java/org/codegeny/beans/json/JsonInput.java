@@ -0,0 +1,478 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Buffered UTF-8 JSON tokenizer reading from an {@link InputStream} or a byte array.
+ * Strings are decoded into a reusable char buffer which is exposed as a {@link CharSequence} (valid until the next
+ * read) so that property names can be dispatched without allocating.
+ *
+ * @author Xavier DURY
+ */
+final class JsonInput implements CharSequence {
+
+    /**
+     * The stream (or null when reading from a byte array).
+     */
+    private final InputStream stream;
+
+    /**
+     * The byte buffer.
+     */
+    private final byte[] bytes;
+
+    /**
+     * The position in the byte buffer.
+     */
+    private int position;
+
+    /**
+     * The number of valid bytes in the byte buffer.
+     */
+    private int limit;
+
+    /**
+     * The number of bytes consumed before the current buffer (for error messages).
+     */
+    private long offset;
+
+    /**
+     * The decoded chars of the last string or number.
+     */
+    private char[] chars = new char[64];
+
+    /**
+     * The number of chars in the char buffer.
+     */
+    private int length;
+
+    /**
+     * Constructor for a stream.
+     *
+     * @param stream The stream.
+     */
+    JsonInput(InputStream stream) {
+        this.stream = stream;
+        this.bytes = new byte[8192];
+    }
+
+    /**
+     * Constructor for a byte array.
+     *
+     * @param bytes The bytes.
+     */
+    JsonInput(byte[] bytes) {
+        this.stream = null;
+        this.bytes = bytes;
+        this.limit = bytes.length;
+    }
+
+    /**
+     * Make sure at least one byte is available.
+     *
+     * @return <code>false</code> if the end of input was reached.
+     * @throws IOException If an I/O error occurs.
+     */
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        if (stream == null) {
+            return false;
+        }
+        offset += limit;
+        position = 0;
+        limit = 0;
+        int count;
+        while ((count = stream.read(bytes)) == 0) {
+            Thread.yield();
+        }
+        if (count < 0) {
+            return false;
+        }
+        limit = count;
+        return true;
+    }
+
+    /**
+     * Read the next byte.
+     *
+     * @return The next byte (as an unsigned int).
+     * @throws IOException If an I/O error occurs or the end of input was reached.
+     */
+    private int next() throws IOException {
+        if (!fill()) {
+            throw error("Unexpected end of input");
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    /**
+     * Peek the next non-whitespace byte.
+     *
+     * @return The next byte or -1 at the end of input.
+     * @throws IOException If an I/O error occurs.
+     */
+    int peek() throws IOException {
+        while (fill()) {
+            int c = bytes[position];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c & 0xFF;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    /**
+     * Consume the next non-whitespace byte if it is the given char.
+     *
+     * @param c The expected char.
+     * @return <code>true</code> if the char was consumed.
+     * @throws IOException If an I/O error occurs.
+     */
+    boolean consume(char c) throws IOException {
+        if (peek() == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consume the next non-whitespace byte which must be the given char.
+     *
+     * @param c The expected char.
+     * @throws IOException If an I/O error occurs or the next char is not the expected one.
+     */
+    void expect(char c) throws IOException {
+        if (!consume(c)) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    /**
+     * Consume a <code>null</code> literal if there is one.
+     *
+     * @return <code>true</code> if a <code>null</code> was consumed.
+     * @throws IOException If an I/O error occurs.
+     */
+    boolean consumeNull() throws IOException {
+        if (peek() == 'n') {
+            literal("null");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consume a literal.
+     *
+     * @param literal The literal.
+     * @throws IOException If an I/O error occurs or the literal does not match.
+     */
+    private void literal(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (next() != literal.charAt(i)) {
+                throw error("Expected '" + literal + "'");
+            }
+        }
+    }
+
+    /**
+     * Read a boolean.
+     *
+     * @return The boolean.
+     * @throws IOException If an I/O error occurs or the next token is not a boolean.
+     */
+    boolean readBoolean() throws IOException {
+        int c = peek();
+        if (c == 't') {
+            literal("true");
+            return true;
+        }
+        if (c == 'f') {
+            literal("false");
+            return false;
+        }
+        throw error("Expected a boolean");
+    }
+
+    /**
+     * Read an integral number without allocating.
+     *
+     * @return The number.
+     * @throws IOException If an I/O error occurs or the next token is not an integral number.
+     */
+    long readLong() throws IOException {
+        boolean negative = peek() == '-';
+        if (negative) {
+            position++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (fill() && bytes[position] >= '0' && bytes[position] <= '9') {
+            int digit = bytes[position++] - '0';
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                throw error("Number too large");
+            }
+            value = value * 10 - digit;
+            digits++;
+        }
+        if (digits == 0 || fill() && (bytes[position] == '.' || bytes[position] == 'e' || bytes[position] == 'E')) {
+            throw error("Expected an integral number");
+        }
+        if (!negative && value == Long.MIN_VALUE) {
+            throw error("Number too large");
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Read a number token into the char buffer.
+     *
+     * @return This input as a char sequence containing the number.
+     * @throws IOException If an I/O error occurs or the next token is not a number.
+     */
+    CharSequence readNumber() throws IOException {
+        peek();
+        length = 0;
+        while (fill()) {
+            int c = bytes[position];
+            if (c >= '0' && c <= '9' || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                append((char) c);
+                position++;
+            } else {
+                break;
+            }
+        }
+        if (length == 0) {
+            throw error("Expected a number");
+        }
+        return this;
+    }
+
+    /**
+     * Read a string into the char buffer.
+     *
+     * @return This input as a char sequence containing the decoded string.
+     * @throws IOException If an I/O error occurs or the next token is not a string.
+     */
+    CharSequence readString() throws IOException {
+        expect('"');
+        length = 0;
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                return this;
+            }
+            if (c == '\\') {
+                append(escape());
+            } else if (c < 0x80) {
+                append((char) c);
+            } else if (c < 0xC2) {
+                throw error("Malformed UTF-8"); // continuation byte or overlong 2-byte sequence
+            } else if (c < 0xE0) {
+                append((char) ((c & 0x1F) << 6 | continuation()));
+            } else if (c < 0xF0) {
+                int codePoint = (c & 0x0F) << 12 | continuation() << 6 | continuation();
+                if (codePoint < 0x800 || Character.isSurrogate((char) codePoint)) {
+                    throw error("Malformed UTF-8");
+                }
+                append((char) codePoint);
+            } else if (c < 0xF5) {
+                int codePoint = (c & 0x07) << 18 | continuation() << 12 | continuation() << 6 | continuation();
+                if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT || codePoint > Character.MAX_CODE_POINT) {
+                    throw error("Malformed UTF-8");
+                }
+                append(Character.highSurrogate(codePoint));
+                append(Character.lowSurrogate(codePoint));
+            } else {
+                throw error("Malformed UTF-8");
+            }
+        }
+    }
+
+    /**
+     * Read a UTF-8 continuation byte.
+     *
+     * @return The 6 bits of payload.
+     * @throws IOException If an I/O error occurs or the byte is not a continuation byte.
+     */
+    private int continuation() throws IOException {
+        int c = next();
+        if ((c & 0xC0) != 0x80) {
+            throw error("Malformed UTF-8");
+        }
+        return c & 0x3F;
+    }
+
+    /**
+     * Decode an escape sequence (after the backslash).
+     *
+     * @return The decoded char.
+     * @throws IOException If an I/O error occurs or the escape sequence is invalid.
+     */
+    private char escape() throws IOException {
+        int c = next();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                return (char) (hex() << 12 | hex() << 8 | hex() << 4 | hex());
+            default:
+                throw error("Invalid escape sequence");
+        }
+    }
+
+    /**
+     * Read an hexadecimal digit.
+     *
+     * @return The digit value.
+     * @throws IOException If an I/O error occurs or the byte is not an hexadecimal digit.
+     */
+    private int hex() throws IOException {
+        int digit = Character.digit(next(), 16);
+        if (digit < 0) {
+            throw error("Invalid hexadecimal digit");
+        }
+        return digit;
+    }
+
+    /**
+     * Append a char to the char buffer.
+     *
+     * @param c The char.
+     */
+    private void append(char c) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, length * 2);
+        }
+        chars[length++] = c;
+    }
+
+    /**
+     * Skip the next value (whatever it is).
+     *
+     * @throws IOException If an I/O error occurs or the input is malformed.
+     */
+    void skipValue() throws IOException {
+        int c = peek();
+        if (c == '"') {
+            readString();
+        } else if (c == '{') {
+            position++;
+            if (!consume('}')) {
+                do {
+                    readString();
+                    expect(':');
+                    skipValue();
+                } while (consume(','));
+                expect('}');
+            }
+        } else if (c == '[') {
+            position++;
+            if (!consume(']')) {
+                do {
+                    skipValue();
+                } while (consume(','));
+                expect(']');
+            }
+        } else if (c == 't' || c == 'f') {
+            readBoolean();
+        } else if (!consumeNull()) {
+            readNumber();
+        }
+    }
+
+    /**
+     * Make sure there is nothing left but whitespaces.
+     *
+     * @throws IOException If an I/O error occurs or there are trailing chars.
+     */
+    void end() throws IOException {
+        if (peek() != -1) {
+            throw error("Unexpected trailing content");
+        }
+    }
+
+    /**
+     * Create an exception for malformed input.
+     *
+     * @param message The message.
+     * @return The exception.
+     */
+    IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(String.format("%s at offset %d", message, offset + position));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char charAt(int index) {
+        if (index >= length) {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        return chars[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * Return the content of the char buffer as a string.
+     *
+     * @return The last string or number read.
+     */
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
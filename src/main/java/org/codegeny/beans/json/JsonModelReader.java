@@ -0,0 +1,525 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.json;
+
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.LazyModel;
+import org.codegeny.beans.model.ListModel;
+import org.codegeny.beans.model.MapModel;
+import org.codegeny.beans.model.Model;
+import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
+import org.codegeny.beans.model.Property;
+import org.codegeny.beans.model.PropertyIndex;
+import org.codegeny.beans.model.SetModel;
+import org.codegeny.beans.model.ValueModel;
+import org.codegeny.beans.model.visitor.TypeModelVisitor;
+import org.codegeny.beans.path.ConverterRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Streaming JSON deserializer driven by a {@link Model} (the reverse of {@link JsonModelWriter}). The model is compiled
+ * once into a tree of decoders which populate beans through {@link Property} setters. Property names are dispatched
+ * through the {@link PropertyIndex} of each {@link BeanModel} without allocating. Instances are immutable and
+ * thread-safe.
+ * <ul>
+ * <li>New beans are created through {@link BeanModel#newInstance()}.</li>
+ * <li>When a bean, list, set or map property already holds a value, that value is populated in place (which is the
+ * only way to read read-only properties). Read-only value properties are ignored.</li>
+ * <li>New lists, sets and maps are created through {@link ListModel#fromList(List)}, {@link SetModel#fromSet(Set)} and
+ * {@link MapModel#fromMap(Map)}.</li>
+ * <li>Unknown properties are ignored.</li>
+ * <li>Values which are neither booleans, numbers nor strings are read from strings through the
+ * {@link ConverterRegistry}.</li>
+ * </ul>
+ * Malformed input is reported with an {@link IllegalArgumentException}.
+ *
+ * @param <T> The type of the root object.
+ * @author Xavier DURY
+ */
+public final class JsonModelReader<T> {
+
+    /**
+     * A compiled decoder.
+     *
+     * @param <T> The type of value to decode.
+     */
+    @FunctionalInterface
+    private interface Decoder<T> {
+
+        /**
+         * Decode a value.
+         *
+         * @param input    The input.
+         * @param existing The existing value to populate (may be null).
+         * @return The decoded value (which may be the existing one).
+         * @throws IOException If an I/O error occurs.
+         */
+        T decode(JsonInput input, T existing) throws IOException;
+    }
+
+    /**
+     * A compiled property reader.
+     *
+     * @param <B> The bean type.
+     */
+    @FunctionalInterface
+    private interface PropertyReader<B> {
+
+        /**
+         * Read the property value and set it on the bean.
+         *
+         * @param bean  The bean.
+         * @param input The input.
+         * @throws IOException If an I/O error occurs.
+         */
+        void read(B bean, JsonInput input) throws IOException;
+    }
+
+    /**
+     * Visitor which compiles a model into a decoder.
+     *
+     * @param <T> The type of value to decode.
+     */
+    private static final class DecoderModelVisitor<T> implements ModelVisitor<T, Decoder<T>> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Decoder<T> visitBean(BeanModel<T> bean) {
+            List<Property<? super T, ?>> properties = bean.getProperties();
+            @SuppressWarnings("unchecked")
+            PropertyReader<T>[] readers = (PropertyReader<T>[]) new PropertyReader<?>[properties.size()];
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = reader(properties.get(i));
+            }
+            PropertyIndex index = bean.getIndex();
+            return (input, existing) -> {
+                if (input.consumeNull()) {
+                    return null;
+                }
+                T result = existing != null ? existing : bean.newInstance();
+                input.expect('{');
+                if (!input.consume('}')) {
+                    do {
+                        int position = index.indexOf(input.readString());
+                        input.expect(':');
+                        if (position < 0) {
+                            input.skipValue();
+                        } else {
+                            readers[position].read(result, input);
+                        }
+                    } while (input.consume(','));
+                    input.expect('}');
+                }
+                return result;
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Decoder<T> visitList(ListModel<T, E> list) {
+            Decoder<E> decoder = list.acceptElement(new DecoderModelVisitor<>());
+            return (input, existing) -> {
+                if (input.consumeNull()) {
+                    return null;
+                }
+                List<E> elements = new ArrayList<>();
+                decodeAll(input, decoder, elements);
+                if (existing == null) {
+                    return list.fromList(elements);
+                }
+                List<E> target = list.toList(existing);
+                for (int i = 0; i < elements.size(); i++) {
+                    if (i < target.size()) {
+                        target.set(i, elements.get(i));
+                    } else {
+                        target.add(elements.get(i));
+                    }
+                }
+                while (target.size() > elements.size()) {
+                    target.remove(target.size() - 1);
+                }
+                return existing;
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V> Decoder<T> visitMap(MapModel<T, K, V> map) {
+            Decoder<V> valueDecoder = map.acceptValue(new DecoderModelVisitor<>());
+            Decoder<Map<K, V>> entriesDecoder;
+            if (map.getKeyModel() instanceof ValueModel<?>) {
+                Function<String, ? extends K> keyParser = ConverterRegistry.defaults().parser(((ValueModel<K>) map.getKeyModel()).getType());
+                entriesDecoder = (input, entries) -> {
+                    input.expect('{');
+                    if (!input.consume('}')) {
+                        do {
+                            K key = keyParser.apply(input.readString().toString());
+                            input.expect(':');
+                            entries.put(key, valueDecoder.decode(input, null));
+                        } while (input.consume(','));
+                        input.expect('}');
+                    }
+                    return entries;
+                };
+            } else {
+                Decoder<K> keyDecoder = map.acceptKey(new DecoderModelVisitor<>());
+                entriesDecoder = (input, entries) -> {
+                    input.expect('[');
+                    if (!input.consume(']')) {
+                        do {
+                            K key = null;
+                            V value = null;
+                            input.expect('{');
+                            if (!input.consume('}')) {
+                                do {
+                                    String name = input.readString().toString();
+                                    input.expect(':');
+                                    if (name.equals("key")) {
+                                        key = keyDecoder.decode(input, null);
+                                    } else if (name.equals("value")) {
+                                        value = valueDecoder.decode(input, null);
+                                    } else {
+                                        input.skipValue();
+                                    }
+                                } while (input.consume(','));
+                                input.expect('}');
+                            }
+                            entries.put(key, value);
+                        } while (input.consume(','));
+                        input.expect(']');
+                    }
+                    return entries;
+                };
+            }
+            return (input, existing) -> {
+                if (input.consumeNull()) {
+                    return null;
+                }
+                Map<K, V> entries = entriesDecoder.decode(input, new LinkedHashMap<>());
+                if (existing == null) {
+                    return map.fromMap(entries);
+                }
+                Map<K, V> target = map.toMap(existing);
+                target.clear();
+                target.putAll(entries);
+                return existing;
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Decoder<T> visitSet(SetModel<T, E> set) {
+            Decoder<E> decoder = set.acceptElement(new DecoderModelVisitor<>());
+            return (input, existing) -> {
+                if (input.consumeNull()) {
+                    return null;
+                }
+                Set<E> elements = new LinkedHashSet<>();
+                decodeAll(input, decoder, elements);
+                if (existing == null) {
+                    return set.fromSet(elements);
+                }
+                Set<E> target = set.toSet(existing);
+                target.clear();
+                target.addAll(elements);
+                return existing;
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Decoder<T> visitLazy(LazyModel<T> lazy) {
+            return lazy.compile(DecoderModelVisitor.class, model -> model.accept(new DecoderModelVisitor<>()), decoder -> (input, existing) -> decoder.get().decode(input, existing));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public Decoder<T> visitValue(ValueModel<T> value) {
+            Class<? extends T> type = value.getType();
+            Function<String, ? extends T> parser = ConverterRegistry.defaults().parser(type);
+            if (type == String.class) {
+                return (input, existing) -> input.consumeNull() ? null : (T) input.readString().toString();
+            }
+            if (type == Boolean.class) {
+                return decoder(parser, input -> input.readBoolean());
+            }
+            if (type == Long.class) {
+                return decoder(parser, JsonInput::readLong);
+            }
+            if (type == Integer.class) {
+                return decoder(parser, input -> (int) range(input, Integer.MIN_VALUE, Integer.MAX_VALUE));
+            }
+            if (type == Short.class) {
+                return decoder(parser, input -> (short) range(input, Short.MIN_VALUE, Short.MAX_VALUE));
+            }
+            if (type == Byte.class) {
+                return decoder(parser, input -> (byte) range(input, Byte.MIN_VALUE, Byte.MAX_VALUE));
+            }
+            if (type == Double.class || type == Float.class || type == BigDecimal.class || type == BigInteger.class) {
+                return decoder(parser, input -> parser.apply(input.readNumber().toString()));
+            }
+            if (type.isEnum()) {
+                T[] constants = type.getEnumConstants();
+                PropertyIndex names = new PropertyIndex(Stream.of(constants).map(constant -> ((Enum<?>) constant).name()).collect(toList()));
+                return (input, existing) -> {
+                    if (input.consumeNull()) {
+                        return null;
+                    }
+                    int position = names.indexOf(input.readString());
+                    if (position < 0) {
+                        throw input.error(String.format("Unknown constant '%s' for %s", input, type.getName()));
+                    }
+                    return constants[position];
+                };
+            }
+            return decoder(parser, input -> {
+                throw input.error("Expected a string");
+            });
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Decoder<T> visitPolymorphic(PolymorphicModel<T> polymorphic) {
+            throw new IllegalArgumentException(String.format("Cannot read polymorphic model of %s", TypeModelVisitor.typeOf(polymorphic).getTypeName()));
+        }
+
+        /**
+         * Compile a property reader.
+         *
+         * @param property The property.
+         * @param <B>      The bean type.
+         * @param <P>      The property type.
+         * @return The property reader.
+         */
+        private static <B, P> PropertyReader<B> reader(Property<? super B, P> property) {
+            Decoder<P> decoder = property.accept(new DecoderModelVisitor<>());
+            boolean populate = !(property.getModel() instanceof ValueModel<?>);
+            boolean readOnly = property.isReadOnly();
+            return (bean, input) -> {
+                P existing = populate ? property.get(bean) : null;
+                if (readOnly && existing == null) {
+                    input.skipValue();
+                    return;
+                }
+                P value = decoder.decode(input, existing);
+                if (!readOnly && (!populate || value != existing)) {
+                    property.set(bean, value);
+                }
+            };
+        }
+
+        /**
+         * Decode all elements of a JSON array into a collection.
+         *
+         * @param input    The input.
+         * @param decoder  The element decoder.
+         * @param elements The collection.
+         * @param <E>      The element type.
+         * @throws IOException If an I/O error occurs.
+         */
+        private static <E> void decodeAll(JsonInput input, Decoder<E> decoder, Collection<E> elements) throws IOException {
+            input.expect('[');
+            if (!input.consume(']')) {
+                do {
+                    elements.add(decoder.decode(input, null));
+                } while (input.consume(','));
+                input.expect(']');
+            }
+        }
+    }
+
+    /**
+     * A function which reads a non-null value from a non-string token.
+     *
+     * @param <T> The value type.
+     */
+    @FunctionalInterface
+    private interface TokenReader<T> {
+
+        /**
+         * Read the value.
+         *
+         * @param input The input.
+         * @return The value.
+         * @throws IOException If an I/O error occurs.
+         */
+        T read(JsonInput input) throws IOException;
+    }
+
+    /**
+     * The root decoder.
+     */
+    private final Decoder<T> decoder;
+
+    /**
+     * Constructor which compiles the given model.
+     *
+     * @param model The model.
+     */
+    public JsonModelReader(Model<T> model) {
+        this.decoder = requireNonNull(model).accept(new DecoderModelVisitor<>());
+    }
+
+    /**
+     * Read a value from a UTF-8 JSON stream (the stream is not closed).
+     *
+     * @param stream The stream.
+     * @return The value.
+     * @throws IOException If an I/O error occurs.
+     */
+    public T read(InputStream stream) throws IOException {
+        return read(stream, null);
+    }
+
+    /**
+     * Read a value from a UTF-8 JSON stream into an existing value (the stream is not closed).
+     *
+     * @param stream The stream.
+     * @param target The existing value to populate (or null to create a new one).
+     * @return The value.
+     * @throws IOException If an I/O error occurs.
+     */
+    public T read(InputStream stream, T target) throws IOException {
+        return read(new JsonInput(requireNonNull(stream)), target);
+    }
+
+    /**
+     * Read a value from UTF-8 JSON bytes.
+     *
+     * @param bytes The bytes.
+     * @return The value.
+     */
+    public T read(byte[] bytes) {
+        return read(bytes, null);
+    }
+
+    /**
+     * Read a value from UTF-8 JSON bytes into an existing value.
+     *
+     * @param bytes  The bytes.
+     * @param target The existing value to populate (or null to create a new one).
+     * @return The value.
+     */
+    public T read(byte[] bytes, T target) {
+        try {
+            return read(new JsonInput(requireNonNull(bytes)), target);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Read a value from a JSON string.
+     *
+     * @param json The JSON string.
+     * @return The value.
+     */
+    public T fromJson(String json) {
+        return read(json.getBytes(UTF_8));
+    }
+
+    /**
+     * Read a value and make sure there is no trailing content.
+     *
+     * @param input  The input.
+     * @param target The existing value to populate (or null).
+     * @return The value.
+     * @throws IOException If an I/O error occurs.
+     */
+    private T read(JsonInput input, T target) throws IOException {
+        T result = decoder.decode(input, target);
+        input.end();
+        return result;
+    }
+
+    /**
+     * Create a value decoder which accepts <code>null</code>, strings (through the parser) or other tokens (through the
+     * token reader).
+     *
+     * @param parser The string parser.
+     * @param reader The token reader.
+     * @param <T>    The value type.
+     * @return The decoder.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Decoder<T> decoder(Function<String, ? extends T> parser, TokenReader<?> reader) {
+        return (input, existing) -> {
+            if (input.consumeNull()) {
+                return null;
+            }
+            if (input.peek() == '"') {
+                return parser.apply(input.readString().toString());
+            }
+            return (T) reader.read(input);
+        };
+    }
+
+    /**
+     * Read an integral number and check its range.
+     *
+     * @param input The input.
+     * @param min   The minimum value.
+     * @param max   The maximum value.
+     * @return The number.
+     * @throws IOException If an I/O error occurs or the number is out of range.
+     */
+    private static long range(JsonInput input, long min, long max) throws IOException {
+        long value = input.readLong();
+        if (value < min || value > max) {
+            throw input.error("Number out of range");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,500 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.json;
+
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.BooleanProperty;
+import org.codegeny.beans.model.DoubleProperty;
+import org.codegeny.beans.model.IntProperty;
+import org.codegeny.beans.model.LazyModel;
+import org.codegeny.beans.model.ListModel;
+import org.codegeny.beans.model.LongProperty;
+import org.codegeny.beans.model.MapModel;
+import org.codegeny.beans.model.Model;
+import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
+import org.codegeny.beans.model.Property;
+import org.codegeny.beans.model.PropertyVisitor;
+import org.codegeny.beans.model.SetModel;
+import org.codegeny.beans.model.ValueModel;
+import org.codegeny.beans.model.visitor.TypeModelVisitor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reflection-free JSON serializer driven by a {@link Model}. The model is compiled once into a tree of encoders
+ * (with precomputed escaped property names) which write UTF-8 JSON directly into an {@link OutputStream}, a
+ * {@link ByteBuffer} or a byte array. Instances are immutable and thread-safe.
+ * <ul>
+ * <li>Beans are written as objects (all properties, <code>null</code> included, in declaration order).</li>
+ * <li>Lists and sets are written as arrays.</li>
+ * <li>Maps with a value key are written as objects (keys being converted to strings), other maps are written as
+ * arrays of <code>{"key":...,"value":...}</code> objects.</li>
+ * <li>Booleans and numbers are written as is, enums by name and all other values as a string using their
+ * <code>toString()</code>.</li>
+ * </ul>
+ *
+ * @param <T> The type of the root object.
+ * @author Xavier DURY
+ */
+public final class JsonModelWriter<T> {
+
+    /**
+     * A compiled encoder.
+     *
+     * @param <T> The type of value to encode.
+     */
+    @FunctionalInterface
+    private interface Encoder<T> {
+
+        /**
+         * Encode a value.
+         *
+         * @param value  The value (may be null).
+         * @param output The output.
+         * @throws IOException If an I/O error occurs.
+         */
+        void encode(T value, JsonOutput output) throws IOException;
+    }
+
+    /**
+     * Visitor which compiles a model into an encoder.
+     *
+     * @param <T> The type of value to encode.
+     */
+    private static final class EncoderModelVisitor<T> implements ModelVisitor<T, Encoder<T>> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Encoder<T> visitBean(BeanModel<T> bean) {
+            List<? extends Property<? super T, ?>> properties = bean.getProperties();
+            @SuppressWarnings("unchecked")
+            Encoder<T>[] encoders = (Encoder<T>[]) new Encoder<?>[properties.size()];
+            byte[][] names = new byte[properties.size()][];
+            for (int i = 0; i < encoders.length; i++) {
+                encoders[i] = compile(properties.get(i));
+                byte[] name = JsonOutput.encode(properties.get(i).getName());
+                names[i] = Arrays.copyOf(name, name.length + 1);
+                names[i][name.length] = ':';
+            }
+            return (value, output) -> {
+                if (value == null) {
+                    output.writeNull();
+                    return;
+                }
+                output.write('{');
+                for (int i = 0; i < encoders.length; i++) {
+                    if (i > 0) {
+                        output.write(',');
+                    }
+                    encoders[i].encode(value, output.write(names[i]));
+                }
+                output.write('}');
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Encoder<T> visitList(ListModel<T, E> list) {
+            Encoder<E> encoder = list.acceptElement(new EncoderModelVisitor<>());
+            return (value, output) -> {
+                if (value == null) {
+                    output.writeNull();
+                    return;
+                }
+                List<E> elements = list.toList(value);
+                output.write('[');
+                if (elements instanceof RandomAccess) {
+                    for (int i = 0, size = elements.size(); i < size; i++) {
+                        if (i > 0) {
+                            output.write(',');
+                        }
+                        encoder.encode(elements.get(i), output);
+                    }
+                } else {
+                    encodeAll(elements, encoder, output);
+                }
+                output.write(']');
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <K, V> Encoder<T> visitMap(MapModel<T, K, V> map) {
+            Encoder<V> valueEncoder = map.acceptValue(new EncoderModelVisitor<>());
+            if (map.getKeyModel() instanceof ValueModel<?>) {
+                return (value, output) -> {
+                    if (value == null) {
+                        output.writeNull();
+                        return;
+                    }
+                    output.write('{');
+                    boolean first = true;
+                    for (Map.Entry<K, V> entry : map.toMap(value).entrySet()) {
+                        if (!first) {
+                            output.write(',');
+                        }
+                        first = false;
+                        K key = entry.getKey();
+                        output.writeString(key instanceof Enum<?> ? ((Enum<?>) key).name() : String.valueOf(key)).write(':');
+                        valueEncoder.encode(entry.getValue(), output);
+                    }
+                    output.write('}');
+                };
+            }
+            Encoder<K> keyEncoder = map.acceptKey(new EncoderModelVisitor<>());
+            return (value, output) -> {
+                if (value == null) {
+                    output.writeNull();
+                    return;
+                }
+                output.write('[');
+                boolean first = true;
+                for (Map.Entry<K, V> entry : map.toMap(value).entrySet()) {
+                    if (!first) {
+                        output.write(',');
+                    }
+                    first = false;
+                    keyEncoder.encode(entry.getKey(), output.write(KEY));
+                    valueEncoder.encode(entry.getValue(), output.write(VALUE));
+                    output.write('}');
+                }
+                output.write(']');
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Encoder<T> visitSet(SetModel<T, E> set) {
+            Encoder<E> encoder = set.acceptElement(new EncoderModelVisitor<>());
+            return (value, output) -> {
+                if (value == null) {
+                    output.writeNull();
+                    return;
+                }
+                output.write('[');
+                encodeAll(set.toSet(value), encoder, output);
+                output.write(']');
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Encoder<T> visitLazy(LazyModel<T> lazy) {
+            return lazy.compile(EncoderModelVisitor.class, model -> model.accept(new EncoderModelVisitor<>()), encoder -> (value, output) -> encoder.get().encode(value, output));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public Encoder<T> visitValue(ValueModel<T> value) {
+            Class<?> type = value.getType();
+            if (type == String.class || type == Character.class) {
+                return (Encoder<T>) STRING;
+            }
+            if (type == Boolean.class) {
+                return (Encoder<T>) BOOLEAN;
+            }
+            if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+                return (Encoder<T>) INTEGRAL;
+            }
+            if (type == Double.class) {
+                return (Encoder<T>) DOUBLE;
+            }
+            if (type == Float.class) {
+                return (Encoder<T>) FLOAT;
+            }
+            if (type == BigDecimal.class || type == BigInteger.class) {
+                return (Encoder<T>) BIG;
+            }
+            if (type.isEnum()) {
+                return (Encoder<T>) ENUM;
+            }
+            return (Encoder<T>) OTHER;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Encoder<T> visitPolymorphic(PolymorphicModel<T> polymorphic) {
+            throw new IllegalArgumentException(String.format("Cannot write polymorphic model of %s", TypeModelVisitor.typeOf(polymorphic).getTypeName()));
+        }
+
+        /**
+         * Compile a property into an encoder of (non-null) beans which writes the property value (primitive properties
+         * are written without boxing).
+         *
+         * @param property The property.
+         * @param <B>      The bean type.
+         * @param <P>      The property type.
+         * @return The encoder.
+         */
+        private static <B, P> Encoder<B> compile(Property<? super B, P> property) {
+            return property.accept(new PropertyVisitor<B, P, Encoder<B>>() {
+
+                @Override
+                public Encoder<B> visitProperty(Property<? super B, P> property) {
+                    Encoder<P> encoder = property.accept(new EncoderModelVisitor<>());
+                    return (bean, output) -> encoder.encode(property.get(bean), output);
+                }
+
+                @Override
+                public Encoder<B> visitInt(IntProperty<? super B> property) {
+                    return (bean, output) -> output.writeLong(property.getInt(bean));
+                }
+
+                @Override
+                public Encoder<B> visitLong(LongProperty<? super B> property) {
+                    return (bean, output) -> output.writeLong(property.getLong(bean));
+                }
+
+                @Override
+                public Encoder<B> visitDouble(DoubleProperty<? super B> property) {
+                    return (bean, output) -> output.writeDouble(property.getDouble(bean));
+                }
+
+                @Override
+                public Encoder<B> visitBoolean(BooleanProperty<? super B> property) {
+                    return (bean, output) -> output.writeBoolean(property.getBoolean(bean));
+                }
+            });
+        }
+
+        /**
+         * Encode all elements of a collection separated by commas.
+         *
+         * @param elements The elements.
+         * @param encoder  The element encoder.
+         * @param output   The output.
+         * @param <E>      The element type.
+         * @throws IOException If an I/O error occurs.
+         */
+        private static <E> void encodeAll(Iterable<E> elements, Encoder<E> encoder, JsonOutput output) throws IOException {
+            boolean first = true;
+            for (E element : elements) {
+                if (!first) {
+                    output.write(',');
+                }
+                first = false;
+                encoder.encode(element, output);
+            }
+        }
+    }
+
+    /**
+     * Prefix for map entries with a non-value key.
+     */
+    private static final byte[] KEY = "{\"key\":".getBytes(US_ASCII);
+
+    /**
+     * Separator for map entries with a non-value key.
+     */
+    private static final byte[] VALUE = ",\"value\":".getBytes(US_ASCII);
+
+    /**
+     * Encoder for strings and characters.
+     */
+    private static final Encoder<Object> STRING = (value, output) -> {
+        if (value == null) {
+            output.writeNull();
+        } else if (value instanceof CharSequence) {
+            output.writeString((CharSequence) value);
+        } else {
+            output.writeString(value.toString());
+        }
+    };
+
+    /**
+     * Encoder for booleans.
+     */
+    private static final Encoder<Boolean> BOOLEAN = (value, output) -> {
+        if (value == null) {
+            output.writeNull();
+        } else {
+            output.writeBoolean(value);
+        }
+    };
+
+    /**
+     * Encoder for integral numbers.
+     */
+    private static final Encoder<Number> INTEGRAL = (value, output) -> {
+        if (value == null) {
+            output.writeNull();
+        } else {
+            output.writeLong(value.longValue());
+        }
+    };
+
+    /**
+     * Encoder for doubles.
+     */
+    private static final Encoder<Double> DOUBLE = (value, output) -> {
+        if (value == null) {
+            output.writeNull();
+        } else {
+            output.writeDouble(value);
+        }
+    };
+
+    /**
+     * Encoder for floats (using the shortest float representation).
+     */
+    private static final Encoder<Float> FLOAT = (value, output) -> {
+        if (value == null) {
+            output.writeNull();
+        } else if (value.isNaN() || value.isInfinite()) {
+            output.writeString(value.toString());
+        } else if (value == value.longValue() && Math.abs(value) < 1e7f) {
+            output.writeLong(value.longValue());
+        } else {
+            output.writeAscii(value.toString());
+        }
+    };
+
+    /**
+     * Encoder for arbitrary-precision numbers.
+     */
+    private static final Encoder<Number> BIG = (value, output) -> {
+        if (value == null) {
+            output.writeNull();
+        } else {
+            output.writeAscii(value.toString());
+        }
+    };
+
+    /**
+     * Encoder for enums (by name).
+     */
+    private static final Encoder<Enum<?>> ENUM = (value, output) -> {
+        if (value == null) {
+            output.writeNull();
+        } else {
+            output.writeString(value.name());
+        }
+    };
+
+    /**
+     * Encoder for all other values (as string).
+     */
+    private static final Encoder<Object> OTHER = (value, output) -> {
+        if (value == null) {
+            output.writeNull();
+        } else {
+            output.writeString(value.toString());
+        }
+    };
+
+    /**
+     * The root encoder.
+     */
+    private final Encoder<T> encoder;
+
+    /**
+     * Constructor which compiles the given model.
+     *
+     * @param model The model.
+     */
+    public JsonModelWriter(Model<T> model) {
+        this.encoder = requireNonNull(model).accept(new EncoderModelVisitor<>());
+    }
+
+    /**
+     * Write the given value as JSON to an output stream (the stream is neither flushed nor closed).
+     *
+     * @param value  The value.
+     * @param stream The stream.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void write(T value, OutputStream stream) throws IOException {
+        JsonOutput output = JsonOutput.of(requireNonNull(stream));
+        encoder.encode(value, output);
+        output.flush();
+    }
+
+    /**
+     * Write the given value as JSON to a byte buffer.
+     *
+     * @param value  The value.
+     * @param buffer The buffer.
+     * @throws java.nio.BufferOverflowException If there is insufficient space in the buffer.
+     */
+    public void write(T value, ByteBuffer buffer) {
+        JsonOutput output = JsonOutput.of(requireNonNull(buffer));
+        try {
+            encoder.encode(value, output);
+            output.flush();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Write the given value as JSON to a byte array.
+     *
+     * @param value The value.
+     * @return The UTF-8 JSON bytes.
+     */
+    public byte[] toBytes(T value) {
+        JsonOutput output = JsonOutput.inMemory();
+        try {
+            encoder.encode(value, output);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Write the given value as a JSON string.
+     *
+     * @param value The value.
+     * @return The JSON string.
+     */
+    public String toJson(T value) {
+        return new String(toBytes(value), UTF_8);
+    }
+}
@@ -0,0 +1,369 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Buffered UTF-8 JSON output which can be flushed to an {@link OutputStream}, a {@link ByteBuffer} or kept in memory.
+ *
+ * @author Xavier DURY
+ */
+final class JsonOutput {
+
+    /**
+     * Hexadecimal digits.
+     */
+    private static final byte[] HEX = "0123456789abcdef".getBytes(US_ASCII);
+
+    /**
+     * Bytes for <code>null</code>.
+     */
+    private static final byte[] NULL = "null".getBytes(US_ASCII);
+
+    /**
+     * Bytes for <code>true</code>.
+     */
+    private static final byte[] TRUE = "true".getBytes(US_ASCII);
+
+    /**
+     * Bytes for <code>false</code>.
+     */
+    private static final byte[] FALSE = "false".getBytes(US_ASCII);
+
+    /**
+     * Bytes for {@link Long#MIN_VALUE}.
+     */
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(US_ASCII);
+
+    /**
+     * Where bytes go when the buffer is full.
+     */
+    @FunctionalInterface
+    interface Sink {
+
+        /**
+         * Flush bytes.
+         *
+         * @param bytes  The bytes.
+         * @param length The number of bytes to flush.
+         * @throws IOException If an I/O error occurs.
+         */
+        void flush(byte[] bytes, int length) throws IOException;
+    }
+
+    /**
+     * Create an output for the given stream.
+     *
+     * @param stream The stream.
+     * @return A new output.
+     */
+    static JsonOutput of(OutputStream stream) {
+        return new JsonOutput((bytes, length) -> stream.write(bytes, 0, length), 8192);
+    }
+
+    /**
+     * Create an output for the given byte buffer.
+     *
+     * @param buffer The buffer.
+     * @return A new output.
+     */
+    static JsonOutput of(ByteBuffer buffer) {
+        return new JsonOutput((bytes, length) -> buffer.put(bytes, 0, length), 8192);
+    }
+
+    /**
+     * Create an in-memory output (the buffer grows instead of being flushed).
+     *
+     * @return A new output.
+     */
+    static JsonOutput inMemory() {
+        return new JsonOutput(null, 256);
+    }
+
+    /**
+     * The sink (or null for in-memory).
+     */
+    private final Sink sink;
+
+    /**
+     * The buffer.
+     */
+    private byte[] buffer;
+
+    /**
+     * The number of bytes in the buffer.
+     */
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param sink     The sink (or null for in-memory).
+     * @param capacity The initial buffer capacity.
+     */
+    private JsonOutput(Sink sink, int capacity) {
+        this.sink = sink;
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Make sure there is room for the given number of bytes.
+     *
+     * @param count The number of bytes.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void require(int count) throws IOException {
+        if (size + count > buffer.length) {
+            if (sink == null || count > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + count));
+            } else {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Write an ASCII char.
+     *
+     * @param value The char.
+     * @return This output.
+     * @throws IOException If an I/O error occurs.
+     */
+    JsonOutput write(char value) throws IOException {
+        require(1);
+        buffer[size++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Write raw bytes.
+     *
+     * @param bytes The bytes.
+     * @return This output.
+     * @throws IOException If an I/O error occurs.
+     */
+    JsonOutput write(byte[] bytes) throws IOException {
+        require(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+        return this;
+    }
+
+    /**
+     * Write <code>null</code>.
+     *
+     * @return This output.
+     * @throws IOException If an I/O error occurs.
+     */
+    JsonOutput writeNull() throws IOException {
+        return write(NULL);
+    }
+
+    /**
+     * Write a boolean.
+     *
+     * @param value The boolean.
+     * @return This output.
+     * @throws IOException If an I/O error occurs.
+     */
+    JsonOutput writeBoolean(boolean value) throws IOException {
+        return write(value ? TRUE : FALSE);
+    }
+
+    /**
+     * Write an integral number without allocating.
+     *
+     * @param value The number.
+     * @return This output.
+     * @throws IOException If an I/O error occurs.
+     */
+    JsonOutput writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return write(MIN_LONG);
+        }
+        require(20);
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int end = size + digits(value);
+        for (int i = end - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size = end;
+        return this;
+    }
+
+    /**
+     * Count the number of decimal digits of a positive number.
+     *
+     * @param value The number.
+     * @return The number of digits.
+     */
+    private static int digits(long value) {
+        int digits = 1;
+        for (long limit = 10; digits < 19 && value >= limit; limit *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Write a floating point number (non-finite numbers are written as strings).
+     *
+     * @param value The number.
+     * @return This output.
+     * @throws IOException If an I/O error occurs.
+     */
+    JsonOutput writeDouble(double value) throws IOException {
+        if (value == (long) value && Math.abs(value) < 1e15 && (value != 0 || 1 / value > 0)) {
+            return writeLong((long) value);
+        }
+        return Double.isNaN(value) || Double.isInfinite(value) ? writeString(Double.toString(value)) : writeAscii(Double.toString(value));
+    }
+
+    /**
+     * Write an ASCII string as is (without quotes nor escaping).
+     *
+     * @param value The string.
+     * @return This output.
+     * @throws IOException If an I/O error occurs.
+     */
+    JsonOutput writeAscii(String value) throws IOException {
+        require(value.length());
+        for (int i = 0, length = value.length(); i < length; i++) {
+            buffer[size++] = (byte) value.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Write a quoted and escaped JSON string encoded in UTF-8.
+     *
+     * @param value The string.
+     * @return This output.
+     * @throws IOException If an I/O error occurs.
+     */
+    JsonOutput writeString(CharSequence value) throws IOException {
+        write('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                require(2);
+                buffer[size++] = '\\';
+                buffer[size++] = (byte) c;
+            } else if (c < 0x20) {
+                writeEscaped(c);
+            } else if (c < 0x80) {
+                require(1);
+                buffer[size++] = (byte) c;
+            } else if (c < 0x800) {
+                require(2);
+                buffer[size++] = (byte) (0xC0 | c >> 6);
+                buffer[size++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                require(4);
+                buffer[size++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[size++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                writeEscaped(c);
+            } else {
+                require(3);
+                buffer[size++] = (byte) (0xE0 | c >> 12);
+                buffer[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[size++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return write('"');
+    }
+
+    /**
+     * Write a char as a JSON escape sequence.
+     *
+     * @param c The char.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void writeEscaped(char c) throws IOException {
+        switch (c) {
+            case '\n':
+                write('\\').write('n');
+                break;
+            case '\r':
+                write('\\').write('r');
+                break;
+            case '\t':
+                write('\\').write('t');
+                break;
+            default:
+                require(6);
+                buffer[size++] = '\\';
+                buffer[size++] = 'u';
+                buffer[size++] = HEX[c >> 12 & 0xF];
+                buffer[size++] = HEX[c >> 8 & 0xF];
+                buffer[size++] = HEX[c >> 4 & 0xF];
+                buffer[size++] = HEX[c & 0xF];
+        }
+    }
+
+    /**
+     * Flush the buffer to the sink.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    void flush() throws IOException {
+        if (sink != null && size > 0) {
+            sink.flush(buffer, size);
+            size = 0;
+        }
+    }
+
+    /**
+     * Get the bytes written so far (for in-memory outputs).
+     *
+     * @return A copy of the bytes.
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Encode a string as a JSON string (for precomputing names).
+     *
+     * @param value The string.
+     * @return The UTF-8 bytes of the quoted and escaped string.
+     */
+    static byte[] encode(String value) {
+        try {
+            return inMemory().writeString(value).toByteArray();
+        } catch (IOException exception) {
+            throw new InternalError(exception);
+        }
+    }
+}
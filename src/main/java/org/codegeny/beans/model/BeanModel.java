@@ -19,17 +19,19 @@
  */
 package org.codegeny.beans.model;
 
-import java.util.Collection;
-import java.util.Map;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
-import static java.util.Collections.unmodifiableCollection;
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNull;
-import static java.util.function.Function.identity;
-import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toList;
 
 /**
  * An implementation of {@link Model} for a bean.
+ * Properties are kept in declaration order and each one of them is given a stable index (see {@link PropertyIndex}).
  *
  * @param <B> The type of the bean.
  * @author Xavier DURY
@@ -37,35 +39,51 @@ import static java.util.stream.Collectors.toMap;
 public final class BeanModel<B> implements Model<B> {
 
     /**
-     * The properties mapped by name.
+     * The properties in declaration order.
      */
-    private final Map<String, Property<? super B, ?>> properties;
+    private final List<Property<? super B, ?>> properties;
+
+    /**
+     * The property names index.
+     */
+    private final PropertyIndex index;
 
     /**
      * The bean type.
      */
     private final Class<? extends B> type;
 
+    /**
+     * The bean instantiator (or null).
+     */
+    private final Supplier<? extends B> instantiator;
+
     /**
      * Constructor.
      *
-     * @param type       The bean type.
-     * @param properties The properties.
+     * @param type         The bean type.
+     * @param instantiator The bean instantiator (or null).
+     * @param properties   The properties.
      */
     @SafeVarargs
-    BeanModel(Class<? extends B> type, Property<? super B, ?>... properties) {
-        this(type, Stream.of(requireNonNull(properties)).collect(toMap(Property::getName, identity())));
+    BeanModel(Class<? extends B> type, Supplier<? extends B> instantiator, Property<? super B, ?>... properties) {
+        this(type, instantiator, Stream.of(requireNonNull(properties)));
     }
 
     /**
      * Constructor.
      *
-     * @param type       The bean type.
-     * @param properties The properties mapped by name.
+     * @param type         The bean type.
+     * @param instantiator The bean instantiator (or null).
+     * @param properties   The properties in declaration order.
      */
-    private BeanModel(Class<? extends B> type, Map<String, Property<? super B, ?>> properties) {
+    @SuppressWarnings("unchecked")
+    private BeanModel(Class<? extends B> type, Supplier<? extends B> instantiator, Stream<? extends Property<? super B, ?>> properties) {
+        Property<? super B, ?>[] array = properties.map(Objects::requireNonNull).toArray(Property[]::new);
         this.type = requireNonNull(type);
-        this.properties = properties;
+        this.instantiator = instantiator;
+        this.properties = unmodifiableList(asList(array));
+        this.index = new PropertyIndex(this.properties.stream().map(Property::getName).collect(toList()));
     }
 
     /**
@@ -77,12 +95,13 @@ public final class BeanModel<B> implements Model<B> {
     }
 
     /**
-     * Get the properties which are registered for this <code>BeanModel</code>.
+     * Get the properties which are registered for this <code>BeanModel</code> in declaration order.
+     * The position of each property in that list is its index.
      *
      * @return The properties.
      */
-    public Collection<Property<? super B, ?>> getProperties() {
-        return unmodifiableCollection(properties.values());
+    public List<Property<? super B, ?>> getProperties() {
+        return properties;
     }
 
     /**
@@ -92,7 +111,28 @@ public final class BeanModel<B> implements Model<B> {
      * @return The corresponding property or null.
      */
     public Property<? super B, ?> getProperty(String name) {
-        return properties.get(requireNonNull(name));
+        int position = index.indexOf(requireNonNull(name));
+        return position < 0 ? null : properties.get(position);
+    }
+
+    /**
+     * Get a property by its index.
+     *
+     * @param position The index of the property.
+     * @return The corresponding property.
+     * @throws IndexOutOfBoundsException If there is no property at that index.
+     */
+    public Property<? super B, ?> getProperty(int position) {
+        return properties.get(position);
+    }
+
+    /**
+     * Get the index of the properties names.
+     *
+     * @return The property index.
+     */
+    public PropertyIndex getIndex() {
+        return index;
     }
 
     /**
@@ -104,8 +144,46 @@ public final class BeanModel<B> implements Model<B> {
         return type;
     }
 
+    /**
+     * Is this model able to create new beans?
+     *
+     * @return <code>true</code> if this model was given an instantiator.
+     */
+    public boolean isInstantiable() {
+        return instantiator != null;
+    }
+
+    /**
+     * Create a new bean.
+     *
+     * @return A new bean.
+     * @throws UnsupportedOperationException If this model was not given an instantiator.
+     */
+    public B newInstance() {
+        if (instantiator == null) {
+            throw new UnsupportedOperationException(String.format("Bean '%s' cannot be instantiated", type.getName()));
+        }
+        return instantiator.get();
+    }
+
+    /**
+     * Extend this bean model.
+     * The properties of this model keep their index in the new model.
+     *
+     * @param subType      The bean sub-type.
+     * @param instantiator The sub-type instantiator.
+     * @param properties   The new properties
+     * @param <C>          The type of the sub-type bean.
+     * @return A new bean model.
+     */
+    @SafeVarargs
+    public final <C extends B> BeanModel<C> extend(Class<? extends C> subType, Supplier<? extends C> instantiator, Property<? super C, ?>... properties) {
+        return new BeanModel<>(subType, requireNonNull(instantiator), Stream.concat(getProperties().stream(), Stream.of(requireNonNull(properties))));
+    }
+
     /**
      * Extend this bean model.
+     * The properties of this model keep their index in the new model.
      *
      * @param subType    The bean sub-type.
      * @param properties The new properties
@@ -114,6 +192,6 @@ public final class BeanModel<B> implements Model<B> {
      */
     @SafeVarargs
     public final <C extends B> BeanModel<C> extend(Class<? extends C> subType, Property<? super C, ?>... properties) {
-        return new BeanModel<>(subType, Stream.concat(getProperties().stream(), Stream.of(requireNonNull(properties))).collect(toMap(Property::getName, identity())));
+        return new BeanModel<>(subType, null, Stream.concat(getProperties().stream(), Stream.of(requireNonNull(properties))));
     }
 }
@@ -0,0 +1,72 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link Property} specialized for <code>boolean</code> values (see
+ * {@link Model#booleanProperty(String, Predicate, BiConsumer)}). Its values can be accessed without boxing through
+ * {@link #getBoolean(Object)} (booleans are set through a {@link BiConsumer} as boxing a boolean never allocates).
+ * Setting a <code>null</code> value through {@link #set(Object, Object)} sets <code>false</code>.
+ *
+ * @param <B> The bean type.
+ * @author Xavier DURY
+ */
+public final class BooleanProperty<B> extends Property<B, Boolean> {
+
+    /**
+     * The primitive getter.
+     */
+    private final Predicate<? super B> booleanGetter;
+
+    /**
+     * Constructor.
+     *
+     * @param name   The property name.
+     * @param getter The primitive getter.
+     * @param setter The setter (or null if the property is read-only).
+     */
+    BooleanProperty(String name, Predicate<? super B> getter, BiConsumer<? super B, ? super Boolean> setter) {
+        super(name, getter::test, setter == null ? null : (bean, value) -> setter.accept(bean, value != null && value), Model.BOOLEAN);
+        this.booleanGetter = requireNonNull(getter);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <C extends B, R> R accept(PropertyVisitor<C, Boolean, ? extends R> visitor) {
+        return visitor.visitBoolean(this);
+    }
+
+    /**
+     * Get the property from the (non-null) bean without boxing.
+     *
+     * @param bean The bean.
+     * @return The property value.
+     */
+    public boolean getBoolean(B bean) {
+        return booleanGetter.test(bean);
+    }
+}
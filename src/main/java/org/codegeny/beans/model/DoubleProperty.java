@@ -0,0 +1,92 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ToDoubleFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link Property} specialized for <code>double</code> values (see
+ * {@link Model#doubleProperty(String, ToDoubleFunction, ObjDoubleConsumer)}). Its values can be accessed without
+ * boxing through {@link #getDouble(Object)} and {@link #setDouble(Object, double)}. Setting a <code>null</code> value
+ * through {@link #set(Object, Object)} sets <code>0.0</code>.
+ *
+ * @param <B> The bean type.
+ * @author Xavier DURY
+ */
+public final class DoubleProperty<B> extends Property<B, Double> {
+
+    /**
+     * The primitive getter.
+     */
+    private final ToDoubleFunction<? super B> doubleGetter;
+
+    /**
+     * The primitive setter (or null if the property is read-only).
+     */
+    private final ObjDoubleConsumer<? super B> doubleSetter;
+
+    /**
+     * Constructor.
+     *
+     * @param name   The property name.
+     * @param getter The primitive getter.
+     * @param setter The primitive setter (or null if the property is read-only).
+     */
+    DoubleProperty(String name, ToDoubleFunction<? super B> getter, ObjDoubleConsumer<? super B> setter) {
+        super(name, getter::applyAsDouble, setter == null ? null : (bean, value) -> setter.accept(bean, value == null ? 0.0 : value), Model.DOUBLE);
+        this.doubleGetter = requireNonNull(getter);
+        this.doubleSetter = setter;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <C extends B, R> R accept(PropertyVisitor<C, Double, ? extends R> visitor) {
+        return visitor.visitDouble(this);
+    }
+
+    /**
+     * Get the property from the (non-null) bean without boxing.
+     *
+     * @param bean The bean.
+     * @return The property value.
+     */
+    public double getDouble(B bean) {
+        return doubleGetter.applyAsDouble(bean);
+    }
+
+    /**
+     * Set the property to the (non-null) bean without boxing.
+     *
+     * @param bean  The bean.
+     * @param value The property new value.
+     * @throws UnsupportedOperationException If the property is read-only.
+     */
+    public void setDouble(B bean, double value) {
+        if (doubleSetter == null) {
+            throw new UnsupportedOperationException(String.format("Property '%s' is read-only", getName()));
+        }
+        doubleSetter.accept(bean, value);
+    }
+}
@@ -0,0 +1,92 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link Property} specialized for <code>int</code> values (see
+ * {@link Model#intProperty(String, ToIntFunction, ObjIntConsumer)}). Its values can be accessed without boxing through
+ * {@link #getInt(Object)} and {@link #setInt(Object, int)}. Setting a <code>null</code> value through
+ * {@link #set(Object, Object)} sets <code>0</code>.
+ *
+ * @param <B> The bean type.
+ * @author Xavier DURY
+ */
+public final class IntProperty<B> extends Property<B, Integer> {
+
+    /**
+     * The primitive getter.
+     */
+    private final ToIntFunction<? super B> intGetter;
+
+    /**
+     * The primitive setter (or null if the property is read-only).
+     */
+    private final ObjIntConsumer<? super B> intSetter;
+
+    /**
+     * Constructor.
+     *
+     * @param name   The property name.
+     * @param getter The primitive getter.
+     * @param setter The primitive setter (or null if the property is read-only).
+     */
+    IntProperty(String name, ToIntFunction<? super B> getter, ObjIntConsumer<? super B> setter) {
+        super(name, getter::applyAsInt, setter == null ? null : (bean, value) -> setter.accept(bean, value == null ? 0 : value), Model.INTEGER);
+        this.intGetter = requireNonNull(getter);
+        this.intSetter = setter;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <C extends B, R> R accept(PropertyVisitor<C, Integer, ? extends R> visitor) {
+        return visitor.visitInt(this);
+    }
+
+    /**
+     * Get the property from the (non-null) bean without boxing.
+     *
+     * @param bean The bean.
+     * @return The property value.
+     */
+    public int getInt(B bean) {
+        return intGetter.applyAsInt(bean);
+    }
+
+    /**
+     * Set the property to the (non-null) bean without boxing.
+     *
+     * @param bean  The bean.
+     * @param value The property new value.
+     * @throws UnsupportedOperationException If the property is read-only.
+     */
+    public void setInt(B bean, int value) {
+        if (intSetter == null) {
+            throw new UnsupportedOperationException(String.format("Property '%s' is read-only", getName()));
+        }
+        intSetter.accept(bean, value);
+    }
+}
@@ -0,0 +1,156 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An implementation of {@link Model} which references another model resolved on first access (see
+ * {@link Model#lazy(Supplier)} and {@link Model#recursive(Function)}). This allows self-referential models (trees,
+ * graphs...) to be described with a single shared model instance.
+ * <p>
+ * Visitors which are driven by data (comparison, diff, paths...) see through lazy models (see
+ * {@link ModelVisitor#visitLazy(LazyModel)}) and naturally stop at the leaves of the data. Visitors which walk the
+ * model itself once (to compile it, describe it...) must use {@link #compile(Object, Function, Function)} to avoid
+ * looping forever on a recursive model.
+ *
+ * @param <T> The model type.
+ * @author Xavier DURY
+ */
+public final class LazyModel<T> implements Model<T> {
+
+    /**
+     * The lazy models being compiled by the current thread (per compiler) and their (future) results.
+     */
+    private static final ThreadLocal<Map<Entry<LazyModel<?>, Object>, AtomicReference<Object>>> COMPILING = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * The model supplier (null once resolved or if bound later).
+     */
+    private Supplier<? extends Model<T>> supplier;
+
+    /**
+     * The resolved model.
+     */
+    private volatile Model<T> model;
+
+    /**
+     * Constructor.
+     *
+     * @param supplier The model supplier (or null if the model is bound later).
+     */
+    LazyModel(Supplier<? extends Model<T>> supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * Bind the model (for recursive definitions).
+     *
+     * @param model The model.
+     */
+    void bind(Model<T> model) {
+        this.model = requireNonNull(model);
+    }
+
+    /**
+     * Get the referenced model (resolving it once if needed).
+     *
+     * @return The model.
+     * @throws IllegalStateException If the model is accessed while it is being defined.
+     */
+    public Model<T> getModel() {
+        Model<T> result = model;
+        if (result == null) {
+            synchronized (this) {
+                result = model;
+                if (result == null) {
+                    Supplier<? extends Model<T>> resolver = supplier;
+                    if (resolver == null) {
+                        throw new IllegalStateException("Lazy model accessed while being defined");
+                    }
+                    supplier = null;
+                    try {
+                        result = requireNonNull(resolver.get(), "Lazy model supplier returned null");
+                    } catch (RuntimeException | Error exception) {
+                        supplier = resolver;
+                        throw exception;
+                    }
+                    model = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compile the referenced model exactly once per compilation, even if it references itself. When this lazy model is
+     * reached again while its own model is being compiled (by the same compiler on the same thread), a deferred result
+     * is created instead which must delegate to the final result given by the supplier (only available once the
+     * compilation completes).
+     *
+     * @param compiler The compiler key (usually the visitor class).
+     * @param compile  The function compiling the referenced model.
+     * @param deferred The function creating a deferred result.
+     * @param <R>      The result type.
+     * @return The result.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R compile(Object compiler, Function<? super Model<T>, ? extends R> compile, Function<Supplier<R>, ? extends R> deferred) {
+        Map<Entry<LazyModel<?>, Object>, AtomicReference<Object>> compiling = COMPILING.get();
+        Entry<LazyModel<?>, Object> key = new SimpleImmutableEntry<>(this, requireNonNull(compiler));
+        AtomicReference<Object> pending = compiling.get(key);
+        if (pending != null) {
+            return deferred.apply(() -> (R) pending.get());
+        }
+        AtomicReference<Object> reference = new AtomicReference<>();
+        compiling.put(key, reference);
+        try {
+            R result = compile.apply(getModel());
+            reference.set(result);
+            return result;
+        } finally {
+            compiling.remove(key);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <R> R accept(ModelVisitor<T, ? extends R> visitor) {
+        return requireNonNull(visitor).visitLazy(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compare(T left, T right) {
+        return getModel().compare(left, right);
+    }
+}
@@ -44,15 +44,22 @@ public final class ListModel<L, E> implements Model<L> {
      */
     private final Function<? super L, ? extends List<E>> converter;
 
+    /**
+     * A function to convert a List&gt;E&lt; back to the type &gt;L&lt; (or null if not supported).
+     */
+    private final Function<? super List<E>, ? extends L> reverse;
+
     /**
      * Constructor.
      *
      * @param elementModel The element model.
      * @param converter    A function to convert the type &gt;L&gt; to List&gt;E&lt;.
+     * @param reverse      A function to convert a List&gt;E&lt; back to the type &gt;L&lt; (or null if not supported).
      */
-    ListModel(Model<E> elementModel, Function<? super L, ? extends List<E>> converter) {
+    ListModel(Model<E> elementModel, Function<? super L, ? extends List<E>> converter, Function<? super List<E>, ? extends L> reverse) {
         this.elementModel = requireNonNull(elementModel);
         this.converter = requireNonNull(converter);
+        this.reverse = reverse;
     }
 
     /**
@@ -84,6 +91,20 @@ public final class ListModel<L, E> implements Model<L> {
         return values == null ? emptyList() : converter.apply(values);
     }
 
+    /**
+     * Transform a List&lt;E&gt; back to the type &lt;L&gt;.
+     *
+     * @param values The elements.
+     * @return A value of type &lt;L&gt;.
+     * @throws UnsupportedOperationException If this model was not given a way to build a &lt;L&gt;.
+     */
+    public L fromList(List<E> values) {
+        if (reverse == null) {
+            throw new UnsupportedOperationException("This list model cannot be built from a List");
+        }
+        return values == null ? null : reverse.apply(values);
+    }
+
     /**
      * Get the element model.
      *
@@ -0,0 +1,92 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToLongFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link Property} specialized for <code>long</code> values (see
+ * {@link Model#longProperty(String, ToLongFunction, ObjLongConsumer)}). Its values can be accessed without boxing
+ * through {@link #getLong(Object)} and {@link #setLong(Object, long)}. Setting a <code>null</code> value through
+ * {@link #set(Object, Object)} sets <code>0L</code>.
+ *
+ * @param <B> The bean type.
+ * @author Xavier DURY
+ */
+public final class LongProperty<B> extends Property<B, Long> {
+
+    /**
+     * The primitive getter.
+     */
+    private final ToLongFunction<? super B> longGetter;
+
+    /**
+     * The primitive setter (or null if the property is read-only).
+     */
+    private final ObjLongConsumer<? super B> longSetter;
+
+    /**
+     * Constructor.
+     *
+     * @param name   The property name.
+     * @param getter The primitive getter.
+     * @param setter The primitive setter (or null if the property is read-only).
+     */
+    LongProperty(String name, ToLongFunction<? super B> getter, ObjLongConsumer<? super B> setter) {
+        super(name, getter::applyAsLong, setter == null ? null : (bean, value) -> setter.accept(bean, value == null ? 0L : value), Model.LONG);
+        this.longGetter = requireNonNull(getter);
+        this.longSetter = setter;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <C extends B, R> R accept(PropertyVisitor<C, Long, ? extends R> visitor) {
+        return visitor.visitLong(this);
+    }
+
+    /**
+     * Get the property from the (non-null) bean without boxing.
+     *
+     * @param bean The bean.
+     * @return The property value.
+     */
+    public long getLong(B bean) {
+        return longGetter.applyAsLong(bean);
+    }
+
+    /**
+     * Set the property to the (non-null) bean without boxing.
+     *
+     * @param bean  The bean.
+     * @param value The property new value.
+     * @throws UnsupportedOperationException If the property is read-only.
+     */
+    public void setLong(B bean, long value) {
+        if (longSetter == null) {
+            throw new UnsupportedOperationException(String.format("Property '%s' is read-only", getName()));
+        }
+        longSetter.accept(bean, value);
+    }
+}
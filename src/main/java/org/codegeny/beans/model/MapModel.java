@@ -50,15 +50,22 @@ public final class MapModel<M, K, V> implements Model<M> {
      */
     private final Function<? super M, ? extends Map<K, V>> converter;
 
+    /**
+     * A function to convert a Map&gt;K, V&lt; back to the type &gt;M&lt; (or null if not supported).
+     */
+    private final Function<? super Map<K, V>, ? extends M> reverse;
+
     /**
      * Constructor.
      *
      * @param keyModel    The key model.
      * @param valueModel  The value model.
      * @param converter   A function to convert the type &gt;M&gt; to Map&gt;K, V&lt;.
+     * @param reverse     A function to convert a Map&gt;K, V&lt; back to the type &gt;M&lt; (or null if not supported).
      */
-    MapModel(Model<K> keyModel, Model<V> valueModel, Function<? super M, ? extends Map<K, V>> converter) {
+    MapModel(Model<K> keyModel, Model<V> valueModel, Function<? super M, ? extends Map<K, V>> converter, Function<? super Map<K, V>, ? extends M> reverse) {
         this.converter = requireNonNull(converter);
+        this.reverse = reverse;
         this.keyModel = requireNonNull(keyModel);
         this.valueModel = requireNonNull(valueModel);
     }
@@ -103,6 +110,20 @@ public final class MapModel<M, K, V> implements Model<M> {
         return values == null ? emptyMap() : converter.apply(values);
     }
 
+    /**
+     * Transform a Map&lt;K, V&gt; back to the type &lt;M&gt;.
+     *
+     * @param values The entries.
+     * @return A value of type &lt;M&gt;.
+     * @throws UnsupportedOperationException If this model was not given a way to build a &lt;M&gt;.
+     */
+    public M fromMap(Map<K, V> values) {
+        if (reverse == null) {
+            throw new UnsupportedOperationException("This map model cannot be built from a Map");
+        }
+        return values == null ? null : reverse.apply(values);
+    }
+
     /**
      * Get the key model.
      *
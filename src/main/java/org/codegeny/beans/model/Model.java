@@ -20,23 +20,45 @@
 package org.codegeny.beans.model;
 
 import org.codegeny.beans.diff.Diff;
+import org.codegeny.beans.model.visitor.ComparatorModelVisitor;
 import org.codegeny.beans.model.visitor.CompareModelVisitor;
+import org.codegeny.beans.model.visitor.CompilePathModelVisitor;
 import org.codegeny.beans.model.visitor.ComputeDiffModelVisitor;
 import org.codegeny.beans.model.visitor.DescribeModelVisitor;
+import org.codegeny.beans.model.visitor.GetAllModelVisitor;
 import org.codegeny.beans.model.visitor.GetModelVisitor;
+import org.codegeny.beans.model.visitor.SelectModelVisitor;
+import org.codegeny.beans.model.visitor.SetAllModelVisitor;
 import org.codegeny.beans.model.visitor.SetModelVisitor;
+import org.codegeny.beans.model.visitor.SortKeyModelVisitor;
 import org.codegeny.beans.model.visitor.ToStringModelVisitor;
+import org.codegeny.beans.path.CompiledPath;
 import org.codegeny.beans.path.Converter;
 import org.codegeny.beans.path.Path;
+import org.codegeny.beans.path.PathTrie;
+import org.codegeny.beans.path.Selector;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 import static java.util.Comparator.naturalOrder;
+import static java.util.Objects.requireNonNull;
 import static java.util.function.Function.identity;
 
 /**
@@ -113,7 +135,21 @@ public interface Model<T> extends Comparator<T> {
      */
     @SafeVarargs
     static <B> BeanModel<B> bean(Class<? extends B> type, Property<? super B, ?>... properties) {
-        return new BeanModel<>(type, properties);
+        return new BeanModel<>(type, null, properties);
+    }
+
+    /**
+     * Construct a new {@link BeanModel} which is able to instantiate new beans.
+     *
+     * @param type         The bean class.
+     * @param instantiator The bean instantiator (usually a reference to a no-arg constructor).
+     * @param properties   The bean properties.
+     * @param <B>          The bean type.
+     * @return The bean model.
+     */
+    @SafeVarargs
+    static <B> BeanModel<B> bean(Class<? extends B> type, Supplier<? extends B> instantiator, Property<? super B, ?>... properties) {
+        return new BeanModel<>(type, requireNonNull(instantiator), properties);
     }
 
     /**
@@ -124,7 +160,7 @@ public interface Model<T> extends Comparator<T> {
      * @return The list model.
      */
     static <E> ListModel<List<E>, E> list(Model<E> elementModel) {
-        return list(elementModel, identity());
+        return new ListModel<>(elementModel, identity(), identity());
     }
 
     /**
@@ -137,7 +173,22 @@ public interface Model<T> extends Comparator<T> {
      * @return The list model.
      */
     static <L, E> ListModel<L, E> list(Model<E> elementModel, Function<? super L, ? extends List<E>> converter) {
-        return new ListModel<>(elementModel, converter);
+        return new ListModel<>(elementModel, converter, null);
+    }
+
+    /**
+     * Construct a new {@link ListModel} for a list of &lt;E&gt; objects which does not implement the {@link List} interface
+     * but which can be built from a {@link List}.
+     *
+     * @param elementModel The delegate {@link Model} to be used for elements.
+     * @param converter    The converter is a function which transforms objects of type &lt;L&gt; to a <code>List&lt;E&gt;</code>.
+     * @param reverse      The reverse converter which transforms a <code>List&lt;E&gt;</code> to an object of type &lt;L&gt;.
+     * @param <L>          The type of the list of &lt;E&gt; elements.
+     * @param <E>          The type of elements.
+     * @return The list model.
+     */
+    static <L, E> ListModel<L, E> list(Model<E> elementModel, Function<? super L, ? extends List<E>> converter, Function<? super List<E>, ? extends L> reverse) {
+        return new ListModel<>(elementModel, converter, requireNonNull(reverse));
     }
 
     /**
@@ -150,7 +201,7 @@ public interface Model<T> extends Comparator<T> {
      * @return The map model.
      */
     static <K, V> MapModel<Map<K, V>, K, V> map(Model<K> keyModel, Model<V> valueModel) {
-        return map(keyModel, valueModel, identity());
+        return new MapModel<>(keyModel, valueModel, identity(), identity());
     }
 
     /**
@@ -165,7 +216,24 @@ public interface Model<T> extends Comparator<T> {
      * @return The map model.
      */
     static <M, K, V> MapModel<M, K, V> map(Model<K> keyModel, Model<V> valueModel, Function<? super M, ? extends Map<K, V>> converter) {
-        return new MapModel<>(keyModel, valueModel, converter);
+        return new MapModel<>(keyModel, valueModel, converter, null);
+    }
+
+    /**
+     * Construct a new {@link MapModel} for a map of &lt;K, V&gt; entries which does not implement the {@link Map} interface
+     * but which can be built from a {@link Map}.
+     *
+     * @param keyModel   The delegate {@link Model} to be used for keys.
+     * @param valueModel The delegate {@link Model} to be used for values.
+     * @param converter  The collector is a function which transforms objects of type &lt;M&gt; to a <code>Map&lt;K, V&gt;</code>.
+     * @param reverse    The reverse converter which transforms a <code>Map&lt;K, V&gt;</code> to an object of type &lt;M&gt;.
+     * @param <M>        The type of the map of &lt;K, V&gt; entries.
+     * @param <K>        The type of keys.
+     * @param <V>        The type of values.
+     * @return The map model.
+     */
+    static <M, K, V> MapModel<M, K, V> map(Model<K> keyModel, Model<V> valueModel, Function<? super M, ? extends Map<K, V>> converter, Function<? super Map<K, V>, ? extends M> reverse) {
+        return new MapModel<>(keyModel, valueModel, converter, requireNonNull(reverse));
     }
 
     /**
@@ -176,7 +244,7 @@ public interface Model<T> extends Comparator<T> {
      * @return The set model.
      */
     static <E> SetModel<Set<E>, E> set(Model<E> elementModel) {
-        return set(elementModel, identity());
+        return new SetModel<>(elementModel, identity(), identity());
     }
 
     /**
@@ -189,7 +257,22 @@ public interface Model<T> extends Comparator<T> {
      * @return The set model.
      */
     static <S, E> SetModel<S, E> set(Model<E> elementModel, Function<? super S, ? extends Set<E>> converter) {
-        return new SetModel<>(elementModel, converter);
+        return new SetModel<>(elementModel, converter, null);
+    }
+
+    /**
+     * Construct a new {@link SetModel} for a set of &lt;E&gt; objects which does not implement the {@link Set} interface
+     * but which can be built from a {@link Set}.
+     *
+     * @param elementModel The delegate {@link Model} to be used for elements.
+     * @param converter    The collector is a function which transforms objects of type &lt;S&gt; to a <code>Collection&lt;E&gt;</code>.
+     * @param reverse      The reverse converter which transforms a <code>Set&lt;E&gt;</code> to an object of type &lt;S&gt;.
+     * @param <S>          The type of the set of &lt;E&gt; elements.
+     * @param <E>          The type of elements.
+     * @return The set model.
+     */
+    static <S, E> SetModel<S, E> set(Model<E> elementModel, Function<? super S, ? extends Set<E>> converter, Function<? super Set<E>, ? extends S> reverse) {
+        return new SetModel<>(elementModel, converter, requireNonNull(reverse));
     }
 
     /**
@@ -213,6 +296,72 @@ public interface Model<T> extends Comparator<T> {
         return new ValueModel<>(type, comparator);
     }
 
+    /**
+     * Construct a {@link LazyModel} which references a model resolved (once) on first access. This allows to reference
+     * models which are not yet constructed (i.e. mutually recursive models held in static fields).
+     *
+     * @param supplier The model supplier.
+     * @param <T>      The model type.
+     * @return The lazy model.
+     */
+    static <T> LazyModel<T> lazy(Supplier<? extends Model<T>> supplier) {
+        return new LazyModel<>(requireNonNull(supplier));
+    }
+
+    /**
+     * Construct a recursive model. The definition function receives a reference to the model being defined which
+     * can be used for self-referencing properties (the reference must not be accessed before the definition
+     * completes):
+     * <pre>{@code
+     * Model<Node> model = Model.recursive(self -> Model.bean(Node.class, Node::new,
+     *         Model.property("children", Node::getChildren, Model.list(self))));
+     * }</pre>
+     *
+     * @param definition The model definition.
+     * @param <T>        The model type.
+     * @return The model returned by the definition.
+     */
+    static <T> Model<T> recursive(Function<? super Model<T>, ? extends Model<T>> definition) {
+        LazyModel<T> self = new LazyModel<>(null);
+        Model<T> model = requireNonNull(definition.apply(self));
+        self.bind(model);
+        return model;
+    }
+
+    /**
+     * Derive a model at runtime for the given class (which cannot be annotated or modeled by hand). The class is only
+     * introspected once (derived models are cached per class) and accessors are compiled into lambdas. See
+     * {@link ModelDeriver} for the mapping rules.
+     *
+     * @param type The class.
+     * @param <T>  The type.
+     * @return The derived model.
+     * @throws IllegalArgumentException If no model can be derived for that class.
+     */
+    static <T> Model<T> derive(Class<T> type) {
+        return ModelDeriver.of(requireNonNull(type));
+    }
+
+    /**
+     * Construct a polymorphic model for a type hierarchy. Each instance is handled by the model of the most specific
+     * subtype of its class or by the base model if none matches:
+     * <pre>{@code
+     * Model<Shape> model = Model.polymorphic(Model.bean(Shape.class, ...),
+     *         Model.bean(Circle.class, Circle::new, ...),
+     *         Model.bean(Square.class, Square::new, ...));
+     * }</pre>
+     *
+     * @param baseModel     The base model.
+     * @param subtypeModels The subtype models.
+     * @param <T>           The base type.
+     * @return A polymorphic model.
+     * @throws IllegalArgumentException If two subtype models are registered for the same class.
+     */
+    @SafeVarargs
+    static <T> PolymorphicModel<T> polymorphic(Model<T> baseModel, BeanModel<? extends T>... subtypeModels) {
+        return new PolymorphicModel<>(baseModel, Arrays.asList(subtypeModels));
+    }
+
     /**
      * Construct a property to be used for beans.
      *
@@ -239,9 +388,112 @@ public interface Model<T> extends Comparator<T> {
      * @return A property.
      */
     static <B, P> Property<B, P> property(String name, Function<? super B, ? extends P> getter, Model<P> model) {
-        return property(name, getter, (b, p) -> {
-            throw new UnsupportedOperationException(String.format("Property '%s' is read-only", name));
-        }, model);
+        return new Property<>(name, getter, null, model);
+    }
+
+    /**
+     * Construct a property for <code>int</code> values (modeled by {@link #INTEGER}) which can be accessed without boxing.
+     *
+     * @param name   The property name.
+     * @param getter The property getter.
+     * @param setter The property setter.
+     * @param <B>    The bean type.
+     * @return A property.
+     */
+    static <B> IntProperty<B> intProperty(String name, ToIntFunction<? super B> getter, ObjIntConsumer<? super B> setter) {
+        return new IntProperty<>(name, getter, requireNonNull(setter));
+    }
+
+    /**
+     * Construct a read-only property for <code>int</code> values (modeled by {@link #INTEGER}) which can be accessed
+     * without boxing.
+     *
+     * @param name   The property name.
+     * @param getter The property getter.
+     * @param <B>    The bean type.
+     * @return A property.
+     */
+    static <B> IntProperty<B> intProperty(String name, ToIntFunction<? super B> getter) {
+        return new IntProperty<>(name, getter, null);
+    }
+
+    /**
+     * Construct a property for <code>long</code> values (modeled by {@link #LONG}) which can be accessed without boxing.
+     *
+     * @param name   The property name.
+     * @param getter The property getter.
+     * @param setter The property setter.
+     * @param <B>    The bean type.
+     * @return A property.
+     */
+    static <B> LongProperty<B> longProperty(String name, ToLongFunction<? super B> getter, ObjLongConsumer<? super B> setter) {
+        return new LongProperty<>(name, getter, requireNonNull(setter));
+    }
+
+    /**
+     * Construct a read-only property for <code>long</code> values (modeled by {@link #LONG}) which can be accessed
+     * without boxing.
+     *
+     * @param name   The property name.
+     * @param getter The property getter.
+     * @param <B>    The bean type.
+     * @return A property.
+     */
+    static <B> LongProperty<B> longProperty(String name, ToLongFunction<? super B> getter) {
+        return new LongProperty<>(name, getter, null);
+    }
+
+    /**
+     * Construct a property for <code>double</code> values (modeled by {@link #DOUBLE}) which can be accessed without boxing.
+     *
+     * @param name   The property name.
+     * @param getter The property getter.
+     * @param setter The property setter.
+     * @param <B>    The bean type.
+     * @return A property.
+     */
+    static <B> DoubleProperty<B> doubleProperty(String name, ToDoubleFunction<? super B> getter, ObjDoubleConsumer<? super B> setter) {
+        return new DoubleProperty<>(name, getter, requireNonNull(setter));
+    }
+
+    /**
+     * Construct a read-only property for <code>double</code> values (modeled by {@link #DOUBLE}) which can be accessed
+     * without boxing.
+     *
+     * @param name   The property name.
+     * @param getter The property getter.
+     * @param <B>    The bean type.
+     * @return A property.
+     */
+    static <B> DoubleProperty<B> doubleProperty(String name, ToDoubleFunction<? super B> getter) {
+        return new DoubleProperty<>(name, getter, null);
+    }
+
+    /**
+     * Construct a property for <code>boolean</code> values (modeled by {@link #BOOLEAN}) which can be accessed without
+     * boxing.
+     *
+     * @param name   The property name.
+     * @param getter The property getter.
+     * @param setter The property setter.
+     * @param <B>    The bean type.
+     * @return A property.
+     */
+    static <B> BooleanProperty<B> booleanProperty(String name, Predicate<? super B> getter, BiConsumer<? super B, ? super Boolean> setter) {
+        return new BooleanProperty<>(name, getter, requireNonNull(setter));
+    }
+
+    /**
+     * Construct a read-only property for <code>boolean</code> values (modeled by {@link #BOOLEAN}) which can be
+     * accessed without boxing.
+     *
+     * @param name   The property name.
+     * @param getter The property getter.
+     * @param <B>    The bean type.
+     * @return A property.
+     */
+    static <B> BooleanProperty<B> booleanProperty(String name, Predicate<? super B> getter) {
+        return new BooleanProperty<>(name, getter, null);
     }
 
     /**
@@ -261,6 +513,32 @@ public interface Model<T> extends Comparator<T> {
         return accept(new CompareModelVisitor<>(left, right));
     }
 
+    /**
+     * Compile this model into a {@link Comparator} which gives the same results as {@link #compare(Object, Object)}
+     * but without walking the model for each comparison. The returned comparator should be computed once and reused
+     * (i.e. for sorting large collections).
+     *
+     * @return A comparator for &gt;T&lt;.
+     */
+    default Comparator<T> comparator() {
+        return accept(new ComparatorModelVisitor<>());
+    }
+
+    /**
+     * Compute a sort key for the given target. The unsigned lexicographic order of sort keys (see
+     * {@link org.codegeny.beans.sort.SortKeys#compare(byte[], byte[])}) is the same as the order defined by
+     * {@link #compare(Object, Object)}, so sort keys can be computed once and then compared (or radix-sorted, stored
+     * in an index...) without walking the model again.
+     *
+     * @param target The target object.
+     * @return The sort key.
+     * @throws UnsupportedOperationException If this model contains values which cannot be encoded (see
+     *                                       {@link SortKeyModelVisitor#isSupported(Model)}).
+     */
+    default byte[] sortKey(T target) {
+        return accept(new SortKeyModelVisitor<>(target));
+    }
+
     /**
      * Create a string representation of the model.
      *
@@ -325,6 +603,106 @@ public interface Model<T> extends Comparator<T> {
         return get(target, path, Converter.Identity.INSTANCE);
     }
 
+    /**
+     * Get the values from all the specified paths in the target in a single traversal. Paths are gathered in a
+     * {@link PathTrie} so that getters and conversions along shared prefixes are only invoked once.
+     * A converter is needed for the same reasons as for {@link Model#set(Object, Path, Object, Converter)}.
+     *
+     * @param target    The &gt;T&lt; instance.
+     * @param paths     The paths of the properties to retrieve.
+     * @param converter The converter for converting path elements along the way.
+     * @param <S>       The bottom type for path elements.
+     * @return The retrieved property values indexed by path (in traversal order).
+     */
+    default <S> Map<Path<S>, Object> getAll(T target, Collection<? extends Path<S>> paths, Converter<? super S> converter) {
+        PathTrie<S, Void> trie = new PathTrie<>();
+        paths.forEach(path -> trie.put(path, null));
+        return accept(new GetAllModelVisitor<>(target, trie, converter, new LinkedHashMap<>()));
+    }
+
+    /**
+     * Get the values from all the specified paths in the target in a single traversal.
+     * No converter is needed here as path elements are expected to be already of the correct type.
+     *
+     * @param target The &gt;T&lt; instance.
+     * @param paths  The paths of the properties to retrieve.
+     * @param <S>    The bottom type for path elements.
+     * @return The retrieved property values indexed by path (in traversal order).
+     */
+    default <S> Map<Path<S>, Object> getAll(T target, Collection<? extends Path<S>> paths) {
+        return getAll(target, paths, Converter.Identity.INSTANCE);
+    }
+
+    /**
+     * Set the values at all the specified paths in the target in a single traversal. Paths are gathered in a
+     * {@link PathTrie} so that intermediate nodes, collections and conversions along shared prefixes are only resolved
+     * once. When both a path and some of its extensions are given, the extensions are set first.
+     * A converter is needed for the same reasons as for {@link Model#set(Object, Path, Object, Converter)}.
+     *
+     * @param target    The &gt;T&lt; instance to modify.
+     * @param values    The values to set indexed by path.
+     * @param converter The converter for converting path elements and values along the way.
+     * @param <S>       The bottom type for path elements and values.
+     */
+    default <S> void setAll(T target, Map<? extends Path<S>, ? extends S> values, Converter<? super S> converter) {
+        PathTrie<S, S> trie = new PathTrie<>();
+        values.forEach(trie::put);
+        accept(new SetAllModelVisitor<>(target, trie, converter));
+    }
+
+    /**
+     * Set the values at all the specified paths in the target in a single traversal.
+     * No converter is needed here as path elements and values are expected to be already of the correct type.
+     *
+     * @param target The &gt;T&lt; instance to modify.
+     * @param values The values to set indexed by path.
+     * @param <S>    The bottom type for path elements and values.
+     */
+    default <S> void setAll(T target, Map<? extends Path<S>, ? extends S> values) {
+        setAll(target, values, Converter.Identity.INSTANCE);
+    }
+
+    /**
+     * Compile the given path against this model so that it can be used repeatedly to get or set values without
+     * resolving properties, converting path elements or computing types again.
+     * A converter is needed for the same reasons as for {@link Model#set(Object, Path, Object, Converter)}.
+     *
+     * @param path      The path.
+     * @param converter The converter for converting path elements.
+     * @param <S>       The bottom type for path elements.
+     * @param <V>       The type of the value the path points to.
+     * @return The compiled path.
+     * @throws IllegalArgumentException      If the path refers to an unknown property.
+     * @throws UnsupportedOperationException If the path goes through a value.
+     */
+    default <S, V> CompiledPath<T, V> compile(Path<S> path, Converter<? super S> converter) {
+        return accept(new CompilePathModelVisitor<>(path, converter));
+    }
+
+    /**
+     * Compile the given path against this model.
+     * No converter is needed here as path elements are expected to be already of the correct type.
+     *
+     * @param path The path.
+     * @param <V>  The type of the value the path points to.
+     * @return The compiled path.
+     */
+    default <V> CompiledPath<T, V> compile(Path<?> path) {
+        return compile(path, Converter.Identity.INSTANCE);
+    }
+
+    /**
+     * Select all the values matching the given pattern (see {@link Path#parse(String)}) in a single traversal.
+     * The stream is lazy: the target is only traversed as the stream is consumed.
+     *
+     * @param target  The &gt;T&lt; instance.
+     * @param pattern The pattern.
+     * @return A stream of concrete paths (usable with {@link #get(Object, Path)}) and their values.
+     */
+    default Stream<Map.Entry<Path<Object>, Object>> select(T target, Path<Selector> pattern) {
+        return accept(new SelectModelVisitor<>(target, pattern));
+    }
+
     /**
      * Create a string representation for the given target.
      *
@@ -332,7 +710,21 @@ public interface Model<T> extends Comparator<T> {
      * @return A string representation for that object.
      */
     default String toString(T target) {
-        return accept(new ToStringModelVisitor<>(target)).toString();
+        return writeTo(target, new StringBuilder()).toString();
+    }
+
+    /**
+     * Write a string representation for the given target to the given output (i.e. a {@link java.io.Writer}, wrap an
+     * {@link java.io.OutputStream} in an {@link java.io.OutputStreamWriter}) without building an intermediate string.
+     *
+     * @param target The target object.
+     * @param output The output.
+     * @param <A>    The output type.
+     * @return The output.
+     * @throws java.io.UncheckedIOException If the output throws an {@link java.io.IOException}.
+     */
+    default <A extends Appendable> A writeTo(T target, A output) {
+        return ToStringModelVisitor.writeTo(this, target, output);
     }
 
     /**
@@ -345,4 +737,16 @@ public interface Model<T> extends Comparator<T> {
     default Diff<T> diff(T left, T right) {
         return accept(ComputeDiffModelVisitor.of(left, right));
     }
+
+    /**
+     * Diff two values keeping only the values allowed by the given retention (see {@link Diff#retain(Diff.Retention)}).
+     *
+     * @param left      The left value.
+     * @param right     The right value.
+     * @param retention The retention.
+     * @return The diff.
+     */
+    default Diff<T> diff(T left, T right, Diff.Retention retention) {
+        return diff(left, right).retain(retention);
+    }
 }
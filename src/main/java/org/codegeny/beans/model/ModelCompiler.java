@@ -0,0 +1,723 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+import org.codegeny.beans.diff.Diff;
+import org.codegeny.beans.diff.Diff.Status;
+import org.codegeny.beans.model.visitor.ComparatorModelVisitor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.WeakHashMap;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compiles a {@link Model} once into specialized closures for comparison, equality, hashing, string representation
+ * and diff. The model tree is only walked at compilation time: beans are turned into arrays of compiled property
+ * operations which are invoked in a straight loop (no visitor allocation or double dispatch per call).
+ * <ul>
+ * <li>{@link #compare(Object, Object)} is the same as {@link Model#compare(Object, Object)}.</li>
+ * <li>{@link #equals(Object, Object)} is equivalent to <code>compare(left, right) == 0</code> but short-circuits (on
+ * list and set sizes).</li>
+ * <li>{@link #hashCode(Object)} is consistent with {@link #equals(Object, Object)} (values which are not compared by a
+ * natural order consistent with <code>equals()</code> do not contribute to the hash code).</li>
+ * <li>{@link #toString(Object)} and {@link #diff(Object, Object)} yield the same results as {@link Model#toString(Object)}
+ * and {@link Model#diff(Object, Object)} (collections diffs are still computed by the model).</li>
+ * </ul>
+ * Compiled models are cached per model and are thread-safe. The cache holds both models and compiled models weakly
+ * (a compiled model references its model, so holding it strongly or softly would keep the entry alive): an entry lives
+ * as long as its compiled model is referenced elsewhere, so keep a reference to it (e.g. in a static field) rather than
+ * calling {@link #of(Model)} repeatedly.
+ *
+ * @param <T> The model type.
+ * @author Xavier DURY
+ */
+public final class ModelCompiler<T> implements Comparator<T> {
+
+    /**
+     * Cache of compiled models.
+     */
+    private static final Map<Model<?>, WeakReference<ModelCompiler<?>>> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Get the compiled form of the given model (compiling it if needed).
+     *
+     * @param model The model.
+     * @param <T>   The model type.
+     * @return The compiled model.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ModelCompiler<T> of(Model<T> model) {
+        WeakReference<ModelCompiler<?>> reference = CACHE.get(requireNonNull(model));
+        ModelCompiler<T> compiler = reference == null ? null : (ModelCompiler<T>) reference.get();
+        if (compiler == null) {
+            compiler = new ModelCompiler<>(model);
+            CACHE.put(model, new WeakReference<>(compiler));
+        }
+        return compiler;
+    }
+
+    /**
+     * Compiled string representation writer.
+     *
+     * @param <T> The value type.
+     */
+    @FunctionalInterface
+    private interface Printer<T> {
+
+        /**
+         * Write the string representation of a value.
+         *
+         * @param value  The value.
+         * @param output The output.
+         * @param depth  The indentation depth.
+         * @throws IOException If the output fails.
+         */
+        void print(T value, Appendable output, int depth) throws IOException;
+    }
+
+    /**
+     * Compiled operations for a model node.
+     *
+     * @param <T> The node type.
+     */
+    private static final class Compiled<T> {
+
+        /**
+         * The comparator.
+         */
+        final Comparator<T> comparator;
+
+        /**
+         * The equality.
+         */
+        final BiPredicate<T, T> equality;
+
+        /**
+         * The hash function.
+         */
+        final ToIntFunction<T> hash;
+
+        /**
+         * The hash code of <code>null</code> (computed on first use as a recursive model may not be compiled yet).
+         */
+        private Integer nullHash;
+
+        /**
+         * The string representation writer.
+         */
+        final Printer<T> printer;
+
+        /**
+         * The diff function.
+         */
+        final BiFunction<T, T, Diff<T>> differ;
+
+        /**
+         * Constructor.
+         *
+         * @param comparator The comparator.
+         * @param equality   The equality.
+         * @param hash       The hash function.
+         * @param printer    The string representation writer.
+         * @param differ     The diff function.
+         */
+        Compiled(Comparator<T> comparator, BiPredicate<T, T> equality, ToIntFunction<T> hash, Printer<T> printer, BiFunction<T, T, Diff<T>> differ) {
+            this.comparator = comparator;
+            this.equality = equality;
+            this.hash = hash;
+            this.printer = printer;
+            this.differ = differ;
+        }
+
+        /**
+         * Get the hash code of <code>null</code>.
+         *
+         * @return The hash code of <code>null</code>.
+         */
+        int nullHash() {
+            Integer result = nullHash;
+            if (result == null) {
+                nullHash = result = hash.applyAsInt(null);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Compiled operations for a bean property.
+     *
+     * @param <B> The bean type.
+     * @param <P> The property type.
+     */
+    private static final class CompiledProperty<B, P> {
+
+        /**
+         * The property.
+         */
+        final Property<? super B, P> property;
+
+        /**
+         * The compiled property model.
+         */
+        final Compiled<P> compiled;
+
+        /**
+         * The prefix written before the property value (i.e. <code>name: </code>).
+         */
+        final String prefix;
+
+        /**
+         * The property values equality.
+         */
+        private final BiPredicate<B, B> equality;
+
+        /**
+         * The property value hash function.
+         */
+        private final ToIntFunction<B> hash;
+
+        /**
+         * The property value writer.
+         */
+        private final Printer<B> printer;
+
+        /**
+         * The property values diff function.
+         */
+        private final BiFunction<B, B, Diff<P>> differ;
+
+        /**
+         * Constructor.
+         *
+         * @param property The property.
+         * @param compiled The compiled property model.
+         * @param equality The property values equality.
+         * @param hash     The property value hash function.
+         * @param printer  The property value writer.
+         * @param differ   The property values diff function.
+         */
+        private CompiledProperty(Property<? super B, P> property, Compiled<P> compiled, BiPredicate<B, B> equality, ToIntFunction<B> hash, Printer<B> printer, BiFunction<B, B, Diff<P>> differ) {
+            this.property = property;
+            this.compiled = compiled;
+            this.prefix = property.getName().concat(": ");
+            this.equality = equality;
+            this.hash = hash;
+            this.printer = printer;
+            this.differ = differ;
+        }
+
+        /**
+         * Compile a property (primitive properties are accessed without boxing when both beans are not null).
+         *
+         * @param property The property.
+         * @param <B>      The bean type.
+         * @param <P>      The property type.
+         * @return The compiled property.
+         */
+        @SuppressWarnings("unchecked")
+        static <B, P> CompiledProperty<B, P> of(Property<? super B, P> property) {
+            Compiled<P> compiled = property.accept(new CompilerModelVisitor<>());
+            BiPredicate<B, B> boxedEquality = (left, right) -> compiled.equality.test(property.get(left), property.get(right));
+            ToIntFunction<B> boxedHash = bean -> compiled.hash.applyAsInt(property.get(bean));
+            Printer<B> boxedPrinter = (bean, output, depth) -> compiled.printer.print(property.get(bean), output, depth);
+            BiFunction<B, B, Diff<P>> boxedDiffer = (left, right) -> compiled.differ.apply(property.get(left), property.get(right));
+            return property.accept(new PropertyVisitor<B, P, CompiledProperty<B, P>>() {
+
+                @Override
+                public CompiledProperty<B, P> visitProperty(Property<? super B, P> property) {
+                    return new CompiledProperty<>(property, compiled, boxedEquality, boxedHash, boxedPrinter, boxedDiffer);
+                }
+
+                @Override
+                public CompiledProperty<B, P> visitInt(IntProperty<? super B> intProperty) {
+                    return new CompiledProperty<>(property, compiled,
+                            (left, right) -> left == null || right == null ? boxedEquality.test(left, right) : intProperty.getInt(left) == intProperty.getInt(right),
+                            bean -> bean == null ? boxedHash.applyAsInt(null) : Integer.hashCode(intProperty.getInt(bean)),
+                            (bean, output, depth) -> {
+                                if (bean == null) {
+                                    boxedPrinter.print(null, output, depth);
+                                } else {
+                                    output.append(Integer.toString(intProperty.getInt(bean)));
+                                }
+                            },
+                            (left, right) -> {
+                                if (left == null || right == null) {
+                                    return boxedDiffer.apply(left, right);
+                                }
+                                int leftValue = intProperty.getInt(left);
+                                int rightValue = intProperty.getInt(right);
+                                Integer boxed = leftValue;
+                                return (Diff<P>) primitiveDiff(boxed, leftValue == rightValue ? boxed : Integer.valueOf(rightValue));
+                            });
+                }
+
+                @Override
+                public CompiledProperty<B, P> visitLong(LongProperty<? super B> longProperty) {
+                    return new CompiledProperty<>(property, compiled,
+                            (left, right) -> left == null || right == null ? boxedEquality.test(left, right) : longProperty.getLong(left) == longProperty.getLong(right),
+                            bean -> bean == null ? boxedHash.applyAsInt(null) : Long.hashCode(longProperty.getLong(bean)),
+                            (bean, output, depth) -> {
+                                if (bean == null) {
+                                    boxedPrinter.print(null, output, depth);
+                                } else {
+                                    output.append(Long.toString(longProperty.getLong(bean)));
+                                }
+                            },
+                            (left, right) -> {
+                                if (left == null || right == null) {
+                                    return boxedDiffer.apply(left, right);
+                                }
+                                long leftValue = longProperty.getLong(left);
+                                long rightValue = longProperty.getLong(right);
+                                Long boxed = leftValue;
+                                return (Diff<P>) primitiveDiff(boxed, leftValue == rightValue ? boxed : Long.valueOf(rightValue));
+                            });
+                }
+
+                @Override
+                public CompiledProperty<B, P> visitDouble(DoubleProperty<? super B> doubleProperty) {
+                    return new CompiledProperty<>(property, compiled,
+                            (left, right) -> left == null || right == null ? boxedEquality.test(left, right) : Double.compare(doubleProperty.getDouble(left), doubleProperty.getDouble(right)) == 0,
+                            bean -> bean == null ? boxedHash.applyAsInt(null) : Double.hashCode(doubleProperty.getDouble(bean)),
+                            (bean, output, depth) -> {
+                                if (bean == null) {
+                                    boxedPrinter.print(null, output, depth);
+                                } else {
+                                    output.append(Double.toString(doubleProperty.getDouble(bean)));
+                                }
+                            },
+                            (left, right) -> {
+                                if (left == null || right == null) {
+                                    return boxedDiffer.apply(left, right);
+                                }
+                                double leftValue = doubleProperty.getDouble(left);
+                                double rightValue = doubleProperty.getDouble(right);
+                                Double boxed = leftValue;
+                                return (Diff<P>) primitiveDiff(boxed, Double.compare(leftValue, rightValue) == 0 ? boxed : Double.valueOf(rightValue));
+                            });
+                }
+
+                @Override
+                public CompiledProperty<B, P> visitBoolean(BooleanProperty<? super B> booleanProperty) {
+                    return new CompiledProperty<>(property, compiled,
+                            (left, right) -> left == null || right == null ? boxedEquality.test(left, right) : booleanProperty.getBoolean(left) == booleanProperty.getBoolean(right),
+                            bean -> bean == null ? boxedHash.applyAsInt(null) : Boolean.hashCode(booleanProperty.getBoolean(bean)),
+                            boxedPrinter,
+                            boxedDiffer);
+                }
+            });
+        }
+
+        /**
+         * Check the property values equality.
+         *
+         * @param left  The left bean.
+         * @param right The right bean.
+         * @return <code>true</code> if the values are equal.
+         */
+        boolean equal(B left, B right) {
+            return equality.test(left, right);
+        }
+
+        /**
+         * Compute the property value hash code.
+         *
+         * @param bean The bean.
+         * @return The hash code.
+         */
+        int hash(B bean) {
+            return hash.applyAsInt(bean);
+        }
+
+        /**
+         * Write the property value.
+         *
+         * @param bean   The bean.
+         * @param output The output.
+         * @param depth  The indentation depth.
+         * @throws IOException If the output fails.
+         */
+        void print(B bean, Appendable output, int depth) throws IOException {
+            printer.print(bean, output, depth);
+        }
+
+        /**
+         * Diff the property values.
+         *
+         * @param left  The left bean.
+         * @param right The right bean.
+         * @return The diff.
+         */
+        Diff<P> diff(B left, B right) {
+            return differ.apply(left, right);
+        }
+    }
+
+    /**
+     * Create the diff of 2 boxed primitive values (the right value is only boxed when it differs from the left one so
+     * that both values are the same instance when unchanged).
+     *
+     * @param left  The left value.
+     * @param right The right value (the same instance as the left one if they are equal).
+     * @param <V>   The boxed type.
+     * @return The diff.
+     */
+    private static <V> Diff<V> primitiveDiff(V left, V right) {
+        return Diff.simple(left == right ? Status.UNCHANGED : Status.MODIFIED, left, right);
+    }
+
+    /**
+     * Visitor which compiles a model node.
+     *
+     * @param <T> The node type.
+     */
+    private static final class CompilerModelVisitor<T> implements ModelVisitor<T, Compiled<T>> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Compiled<T> visitBean(BeanModel<T> bean) {
+            @SuppressWarnings("unchecked")
+            CompiledProperty<T, ?>[] properties = bean.getProperties().stream().map(CompiledProperty::of).toArray(CompiledProperty[]::new);
+            PropertyIndex index = bean.getIndex();
+            return new Compiled<>(bean.accept(new ComparatorModelVisitor<>()), (left, right) -> {
+                if (left == right) {
+                    return true;
+                }
+                for (CompiledProperty<T, ?> property : properties) {
+                    if (!property.equal(left, right)) {
+                        return false;
+                    }
+                }
+                return true;
+            }, value -> {
+                int hash = 1;
+                for (CompiledProperty<T, ?> property : properties) {
+                    hash = 31 * hash + property.hash(value);
+                }
+                return hash;
+            }, (value, output, depth) -> {
+                output.append('{');
+                for (int i = 0; i < properties.length; i++) {
+                    output.append(i > 0 ? ",\n" : "\n").append(indent(depth + 1)).append(properties[i].prefix);
+                    properties[i].print(value, output, depth + 1);
+                }
+                output.append(properties.length == 0 ? "" : "\n").append(indent(depth)).append('}');
+            }, (left, right) -> {
+                if (left == null ^ right == null) {
+                    return bean.diff(left, right);
+                }
+                Diff<?>[] diffs = new Diff<?>[properties.length];
+                for (int i = 0; i < properties.length; i++) {
+                    diffs[i] = properties[i].diff(left, right);
+                }
+                return Diff.bean(Status.combineAll(diffs), left, right, index, diffs);
+            });
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Compiled<T> visitList(ListModel<T, E> list) {
+            Compiled<E> element = list.acceptElement(new CompilerModelVisitor<>());
+            return new Compiled<>(list.accept(new ComparatorModelVisitor<>()), (left, right) -> {
+                List<E> leftList = list.toList(left);
+                List<E> rightList = list.toList(right);
+                if (leftList.size() != rightList.size()) {
+                    return false;
+                }
+                if (leftList instanceof RandomAccess && rightList instanceof RandomAccess) {
+                    for (int i = 0, size = leftList.size(); i < size; i++) {
+                        if (!element.equality.test(leftList.get(i), rightList.get(i))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                Iterator<E> rightIterator = rightList.iterator();
+                for (E leftElement : leftList) {
+                    if (!element.equality.test(leftElement, rightIterator.next())) {
+                        return false;
+                    }
+                }
+                return true;
+            }, value -> {
+                int hash = 1;
+                for (E item : list.toList(value)) {
+                    hash = 31 * hash + element.hash.applyAsInt(item);
+                }
+                return hash;
+            }, (value, output, depth) -> printCollection(element, list.toList(value), output, depth), list::diff);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Compiled<T> visitSet(SetModel<T, E> set) {
+            Compiled<E> element = set.acceptElement(new CompilerModelVisitor<>());
+            Comparator<T> comparator = set.accept(new ComparatorModelVisitor<>());
+            return new Compiled<>(comparator, (left, right) -> set.toSet(left).size() == set.toSet(right).size() && comparator.compare(left, right) == 0, value -> {
+                int hash = 0;
+                for (E item : set.toSet(value)) {
+                    hash += element.hash.applyAsInt(item);
+                }
+                return hash;
+            }, (value, output, depth) -> {
+                @SuppressWarnings("unchecked")
+                E[] elements = (E[]) set.toSet(value).toArray();
+                Arrays.sort(elements, element.comparator);
+                printCollection(element, Arrays.asList(elements), output, depth);
+            }, set::diff);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <K, V> Compiled<T> visitMap(MapModel<T, K, V> map) {
+            Compiled<K> key = map.acceptKey(new CompilerModelVisitor<>());
+            Compiled<V> value = map.acceptValue(new CompilerModelVisitor<>());
+            Comparator<T> comparator = map.accept(new ComparatorModelVisitor<>());
+            return new Compiled<>(comparator, (left, right) -> comparator.compare(left, right) == 0, target -> {
+                int hash = 0;
+                for (Map.Entry<K, V> entry : map.toMap(target).entrySet()) {
+                    // Entries with a value equal to null are equivalent to absent entries.
+                    int valueHash = value.hash.applyAsInt(entry.getValue());
+                    hash += valueHash == value.nullHash() ? 0 : 31 * key.hash.applyAsInt(entry.getKey()) ^ valueHash;
+                }
+                return hash;
+            }, (target, output, depth) -> {
+                Map<K, V> entries = map.toMap(target);
+                @SuppressWarnings("unchecked")
+                K[] keys = (K[]) entries.keySet().toArray();
+                Arrays.sort(keys, key.comparator);
+                output.append('[');
+                for (int i = 0; i < keys.length; i++) {
+                    output.append(i > 0 ? ",\n" : "\n").append(indent(depth + 1)).append(String.valueOf(keys[i])).append(": ");
+                    value.printer.print(entries.get(keys[i]), output, depth + 1);
+                }
+                output.append(keys.length > 0 ? "\n" : "").append(indent(keys.length > 0 ? depth : 0)).append(']');
+            }, map::diff);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Compiled<T> visitValue(ValueModel<T> value) {
+            boolean consistent = value.getComparator() == Comparator.naturalOrder() && !BigDecimal.class.isAssignableFrom(value.getType());
+            return new Compiled<>(value, (left, right) -> left == right || value.compare(left, right) == 0,
+                    consistent ? target -> target == null ? 0 : target.hashCode() : target -> 0,
+                    (target, output, depth) -> output.append(String.valueOf(target)),
+                    (left, right) -> Diff.simple(left == null ^ right == null ? left == null ? Status.ADDED : Status.REMOVED : value.compare(left, right) == 0 ? Status.UNCHANGED : Status.MODIFIED, left, right));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Compiled<T> visitLazy(LazyModel<T> lazy) {
+            return lazy.compile(CompilerModelVisitor.class, model -> model.accept(new CompilerModelVisitor<>()), compiled -> new Compiled<>(
+                    (left, right) -> compiled.get().comparator.compare(left, right),
+                    (left, right) -> compiled.get().equality.test(left, right),
+                    target -> compiled.get().hash.applyAsInt(target),
+                    (target, output, depth) -> compiled.get().printer.print(target, output, depth),
+                    (left, right) -> compiled.get().differ.apply(left, right)));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Compiled<T> visitPolymorphic(PolymorphicModel<T> polymorphic) {
+            @SuppressWarnings("unchecked")
+            Compiled<T>[] compiled = polymorphic.getModels().stream().map(model -> model.accept(new CompilerModelVisitor<>())).toArray(Compiled[]::new);
+            return new Compiled<>(polymorphic.accept(new ComparatorModelVisitor<>()), (left, right) -> {
+                if (left == right) {
+                    return true;
+                }
+                int index = polymorphic.indexOf(left, right);
+                return index >= 0 && compiled[index].equality.test(left, right);
+            }, target -> compiled[polymorphic.indexOf(target)].hash.applyAsInt(target),
+                    (target, output, depth) -> compiled[polymorphic.indexOf(target)].printer.print(target, output, depth),
+                    (left, right) -> {
+                        int index = polymorphic.indexOf(left, right);
+                        return index < 0 ? Diff.simple(Status.MODIFIED, left, right) : compiled[index].differ.apply(left, right);
+                    });
+        }
+    }
+
+    /**
+     * Cached indentations.
+     */
+    private static volatile String[] indents = {""};
+
+    /**
+     * Get the indentation for the given depth.
+     *
+     * @param depth The depth.
+     * @return The indentation.
+     */
+    private static String indent(int depth) {
+        String[] current = indents;
+        if (depth >= current.length) {
+            String[] grown = Arrays.copyOf(current, Math.max(depth + 1, current.length * 2));
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = grown[i - 1].concat("  ");
+            }
+            indents = current = grown;
+        }
+        return current[depth];
+    }
+
+    /**
+     * Write a collection.
+     *
+     * @param element    The compiled element model.
+     * @param collection The collection.
+     * @param output     The output.
+     * @param depth      The indentation depth.
+     * @param <E>        The element type.
+     * @throws IOException If the output fails.
+     */
+    private static <E> void printCollection(Compiled<E> element, Collection<? extends E> collection, Appendable output, int depth) throws IOException {
+        output.append('[');
+        int index = 0;
+        for (E item : collection) {
+            output.append(index++ > 0 ? ",\n" : "\n").append(indent(depth + 1));
+            element.printer.print(item, output, depth + 1);
+        }
+        output.append(index > 0 ? "\n" : "").append(indent(index > 0 ? depth : 0)).append(']');
+    }
+
+    /**
+     * The compiled root.
+     */
+    private final Compiled<T> root;
+
+    /**
+     * Constructor.
+     *
+     * @param model The model.
+     */
+    private ModelCompiler(Model<T> model) {
+        this.root = model.accept(new CompilerModelVisitor<>());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compare(T left, T right) {
+        return root.comparator.compare(left, right);
+    }
+
+    /**
+     * Check if 2 values are equal (i.e. compare as equal).
+     *
+     * @param left  The left value.
+     * @param right The right value.
+     * @return <code>true</code> if both values are equal.
+     */
+    public boolean equals(T left, T right) {
+        return root.equality.test(left, right);
+    }
+
+    /**
+     * Compute a hash code consistent with {@link #equals(Object, Object)}.
+     *
+     * @param target The target.
+     * @return The hash code.
+     */
+    public int hashCode(T target) {
+        return root.hash.applyAsInt(target);
+    }
+
+    /**
+     * Create a string representation for the given target (same as {@link Model#toString(Object)}).
+     *
+     * @param target The target.
+     * @return A string representation.
+     */
+    public String toString(T target) {
+        return writeTo(target, new StringBuilder()).toString();
+    }
+
+    /**
+     * Write a string representation for the given target to the given output (same as
+     * {@link Model#writeTo(Object, Appendable)}).
+     *
+     * @param target The target.
+     * @param output The output.
+     * @param <A>    The output type.
+     * @return The output.
+     * @throws UncheckedIOException If the output throws an {@link IOException}.
+     */
+    public <A extends Appendable> A writeTo(T target, A output) {
+        try {
+            root.printer.print(target, output, 0);
+            return output;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Diff two values (same as {@link Model#diff(Object, Object)}).
+     *
+     * @param left  The left value.
+     * @param right The right value.
+     * @return The diff.
+     */
+    public Diff<T> diff(T left, T right) {
+        return root.differ.apply(left, right);
+    }
+
+    /**
+     * Diff two values keeping only the values allowed by the given retention (same as
+     * {@link Model#diff(Object, Object, Diff.Retention)}).
+     *
+     * @param left      The left value.
+     * @param right     The right value.
+     * @param retention The retention.
+     * @return The diff.
+     */
+    public Diff<T> diff(T left, T right, Diff.Retention retention) {
+        return diff(left, right).retain(retention);
+    }
+}
@@ -0,0 +1,487 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Derives {@link Model}s at runtime from classes (see {@link Model#derive(Class)}). Classes are introspected once
+ * (derived models are cached per class in a {@link ClassValue}) and accessors are turned into lambdas spun by the
+ * {@link LambdaMetafactory} (or into method handles when the class is not accessible from this class) so that derived
+ * models perform like hand-written ones.
+ * <ul>
+ * <li>Primitives, their wrappers and strings are mapped to the predefined value models.</li>
+ * <li>{@link List}s, {@link Set}s and {@link Map}s are mapped to list, set and map models (their type arguments must
+ * be concrete).</li>
+ * <li>Enums and other {@link Comparable}s are mapped to value models.</li>
+ * <li>Records are mapped to read-only bean models (their components are discovered reflectively so that this library
+ * still runs on Java 8).</li>
+ * <li>Recursive references (i.e. a <code>Node</code> with <code>List&lt;Node&gt; children</code>) are mapped to lazy
+ * models.</li>
+ * <li>Other classes are mapped to bean models whose properties are defined by their public getters (<code>getX()</code>
+ * or <code>isX()</code> for booleans) sorted by name and the matching public setters (<code>setX(value)</code>) if
+ * any.</li>
+ * </ul>
+ *
+ * @author Xavier DURY
+ */
+final class ModelDeriver {
+
+    /**
+     * Cache of derived models.
+     */
+    private static final ClassValue<Model<?>> CACHE = new ClassValue<Model<?>>() {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Model<?> computeValue(Class<?> type) {
+            Set<Class<?>> pending = PENDING.get();
+            pending.add(type);
+            try {
+                return derive(type);
+            } finally {
+                pending.remove(type);
+            }
+        }
+    };
+
+    /**
+     * Classes being currently derived (by the current thread).
+     */
+    private static final ThreadLocal<Set<Class<?>>> PENDING = ThreadLocal.withInitial(HashSet::new);
+
+    /**
+     * The predefined value models.
+     */
+    private static final Map<Class<?>, Model<?>> CONSTANTS = new HashMap<>();
+
+    static {
+        constant(Model.BOOLEAN, Boolean.class, boolean.class);
+        constant(Model.BYTE, Byte.class, byte.class);
+        constant(Model.SHORT, Short.class, short.class);
+        constant(Model.INTEGER, Integer.class, int.class);
+        constant(Model.LONG, Long.class, long.class);
+        constant(Model.FLOAT, Float.class, float.class);
+        constant(Model.DOUBLE, Double.class, double.class);
+        constant(Model.CHARACTER, Character.class, char.class);
+        constant(Model.STRING, String.class);
+    }
+
+    /**
+     * Register a predefined value model.
+     *
+     * @param model The model.
+     * @param types The types.
+     */
+    private static void constant(Model<?> model, Class<?>... types) {
+        for (Class<?> type : types) {
+            CONSTANTS.put(type, model);
+        }
+    }
+
+    /**
+     * Get the (cached) model for the given class.
+     *
+     * @param type The class.
+     * @param <T>  The type.
+     * @return The model.
+     * @throws IllegalArgumentException If no model can be derived for that class.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Model<T> of(Class<T> type) {
+        return (Model<T>) CACHE.get(type);
+    }
+
+    /**
+     * Derive the model for the given class.
+     *
+     * @param type The class.
+     * @return The model.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Model<?> derive(Class<?> type) {
+        Model<?> constant = CONSTANTS.get(type);
+        if (constant != null) {
+            return constant;
+        }
+        if (type.isPrimitive() || type.isArray() || type.isInterface() || type.getTypeParameters().length > 0) {
+            throw new IllegalArgumentException(String.format("Cannot derive a model for %s", type.getName()));
+        }
+        if (Comparable.class.isAssignableFrom(type)) {
+            return Model.value((Class) type);
+        }
+        List<Property<Object, ?>> properties = isRecord(type) ? recordProperties(type) : beanProperties(type);
+        if (properties.isEmpty()) {
+            throw new IllegalArgumentException(String.format("Cannot derive a model for %s (no property found)", type.getName()));
+        }
+        return new BeanModel<>((Class<Object>) type, instantiator(type), properties.toArray(new Property[0]));
+    }
+
+    /**
+     * Derive the model for the given (generic) type.
+     *
+     * @param type    The type.
+     * @param context The property declaring class (for error reporting).
+     * @return The model.
+     */
+    private static Model<?> derive(Type type, Class<?> context) {
+        if (type instanceof Class<?>) {
+            Class<?> reference = (Class<?>) type;
+            return PENDING.get().contains(reference) ? Model.lazy(() -> of(reference)) : of(reference);
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Type[] arguments = parameterized.getActualTypeArguments();
+            if (parameterized.getRawType() == List.class) {
+                return Model.list(derive(arguments[0], context));
+            }
+            if (parameterized.getRawType() == Set.class) {
+                return Model.set(derive(arguments[0], context));
+            }
+            if (parameterized.getRawType() == Map.class) {
+                return Model.map(derive(arguments[0], context), derive(arguments[1], context));
+            }
+        }
+        throw new IllegalArgumentException(String.format("Cannot derive a model for %s in %s", type.getTypeName(), context.getName()));
+    }
+
+    /**
+     * Check if a class is a record (without depending on Java 16+).
+     *
+     * @param type The class.
+     * @return <code>true</code> if the class is a record.
+     */
+    private static boolean isRecord(Class<?> type) {
+        Class<?> superclass = type.getSuperclass();
+        return superclass != null && superclass.getName().equals("java.lang.Record");
+    }
+
+    /**
+     * Collect the (read-only) properties of a record from its components (in declaration order).
+     *
+     * @param type The record class.
+     * @return The properties.
+     */
+    private static List<Property<Object, ?>> recordProperties(Class<?> type) {
+        try {
+            List<Property<Object, ?>> properties = new ArrayList<>();
+            for (Object component : (Object[]) Class.class.getMethod("getRecordComponents").invoke(type)) {
+                Method accessor = (Method) component.getClass().getMethod("getAccessor").invoke(component);
+                properties.add(property(type, accessor.getName(), accessor, null));
+            }
+            return properties;
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalArgumentException(String.format("Cannot introspect record %s", type.getName()), exception);
+        }
+    }
+
+    /**
+     * Collect the properties of a bean from its public getters and setters (sorted by name).
+     *
+     * @param type The bean class.
+     * @return The properties.
+     */
+    private static List<Property<Object, ?>> beanProperties(Class<?> type) {
+        Map<String, Method> getters = new TreeMap<>();
+        Map<String, Method> setters = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+            String name = method.getName();
+            if (method.getParameterCount() == 0 && method.getReturnType() != void.class) {
+                if (name.length() > 3 && name.startsWith("get") && !name.equals("getClass")) {
+                    getters.put(decapitalize(name.substring(3)), method);
+                } else if (name.length() > 2 && name.startsWith("is") && (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class)) {
+                    getters.put(decapitalize(name.substring(2)), method);
+                }
+            } else if (method.getParameterCount() == 1 && name.length() > 3 && name.startsWith("set")) {
+                setters.put(decapitalize(name.substring(3)) + ":" + method.getParameterTypes()[0].getName(), method);
+            }
+        }
+        List<Property<Object, ?>> properties = new ArrayList<>();
+        getters.forEach((name, getter) -> properties.add(property(type, name, getter, setters.get(name + ":" + getter.getReturnType().getName()))));
+        return properties;
+    }
+
+    /**
+     * Decapitalize a name (following the java beans convention).
+     *
+     * @param name The name.
+     * @return The decapitalized name.
+     */
+    private static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Create a property.
+     *
+     * @param type   The bean class.
+     * @param name   The property name.
+     * @param getter The getter.
+     * @param setter The setter (may be null).
+     * @return The property.
+     */
+    @SuppressWarnings("unchecked")
+    private static Property<Object, ?> property(Class<?> type, String name, Method getter, Method setter) {
+        Property<Object, ?> primitive = primitiveProperty(name, getter, setter);
+        if (primitive != null) {
+            return primitive;
+        }
+        return new Property<>(name, getter(getter), setter == null ? null : setter(setter), (Model<Object>) derive(getter.getGenericReturnType(), type));
+    }
+
+    /**
+     * Create a primitive property (for <code>int</code>, <code>long</code>, <code>double</code> and
+     * <code>boolean</code> getters) which can be accessed without boxing.
+     *
+     * @param name   The property name.
+     * @param getter The getter.
+     * @param setter The setter (may be null).
+     * @return The property or null if the getter is not primitive or if its accessors cannot be spun as lambdas.
+     */
+    @SuppressWarnings("unchecked")
+    private static Property<Object, ?> primitiveProperty(String name, Method getter, Method setter) {
+        Class<?> type = getter.getReturnType();
+        if (type == int.class) {
+            ToIntFunction<Object> intGetter = accessor(getter, ToIntFunction.class, "applyAsInt", MethodType.methodType(int.class, Object.class));
+            ObjIntConsumer<Object> intSetter = setter == null ? null : accessor(setter, ObjIntConsumer.class, "accept", MethodType.methodType(void.class, Object.class, int.class));
+            return intGetter == null || setter != null && intSetter == null ? null : new IntProperty<>(name, intGetter, intSetter);
+        }
+        if (type == long.class) {
+            ToLongFunction<Object> longGetter = accessor(getter, ToLongFunction.class, "applyAsLong", MethodType.methodType(long.class, Object.class));
+            ObjLongConsumer<Object> longSetter = setter == null ? null : accessor(setter, ObjLongConsumer.class, "accept", MethodType.methodType(void.class, Object.class, long.class));
+            return longGetter == null || setter != null && longSetter == null ? null : new LongProperty<>(name, longGetter, longSetter);
+        }
+        if (type == double.class) {
+            ToDoubleFunction<Object> doubleGetter = accessor(getter, ToDoubleFunction.class, "applyAsDouble", MethodType.methodType(double.class, Object.class));
+            ObjDoubleConsumer<Object> doubleSetter = setter == null ? null : accessor(setter, ObjDoubleConsumer.class, "accept", MethodType.methodType(void.class, Object.class, double.class));
+            return doubleGetter == null || setter != null && doubleSetter == null ? null : new DoubleProperty<>(name, doubleGetter, doubleSetter);
+        }
+        if (type == boolean.class) {
+            Predicate<Object> booleanGetter = accessor(getter, Predicate.class, "test", MethodType.methodType(boolean.class, Object.class));
+            return booleanGetter == null ? null : new BooleanProperty<>(name, booleanGetter, setter == null ? null : setter(setter));
+        }
+        return null;
+    }
+
+    /**
+     * Spin a primitive accessor lambda.
+     *
+     * @param method         The accessor method.
+     * @param functionalType The functional interface.
+     * @param name           The functional interface method name.
+     * @param erasedType     The erased type of the functional interface method.
+     * @param <F>            The functional interface type.
+     * @return The lambda or null if it cannot be spun.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <F> F accessor(Method method, Class functionalType, String name, MethodType erasedType) {
+        MethodHandle handle = unreflect(method);
+        return (F) spin(method.getDeclaringClass(), handle, functionalType, name, erasedType, handle.type().changeReturnType(erasedType.returnType()));
+    }
+
+    /**
+     * Turn a getter into a function.
+     *
+     * @param method The getter.
+     * @return The function.
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Method method) {
+        MethodHandle handle = unreflect(method);
+        MethodType type = handle.type().wrap();
+        Function<Object, Object> function = (Function<Object, Object>) spin(method.getDeclaringClass(), handle, Function.class, "apply", type.generic(), type);
+        if (function == null) {
+            MethodHandle generic = handle.asType(handle.type().generic());
+            function = target -> {
+                try {
+                    return generic.invokeExact(target);
+                } catch (RuntimeException | Error exception) {
+                    throw exception;
+                } catch (Throwable throwable) {
+                    throw new IllegalStateException(throwable);
+                }
+            };
+        }
+        return function;
+    }
+
+    /**
+     * Turn a setter into a consumer.
+     *
+     * @param method The setter.
+     * @return The consumer.
+     */
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Method method) {
+        MethodHandle handle = unreflect(method);
+        MethodType type = handle.type().wrap().changeReturnType(void.class);
+        BiConsumer<Object, Object> consumer = (BiConsumer<Object, Object>) spin(method.getDeclaringClass(), handle, BiConsumer.class, "accept", type.generic().changeReturnType(void.class), type);
+        if (consumer == null) {
+            MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            consumer = (target, value) -> {
+                try {
+                    generic.invokeExact(target, value);
+                } catch (RuntimeException | Error exception) {
+                    throw exception;
+                } catch (Throwable throwable) {
+                    throw new IllegalStateException(throwable);
+                }
+            };
+        }
+        return consumer;
+    }
+
+    /**
+     * Turn the public no-arg constructor (if any) of a concrete class into a supplier.
+     *
+     * @param type The class.
+     * @return The supplier or null.
+     */
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> instantiator(Class<?> type) {
+        if (Modifier.isAbstract(type.getModifiers()) || type.getEnclosingClass() != null && !Modifier.isStatic(type.getModifiers())) {
+            return null;
+        }
+        Constructor<?> constructor;
+        MethodHandle handle;
+        try {
+            constructor = type.getConstructor();
+            constructor.setAccessible(true);
+            handle = MethodHandles.lookup().unreflectConstructor(constructor);
+        } catch (ReflectiveOperationException | SecurityException exception) {
+            return null;
+        }
+        Supplier<Object> supplier = (Supplier<Object>) spin(type, handle, Supplier.class, "get", MethodType.methodType(Object.class), handle.type());
+        if (supplier == null) {
+            MethodHandle generic = handle.asType(handle.type().generic());
+            supplier = () -> {
+                try {
+                    return generic.invokeExact();
+                } catch (RuntimeException | Error exception) {
+                    throw exception;
+                } catch (Throwable throwable) {
+                    throw new IllegalStateException(throwable);
+                }
+            };
+        }
+        return supplier;
+    }
+
+    /**
+     * Get a method handle for a public method (which may be declared by a non-public class).
+     *
+     * @param method The method.
+     * @return The method handle.
+     */
+    private static MethodHandle unreflect(Method method) {
+        try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException | SecurityException exception) {
+            throw new IllegalArgumentException(String.format("Cannot access %s", method), exception);
+        }
+    }
+
+    /**
+     * Spin a lambda implementing a functional interface with the given method handle. This is only possible when the
+     * declaring class is public and visible from this class loader (as the lambda is defined by this class).
+     *
+     * @param declaringClass   The class declaring the implementation method.
+     * @param handle           The implementation method handle.
+     * @param functionalType   The functional interface.
+     * @param name             The functional interface method name.
+     * @param erasedType       The erased type of the functional interface method.
+     * @param instantiatedType The instantiated type of the functional interface method.
+     * @return The lambda or null if it cannot be spun.
+     */
+    private static Object spin(Class<?> declaringClass, MethodHandle handle, Class<?> functionalType, String name, MethodType erasedType, MethodType instantiatedType) {
+        if (!isVisible(declaringClass)) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            CallSite site = LambdaMetafactory.metafactory(lookup, name, MethodType.methodType(functionalType), erasedType, handle, instantiatedType);
+            return site.getTarget().invoke();
+        } catch (VirtualMachineError error) {
+            throw error;
+        } catch (Throwable throwable) {
+            return null;
+        }
+    }
+
+    /**
+     * Check if a class (and its enclosing classes) is public and visible from this class loader.
+     *
+     * @param type The class.
+     * @return <code>true</code> if the class is visible.
+     */
+    private static boolean isVisible(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getEnclosingClass()) {
+            if (!Modifier.isPublic(current.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(type.getName(), false, ModelDeriver.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Not instantiable.
+     */
+    private ModelDeriver() {
+    }
+}
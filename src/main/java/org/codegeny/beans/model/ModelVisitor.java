@@ -71,4 +71,28 @@ public interface ModelVisitor<T, R> {
      * @return The result.
      */
     R visitValue(ValueModel<T> value);
+
+    /**
+     * Visit a {@link LazyModel}. By default, the referenced model is visited instead (which is fine for visitors driven
+     * by data but visitors walking the whole model must override this method, see
+     * {@link LazyModel#compile(Object, java.util.function.Function, java.util.function.Function)}).
+     *
+     * @param lazy The lazy model.
+     * @return The result.
+     */
+    default R visitLazy(LazyModel<T> lazy) {
+        return lazy.getModel().accept(this);
+    }
+
+    /**
+     * Visit a {@link PolymorphicModel}. By default, the base model is visited instead (which restricts the visitor to
+     * the properties shared by all subtypes). Visitors driven by data should rather visit the model of the actual
+     * instance (see {@link PolymorphicModel#modelOf(Object)}).
+     *
+     * @param polymorphic The polymorphic model.
+     * @return The result.
+     */
+    default R visitPolymorphic(PolymorphicModel<T> polymorphic) {
+        return polymorphic.getBaseModel().accept(this);
+    }
 }
@@ -0,0 +1,223 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+import org.codegeny.beans.diff.Diff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An implementation of {@link Model} for a type hierarchy (see {@link Model#polymorphic(Model, BeanModel[])}). Each
+ * instance is handled by the model of the most specific registered subtype of its class (or by the base model if no
+ * subtype matches). The resolution is cached per class (through a {@link ClassValue}) and the last resolved class is
+ * remembered so that homogeneous data (where all elements share the same class) pays a single reference comparison per
+ * instance.
+ * <p>
+ * Two instances resolved to different models are never equal: they are ordered by model (base model first, then
+ * subtypes in registration order) and their diff is a single {@link Diff.Status#MODIFIED} leaf (which makes them
+ * appear as {@link Diff.Status#REMOVED} + {@link Diff.Status#ADDED} inside collections).
+ * <p>
+ * Serializers and tables (JSON, binary, flat formats and bean tables) do not write any type discriminator and reject
+ * polymorphic models with an {@link IllegalArgumentException}.
+ *
+ * @param <T> The model type.
+ * @author Xavier DURY
+ */
+public final class PolymorphicModel<T> implements Model<T> {
+
+    /**
+     * A resolved class and its model index.
+     */
+    private static final class Resolved {
+
+        /**
+         * The class.
+         */
+        final Class<?> type;
+
+        /**
+         * The model index.
+         */
+        final int index;
+
+        /**
+         * Constructor.
+         *
+         * @param type  The class.
+         * @param index The model index.
+         */
+        Resolved(Class<?> type, int index) {
+            this.type = type;
+            this.index = index;
+        }
+    }
+
+    /**
+     * The models (base model first, then subtype models).
+     */
+    private final List<Model<T>> models;
+
+    /**
+     * The subtypes (parallel to {@link #models}, base model excluded).
+     */
+    private final Class<?>[] types;
+
+    /**
+     * The resolution per class (computed once, so that switching classes does not allocate).
+     */
+    private final ClassValue<Resolved> resolutions = new ClassValue<Resolved>() {
+
+        @Override
+        protected Resolved computeValue(Class<?> type) {
+            int result = 0;
+            for (int i = 0; i < types.length; i++) {
+                if (types[i].isAssignableFrom(type) && (result == 0 || types[result - 1].isAssignableFrom(types[i]))) {
+                    result = i + 1;
+                }
+            }
+            return new Resolved(type, result);
+        }
+    };
+
+    /**
+     * The last resolved class (a benign race, instances are immutable).
+     */
+    private Resolved last = new Resolved(null, 0);
+
+    /**
+     * Constructor.
+     *
+     * @param baseModel     The base model.
+     * @param subtypeModels The subtype models.
+     */
+    @SuppressWarnings("unchecked")
+    PolymorphicModel(Model<T> baseModel, List<? extends BeanModel<? extends T>> subtypeModels) {
+        List<Model<T>> models = new ArrayList<>(subtypeModels.size() + 1);
+        models.add(requireNonNull(baseModel));
+        this.types = new Class<?>[subtypeModels.size()];
+        for (int i = 0; i < types.length; i++) {
+            BeanModel<? extends T> subtypeModel = requireNonNull(subtypeModels.get(i));
+            types[i] = subtypeModel.getType();
+            for (int j = 0; j < i; j++) {
+                if (types[j] == types[i]) {
+                    throw new IllegalArgumentException("Duplicate subtype model for " + types[i].getName());
+                }
+            }
+            models.add((Model<T>) subtypeModel);
+        }
+        this.models = unmodifiableList(models);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <R> R accept(ModelVisitor<T, ? extends R> visitor) {
+        return requireNonNull(visitor).visitPolymorphic(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compare(T left, T right) {
+        int index = indexOf(left, right);
+        return index < 0
+                ? Integer.compare(indexOf(left), indexOf(right))
+                : models.get(index).compare(left, right);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Diff<T> diff(T left, T right) {
+        int index = indexOf(left, right);
+        return index < 0
+                ? Diff.simple(Diff.Status.MODIFIED, left, right)
+                : models.get(index).diff(left, right);
+    }
+
+    /**
+     * Get the base model.
+     *
+     * @return The base model.
+     */
+    public Model<T> getBaseModel() {
+        return models.get(0);
+    }
+
+    /**
+     * Get all models (the base model at index 0, then the subtype models in registration order).
+     *
+     * @return The models.
+     */
+    public List<Model<T>> getModels() {
+        return models;
+    }
+
+    /**
+     * Get the index (in {@link #getModels()}) of the model handling the given instance.
+     *
+     * @param target The instance (or null for the base model).
+     * @return The model index.
+     */
+    public int indexOf(T target) {
+        if (target == null) {
+            return 0;
+        }
+        Class<?> type = target.getClass();
+        Resolved resolved = last;
+        if (resolved.type != type) {
+            last = resolved = resolutions.get(type);
+        }
+        return resolved.index;
+    }
+
+    /**
+     * Get the index (in {@link #getModels()}) of the model handling both instances (a null instance is handled by the
+     * model of the other one).
+     *
+     * @param left  The left instance.
+     * @param right The right instance.
+     * @return The model index or -1 if both instances are handled by different models.
+     */
+    public int indexOf(T left, T right) {
+        if (left == null || right == null || left.getClass() == right.getClass()) {
+            return indexOf(left != null ? left : right);
+        }
+        int index = indexOf(left);
+        return index == indexOf(right) ? index : -1;
+    }
+
+    /**
+     * Get the model handling the given instance.
+     *
+     * @param target The instance (or null for the base model).
+     * @return The model.
+     */
+    public Model<T> modelOf(T target) {
+        return models.get(indexOf(target));
+    }
+}
@@ -35,13 +35,15 @@ import java.util.function.IntFunction;
 import static java.util.Objects.requireNonNull;
 
 /**
- * Property class to be used with {@link BeanModel}.
+ * Property class to be used with {@link BeanModel}. Properties of primitive types may be specialized (see
+ * {@link IntProperty}, {@link LongProperty}, {@link DoubleProperty} and {@link BooleanProperty}) so that visitors can
+ * access their values without boxing (see {@link #accept(PropertyVisitor)}).
  *
  * @param <B> The bean type.
  * @param <P> The property type.
  * @author Xavier DURY
  */
-public final class Property<B, P> {
+public class Property<B, P> {
 
     /**
      * The property name.
@@ -54,7 +56,7 @@ public final class Property<B, P> {
     private final Function<? super B, ? extends P> getter;
 
     /**
-     * The property setter method.
+     * The property setter method (or null if the property is read-only).
      */
     private final BiConsumer<? super B, ? super P> setter;
 
@@ -68,13 +70,13 @@ public final class Property<B, P> {
      *
      * @param name   he property name.
      * @param getter The property getter method.
-     * @param setter The property setter method.
+     * @param setter The property setter method (or null if the property is read-only).
      * @param model  The property model.
      */
     Property(String name, Function<? super B, ? extends P> getter, BiConsumer<? super B, ? super P> setter, Model<P> model) {
         this.name = requireNonNull(name);
         this.getter = requireNonNull(getter);
-        this.setter = requireNonNull(setter);
+        this.setter = setter;
         this.model = requireNonNull(model);
     }
 
@@ -135,6 +137,18 @@ public final class Property<B, P> {
         return model.accept(visitor);
     }
 
+    /**
+     * Accept a {@link PropertyVisitor} (primitive properties call their specialized method).
+     *
+     * @param visitor A visitor
+     * @param <C>     The type of the beans the visitor will access.
+     * @param <R>     The result type.
+     * @return The result.
+     */
+    public <C extends B, R> R accept(PropertyVisitor<C, P, ? extends R> visitor) {
+        return visitor.visitProperty(this);
+    }
+
     /**
      * Get the property from the bean.
      *
@@ -146,17 +160,30 @@ public final class Property<B, P> {
     }
 
     /**
-     * Set the property to the bean.
+     * Set the property to the bean (does nothing if the bean is null).
      *
      * @param bean  The bean.
      * @param value The property new value.
+     * @throws UnsupportedOperationException If the property is read-only (and the bean is not null).
      */
     public void set(B bean, P value) {
         if (bean != null) {
+            if (setter == null) {
+                throw new UnsupportedOperationException(String.format("Property '%s' is read-only", name));
+            }
             setter.accept(bean, value);
         }
     }
 
+    /**
+     * Is this property read-only (i.e. it was not given any setter)?
+     *
+     * @return <code>true</code> if the property is read-only.
+     */
+    public boolean isReadOnly() {
+        return setter == null;
+    }
+
     /**
      * Get the property {@link Model}.
      *
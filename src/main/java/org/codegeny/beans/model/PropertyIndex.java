@@ -0,0 +1,182 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable table of property names which assigns a stable integer index to each name (in declaration order) and
+ * resolves a name to its index in constant time.
+ * <p>
+ * Names are stored in an open-addressing table whose hash multiplier is chosen at construction time to avoid
+ * collisions. For the usual number of properties of a bean, this gives a perfect hash (one probe per lookup); if no
+ * such multiplier can be found, lookups gracefully degrade to linear probing.
+ *
+ * @author Xavier DURY
+ */
+public final class PropertyIndex implements Serializable {
+
+    /**
+     * @see java.io.Serializable
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of multipliers tried before settling for the one with the least collisions.
+     */
+    private static final int MAX_ATTEMPTS = 32;
+
+    /**
+     * The property names in declaration order.
+     */
+    private final String[] names;
+
+    /**
+     * The hash table containing <code>index + 1</code> for each used slot (<code>0</code> means empty).
+     */
+    private final int[] table;
+
+    /**
+     * The hash multiplier.
+     */
+    private final int multiplier;
+
+    /**
+     * The shift to apply on the multiplied hash to get a slot.
+     */
+    private final int shift;
+
+    /**
+     * Constructor.
+     *
+     * @param names The property names in declaration order.
+     * @throws IllegalArgumentException If the same name appears more than once.
+     */
+    public PropertyIndex(Collection<String> names) {
+        this.names = names.toArray(new String[0]);
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(this.names.length * 2));
+        this.shift = 32 - bits;
+        int bestMultiplier = 0;
+        int[] bestTable = null;
+        int bestCost = Integer.MAX_VALUE;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && bestCost > 0; attempt++) {
+            int candidate = 0x9E3779B9 + attempt * 0x632BE5AB | 1;
+            int[] candidateTable = new int[1 << bits];
+            int cost = 0;
+            for (int i = 0; i < this.names.length; i++) {
+                String name = requireNonNull(this.names[i]);
+                int slot = slot(name.hashCode(), candidate, candidateTable.length - 1);
+                while (candidateTable[slot] != 0) {
+                    if (this.names[candidateTable[slot] - 1].equals(name)) {
+                        throw new IllegalArgumentException(String.format("Duplicate property '%s'", name));
+                    }
+                    slot = (slot + 1) & (candidateTable.length - 1);
+                    cost++;
+                }
+                candidateTable[slot] = i + 1;
+            }
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestTable = candidateTable;
+                bestMultiplier = candidate;
+            }
+        }
+        this.table = bestTable;
+        this.multiplier = bestMultiplier;
+    }
+
+    /**
+     * Compute the initial slot for the given hash.
+     *
+     * @param hash       The name hash.
+     * @param multiplier The hash multiplier.
+     * @param mask       The table mask.
+     * @return The slot.
+     */
+    private int slot(int hash, int multiplier, int mask) {
+        return (hash * multiplier >>> shift) & mask;
+    }
+
+    /**
+     * Compute the same hash as {@link String#hashCode()} for any {@link CharSequence}.
+     *
+     * @param name The name.
+     * @return The hash.
+     */
+    private static int hash(CharSequence name) {
+        if (name instanceof String) {
+            return name.hashCode();
+        }
+        int hash = 0;
+        for (int i = 0, length = name.length(); i < length; i++) {
+            hash = 31 * hash + name.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Get the index of the given property name.
+     * Any {@link CharSequence} can be used so that names can be looked up from a reusable buffer.
+     *
+     * @param name The property name.
+     * @return The index of the property or <code>-1</code> if there is no such property.
+     */
+    public int indexOf(CharSequence name) {
+        int mask = table.length - 1;
+        int slot = slot(hash(requireNonNull(name)), multiplier, mask);
+        for (int entry = table[slot]; entry != 0; entry = table[slot = (slot + 1) & mask]) {
+            if (names[entry - 1].contentEquals(name)) {
+                return entry - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the property name at the given index.
+     *
+     * @param index The property index.
+     * @return The property name.
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Get the number of properties.
+     *
+     * @return The number of properties.
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(names);
+    }
+}
@@ -0,0 +1,86 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+/**
+ * Visitor for a {@link Property} which can return a result of type &lt;R&gt; (see {@link Property#accept(PropertyVisitor)}).
+ * This is the single place where primitive properties are told apart: each specialization calls its own method which,
+ * by default, falls back to {@link #visitProperty(Property)} so that visitors only override the primitive kinds they can
+ * handle without boxing (a specialization only calls the method matching its type, so &lt;P&gt; is then its boxed type).
+ *
+ * @param <B> The type of the beans the visitor will access.
+ * @param <P> The property type.
+ * @param <R> The result type.
+ * @author Xavier DURY
+ */
+public interface PropertyVisitor<B, P, R> {
+
+    /**
+     * Visit a {@link Property} (or a primitive property whose method was not overridden).
+     *
+     * @param property The property.
+     * @return The result.
+     */
+    R visitProperty(Property<? super B, P> property);
+
+    /**
+     * Visit an {@link IntProperty}.
+     *
+     * @param property The property.
+     * @return The result.
+     */
+    @SuppressWarnings("unchecked")
+    default R visitInt(IntProperty<? super B> property) {
+        return visitProperty((Property<? super B, P>) property);
+    }
+
+    /**
+     * Visit a {@link LongProperty}.
+     *
+     * @param property The property.
+     * @return The result.
+     */
+    @SuppressWarnings("unchecked")
+    default R visitLong(LongProperty<? super B> property) {
+        return visitProperty((Property<? super B, P>) property);
+    }
+
+    /**
+     * Visit a {@link DoubleProperty}.
+     *
+     * @param property The property.
+     * @return The result.
+     */
+    @SuppressWarnings("unchecked")
+    default R visitDouble(DoubleProperty<? super B> property) {
+        return visitProperty((Property<? super B, P>) property);
+    }
+
+    /**
+     * Visit a {@link BooleanProperty}.
+     *
+     * @param property The property.
+     * @return The result.
+     */
+    @SuppressWarnings("unchecked")
+    default R visitBoolean(BooleanProperty<? super B> property) {
+        return visitProperty((Property<? super B, P>) property);
+    }
+}
@@ -19,6 +19,8 @@
  */
 package org.codegeny.beans.model;
 
+import java.util.Iterator;
+import java.util.NavigableSet;
 import java.util.Set;
 import java.util.function.Function;
 
@@ -44,15 +46,22 @@ public final class SetModel<S, E> implements Model<S> {
      */
     private final Function<? super S, ? extends Set<E>> converter;
 
+    /**
+     * A function to convert a Set&gt;E&lt; back to the type &gt;S&lt; (or null if not supported).
+     */
+    private final Function<? super Set<E>, ? extends S> reverse;
+
     /**
      * Constructor.
      *
      * @param elementModel The element model.
      * @param converter    A function to convert the type &gt;L&gt; to Set&gt;E&lt;.
+     * @param reverse      A function to convert a Set&gt;E&lt; back to the type &gt;S&lt; (or null if not supported).
      */
-    SetModel(Model<E> elementModel, Function<? super S, ? extends Set<E>> converter) {
+    SetModel(Model<E> elementModel, Function<? super S, ? extends Set<E>> converter, Function<? super Set<E>, ? extends S> reverse) {
         this.elementModel = requireNonNull(elementModel);
         this.converter = requireNonNull(converter);
+        this.reverse = reverse;
     }
 
     /**
@@ -84,6 +93,80 @@ public final class SetModel<S, E> implements Model<S> {
         return values == null ? emptySet() : converter.apply(values);
     }
 
+    /**
+     * Transform a Set&lt;E&gt; back to the type &lt;S&gt;.
+     *
+     * @param values The elements.
+     * @return A value of type &lt;S&gt;.
+     * @throws UnsupportedOperationException If this model was not given a way to build a &lt;S&gt;.
+     */
+    public S fromSet(Set<E> values) {
+        if (reverse == null) {
+            throw new UnsupportedOperationException("This set model cannot be built from a Set");
+        }
+        return values == null ? null : reverse.apply(values);
+    }
+
+    /**
+     * Get the element at the given position (in iteration order) in the given set. Sets have no indexed access so this
+     * is O(n) in general but the first and last elements of a {@link NavigableSet} are returned directly and its
+     * upper half is iterated backwards.
+     *
+     * @param set   The set.
+     * @param index The position.
+     * @return The element or null if the position is out of bounds.
+     */
+    public E getElement(Set<E> set, int index) {
+        int size = set.size();
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        Iterator<E> iterator;
+        int steps;
+        if (set instanceof NavigableSet<?>) {
+            NavigableSet<E> navigable = (NavigableSet<E>) set;
+            if (index == 0) {
+                return navigable.first();
+            }
+            if (index == size - 1) {
+                return navigable.last();
+            }
+            iterator = index < size / 2 ? navigable.iterator() : navigable.descendingIterator();
+            steps = index < size / 2 ? index : size - 1 - index;
+        } else {
+            iterator = set.iterator();
+            steps = index;
+        }
+        while (steps-- > 0) {
+            iterator.next();
+        }
+        return iterator.next();
+    }
+
+    /**
+     * Find the instance held by the given set which is equal to the given key. Misses are detected through the set own
+     * lookup (hash lookup for hash sets, O(log n) for {@link NavigableSet}s); hits are resolved in O(log n) for
+     * {@link NavigableSet}s and by scanning the set otherwise.
+     *
+     * @param set The set.
+     * @param key The key.
+     * @return The element held by the set or null if the set does not contain the key.
+     */
+    public E findElement(Set<E> set, E key) {
+        if (key == null || !set.contains(key)) {
+            return null;
+        }
+        if (set instanceof NavigableSet<?>) {
+            return ((NavigableSet<E>) set).floor(key);
+        }
+        for (E element : set) {
+            if (key.equals(element)) {
+                return element;
+            }
+        }
+        return null;
+    }
+
     /**
      * Get the element model.
      *
@@ -37,6 +37,11 @@ public final class ValueModel<V> implements Model<V> {
      */
     private final Comparator<? super V> comparator;
 
+    /**
+     * The null-safe comparator (nulls last) for &gt;V&lt;.
+     */
+    private final Comparator<? super V> nullSafeComparator;
+
     /**
      * The value type.
      */
@@ -50,7 +55,8 @@ public final class ValueModel<V> implements Model<V> {
      */
     ValueModel(Class<? extends V> type, Comparator<? super V> comparator) {
         this.type = requireNonNull(type);
-        this.comparator = nullsLast(requireNonNull(comparator));
+        this.comparator = requireNonNull(comparator);
+        this.nullSafeComparator = nullsLast(comparator);
     }
 
     /**
@@ -66,7 +72,16 @@ public final class ValueModel<V> implements Model<V> {
      */
     @Override
     public int compare(V left, V right) {
-        return comparator.compare(left, right);
+        return nullSafeComparator.compare(left, right);
+    }
+
+    /**
+     * Return the comparator given for this value (which is not null-safe).
+     *
+     * @return The comparator.
+     */
+    public Comparator<? super V> getComparator() {
+        return comparator;
     }
 
     /**
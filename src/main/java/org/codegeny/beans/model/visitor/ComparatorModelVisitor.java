@@ -0,0 +1,226 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model.visitor;
+
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.BooleanProperty;
+import org.codegeny.beans.model.DoubleProperty;
+import org.codegeny.beans.model.IntProperty;
+import org.codegeny.beans.model.LazyModel;
+import org.codegeny.beans.model.ListModel;
+import org.codegeny.beans.model.LongProperty;
+import org.codegeny.beans.model.MapModel;
+import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
+import org.codegeny.beans.model.Property;
+import org.codegeny.beans.model.PropertyVisitor;
+import org.codegeny.beans.model.SetModel;
+import org.codegeny.beans.model.ValueModel;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Compile a {@link org.codegeny.beans.model.Model}&gt;T&lt; into a {@link Comparator}&gt;T&lt;.
+ * The whole model tree is walked only once and each node is turned into a specialized comparator which keeps
+ * references to its (already compiled) children. The resulting comparator yields the same results as
+ * {@link CompareModelVisitor} but does not allocate anything per comparison for beans, values and lists (sets and maps
+ * still need to be sorted).
+ *
+ * @param <T> The model type.
+ * @author Xavier DURY
+ */
+public final class ComparatorModelVisitor<T> implements ModelVisitor<T, Comparator<T>> {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Comparator<T> visitBean(BeanModel<T> bean) {
+        @SuppressWarnings("unchecked")
+        Comparator<T>[] comparators = bean.getProperties().stream().map(this::visitProperty).toArray(Comparator[]::new);
+        return (left, right) -> {
+            for (Comparator<T> comparator : comparators) {
+                int comparison = comparator.compare(left, right);
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Comparator<T> visitLazy(LazyModel<T> lazy) {
+        return lazy.compile(ComparatorModelVisitor.class, model -> model.accept(new ComparatorModelVisitor<>()), comparator -> (left, right) -> comparator.get().compare(left, right));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Comparator<T> visitValue(ValueModel<T> value) {
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Comparator<T> visitPolymorphic(PolymorphicModel<T> polymorphic) {
+        List<Comparator<T>> comparators = polymorphic.getModels().stream().map(model -> model.accept(new ComparatorModelVisitor<>())).collect(toList());
+        return (left, right) -> {
+            int index = polymorphic.indexOf(left, right);
+            return index < 0
+                    ? Integer.compare(polymorphic.indexOf(left), polymorphic.indexOf(right))
+                    : comparators.get(index).compare(left, right);
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <K, V> Comparator<T> visitMap(MapModel<T, K, V> map) {
+        Comparator<K> keyComparator = map.acceptKey(new ComparatorModelVisitor<>());
+        Comparator<V> valueComparator = map.acceptValue(new ComparatorModelVisitor<>());
+        return (left, right) -> {
+            Map<K, V> leftMap = map.toMap(left);
+            Map<K, V> rightMap = map.toMap(right);
+            Set<K> keys = new TreeSet<>(keyComparator);
+            keys.addAll(leftMap.keySet());
+            keys.addAll(rightMap.keySet());
+            for (K key : keys) {
+                int comparison = valueComparator.compare(leftMap.get(key), rightMap.get(key));
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> Comparator<T> visitSet(SetModel<T, E> set) {
+        Comparator<E> elementComparator = set.acceptElement(new ComparatorModelVisitor<>());
+        return (left, right) -> {
+            @SuppressWarnings("unchecked")
+            E[] leftArray = (E[]) set.toSet(left).toArray();
+            @SuppressWarnings("unchecked")
+            E[] rightArray = (E[]) set.toSet(right).toArray();
+            Arrays.sort(leftArray, elementComparator);
+            Arrays.sort(rightArray, elementComparator);
+            return compareLists(elementComparator, Arrays.asList(leftArray), Arrays.asList(rightArray));
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> Comparator<T> visitList(ListModel<T, E> list) {
+        Comparator<E> elementComparator = list.acceptElement(new ComparatorModelVisitor<>());
+        return (left, right) -> compareLists(elementComparator, list.toList(left), list.toList(right));
+    }
+
+    /**
+     * Compile a {@link BeanModel}'s property.
+     *
+     * @param property The property.
+     * @param <P>      The property type.
+     * @return A comparator which compares the property values of 2 beans.
+     */
+    private <P> Comparator<T> visitProperty(Property<? super T, P> property) {
+        Comparator<P> comparator = property.accept(new ComparatorModelVisitor<>());
+        Comparator<T> boxed = (left, right) -> comparator.compare(property.get(left), property.get(right));
+        return property.accept(new PropertyVisitor<T, P, Comparator<T>>() {
+
+            @Override
+            public Comparator<T> visitProperty(Property<? super T, P> property) {
+                return boxed;
+            }
+
+            @Override
+            public Comparator<T> visitInt(IntProperty<? super T> property) {
+                return (left, right) -> left == null || right == null ? boxed.compare(left, right) : Integer.compare(property.getInt(left), property.getInt(right));
+            }
+
+            @Override
+            public Comparator<T> visitLong(LongProperty<? super T> property) {
+                return (left, right) -> left == null || right == null ? boxed.compare(left, right) : Long.compare(property.getLong(left), property.getLong(right));
+            }
+
+            @Override
+            public Comparator<T> visitDouble(DoubleProperty<? super T> property) {
+                return (left, right) -> left == null || right == null ? boxed.compare(left, right) : Double.compare(property.getDouble(left), property.getDouble(right));
+            }
+
+            @Override
+            public Comparator<T> visitBoolean(BooleanProperty<? super T> property) {
+                return (left, right) -> left == null || right == null ? boxed.compare(left, right) : Boolean.compare(property.getBoolean(left), property.getBoolean(right));
+            }
+        });
+    }
+
+    /**
+     * Compare 2 lists element by element, lists with more elements come first (like absent values come last).
+     *
+     * @param comparator The comparator used to compare elements from the lists.
+     * @param left       The left list.
+     * @param right      The right list.
+     * @param <E>        The type of elements.
+     * @return An integer indicating the result of the comparison.
+     */
+    private static <E> int compareLists(Comparator<? super E> comparator, List<E> left, List<E> right) {
+        if (left instanceof RandomAccess && right instanceof RandomAccess) {
+            int size = Math.min(left.size(), right.size());
+            for (int i = 0; i < size; i++) {
+                int comparison = comparator.compare(left.get(i), right.get(i));
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return Integer.compare(right.size(), left.size());
+        }
+        Iterator<E> leftIterator = left.iterator();
+        Iterator<E> rightIterator = right.iterator();
+        while (leftIterator.hasNext() && rightIterator.hasNext()) {
+            int comparison = comparator.compare(leftIterator.next(), rightIterator.next());
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return leftIterator.hasNext() ? -1 : rightIterator.hasNext() ? +1 : 0;
+    }
+}
@@ -20,21 +20,26 @@
 package org.codegeny.beans.model.visitor;
 
 import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.BooleanProperty;
+import org.codegeny.beans.model.DoubleProperty;
+import org.codegeny.beans.model.IntProperty;
 import org.codegeny.beans.model.ListModel;
+import org.codegeny.beans.model.LongProperty;
 import org.codegeny.beans.model.MapModel;
 import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
 import org.codegeny.beans.model.Property;
+import org.codegeny.beans.model.PropertyVisitor;
 import org.codegeny.beans.model.SetModel;
 import org.codegeny.beans.model.ValueModel;
 
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
-import static java.util.Comparator.nullsLast;
-
 /**
  * Compare 2 objects whose structures are expressed by the same {@link org.codegeny.beans.model.Model}&gt;T&lt;.
  *
@@ -69,7 +74,14 @@ public final class CompareModelVisitor<T> implements ModelVisitor<T, Integer> {
      */
     @Override
     public Integer visitBean(BeanModel<T> bean) {
-        return bean.getProperties().stream().mapToInt(this::visitProperty).filter(i -> i != 0).findFirst().orElse(0);
+        List<Property<? super T, ?>> properties = bean.getProperties();
+        for (int i = 0, size = properties.size(); i < size; i++) {
+            int comparison = visitProperty(properties.get(i));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
     }
 
     /**
@@ -77,7 +89,15 @@ public final class CompareModelVisitor<T> implements ModelVisitor<T, Integer> {
      */
     @Override
     public Integer visitValue(ValueModel<T> value) {
-        return nullsLast(value).compare(left, right);
+        return value.compare(left, right);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer visitPolymorphic(PolymorphicModel<T> polymorphic) {
+        return polymorphic.compare(left, right);
     }
 
     /**
@@ -123,8 +143,10 @@ public final class CompareModelVisitor<T> implements ModelVisitor<T, Integer> {
      * @param <P>      The property type.
      * @return An integer indicating the result of the comparison.
      */
-    private <P> Integer visitProperty(Property<? super T, P> property) {
-        return property.getModel().compare(property.get(left), property.get(right));
+    private <P> int visitProperty(Property<? super T, P> property) {
+        return left != null && right != null
+                ? property.accept(new PropertyComparison<>())
+                : property.getModel().compare(property.get(left), property.get(right));
     }
 
     /**
@@ -145,4 +167,52 @@ public final class CompareModelVisitor<T> implements ModelVisitor<T, Integer> {
         }
         return leftIterator.hasNext() ? -1 : rightIterator.hasNext() ? +1 : 0;
     }
+
+    /**
+     * Compare the property values of the 2 (non-null) beans (primitive properties are compared without boxing).
+     *
+     * @param <P> The property type.
+     */
+    private final class PropertyComparison<P> implements PropertyVisitor<T, P, Integer> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Integer visitProperty(Property<? super T, P> property) {
+            return property.getModel().compare(property.get(left), property.get(right));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Integer visitInt(IntProperty<? super T> property) {
+            return Integer.compare(property.getInt(left), property.getInt(right));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Integer visitLong(LongProperty<? super T> property) {
+            return Long.compare(property.getLong(left), property.getLong(right));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Integer visitDouble(DoubleProperty<? super T> property) {
+            return Double.compare(property.getDouble(left), property.getDouble(right));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Integer visitBoolean(BooleanProperty<? super T> property) {
+            return Boolean.compare(property.getBoolean(left), property.getBoolean(right));
+        }
+    }
 }
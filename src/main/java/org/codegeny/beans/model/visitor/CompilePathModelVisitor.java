@@ -0,0 +1,302 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model.visitor;
+
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.ListModel;
+import org.codegeny.beans.model.MapModel;
+import org.codegeny.beans.model.Model;
+import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.Property;
+import org.codegeny.beans.model.SetModel;
+import org.codegeny.beans.model.ValueModel;
+import org.codegeny.beans.path.CompiledPath;
+import org.codegeny.beans.path.Converter;
+import org.codegeny.beans.path.Path;
+
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Visitor which compiles a {@link Path} into a {@link CompiledPath}. Path elements are converted with the same rules as
+ * {@link GetModelVisitor} and {@link SetModelVisitor} (property names, list and set indexes, map keys) but only once.
+ *
+ * @param <S> The path element type.
+ * @param <T> The target type.
+ * @param <V> The value type.
+ * @author Xavier DURY
+ */
+public final class CompilePathModelVisitor<S, T, V> implements ModelVisitor<T, CompiledPath<T, V>> {
+
+    /**
+     * Implementation of {@link CompiledPath}.
+     *
+     * @param <T> The target type.
+     * @param <V> The value type.
+     */
+    private static final class CompiledPathImpl<T, V> implements CompiledPath<T, V> {
+
+        /**
+         * The path.
+         */
+        private final Path<?> path;
+
+        /**
+         * The value type.
+         */
+        private final Type type;
+
+        /**
+         * The getter.
+         */
+        private final Function<? super T, ? extends V> getter;
+
+        /**
+         * The setter (null if the target cannot be set).
+         */
+        private final BiConsumer<? super T, ? super V> setter;
+
+        /**
+         * Constructor.
+         *
+         * @param path   The path.
+         * @param type   The value type.
+         * @param getter The getter.
+         * @param setter The setter (null if the target cannot be set).
+         */
+        CompiledPathImpl(Path<?> path, Type type, Function<? super T, ? extends V> getter, BiConsumer<? super T, ? super V> setter) {
+            this.path = path;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Path<?> getPath() {
+            return path;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public V get(T target) {
+            return getter.apply(target);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void set(T target, V value) {
+            if (setter == null) {
+                throw new UnsupportedOperationException("Cannot set root object");
+            }
+            setter.accept(target, value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return path.toString();
+        }
+    }
+
+    /**
+     * The whole path.
+     */
+    private final Path<? extends S> path;
+
+    /**
+     * The remaining path elements.
+     */
+    private final Iterator<? extends S> elements;
+
+    /**
+     * The converter.
+     */
+    private final Converter<? super S> converter;
+
+    /**
+     * Constructor.
+     *
+     * @param path      The path.
+     * @param converter The converter for path elements.
+     */
+    public CompilePathModelVisitor(Path<? extends S> path, Converter<? super S> converter) {
+        this(path, path.iterator(), converter);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param path      The whole path.
+     * @param elements  The remaining path elements.
+     * @param converter The converter for path elements.
+     */
+    private CompilePathModelVisitor(Path<? extends S> path, Iterator<? extends S> elements, Converter<? super S> converter) {
+        this.path = path;
+        this.elements = elements;
+        this.converter = converter;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompiledPath<T, V> visitBean(BeanModel<T> bean) {
+        if (!elements.hasNext()) {
+            return terminal(bean, null);
+        }
+        String name = converter.convert(String.class, elements.next());
+        Property<? super T, ?> property = bean.getProperty(name);
+        if (property == null) {
+            throw new IllegalArgumentException(String.format("Unknown property '%s' in path %s", name, path));
+        }
+        return visitProperty(property);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> CompiledPath<T, V> visitList(ListModel<T, E> list) {
+        if (!elements.hasNext()) {
+            return terminal(list, (target, value) -> {
+                List<E> elements = list.toList(target);
+                elements.clear();
+                elements.addAll(list.toList(value));
+            });
+        }
+        int index = converter.<Integer>convert(Integer.class, elements.next());
+        return nested(list.getElementModel(), target -> list.toList(target).get(index), (target, element) -> list.toList(target).set(index, element));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <K, W> CompiledPath<T, V> visitMap(MapModel<T, K, W> map) {
+        if (!elements.hasNext()) {
+            return terminal(map, (target, value) -> {
+                Map<K, W> entries = map.toMap(target);
+                entries.clear();
+                entries.putAll(map.toMap(value));
+            });
+        }
+        K key = converter.convert(TypeModelVisitor.typeOf(map.getKeyModel()), elements.next());
+        return nested(map.getValueModel(), target -> map.toMap(target).get(key), (target, value) -> map.toMap(target).put(key, value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> CompiledPath<T, V> visitSet(SetModel<T, E> set) {
+        if (!elements.hasNext()) {
+            return terminal(set, (target, value) -> {
+                Set<E> elements = set.toSet(target);
+                elements.clear();
+                elements.addAll(set.toSet(value));
+            });
+        }
+        int index = converter.<Integer>convert(Integer.class, elements.next());
+        return nested(set.getElementModel(), target -> set.getElement(set.toSet(target), index), (target, element) -> {
+            Set<E> elements = set.toSet(target);
+            E existing = set.getElement(elements, index);
+            if (existing != null) {
+                elements.remove(existing);
+            }
+            elements.add(element);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompiledPath<T, V> visitValue(ValueModel<T> value) {
+        if (elements.hasNext()) {
+            throw new UnsupportedOperationException("Value object must be terminal");
+        }
+        return terminal(value, null);
+    }
+
+    /**
+     * Compile a property.
+     *
+     * @param property The property.
+     * @param <P>      The property type.
+     * @return The compiled path.
+     */
+    private <P> CompiledPath<T, V> visitProperty(Property<? super T, P> property) {
+        return nested(property.getModel(), property::get, property::set);
+    }
+
+    /**
+     * Compile the rest of the path against a nested model and chain it with the getter (and setter if the nested node
+     * is the last one, unless it is a list, set or map which is then updated in place like {@link SetModelVisitor}
+     * does).
+     *
+     * @param model  The nested model.
+     * @param getter The nested node getter.
+     * @param setter The nested node setter.
+     * @param <Z>    The nested node type.
+     * @return The compiled path.
+     */
+    @SuppressWarnings("unchecked")
+    private <Z> CompiledPath<T, V> nested(Model<Z> model, Function<? super T, ? extends Z> getter, BiConsumer<? super T, ? super Z> setter) {
+        boolean last = !elements.hasNext();
+        CompiledPath<Z, V> nested = model.accept(new CompilePathModelVisitor<>(path, elements, converter));
+        return last && ((CompiledPathImpl<Z, V>) nested).setter == null
+                ? new CompiledPathImpl<>(path, nested.getType(), target -> (V) getter.apply(target), (target, value) -> setter.accept(target, (Z) value))
+                : new CompiledPathImpl<>(path, nested.getType(), target -> nested.get(getter.apply(target)), (target, value) -> nested.set(getter.apply(target), value));
+    }
+
+    /**
+     * Create a compiled path for the end of the path.
+     *
+     * @param model   The current model.
+     * @param updater The in-place updater (for lists, sets and maps) or null if the target cannot be updated in place.
+     * @return The compiled path which returns its target and can only update it in place.
+     */
+    @SuppressWarnings("unchecked")
+    private CompiledPath<T, V> terminal(Model<T> model, BiConsumer<? super T, ? super T> updater) {
+        return new CompiledPathImpl<>(path, TypeModelVisitor.typeOf(model), target -> (V) target, updater == null ? null : (target, value) -> updater.accept(target, (T) value));
+    }
+}
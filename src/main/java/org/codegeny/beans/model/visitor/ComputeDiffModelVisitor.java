@@ -102,13 +102,25 @@ public final class ComputeDiffModelVisitor<T> implements ModelVisitor<T, Diff<T>
         return Diff.simple(value.compare(left, right) == 0 ? UNCHANGED : MODIFIED, left, right);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Diff<T> visitPolymorphic(PolymorphicModel<T> polymorphic) {
+        return polymorphic.diff(left, right);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public Diff<T> visitBean(BeanModel<T> bean) {
-        Map<String, Diff<?>> properties = bean.getProperties().stream().collect(toMap(Property::getName, this::visitProperty));
-        return Diff.bean(Status.combineAll(properties.values()), left, right, properties);
+        List<Property<? super T, ?>> beanProperties = bean.getProperties();
+        Diff<?>[] properties = new Diff<?>[beanProperties.size()];
+        for (int i = 0; i < properties.length; i++) {
+            properties[i] = visitProperty(beanProperties.get(i));
+        }
+        return Diff.bean(Status.combineAll(properties), left, right, bean.getIndex(), properties);
     }
 
     /**
@@ -123,7 +135,7 @@ public final class ComputeDiffModelVisitor<T> implements ModelVisitor<T, Diff<T>
         int n = leftList.size();
         int m = rightList.size();
         int z = n + m;
-        int[] v = new int[z + 1 + z];
+        int[] v = new int[z + 2 + z];
         List<int[]> trace = new ArrayList<>();
         for (int d = 0; d <= z; d++) {
             trace.add(v.clone());
@@ -244,7 +256,12 @@ public final class ComputeDiffModelVisitor<T> implements ModelVisitor<T, Diff<T>
          */
         @Override
         public Diff<T> visitBean(BeanModel<T> bean) {
-            return Diff.bean(status(), left, right, bean.getProperties().stream().collect(toMap(Property::getName, this::visitProperty)));
+            List<Property<? super T, ?>> beanProperties = bean.getProperties();
+            Diff<?>[] properties = new Diff<?>[beanProperties.size()];
+            for (int i = 0; i < properties.length; i++) {
+                properties[i] = visitProperty(beanProperties.get(i));
+            }
+            return Diff.bean(status(), left, right, bean.getIndex(), properties);
         }
 
         /**
@@ -279,6 +296,14 @@ public final class ComputeDiffModelVisitor<T> implements ModelVisitor<T, Diff<T>
             return Diff.simple(status(), left, right);
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Diff<T> visitPolymorphic(PolymorphicModel<T> polymorphic) {
+            return polymorphic.modelOf(target()).accept(this);
+        }
+
         /**
          * Visit a property.
          *
@@ -20,6 +20,7 @@
 package org.codegeny.beans.model.visitor;
 
 import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.LazyModel;
 import org.codegeny.beans.model.ListModel;
 import org.codegeny.beans.model.MapModel;
 import org.codegeny.beans.model.ModelVisitor;
@@ -108,6 +109,14 @@ public final class DescribeModelVisitor<T> implements ModelVisitor<T, StringBuil
         return values.acceptElement(same(builder.append("List<"))).append(">");
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public StringBuilder visitLazy(LazyModel<T> lazy) {
+        return lazy.compile(DescribeModelVisitor.class, model -> model.accept(this), description -> builder.append("Recursive[").append(TypeModelVisitor.typeOf(lazy).getTypeName()).append("]"));
+    }
+
     /**
      * Create a new indented {@link DescribeModelVisitor} for <code>S</code>.
      *
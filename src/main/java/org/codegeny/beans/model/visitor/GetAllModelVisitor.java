@@ -0,0 +1,191 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model.visitor;
+
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.ListModel;
+import org.codegeny.beans.model.MapModel;
+import org.codegeny.beans.model.Model;
+import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
+import org.codegeny.beans.model.Property;
+import org.codegeny.beans.model.SetModel;
+import org.codegeny.beans.model.ValueModel;
+import org.codegeny.beans.path.Converter;
+import org.codegeny.beans.path.Path;
+import org.codegeny.beans.path.PathTrie;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of {@link ModelVisitor} which extracts the values of all the paths of a {@link PathTrie} in a single
+ * traversal (see {@link GetModelVisitor} for the extraction rules). Shared prefixes are only resolved once.
+ *
+ * @param <S> The path element type.
+ * @param <T> The target.
+ * @author Xavier DURY
+ */
+public final class GetAllModelVisitor<S, T> implements ModelVisitor<T, Map<Path<S>, Object>> {
+
+    /**
+     * The current object node.
+     */
+    private final T current;
+
+    /**
+     * The current trie node.
+     */
+    private final PathTrie<S, ?> trie;
+
+    /**
+     * The converter.
+     */
+    private final Converter<? super S> converter;
+
+    /**
+     * The extracted values.
+     */
+    private final Map<Path<S>, Object> result;
+
+    /**
+     * Constructor.
+     *
+     * @param current   The current object node.
+     * @param trie      The current trie node.
+     * @param converter The converter.
+     * @param result    The map which will receive the extracted values.
+     */
+    public GetAllModelVisitor(T current, PathTrie<S, ?> trie, Converter<? super S> converter, Map<Path<S>, Object> result) {
+        this.current = current;
+        this.trie = trie;
+        this.converter = converter;
+        this.result = result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Path<S>, Object> visitBean(BeanModel<T> beanModel) {
+        return visit(children -> children.forEach((element, child) -> {
+            String name = converter.convert(String.class, element);
+            Property<? super T, ?> property = beanModel.getProperty(name);
+            if (property == null) {
+                throw new IllegalArgumentException(String.format("Unknown property '%s' in path %s", name, child.getPath()));
+            }
+            visitProperty(property, child);
+        }));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <K, V> Map<Path<S>, Object> visitMap(MapModel<T, K, V> mapModel) {
+        return visit(children -> {
+            Map<K, V> map = mapModel.toMap(current);
+            Type keyType = TypeModelVisitor.typeOf(mapModel.getKeyModel());
+            children.forEach((element, child) -> mapModel.acceptValue(newVisitor(map.get(converter.<K>convert(keyType, element)), child)));
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> Map<Path<S>, Object> visitSet(SetModel<T, E> setModel) {
+        return visit(children -> {
+            Set<E> set = setModel.toSet(current);
+            children.forEach((element, child) -> setModel.acceptElement(newVisitor(setModel.getElement(set, converter.<Integer>convert(Integer.class, element)), child)));
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> Map<Path<S>, Object> visitList(ListModel<T, E> listModel) {
+        return visit(children -> {
+            List<E> list = listModel.toList(current);
+            children.forEach((element, child) -> listModel.acceptElement(newVisitor(list.get(converter.<Integer>convert(Integer.class, element)), child)));
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Path<S>, Object> visitValue(ValueModel<T> valueModel) {
+        return visit(children -> {
+            throw new UnsupportedOperationException("Value object must be terminal");
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<Path<S>, Object> visitPolymorphic(PolymorphicModel<T> polymorphic) {
+        return polymorphic.modelOf(current).accept(this);
+    }
+
+    /**
+     * Extract from a property.
+     *
+     * @param property The property.
+     * @param child    The trie node for this property.
+     * @param <P>      The property type.
+     */
+    private <P> void visitProperty(Property<? super T, P> property, PathTrie<S, ?> child) {
+        property.accept(newVisitor(property.get(current), child));
+    }
+
+    /**
+     * Record the current value if the current trie node terminates a path then go deeper if it has children.
+     *
+     * @param childrenCallback A callback to process the children trie nodes.
+     * @return The extracted values.
+     */
+    private Map<Path<S>, Object> visit(Consumer<Map<S, ? extends PathTrie<S, ?>>> childrenCallback) {
+        if (trie.isTerminal()) {
+            result.put(trie.getPath(), current);
+        }
+        if (!trie.getChildren().isEmpty()) {
+            childrenCallback.accept(trie.getChildren());
+        }
+        return result;
+    }
+
+    /**
+     * Create a new {@link GetAllModelVisitor} for the given value.
+     *
+     * @param current The new current.
+     * @param trie    The new trie node.
+     * @param <Z>     The type of the new current value.
+     * @return A visitor.
+     */
+    private <Z> GetAllModelVisitor<S, Z> newVisitor(Z current, PathTrie<S, ?> trie) {
+        return new GetAllModelVisitor<>(current, trie, converter, result);
+    }
+}
@@ -24,6 +24,7 @@ import org.codegeny.beans.model.ListModel;
 import org.codegeny.beans.model.MapModel;
 import org.codegeny.beans.model.Model;
 import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
 import org.codegeny.beans.model.Property;
 import org.codegeny.beans.model.SetModel;
 import org.codegeny.beans.model.ValueModel;
@@ -107,8 +108,7 @@ public final class GetModelVisitor<S, T> implements ModelVisitor<T, Object> {
     @Override
     public <E> Object visitSet(SetModel<T, E> setModel) {
         Set<E> set = setModel.toSet(current);
-        return getNested(setModel.getElementModel(), Model.INTEGER, index -> set.stream().skip(index).findAny().orElse(null));
-//		return get(set.getElementModel(), set.getElementModel(), v -> s.stream().filter(isEqual(v)).findAny().orElse(null));
+        return getNested(setModel.getElementModel(), Model.INTEGER, index -> setModel.getElement(set, index));
     }
 
     /**
@@ -130,6 +130,14 @@ public final class GetModelVisitor<S, T> implements ModelVisitor<T, Object> {
         });
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object visitPolymorphic(PolymorphicModel<T> polymorphic) {
+        return polymorphic.modelOf(current).accept(this);
+    }
+
     /**
      * Extract from a property.
      *
@@ -163,7 +171,7 @@ public final class GetModelVisitor<S, T> implements ModelVisitor<T, Object> {
      * @return The extracted value.
      */
     private <K, E> Object getNested(Model<E> nestedModel, Model<? super K> keyModel, Function<? super K, ? extends E> nestedGetter) {
-        return followNestedPathOrGetValue(pathElement -> nestedModel.accept(newVisitor(nestedGetter.apply(converter.convert(keyModel.accept(new TypeModelVisitor<>()), pathElement)))));
+        return followNestedPathOrGetValue(pathElement -> nestedModel.accept(newVisitor(nestedGetter.apply(converter.convert(TypeModelVisitor.typeOf(keyModel), pathElement)))));
     }
 
     /**
@@ -0,0 +1,474 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model.visitor;
+
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.ListModel;
+import org.codegeny.beans.model.MapModel;
+import org.codegeny.beans.model.Model;
+import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
+import org.codegeny.beans.model.Property;
+import org.codegeny.beans.model.SetModel;
+import org.codegeny.beans.model.ValueModel;
+import org.codegeny.beans.path.CompiledPath;
+import org.codegeny.beans.path.ConverterRegistry;
+import org.codegeny.beans.path.Path;
+import org.codegeny.beans.path.Selector;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Visitor which lazily selects all the nodes matching a path pattern (see {@link Path#parse(String)}) in a single
+ * traversal. Each match is returned as the concrete path to the node (property names, list/set indexes and map keys,
+ * suitable for {@link Model#get(Object, Path)}) and the node value.
+ * <p>
+ * The traversal is depth-first and driven by an explicit stack of children iterators (rather than nested
+ * {@link Stream#flatMap(java.util.function.Function)} calls which, on Java 8, consume inner streams entirely), so
+ * short-circuiting operations like {@link Stream#findFirst()} stop walking the model as soon as they are satisfied.
+ *
+ * @param <T> The target type.
+ * @author Xavier DURY
+ */
+public final class SelectModelVisitor<T> implements ModelVisitor<T, Stream<Map.Entry<Path<Object>, Object>>> {
+
+    /**
+     * The target.
+     */
+    private final T target;
+
+    /**
+     * The selectors.
+     */
+    private final Selector[] selectors;
+
+    /**
+     * Constructor.
+     *
+     * @param target  The target.
+     * @param pattern The pattern.
+     */
+    public SelectModelVisitor(T target, Path<Selector> pattern) {
+        this.target = target;
+        this.selectors = toArray(pattern);
+    }
+
+    /**
+     * Copy the selectors of a pattern.
+     *
+     * @param pattern The pattern.
+     * @return The selectors.
+     */
+    private static Selector[] toArray(Path<Selector> pattern) {
+        List<Selector> selectors = new ArrayList<>(pattern.size());
+        pattern.forEach(selectors::add);
+        return selectors.toArray(new Selector[0]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Map.Entry<Path<Object>, Object>> visitBean(BeanModel<T> bean) {
+        return select(bean);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> Stream<Map.Entry<Path<Object>, Object>> visitList(ListModel<T, E> list) {
+        return select(list);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <K, V> Stream<Map.Entry<Path<Object>, Object>> visitMap(MapModel<T, K, V> map) {
+        return select(map);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> Stream<Map.Entry<Path<Object>, Object>> visitSet(SetModel<T, E> set) {
+        return select(set);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Map.Entry<Path<Object>, Object>> visitValue(ValueModel<T> value) {
+        return select(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<Map.Entry<Path<Object>, Object>> visitPolymorphic(PolymorphicModel<T> polymorphic) {
+        return select(polymorphic);
+    }
+
+    /**
+     * Create the stream of matches from the root node.
+     *
+     * @param model The target model.
+     * @return The matches.
+     */
+    private Stream<Map.Entry<Path<Object>, Object>> select(Model<T> model) {
+        Iterator<Map.Entry<Path<Object>, Object>> matches = new Matches(new Node<>(model, target, Path.root(), 0, false));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(matches, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Compute the children of a node which may match the rest of the pattern.
+     *
+     * @param node The node.
+     * @param <C>  The node type.
+     * @return The children.
+     */
+    private <C> Iterator<Node<?>> children(Node<C> node) {
+        if (node.anyDepth) {
+            return node.model.accept(new ChildrenModelVisitor<>(node.target, node.path, Selector.any(), node.position));
+        }
+        Selector selector = selectors[node.position];
+        if (selector.getKind() == Selector.Kind.ANY_DEPTH) {
+            return Arrays.<Node<?>>asList(
+                    new Node<>(node.model, node.target, node.path, node.position + 1, false),
+                    new Node<>(node.model, node.target, node.path, node.position, true)).iterator();
+        }
+        return node.model.accept(new ChildrenModelVisitor<>(node.target, node.path, selector, node.position + 1));
+    }
+
+    /**
+     * A node of the traversal.
+     *
+     * @param <C> The node type.
+     */
+    private static final class Node<C> {
+
+        /**
+         * The node model.
+         */
+        final Model<C> model;
+
+        /**
+         * The node value.
+         */
+        final C target;
+
+        /**
+         * The concrete path to the node.
+         */
+        final Path<Object> path;
+
+        /**
+         * The position of the next selector to match.
+         */
+        final int position;
+
+        /**
+         * Whether the children of this node must be selected by the {@link Selector.Kind#ANY_DEPTH} selector at
+         * {@link #position} (and not the node itself).
+         */
+        final boolean anyDepth;
+
+        /**
+         * Constructor.
+         *
+         * @param model    The node model.
+         * @param target   The node value.
+         * @param path     The concrete path to the node.
+         * @param position The position of the next selector to match.
+         * @param anyDepth Whether the children of this node must be selected by a {@link Selector.Kind#ANY_DEPTH} selector.
+         */
+        Node(Model<C> model, C target, Path<Object> path, int position, boolean anyDepth) {
+            this.model = model;
+            this.target = target;
+            this.path = path;
+            this.position = position;
+            this.anyDepth = anyDepth;
+        }
+    }
+
+    /**
+     * Depth-first iterator over the matches, which only expands nodes when the next match is requested.
+     */
+    private final class Matches implements Iterator<Map.Entry<Path<Object>, Object>> {
+
+        /**
+         * The children iterators of the nodes being expanded.
+         */
+        private final Deque<Iterator<Node<?>>> stack = new ArrayDeque<>();
+
+        /**
+         * The next match (or null if not computed yet).
+         */
+        private Map.Entry<Path<Object>, Object> next;
+
+        /**
+         * Constructor.
+         *
+         * @param root The root node.
+         */
+        Matches(Node<?> root) {
+            stack.push(Collections.<Node<?>>singletonList(root).iterator());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean hasNext() {
+            while (next == null && !stack.isEmpty()) {
+                Iterator<Node<?>> top = stack.peek();
+                if (!top.hasNext()) {
+                    stack.pop();
+                } else {
+                    Node<?> node = top.next();
+                    if (node.position == selectors.length && !node.anyDepth) {
+                        next = new SimpleImmutableEntry<>(node.path, node.target);
+                    } else {
+                        stack.push(children(node));
+                    }
+                }
+            }
+            return next != null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Map.Entry<Path<Object>, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Path<Object>, Object> result = next;
+            next = null;
+            return result;
+        }
+    }
+
+    /**
+     * Visitor which lazily computes the children of a node matching a selector.
+     *
+     * @param <T> The node type.
+     */
+    private static final class ChildrenModelVisitor<T> implements ModelVisitor<T, Iterator<Node<?>>> {
+
+        /**
+         * The node value.
+         */
+        private final T target;
+
+        /**
+         * The concrete path to the node.
+         */
+        private final Path<Object> path;
+
+        /**
+         * The selector (only its key part is checked here).
+         */
+        private final Selector selector;
+
+        /**
+         * The position of the next selector for the children.
+         */
+        private final int next;
+
+        /**
+         * Constructor.
+         *
+         * @param target   The node value.
+         * @param path     The concrete path to the node.
+         * @param selector The selector.
+         * @param next     The position of the next selector for the children.
+         */
+        ChildrenModelVisitor(T target, Path<Object> path, Selector selector, int next) {
+            this.target = target;
+            this.path = path;
+            this.selector = selector;
+            this.next = next;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<Node<?>> visitBean(BeanModel<T> bean) {
+            Stream<Property<? super T, ?>> properties = selector.getKind() == Selector.Kind.NAME
+                    ? Stream.<Property<? super T, ?>>of(bean.getProperty(selector.getName())).filter(Objects::nonNull)
+                    : bean.getProperties().stream().filter(property -> selector.matches(property.getName()));
+            return nodes(properties.map(this::property));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Iterator<Node<?>> visitList(ListModel<T, E> list) {
+            List<E> elements = list.toList(target);
+            Predicate<E> condition = condition(list.getElementModel(), selector);
+            return nodes(indexes(elements.size()).mapToObj(index -> child(list.getElementModel(), condition, elements.get(index), index)));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <K, V> Iterator<Node<?>> visitMap(MapModel<T, K, V> map) {
+            Predicate<V> condition = condition(map.getValueModel(), selector);
+            return nodes(map.toMap(target).entrySet().stream()
+                    .filter(entry -> selector.matches(entry.getKey()))
+                    .map(entry -> child(map.getValueModel(), condition, entry.getValue(), entry.getKey())));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Iterator<Node<?>> visitSet(SetModel<T, E> set) {
+            Set<E> elements = set.toSet(target);
+            Predicate<E> condition = condition(set.getElementModel(), selector);
+            if (selector.getKind() == Selector.Kind.NAME) {
+                return nodes(indexes(elements.size()).mapToObj(index -> child(set.getElementModel(), condition, set.getElement(elements, index), index)));
+            }
+            List<E> list = new ArrayList<>(elements);
+            return nodes(indexes(list.size()).mapToObj(index -> child(set.getElementModel(), condition, list.get(index), index)));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<Node<?>> visitValue(ValueModel<T> value) {
+            return Collections.emptyIterator();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<Node<?>> visitPolymorphic(PolymorphicModel<T> polymorphic) {
+            return polymorphic.modelOf(target).accept(this);
+        }
+
+        /**
+         * Turn a stream of children (where null stands for a child which does not satisfy the condition) into an
+         * iterator (which, unlike flat-mapped streams, only computes children when they are requested).
+         *
+         * @param children The children.
+         * @return The children iterator.
+         */
+        private static Iterator<Node<?>> nodes(Stream<Node<?>> children) {
+            return children.filter(Objects::nonNull).iterator();
+        }
+
+        /**
+         * Compute the indexes selected by the selector.
+         *
+         * @param size The number of elements.
+         * @return The indexes.
+         */
+        private IntStream indexes(int size) {
+            switch (selector.getKind()) {
+                case NAME:
+                    try {
+                        int index = Integer.parseInt(selector.getName());
+                        return index >= 0 && index < size ? IntStream.of(index) : IntStream.empty();
+                    } catch (NumberFormatException numberFormatException) {
+                        return IntStream.empty();
+                    }
+                case RANGE:
+                    return selector.getFrom() < size ? IntStream.rangeClosed(selector.getFrom(), Math.min(selector.getTo(), size - 1)) : IntStream.empty();
+                default:
+                    return IntStream.range(0, size);
+            }
+        }
+
+        /**
+         * Continue with a property.
+         *
+         * @param property The property.
+         * @param <P>      The property type.
+         * @return The child node (or null if it does not satisfy the condition).
+         */
+        private <P> Node<?> property(Property<? super T, P> property) {
+            return child(property.getModel(), condition(property.getModel(), selector), property.get(target), property.getName());
+        }
+
+        /**
+         * Continue with a child if it satisfies the condition.
+         *
+         * @param model     The child model.
+         * @param condition The condition.
+         * @param child     The child.
+         * @param key       The child key.
+         * @param <C>       The child type.
+         * @return The child node (or null if it does not satisfy the condition).
+         */
+        private <C> Node<?> child(Model<C> model, Predicate<? super C> condition, C child, Object key) {
+            return condition.test(child) ? new Node<>(model, child, path.append(key), next, false) : null;
+        }
+    }
+
+    /**
+     * Compile the {@link Selector.Kind#WHERE} condition of a selector (if any) against the children model.
+     *
+     * @param model    The children model.
+     * @param selector The selector.
+     * @param <C>      The children type.
+     * @return A predicate which checks if the nested property of a child has the expected string representation.
+     */
+    private static <C> Predicate<C> condition(Model<C> model, Selector selector) {
+        if (selector.getKind() != Selector.Kind.WHERE) {
+            return child -> true;
+        }
+        CompiledPath<C, Object> compiled;
+        try {
+            compiled = model.compile(Path.of(selector.getName().split("\\.")), ConverterRegistry.defaults());
+        } catch (IllegalArgumentException | UnsupportedOperationException exception) {
+            return child -> false;
+        }
+        return child -> selector.getValue().equals(String.valueOf(compiled.get(child)));
+    }
+}
@@ -0,0 +1,225 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model.visitor;
+
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.ListModel;
+import org.codegeny.beans.model.MapModel;
+import org.codegeny.beans.model.Model;
+import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
+import org.codegeny.beans.model.Property;
+import org.codegeny.beans.model.SetModel;
+import org.codegeny.beans.model.ValueModel;
+import org.codegeny.beans.path.Converter;
+import org.codegeny.beans.path.PathTrie;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Visitor which sets all the values of a {@link PathTrie} inside an object structure in a single traversal (see
+ * {@link SetModelVisitor} for the rules). Each intermediate node, collection and key type is only resolved once. When
+ * both a path and some of its extensions are given, the extensions are set first then the value of the path itself.
+ *
+ * @param <S> The path-element and value bottom type.
+ * @param <T> The object structure type.
+ * @author Xavier DURY
+ */
+public final class SetAllModelVisitor<S, T> implements ModelVisitor<T, Void> {
+
+    /**
+     * The current node in the object structure.
+     */
+    private final T current;
+
+    /**
+     * The current trie node (which holds the values to set).
+     */
+    private final PathTrie<S, ? extends S> trie;
+
+    /**
+     * The setter.
+     */
+    private final Consumer<? super T> setter;
+
+    /**
+     * The converter used for converting path elements and values to set to the correct type.
+     */
+    private final Converter<? super S> converter;
+
+    /**
+     * Constructor.
+     *
+     * @param current   The current node in the object structure.
+     * @param trie      The trie of paths and values to set.
+     * @param converter The converter used for converting path elements and values to set to the correct type.
+     */
+    public SetAllModelVisitor(T current, PathTrie<S, ? extends S> trie, Converter<? super S> converter) {
+        this(current, trie, converter, a -> {
+            throw new UnsupportedOperationException("Cannot set root object");
+        });
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param current   The current node in the object structure.
+     * @param trie      The current trie node.
+     * @param converter The converter used for converting path elements and values to set to the correct type.
+     * @param setter    The setter.
+     */
+    private SetAllModelVisitor(T current, PathTrie<S, ? extends S> trie, Converter<? super S> converter, Consumer<? super T> setter) {
+        this.current = current;
+        this.trie = trie;
+        this.converter = converter;
+        this.setter = setter;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitBean(BeanModel<T> beanModel) {
+        trie.getChildren().forEach((element, child) -> {
+            String name = converter.convert(String.class, element);
+            Property<? super T, ?> property = beanModel.getProperty(name);
+            if (property == null) {
+                throw new IllegalArgumentException(String.format("Unknown property '%s' in path %s", name, child.getPath()));
+            }
+            visitProperty(property, child);
+        });
+        return setValue(beanModel, setter);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <K, V> Void visitMap(MapModel<T, K, V> mapModel) {
+        Map<K, V> map = mapModel.toMap(current);
+        if (!trie.getChildren().isEmpty()) {
+            Type keyType = TypeModelVisitor.typeOf(mapModel.getKeyModel());
+            trie.getChildren().forEach((element, child) -> {
+                K key = converter.convert(keyType, element);
+                mapModel.acceptValue(newVisitor(map.get(key), child, value -> map.put(key, value)));
+            });
+        }
+        return setValue(mapModel, newMap -> {
+            map.clear();
+            map.putAll(mapModel.toMap(newMap));
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> Void visitSet(SetModel<T, E> setModel) {
+        Set<E> set = setModel.toSet(current);
+        if (!trie.getChildren().isEmpty()) {
+            Type elementType = TypeModelVisitor.typeOf(setModel.getElementModel());
+            trie.getChildren().forEach((element, child) -> {
+                E key = converter.convert(elementType, element);
+                setModel.acceptElement(newVisitor(setModel.findElement(set, key), child, value -> set.add(key)));
+            });
+        }
+        return setValue(setModel, newSet -> {
+            set.clear();
+            set.addAll(setModel.toSet(newSet));
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> Void visitList(ListModel<T, E> listModel) {
+        List<E> list = listModel.toList(current);
+        trie.getChildren().forEach((element, child) -> {
+            int index = converter.<Integer>convert(Integer.class, element);
+            listModel.acceptElement(newVisitor(list.get(index), child, value -> list.set(index, value)));
+        });
+        return setValue(listModel, newList -> {
+            list.clear();
+            list.addAll(listModel.toList(newList));
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitValue(ValueModel<T> valueModel) {
+        if (!trie.getChildren().isEmpty()) {
+            throw new UnsupportedOperationException("Value object must be terminal");
+        }
+        return setValue(valueModel, setter);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitPolymorphic(PolymorphicModel<T> polymorphic) {
+        return polymorphic.modelOf(current).accept(this);
+    }
+
+    /**
+     * Visit a property.
+     *
+     * @param property The property.
+     * @param child    The trie node for this property.
+     * @param <P>      The property type.
+     */
+    private <P> void visitProperty(Property<? super T, P> property, PathTrie<S, ? extends S> child) {
+        property.accept(newVisitor(property.get(current), child, value -> property.set(current, value)));
+    }
+
+    /**
+     * Set the value of the current trie node (if it terminates a path).
+     *
+     * @param model  The current model.
+     * @param setter The current setter.
+     * @return Nothing.
+     */
+    private Void setValue(Model<? extends T> model, Consumer<? super T> setter) {
+        if (trie.isTerminal()) {
+            setter.accept(converter.convert(TypeModelVisitor.typeOf(model), trie.getValue()));
+        }
+        return null;
+    }
+
+    /**
+     * Create a new {@link SetAllModelVisitor} for the given value.
+     *
+     * @param current The new current.
+     * @param trie    The new trie node.
+     * @param setter  The setter.
+     * @param <Z>     The type of the new current value.
+     * @return A visitor.
+     */
+    private <Z> SetAllModelVisitor<S, Z> newVisitor(Z current, PathTrie<S, ? extends S> trie, Consumer<? super Z> setter) {
+        return new SetAllModelVisitor<>(current, trie, converter, setter);
+    }
+}
@@ -24,6 +24,7 @@ import org.codegeny.beans.model.ListModel;
 import org.codegeny.beans.model.MapModel;
 import org.codegeny.beans.model.Model;
 import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
 import org.codegeny.beans.model.Property;
 import org.codegeny.beans.model.SetModel;
 import org.codegeny.beans.model.ValueModel;
@@ -38,8 +39,6 @@ import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
-import static java.util.function.Predicate.isEqual;
-
 /**
  * Visitor which sets a value inside an object structure based on a given path.
  *
@@ -131,7 +130,7 @@ public final class SetModelVisitor<S, T> implements ModelVisitor<T, Void> {
     @Override
     public <E> Void visitSet(SetModel<T, E> setModel) {
         Set<E> set = setModel.toSet(current);
-        return setNested(setModel.getElementModel(), setModel.getElementModel(), value -> set.stream().filter(isEqual(value)).findAny().orElse(null), (a, b) -> set.add(a), setModel, newSet -> {
+        return setNested(setModel.getElementModel(), setModel.getElementModel(), value -> setModel.findElement(set, value), (a, b) -> set.add(a), setModel, newSet -> {
             set.clear();
             set.addAll(setModel.toSet(newSet));
         });
@@ -159,6 +158,14 @@ public final class SetModelVisitor<S, T> implements ModelVisitor<T, Void> {
         }, setter, valueModel);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitPolymorphic(PolymorphicModel<T> polymorphic) {
+        return polymorphic.modelOf(current).accept(this);
+    }
+
     /**
      * Visit a property.
      *
@@ -179,7 +186,7 @@ public final class SetModelVisitor<S, T> implements ModelVisitor<T, Void> {
         if (path.hasNext()) {
             pathElementCallback.accept(path.next());
         } else {
-            setter.accept(converter.convert(valueModel.accept(new TypeModelVisitor<>()), valueToSet));
+            setter.accept(converter.convert(TypeModelVisitor.typeOf(valueModel), valueToSet));
         }
         return null;
     }
@@ -199,7 +206,7 @@ public final class SetModelVisitor<S, T> implements ModelVisitor<T, Void> {
      */
     private <K, E> Void setNested(Model<E> nestedModel, Model<? super K> keyModel, Function<? super K, ? extends E> nestedGetter, BiConsumer<? super K, ? super E> nestedSetter, Model<? extends T> model, Consumer<? super T> setter) {
         return followNestedPathOrSetValue(pathElement -> {
-            K key = converter.convert(keyModel.accept(new TypeModelVisitor<>()), pathElement);
+            K key = converter.convert(TypeModelVisitor.typeOf(keyModel), pathElement);
             nestedModel.accept(newVisitor(nestedGetter.apply(key), value -> nestedSetter.accept(key, value)));
         }, setter, model);
     }
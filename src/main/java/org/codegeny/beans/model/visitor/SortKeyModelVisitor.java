@@ -0,0 +1,484 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model.visitor;
+
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.LazyModel;
+import org.codegeny.beans.model.ListModel;
+import org.codegeny.beans.model.MapModel;
+import org.codegeny.beans.model.Model;
+import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
+import org.codegeny.beans.model.Property;
+import org.codegeny.beans.model.SetModel;
+import org.codegeny.beans.model.ValueModel;
+import org.codegeny.beans.sort.SortKeys;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Map.Entry.comparingByKey;
+
+/**
+ * Compute a sort key (a <code>byte[]</code>) for an object whose structure is expressed by a
+ * {@link org.codegeny.beans.model.Model}&gt;T&lt;. The unsigned lexicographic order of sort keys (see
+ * {@link SortKeys#compare(byte[], byte[])}) is the same as the order given by {@link CompareModelVisitor}:
+ * <ul>
+ * <li>Values are prefixed by a marker (<code>0x01</code> when present, <code>0x02</code> when <code>null</code>) so
+ * that nulls come last. Numbers are encoded big-endian with their sign bit flipped, floating point numbers as their
+ * ordered IEEE 754 bits, strings as terminated variable-length chars, enums by ordinal and some <code>java.time</code>
+ * types by their epoch fields.</li>
+ * <li>Beans are encoded as the concatenation of their properties keys.</li>
+ * <li>Lists, sets and maps are encoded as a sequence of elements (or entries) each prefixed by <code>0x01</code> and
+ * followed by <code>0x02</code>. Set elements and map entries are first sorted by their own sort key.</li>
+ * </ul>
+ * Only {@link ValueModel}s using the natural order of one of the supported types can be encoded (see
+ * {@link #isSupported(Model)}). For maps, entries with <code>null</code> values are considered absent; values which
+ * compare equal to <code>null</code> without being <code>null</code> (like empty lists) are considered present.
+ *
+ * @param <T> The model type.
+ * @author Xavier DURY
+ */
+public final class SortKeyModelVisitor<T> implements ModelVisitor<T, byte[]> {
+
+    /**
+     * Marker for a present value or for a collection element.
+     */
+    private static final int PRESENT = 0x01;
+
+    /**
+     * Marker for an absent value or for the end of a collection.
+     */
+    private static final int ABSENT = 0x02;
+
+    /**
+     * Terminator for strings.
+     */
+    private static final int TERMINATOR = 0x00;
+
+    /**
+     * The encoders for supported value types.
+     */
+    private static final Map<Class<?>, Encoder> ENCODERS = new HashMap<>();
+
+    static {
+        ENCODERS.put(Boolean.class, (value, output) -> output.write((Boolean) value ? 1 : 0));
+        ENCODERS.put(Byte.class, (value, output) -> output.write((Byte) value ^ 0x80));
+        ENCODERS.put(Short.class, (value, output) -> output.writeShort((Short) value ^ 0x8000));
+        ENCODERS.put(Character.class, (value, output) -> output.writeShort((Character) value));
+        ENCODERS.put(Integer.class, (value, output) -> output.writeInt((Integer) value ^ Integer.MIN_VALUE));
+        ENCODERS.put(Long.class, (value, output) -> output.writeLong((Long) value ^ Long.MIN_VALUE));
+        ENCODERS.put(Float.class, (value, output) -> {
+            int bits = Float.floatToIntBits((Float) value);
+            output.writeInt(bits ^ (bits >> 31 | Integer.MIN_VALUE));
+        });
+        ENCODERS.put(Double.class, (value, output) -> {
+            long bits = Double.doubleToLongBits((Double) value);
+            output.writeLong(bits ^ (bits >> 63 | Long.MIN_VALUE));
+        });
+        ENCODERS.put(String.class, (value, output) -> output.writeString((String) value));
+        ENCODERS.put(LocalDate.class, (value, output) -> output.writeLong(((LocalDate) value).toEpochDay() ^ Long.MIN_VALUE));
+        ENCODERS.put(LocalTime.class, (value, output) -> output.writeLong(((LocalTime) value).toNanoOfDay()));
+        ENCODERS.put(LocalDateTime.class, (value, output) -> {
+            output.writeLong(((LocalDateTime) value).toLocalDate().toEpochDay() ^ Long.MIN_VALUE);
+            output.writeLong(((LocalDateTime) value).toLocalTime().toNanoOfDay());
+        });
+        ENCODERS.put(Instant.class, (value, output) -> {
+            output.writeLong(((Instant) value).getEpochSecond() ^ Long.MIN_VALUE);
+            output.writeInt(((Instant) value).getNano());
+        });
+        ENCODERS.put(Duration.class, (value, output) -> {
+            output.writeLong(((Duration) value).getSeconds() ^ Long.MIN_VALUE);
+            output.writeInt(((Duration) value).getNano());
+        });
+    }
+
+    /**
+     * Check if sort keys can be computed for the given model.
+     *
+     * @param model The model.
+     * @return True if all the values of this model can be encoded.
+     */
+    public static boolean isSupported(Model<?> model) {
+        return model.accept(new SupportedModelVisitor<>());
+    }
+
+    /**
+     * Get the encoder for the given value model.
+     *
+     * @param value The value model.
+     * @return The encoder or null if that value model is not supported.
+     */
+    private static Encoder encoder(ValueModel<?> value) {
+        if (value.getComparator() != Comparator.naturalOrder()) {
+            return null;
+        }
+        Class<?> type = value.getType();
+        if (Enum.class.isAssignableFrom(type)) {
+            return (object, output) -> output.writeInt(((Enum<?>) object).ordinal());
+        }
+        return ENCODERS.get(type);
+    }
+
+    /**
+     * The object to be encoded.
+     */
+    private final T target;
+
+    /**
+     * The output.
+     */
+    private final Output output;
+
+    /**
+     * Is this visitor the root visitor (the one which must return the result)?
+     */
+    private final boolean root;
+
+    /**
+     * Constructor.
+     *
+     * @param target The object to be encoded.
+     */
+    public SortKeyModelVisitor(T target) {
+        this(target, new Output(), true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param target The object to be encoded.
+     * @param output The output.
+     * @param root   Is this visitor the root visitor?
+     */
+    private SortKeyModelVisitor(T target, Output output, boolean root) {
+        this.target = target;
+        this.output = output;
+        this.root = root;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] visitBean(BeanModel<T> bean) {
+        bean.getProperties().forEach(this::visitProperty);
+        return result();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] visitValue(ValueModel<T> value) {
+        Encoder encoder = encoder(value);
+        if (encoder == null) {
+            throw new UnsupportedOperationException(String.format("Cannot compute a sort key for %s", value.getType().getName()));
+        }
+        if (target == null) {
+            output.write(ABSENT);
+        } else {
+            output.write(PRESENT);
+            encoder.encode(target, output);
+        }
+        return result();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] visitPolymorphic(PolymorphicModel<T> polymorphic) {
+        throw new UnsupportedOperationException("Cannot compute a sort key for a polymorphic model");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> byte[] visitList(ListModel<T, E> list) {
+        list.toList(target).forEach(element -> list.acceptElement(nested(element, PRESENT)));
+        output.write(ABSENT);
+        return result();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> byte[] visitSet(SetModel<T, E> set) {
+        byte[][] keys = set.toSet(target).stream().map(element -> set.acceptElement(new SortKeyModelVisitor<>(element))).toArray(byte[][]::new);
+        Arrays.sort(keys, SortKeys.COMPARATOR);
+        for (byte[] key : keys) {
+            output.write(PRESENT);
+            output.write(key);
+        }
+        output.write(ABSENT);
+        return result();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <K, V> byte[] visitMap(MapModel<T, K, V> map) {
+        map.toMap(target).entrySet().stream()
+                .filter(entry -> entry.getValue() != null)
+                .collect(HashMap<byte[], V>::new, (result, entry) -> result.put(map.acceptKey(new SortKeyModelVisitor<>(entry.getKey())), entry.getValue()), Map::putAll)
+                .entrySet().stream()
+                .sorted(comparingByKey(SortKeys.COMPARATOR))
+                .forEachOrdered(entry -> {
+                    output.write(PRESENT);
+                    output.write(entry.getKey());
+                    map.acceptValue(nested(entry.getValue(), -1));
+                });
+        output.write(ABSENT);
+        return result();
+    }
+
+    /**
+     * Visit a property.
+     *
+     * @param property The property.
+     * @param <P>      The property type.
+     */
+    private <P> void visitProperty(Property<? super T, P> property) {
+        property.accept(nested(property.get(target), -1));
+    }
+
+    /**
+     * Create a visitor for a nested value which will write to the same output.
+     *
+     * @param value  The nested value.
+     * @param marker A marker to write before the nested value (or -1 for none).
+     * @param <N>    The nested value type.
+     * @return A new visitor.
+     */
+    private <N> SortKeyModelVisitor<N> nested(N value, int marker) {
+        if (marker >= 0) {
+            output.write(marker);
+        }
+        return new SortKeyModelVisitor<>(value, output, false);
+    }
+
+    /**
+     * Return the sort key if this visitor is the root visitor.
+     *
+     * @return The sort key or null.
+     */
+    private byte[] result() {
+        return root ? output.toByteArray() : null;
+    }
+
+    /**
+     * Encoder for a value.
+     */
+    @FunctionalInterface
+    private interface Encoder {
+
+        /**
+         * Encode a value (which is never null).
+         *
+         * @param value  The value.
+         * @param output The output.
+         */
+        void encode(Object value, Output output);
+    }
+
+    /**
+     * Growable byte array.
+     */
+    private static final class Output {
+
+        /**
+         * The bytes.
+         */
+        private byte[] bytes = new byte[64];
+
+        /**
+         * The number of bytes written.
+         */
+        private int size;
+
+        /**
+         * Make sure there is room for the given number of bytes.
+         *
+         * @param count The number of bytes.
+         */
+        private void ensureCapacity(int count) {
+            if (size + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + count));
+            }
+        }
+
+        /**
+         * Write one byte.
+         *
+         * @param value The byte.
+         */
+        void write(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        /**
+         * Write a byte array.
+         *
+         * @param values The bytes.
+         */
+        void write(byte[] values) {
+            ensureCapacity(values.length);
+            System.arraycopy(values, 0, bytes, size, values.length);
+            size += values.length;
+        }
+
+        /**
+         * Write 2 bytes (big-endian).
+         *
+         * @param value The value.
+         */
+        void writeShort(int value) {
+            write(value >>> 8);
+            write(value);
+        }
+
+        /**
+         * Write 4 bytes (big-endian).
+         *
+         * @param value The value.
+         */
+        void writeInt(int value) {
+            writeShort(value >>> 16);
+            writeShort(value);
+        }
+
+        /**
+         * Write 8 bytes (big-endian).
+         *
+         * @param value The value.
+         */
+        void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        /**
+         * Write a string as a sequence of variable-length chars (1 byte for ASCII) followed by a terminator. The
+         * encoding of chars keeps their numerical order (which is the order used by {@link String#compareTo(String)}).
+         *
+         * @param value The string.
+         */
+        void writeString(String value) {
+            for (int i = 0, length = value.length(); i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x7F) {
+                    write(c + 1);
+                } else if (c < 0x407F) {
+                    write(0x80 | (c - 0x7F) >>> 8);
+                    write(c - 0x7F);
+                } else {
+                    write(0xC0);
+                    writeShort(c);
+                }
+            }
+            write(TERMINATOR);
+        }
+
+        /**
+         * Get the written bytes.
+         *
+         * @return A copy of the written bytes.
+         */
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    /**
+     * Visitor which checks if all values of a model can be encoded.
+     *
+     * @param <T> The model type.
+     */
+    private static final class SupportedModelVisitor<T> implements ModelVisitor<T, Boolean> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Boolean visitBean(BeanModel<T> bean) {
+            return bean.getProperties().stream().allMatch(property -> isSupported(property.getModel()));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Boolean visitList(ListModel<T, E> list) {
+            return isSupported(list.getElementModel());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <K, V> Boolean visitMap(MapModel<T, K, V> map) {
+            return isSupported(map.getKeyModel()) && isSupported(map.getValueModel());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Boolean visitSet(SetModel<T, E> set) {
+            return isSupported(set.getElementModel());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Boolean visitValue(ValueModel<T> value) {
+            return encoder(value) != null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Boolean visitPolymorphic(PolymorphicModel<T> polymorphic) {
+            return false;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Boolean visitLazy(LazyModel<T> lazy) {
+            return lazy.compile(SupportedModelVisitor.class, SortKeyModelVisitor::isSupported, supported -> true);
+        }
+    }
+}
@@ -20,22 +20,29 @@
 package org.codegeny.beans.model.visitor;
 
 import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.LazyModel;
 import org.codegeny.beans.model.ListModel;
 import org.codegeny.beans.model.MapModel;
 import org.codegeny.beans.model.Model;
 import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
 import org.codegeny.beans.model.Property;
 import org.codegeny.beans.model.SetModel;
 import org.codegeny.beans.model.ValueModel;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 
-import static java.util.stream.Collectors.toList;
-
 /**
  * Generic <code>toString()</code> visitor.
+ * The output is streamed by a single internal writer for the whole object tree (the current node and depth are updated
+ * while walking down the tree) and indentation strings are cached per depth, so that nothing but the output is
+ * allocated per node (except for sorting sets and maps). See {@link #writeTo(Model, Object, Appendable)} to write to
+ * any {@link Appendable}. Instances are not thread-safe and must not be reused concurrently.
  *
  * @param <T> The element type.
  * @author Xavier DURY
@@ -43,40 +50,62 @@ import static java.util.stream.Collectors.toList;
 public final class ToStringModelVisitor<T> implements ModelVisitor<T, StringBuilder> {
 
     /**
-     * The string builder.
-     */
-    private final StringBuilder builder;
-
-    /**
-     * The string indentation.
+     * Indentation strings per depth (shared and grown on demand).
      */
-    private final String indent;
+    private static volatile String[] indents = {""};
 
     /**
-     * The object to be transformed to string.
+     * Get the indentation string for the given depth.
+     *
+     * @param depth The depth.
+     * @return The indentation string.
      */
-    private final T target;
+    private static String indent(int depth) {
+        String[] current = indents;
+        if (depth >= current.length) {
+            String[] grown = Arrays.copyOf(current, Math.max(depth + 1, current.length * 2));
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = grown[i - 1].concat("  ");
+            }
+            indents = current = grown;
+        }
+        return current[depth];
+    }
 
     /**
-     * Constructor.
+     * Write the string form of the given object to the given output.
      *
+     * @param model  The model.
      * @param target The object to be transformed to string.
+     * @param output The output.
+     * @param <T>    The element type.
+     * @param <A>    The output type.
+     * @return The output.
+     * @throws java.io.UncheckedIOException If the output fails.
      */
-    public ToStringModelVisitor(T target) {
-        this(target, new StringBuilder(), "");
+    public static <T, A extends Appendable> A writeTo(Model<T> model, T target, A output) {
+        model.accept(new Writer<>(target, output));
+        return output;
     }
 
+    /**
+     * The string builder.
+     */
+    private final StringBuilder builder;
+
+    /**
+     * The writer.
+     */
+    private final Writer<T> writer;
+
     /**
      * Constructor.
      *
-     * @param target  The object to be transformed to string.
-     * @param builder The string builder.
-     * @param indent  The string indentation.
+     * @param target The object to be transformed to string.
      */
-    private ToStringModelVisitor(T target, StringBuilder builder, String indent) {
-        this.target = target;
-        this.builder = builder;
-        this.indent = indent;
+    public ToStringModelVisitor(T target) {
+        this.builder = new StringBuilder();
+        this.writer = new Writer<>(target, builder);
     }
 
     /**
@@ -84,13 +113,8 @@ public final class ToStringModelVisitor<T> implements ModelVisitor<T, StringBuil
      */
     @Override
     public StringBuilder visitBean(BeanModel<T> bean) {
-        builder.append("{");
-        int count = bean.getProperties().stream().reduce(0, (index, property) -> {
-            builder.append(index > 0 ? "," : "").append("\n").append(indent).append("  ").append(property.getName()).append(": ");
-            visitProperty(property);
-            return index + 1;
-        }, Integer::max);
-        return builder.append(count > 0 ? "\n" : "").append(indent).append("}");
+        writer.visitBean(bean);
+        return builder;
     }
 
     /**
@@ -98,7 +122,8 @@ public final class ToStringModelVisitor<T> implements ModelVisitor<T, StringBuil
      */
     @Override
     public StringBuilder visitValue(ValueModel<T> value) {
-        return builder.append(target);
+        writer.visitValue(value);
+        return builder;
     }
 
     /**
@@ -106,15 +131,8 @@ public final class ToStringModelVisitor<T> implements ModelVisitor<T, StringBuil
      */
     @Override
     public <K, V> StringBuilder visitMap(MapModel<T, K, V> map) {
-        builder.append("[");
-        Comparator<K> comparator = map.getKeyModel();
-        Map<K, V> entries = map.toMap(target);
-        Collection<K> sorted = entries.keySet().stream().sorted(comparator).collect(toList());
-        int count = sorted.stream().reduce(0, (index, value) -> {
-            map.acceptValue(new ToStringModelVisitor<>(entries.get(value), builder.append(index > 0 ? "," : "").append("\n").append(indent).append("  ").append(value).append(": "), indent.concat("  ")));
-            return index + 1;
-        }, Integer::max);
-        return builder.append(count > 0 ? "\n".concat(indent) : "").append("]");
+        writer.visitMap(map);
+        return builder;
     }
 
     /**
@@ -122,7 +140,8 @@ public final class ToStringModelVisitor<T> implements ModelVisitor<T, StringBuil
      */
     @Override
     public <E> StringBuilder visitSet(SetModel<T, E> values) {
-        return visitCollection(values.getElementModel(), values.toSet(target).stream().sorted(values.getElementModel()).collect(toList()));
+        writer.visitSet(values);
+        return builder;
     }
 
     /**
@@ -130,33 +149,204 @@ public final class ToStringModelVisitor<T> implements ModelVisitor<T, StringBuil
      */
     @Override
     public <E> StringBuilder visitList(ListModel<T, E> values) {
-        return visitCollection(values.getElementModel(), values.toList(target));
+        writer.visitList(values);
+        return builder;
     }
 
     /**
-     * Visit a collection.
-     *
-     * @param elementModel The collection element model.
-     * @param collection   The collection.
-     * @param <E>          The collection element type.
-     * @return The string builder.
+     * {@inheritDoc}
      */
-    private <E> StringBuilder visitCollection(Model<E> elementModel, Collection<? extends E> collection) {
-        builder.append("[");
-        int count = collection.stream().reduce(0, (index, value) -> {
-            elementModel.accept(new ToStringModelVisitor<>(value, builder.append(index > 0 ? "," : "").append("\n").append(indent).append("  "), indent.concat("  ")));
-            return index + 1;
-        }, Integer::max);
-        return builder.append(count > 0 ? "\n".concat(indent) : "").append("]");
+    @Override
+    public StringBuilder visitLazy(LazyModel<T> lazy) {
+        writer.visitLazy(lazy);
+        return builder;
     }
 
     /**
-     * Visit a property.
+     * {@inheritDoc}
+     */
+    @Override
+    public StringBuilder visitPolymorphic(PolymorphicModel<T> polymorphic) {
+        writer.visitPolymorphic(polymorphic);
+        return builder;
+    }
+
+    /**
+     * The visitor streaming the output.
      *
-     * @param property The property.
-     * @param <P>      The property type.
+     * @param <T> The current node type.
      */
-    private <P> void visitProperty(Property<? super T, P> property) {
-        property.accept(new ToStringModelVisitor<>(property.get(target), builder, indent.concat("  ")));
+    private static final class Writer<T> implements ModelVisitor<T, Appendable> {
+
+        /**
+         * The output.
+         */
+        private final Appendable output;
+
+        /**
+         * The object (or the current node) to be transformed to string.
+         */
+        private Object target;
+
+        /**
+         * The current depth.
+         */
+        private int depth;
+
+        /**
+         * Constructor.
+         *
+         * @param target The object to be transformed to string.
+         * @param output The output.
+         */
+        Writer(T target, Appendable output) {
+            this.target = target;
+            this.output = output;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Appendable visitBean(BeanModel<T> beanModel) {
+            T bean = current();
+            append("{");
+            List<Property<? super T, ?>> properties = beanModel.getProperties();
+            for (int i = 0, size = properties.size(); i < size; i++) {
+                append(i > 0 ? ",\n" : "\n").append(indent(depth + 1)).append(properties.get(i).getName()).append(": ");
+                visitProperty(properties.get(i), bean);
+            }
+            append(properties.isEmpty() ? "" : "\n").append(indent(depth)).append("}");
+            return output;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Appendable visitValue(ValueModel<T> value) {
+            append(String.valueOf(target));
+            return output;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Appendable visitPolymorphic(PolymorphicModel<T> polymorphic) {
+            return polymorphic.modelOf(current()).accept(this);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <K, V> Appendable visitMap(MapModel<T, K, V> map) {
+            Map<K, V> entries = map.toMap(current());
+            @SuppressWarnings("unchecked")
+            K[] keys = (K[]) entries.keySet().toArray();
+            Arrays.sort(keys, map.getKeyModel());
+            append("[");
+            for (int i = 0; i < keys.length; i++) {
+                append(i > 0 ? ",\n" : "\n").append(indent(depth + 1)).append(String.valueOf(keys[i])).append(": ");
+                nested(map.getValueModel(), entries.get(keys[i]));
+            }
+            append(keys.length > 0 ? "\n" : "").append(indent(keys.length > 0 ? depth : 0)).append("]");
+            return output;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Appendable visitSet(SetModel<T, E> values) {
+            @SuppressWarnings("unchecked")
+            E[] elements = (E[]) values.toSet(current()).toArray();
+            Arrays.sort(elements, values.getElementModel());
+            return visitCollection(values.getElementModel(), Arrays.asList(elements));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Appendable visitList(ListModel<T, E> values) {
+            return visitCollection(values.getElementModel(), values.toList(current()));
+        }
+
+        /**
+         * Visit a collection.
+         *
+         * @param elementModel The collection element model.
+         * @param collection   The collection.
+         * @param <E>          The collection element type.
+         * @return The output.
+         */
+        private <E> Appendable visitCollection(Model<E> elementModel, Collection<? extends E> collection) {
+            append("[");
+            int index = 0;
+            for (E element : collection) {
+                append(index++ > 0 ? ",\n" : "\n").append(indent(depth + 1));
+                nested(elementModel, element);
+            }
+            append(index > 0 ? "\n" : "").append(indent(index > 0 ? depth : 0)).append("]");
+            return output;
+        }
+
+        /**
+         * Visit a property.
+         *
+         * @param property The property.
+         * @param bean     The current bean.
+         * @param <P>      The property type.
+         */
+        private <P> void visitProperty(Property<? super T, P> property, T bean) {
+            nested(property.getModel(), property.get(bean));
+        }
+
+        /**
+         * Write a nested value (one level deeper) with this same visitor.
+         *
+         * @param model The nested model.
+         * @param value The nested value.
+         * @param <N>   The nested type.
+         */
+        @SuppressWarnings("unchecked")
+        private <N> void nested(Model<N> model, N value) {
+            Object previous = target;
+            target = value;
+            depth++;
+            try {
+                model.accept((Writer<N>) this);
+            } finally {
+                depth--;
+                target = previous;
+            }
+        }
+
+        /**
+         * Get the current node.
+         *
+         * @return The current node.
+         */
+        @SuppressWarnings("unchecked")
+        private T current() {
+            return (T) target;
+        }
+
+        /**
+         * Append to the output.
+         *
+         * @param string The string to append.
+         * @return This visitor (for chaining).
+         */
+        private Writer<T> append(String string) {
+            try {
+                output.append(string);
+                return this;
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
     }
 }
@@ -23,6 +23,7 @@ import org.codegeny.beans.model.BeanModel;
 import org.codegeny.beans.model.ListModel;
 import org.codegeny.beans.model.MapModel;
 import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
 import org.codegeny.beans.model.Property;
 import org.codegeny.beans.model.SetModel;
 import org.codegeny.beans.model.ValueModel;
@@ -128,6 +129,14 @@ public final class TraversingModelVisitor<T> implements ModelVisitor<T, Void> {
         return null;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Void visitPolymorphic(PolymorphicModel<T> polymorphic) {
+        return polymorphic.modelOf(target).accept(this);
+    }
+
     /**
      * Visit a property.
      *
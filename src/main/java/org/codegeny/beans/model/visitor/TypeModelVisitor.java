@@ -22,6 +22,7 @@ package org.codegeny.beans.model.visitor;
 import org.codegeny.beans.model.BeanModel;
 import org.codegeny.beans.model.ListModel;
 import org.codegeny.beans.model.MapModel;
+import org.codegeny.beans.model.Model;
 import org.codegeny.beans.model.ModelVisitor;
 import org.codegeny.beans.model.SetModel;
 import org.codegeny.beans.model.ValueModel;
@@ -29,9 +30,11 @@ import org.codegeny.beans.model.ValueModel;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
@@ -46,6 +49,26 @@ import static java.util.stream.Collectors.joining;
  */
 public final class TypeModelVisitor<T> implements ModelVisitor<T, Type> {
 
+    /**
+     * Memoized types per model node (models are compared by identity).
+     */
+    private static final Map<Model<?>, Type> TYPES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Get the type of the given model (computed once per model node).
+     *
+     * @param model The model.
+     * @return The type.
+     */
+    public static Type typeOf(Model<?> model) {
+        Type type = TYPES.get(model);
+        if (type == null) {
+            type = model.accept(new TypeModelVisitor<>());
+            TYPES.put(model, type);
+        }
+        return type;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -59,7 +82,7 @@ public final class TypeModelVisitor<T> implements ModelVisitor<T, Type> {
      */
     @Override
     public <E> Type visitList(ListModel<T, E> list) {
-        return new ParameterizedTypeImpl(List.class, list.accept(new TypeModelVisitor<>()));
+        return new ParameterizedTypeImpl(List.class, typeOf(list.getElementModel()));
     }
 
     /**
@@ -67,7 +90,7 @@ public final class TypeModelVisitor<T> implements ModelVisitor<T, Type> {
      */
     @Override
     public <K, V> Type visitMap(MapModel<T, K, V> map) {
-        return new ParameterizedTypeImpl(Map.class, map.acceptKey(new TypeModelVisitor<>()), map.acceptValue(new TypeModelVisitor<>()));
+        return new ParameterizedTypeImpl(Map.class, typeOf(map.getKeyModel()), typeOf(map.getValueModel()));
     }
 
     /**
@@ -75,7 +98,7 @@ public final class TypeModelVisitor<T> implements ModelVisitor<T, Type> {
      */
     @Override
     public <E> Type visitSet(SetModel<T, E> set) {
-        return new ParameterizedTypeImpl(Set.class, set.accept(new TypeModelVisitor<>()));
+        return new ParameterizedTypeImpl(Set.class, typeOf(set.getElementModel()));
     }
 
     /**
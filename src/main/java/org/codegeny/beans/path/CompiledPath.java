@@ -0,0 +1,78 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.path;
+
+import java.lang.reflect.Type;
+
+/**
+ * A {@link Path} which has been resolved once against a model (property lookups, path elements conversions and leaf
+ * type) so that getting or setting the value it points to only involves a chain of getters (and a final setter).
+ * Compiled paths are immutable and can be shared between threads.
+ *
+ * @param <T> The target type.
+ * @param <V> The value type.
+ * @author Xavier DURY
+ * @see org.codegeny.beans.model.Model#compile(Path, Converter)
+ */
+public interface CompiledPath<T, V> {
+
+    /**
+     * Get the path this compiled path was compiled from.
+     *
+     * @return The path.
+     */
+    Path<?> getPath();
+
+    /**
+     * Get the type of the value this path points to.
+     *
+     * @return The value type.
+     */
+    Type getType();
+
+    /**
+     * Get the value from the target.
+     *
+     * @param target The target.
+     * @return The value.
+     */
+    V get(T target);
+
+    /**
+     * Set the value on the target.
+     *
+     * @param target The target.
+     * @param value  The value.
+     * @throws UnsupportedOperationException If this path is the root path (or the value cannot be set).
+     */
+    void set(T target, V value);
+
+    /**
+     * Convert the value to the {@link #getType() value type} then set it on the target.
+     *
+     * @param target    The target.
+     * @param value     The value to convert.
+     * @param converter The converter.
+     * @param <S>       The type of the value to convert.
+     */
+    default <S> void set(T target, S value, Converter<? super S> converter) {
+        set(target, converter.convert(getType(), value));
+    }
+}
@@ -0,0 +1,264 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.path;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Converter which parses strings through precompiled parsers memoized per class (through a {@link ClassValue}, so
+ * that the registry does not prevent classes from being unloaded). Parsers are registered for strings, primitives and
+ * their wrappers, enums (by name), big numbers, {@link UUID}s and the <code>java.time</code> types; any other type is
+ * delegated to a fallback {@link Converter} (by default {@link StringConverter}, which looks up static factory methods
+ * or constructors once per class).
+ * <p>
+ * Registries are immutable (see {@link #with(Class, Function)} and {@link #withFallback(Converter)}) and thread-safe.
+ * </p>
+ *
+ * @author Xavier DURY
+ */
+public final class ConverterRegistry implements Converter<String> {
+
+    /**
+     * The default registry.
+     */
+    private static final ConverterRegistry DEFAULTS = new ConverterRegistry(builtins(), StringConverter.INSTANCE);
+
+    /**
+     * Get the default registry (which falls back to {@link StringConverter}).
+     *
+     * @return The default registry.
+     */
+    public static ConverterRegistry defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Create the built-in parsers.
+     *
+     * @return The built-in parsers.
+     */
+    private static Map<Class<?>, Function<String, ?>> builtins() {
+        Map<Class<?>, Function<String, ?>> parsers = new HashMap<>();
+        parsers.put(String.class, Function.identity());
+        register(parsers, Boolean.class, boolean.class, ConverterRegistry::parseBoolean);
+        register(parsers, Character.class, char.class, ConverterRegistry::parseCharacter);
+        register(parsers, Byte.class, byte.class, Byte::valueOf);
+        register(parsers, Short.class, short.class, Short::valueOf);
+        register(parsers, Integer.class, int.class, Integer::valueOf);
+        register(parsers, Long.class, long.class, Long::valueOf);
+        register(parsers, Float.class, float.class, Float::valueOf);
+        register(parsers, Double.class, double.class, Double::valueOf);
+        parsers.put(BigInteger.class, BigInteger::new);
+        parsers.put(BigDecimal.class, BigDecimal::new);
+        parsers.put(UUID.class, UUID::fromString);
+        parsers.put(LocalDate.class, LocalDate::parse);
+        parsers.put(LocalTime.class, LocalTime::parse);
+        parsers.put(LocalDateTime.class, LocalDateTime::parse);
+        parsers.put(OffsetDateTime.class, OffsetDateTime::parse);
+        parsers.put(ZonedDateTime.class, ZonedDateTime::parse);
+        parsers.put(Instant.class, Instant::parse);
+        parsers.put(Duration.class, Duration::parse);
+        parsers.put(Period.class, Period::parse);
+        parsers.put(Year.class, Year::parse);
+        parsers.put(YearMonth.class, YearMonth::parse);
+        return parsers;
+    }
+
+    /**
+     * Register a parser for both a wrapper and its primitive type.
+     *
+     * @param parsers   The parsers.
+     * @param wrapper   The wrapper type.
+     * @param primitive The primitive type.
+     * @param parser    The parser.
+     */
+    private static void register(Map<Class<?>, Function<String, ?>> parsers, Class<?> wrapper, Class<?> primitive, Function<String, ?> parser) {
+        parsers.put(wrapper, parser);
+        parsers.put(primitive, parser);
+    }
+
+    /**
+     * Parse a boolean (strictly <code>true</code> or <code>false</code>, ignoring case).
+     *
+     * @param string The string.
+     * @return The boolean.
+     */
+    private static Boolean parseBoolean(String string) {
+        if (string.equalsIgnoreCase("true")) {
+            return Boolean.TRUE;
+        }
+        if (string.equalsIgnoreCase("false")) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException(String.format("Expected a boolean but got '%s'", string));
+    }
+
+    /**
+     * Parse a character from a single-char string.
+     *
+     * @param string The string.
+     * @return The character.
+     */
+    private static Character parseCharacter(String string) {
+        if (string.length() != 1) {
+            throw new IllegalArgumentException(String.format("Expected a single char but got '%s'", string));
+        }
+        return string.charAt(0);
+    }
+
+    /**
+     * Create a parser for an enum.
+     *
+     * @param type The enum type.
+     * @return The parser.
+     */
+    private static Function<String, ?> enumParser(Class<?> type) {
+        Map<String, Object> constants = new HashMap<>();
+        for (Object constant : type.getEnumConstants()) {
+            constants.put(((Enum<?>) constant).name(), constant);
+        }
+        return string -> {
+            Object constant = constants.get(string);
+            if (constant == null) {
+                throw new IllegalArgumentException(String.format("No enum constant %s.%s", type.getName(), string));
+            }
+            return constant;
+        };
+    }
+
+    /**
+     * The registered parsers.
+     */
+    private final Map<Class<?>, Function<String, ?>> parsers;
+
+    /**
+     * The fallback converter.
+     */
+    private final Converter<String> fallback;
+
+    /**
+     * The memoized parsers per class.
+     */
+    private final ClassValue<Function<String, ?>> cache = new ClassValue<Function<String, ?>>() {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Function<String, ?> computeValue(Class<?> type) {
+            return lookup(type);
+        }
+    };
+
+    /**
+     * Constructor.
+     *
+     * @param parsers  The registered parsers.
+     * @param fallback The fallback converter.
+     */
+    private ConverterRegistry(Map<Class<?>, Function<String, ?>> parsers, Converter<String> fallback) {
+        this.parsers = Collections.unmodifiableMap(parsers);
+        this.fallback = requireNonNull(fallback);
+    }
+
+    /**
+     * Create a new registry with an additional (or replaced) parser.
+     *
+     * @param type   The type.
+     * @param parser The parser.
+     * @param <T>    The type.
+     * @return A new registry.
+     */
+    public <T> ConverterRegistry with(Class<T> type, Function<String, ? extends T> parser) {
+        Map<Class<?>, Function<String, ?>> result = new HashMap<>(parsers);
+        result.put(requireNonNull(type), requireNonNull(parser));
+        return new ConverterRegistry(result, fallback);
+    }
+
+    /**
+     * Create a new registry with the given fallback converter for types which have no registered parser.
+     *
+     * @param fallback The fallback converter.
+     * @return A new registry.
+     */
+    public ConverterRegistry withFallback(Converter<String> fallback) {
+        return new ConverterRegistry(parsers, fallback);
+    }
+
+    /**
+     * Get the parser for the given type (computed once per class, other types such as parameterized types are not
+     * memoized).
+     *
+     * @param type The type.
+     * @param <T>  The value type.
+     * @return The parser.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Function<String, T> parser(Type type) {
+        return (Function<String, T>) (requireNonNull(type) instanceof Class<?> ? cache.get((Class<?>) type) : lookup(type));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T convert(Type type, String value) {
+        return value == null ? null : this.<T>parser(type).apply(value);
+    }
+
+    /**
+     * Lookup a parser.
+     *
+     * @param type The type.
+     * @return The parser.
+     */
+    private Function<String, ?> lookup(Type type) {
+        Function<String, ?> parser = parsers.get(type);
+        if (parser != null) {
+            return parser;
+        }
+        if (type instanceof Class<?> && ((Class<?>) type).isEnum()) {
+            return enumParser((Class<?>) type);
+        }
+        if (fallback == StringConverter.INSTANCE && type instanceof Class<?>) {
+            return StringConverter.parser((Class<?>) type);
+        }
+        return value -> fallback.convert(type, value);
+    }
+}
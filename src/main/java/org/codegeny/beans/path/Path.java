@@ -19,30 +19,52 @@
  */
 package org.codegeny.beans.path;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-
-import static java.util.stream.Collectors.joining;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A path made of separate elements.
+ * <p>
+ * Paths are persistent: each path only holds its last element and a reference to its parent, so that appending an
+ * element (which is what traversals do at each step) is O(1) and shares the whole prefix. The size and hash code
+ * (which is the same as the one of a {@link List} of the same elements) are computed at construction time.
+ * </p>
  *
  * @param <P> The type of the path elements.
  * @author Xavier DURY
  */
 public final class Path<P> implements Iterable<P> {
 
+    /**
+     * The root path.
+     */
+    private static final Path<?> ROOT = new Path<>(null, null);
+
+    /**
+     * The maximum number of parsed patterns kept in cache.
+     */
+    private static final int MAX_CACHED_PATTERNS = 1024;
+
+    /**
+     * Cache of parsed patterns.
+     */
+    private static final Map<String, Path<Selector>> PATTERNS = new ConcurrentHashMap<>();
+
     /**
      * Construct an empty path.
      *
      * @param <P> The type of the path elements.
      * @return A path.
      */
+    @SuppressWarnings("unchecked")
     public static <P> Path<P> root() {
-        return of();
+        return (Path<P>) ROOT;
     }
 
     /**
@@ -65,21 +87,143 @@ public final class Path<P> implements Iterable<P> {
      * @return A path.
      */
     public static <P> Path<P> of(List<P> elements) {
-        return new Path<>(new ArrayList<>(elements));
+        Path<P> result = root();
+        for (P element : elements) {
+            result = result.append(element);
+        }
+        return result;
+    }
+
+    /**
+     * Parse a path pattern made of segments separated by <code>/</code> (a leading <code>/</code> is optional), each
+     * segment being either:
+     * <ul>
+     * <li><code>*</code> to select all children (properties, elements or map values);</li>
+     * <li><code>**</code> to select zero or more levels of children;</li>
+     * <li><code>[index]</code>, <code>[from..to]</code> (inclusive) or <code>[from..]</code> to select elements by
+     * index;</li>
+     * <li><code>[name=value]</code> to select the children for which the nested property <code>name</code> (elements
+     * separated by <code>.</code>) has the given string representation;</li>
+     * <li>anything else to select a property, an index or a map key by name (optionally followed by a bracketed
+     * selector, i.e. <code>formerAddresses[0..2]</code>).</li>
+     * </ul>
+     * Parsed patterns are cached.
+     *
+     * @param pattern The pattern.
+     * @return A path of selectors.
+     * @throws IllegalArgumentException If the pattern is malformed.
+     * @see org.codegeny.beans.model.Model#select(Object, Path)
+     */
+    public static Path<Selector> parse(String pattern) {
+        Path<Selector> result = PATTERNS.get(pattern);
+        if (result == null) {
+            result = parseSegments(pattern);
+            if (PATTERNS.size() >= MAX_CACHED_PATTERNS) {
+                PATTERNS.clear();
+            }
+            PATTERNS.put(pattern, result);
+        }
+        return result;
     }
 
     /**
-     * The path elements.
+     * Parse a path pattern (without cache).
+     *
+     * @param pattern The pattern.
+     * @return A path of selectors.
+     */
+    private static Path<Selector> parseSegments(String pattern) {
+        Path<Selector> result = root();
+        String trimmed = pattern.startsWith("/") ? pattern.substring(1) : pattern;
+        if (trimmed.isEmpty()) {
+            return result;
+        }
+        for (String segment : trimmed.split("/", -1)) {
+            int bracket = segment.indexOf('[');
+            if (bracket > 0) {
+                result = result.append(parseSegment(pattern, segment.substring(0, bracket)));
+                segment = segment.substring(bracket);
+            }
+            Selector selector = parseSegment(pattern, segment);
+            if (selector.getKind() != Selector.Kind.ANY_DEPTH || result.isRoot() || result.last().getKind() != Selector.Kind.ANY_DEPTH) {
+                result = result.append(selector);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parse a single pattern segment.
+     *
+     * @param pattern The whole pattern (for error messages).
+     * @param segment The segment.
+     * @return A selector.
+     */
+    private static Selector parseSegment(String pattern, String segment) {
+        if (segment.isEmpty()) {
+            throw new IllegalArgumentException(String.format("Empty segment in pattern '%s'", pattern));
+        }
+        if (segment.equals("*")) {
+            return Selector.any();
+        }
+        if (segment.equals("**")) {
+            return Selector.anyDepth();
+        }
+        if (!segment.startsWith("[")) {
+            return Selector.name(segment);
+        }
+        if (!segment.endsWith("]") || segment.length() == 2) {
+            throw new IllegalArgumentException(String.format("Malformed segment '%s' in pattern '%s'", segment, pattern));
+        }
+        String content = segment.substring(1, segment.length() - 1);
+        int equal = content.indexOf('=');
+        if (equal > 0) {
+            return Selector.where(content.substring(0, equal), content.substring(equal + 1));
+        }
+        try {
+            int range = content.indexOf("..");
+            if (range < 0) {
+                int index = Integer.parseInt(content);
+                return Selector.range(index, index);
+            }
+            String to = content.substring(range + 2);
+            return Selector.range(Integer.parseInt(content.substring(0, range)), to.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(to));
+        } catch (NumberFormatException numberFormatException) {
+            throw new IllegalArgumentException(String.format("Malformed segment '%s' in pattern '%s'", segment, pattern), numberFormatException);
+        }
+    }
+
+    /**
+     * The parent path (null for the root).
+     */
+    private final Path<P> parent;
+
+    /**
+     * The last element.
+     */
+    private final P last;
+
+    /**
+     * The number of path elements.
+     */
+    private final int size;
+
+    /**
+     * The cached hash code.
      */
-    private final List<P> elements;
+    private final int hash;
 
     /**
      * Constructor.
      *
-     * @param elements The path elements.
+     * @param parent The parent path (null for the root).
+     * @param last   The last element.
      */
-    private Path(List<P> elements) {
-        this.elements = Collections.unmodifiableList(elements);
+    private Path(Path<P> parent, P last) {
+        this.parent = parent;
+        this.last = last;
+        this.size = parent == null ? 0 : parent.size + 1;
+        this.hash = parent == null ? 1 : 31 * parent.hash + Objects.hashCode(last);
     }
 
     /**
@@ -89,9 +233,7 @@ public final class Path<P> implements Iterable<P> {
      * @return A new path with the appended element.
      */
     public Path<P> append(P element) {
-        List<P> result = new ArrayList<>(elements);
-        result.add(element);
-        return new Path<>(result);
+        return new Path<>(this, element);
     }
 
     /**
@@ -101,9 +243,7 @@ public final class Path<P> implements Iterable<P> {
      * @return A new path with the prepended element.
      */
     public Path<P> prepend(P element) {
-        List<P> result = new ArrayList<>(elements);
-        result.add(0, element);
-        return new Path<>(result);
+        return Path.<P>root().append(element).append(this);
     }
 
     /**
@@ -113,9 +253,17 @@ public final class Path<P> implements Iterable<P> {
      * @return A new path with the appended path.
      */
     public Path<P> append(Path<P> path) {
-        List<P> result = new ArrayList<>(elements);
-        result.addAll(path.elements);
-        return new Path<>(result);
+        if (path.isRoot()) {
+            return this;
+        }
+        if (isRoot()) {
+            return path;
+        }
+        Path<P> result = this;
+        for (P element : path) {
+            result = result.append(element);
+        }
+        return result;
     }
 
     /**
@@ -125,9 +273,42 @@ public final class Path<P> implements Iterable<P> {
      * @return A new path with the prepended path.
      */
     public Path<P> prepend(Path<P> path) {
-        List<P> result = new ArrayList<>(path.elements);
-        result.addAll(elements);
-        return new Path<>(result);
+        return path.append(this);
+    }
+
+    /**
+     * Get the parent of this path (which shares all but the last element with this path).
+     *
+     * @return The parent path.
+     * @throws NoSuchElementException If this path is the root.
+     */
+    public Path<P> parent() {
+        if (isRoot()) {
+            throw new NoSuchElementException("The root path has no parent");
+        }
+        return parent;
+    }
+
+    /**
+     * Get the last element of this path.
+     *
+     * @return The last element.
+     * @throws NoSuchElementException If this path is the root.
+     */
+    public P last() {
+        if (isRoot()) {
+            throw new NoSuchElementException("The root path has no element");
+        }
+        return last;
+    }
+
+    /**
+     * Check if this path is the root (empty) path.
+     *
+     * @return <code>true</code> if this path has no elements.
+     */
+    public boolean isRoot() {
+        return parent == null;
     }
 
     /**
@@ -135,8 +316,21 @@ public final class Path<P> implements Iterable<P> {
      *
      * @return The path size.
      */
-    private int size() {
-        return elements.size();
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copy the path elements in order.
+     *
+     * @return An array of the path elements.
+     */
+    private Object[] toArray() {
+        Object[] result = new Object[size];
+        for (Path<P> path = this; path.parent != null; path = path.parent) {
+            result[path.size - 1] = path.last;
+        }
+        return result;
     }
 
     /**
@@ -144,7 +338,25 @@ public final class Path<P> implements Iterable<P> {
      */
     @Override
     public Iterator<P> iterator() {
-        return elements.iterator();
+        Object[] elements = toArray();
+        return new Iterator<P>() {
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < elements.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public P next() {
+                if (index == elements.length) {
+                    throw new NoSuchElementException();
+                }
+                return (P) elements[index++];
+            }
+        };
     }
 
     /**
@@ -156,7 +368,11 @@ public final class Path<P> implements Iterable<P> {
      * @return A string representation.
      */
     public String toString(String separator, String prefix, String suffix) {
-        return elements.stream().map(Object::toString).collect(joining(separator, prefix, suffix));
+        StringJoiner joiner = new StringJoiner(separator, prefix, suffix);
+        for (Object element : toArray()) {
+            joiner.add(String.valueOf(element));
+        }
+        return joiner.toString();
     }
 
     /**
@@ -172,7 +388,7 @@ public final class Path<P> implements Iterable<P> {
      */
     @Override
     public int hashCode() {
-        return elements.hashCode();
+        return hash;
     }
 
     /**
@@ -180,6 +396,22 @@ public final class Path<P> implements Iterable<P> {
      */
     @Override
     public boolean equals(Object that) {
-        return super.equals(that) || that instanceof Path && ((Path<?>) that).elements.equals(elements);
+        if (!(that instanceof Path<?>)) {
+            return false;
+        }
+        Path<?> left = this;
+        Path<?> right = (Path<?>) that;
+        if (left.size != right.size || left.hash != right.hash) {
+            return false;
+        }
+        // Walk back until both paths share the same prefix.
+        while (left != right) {
+            if (!Objects.equals(left.last, right.last)) {
+                return false;
+            }
+            left = left.parent;
+            right = right.parent;
+        }
+        return true;
     }
 }
@@ -0,0 +1,134 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.path;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A mutable trie of {@link Path}s (each node being a path element) so that paths sharing a common prefix can be
+ * processed together (the prefix being resolved only once). Each path can be associated with a value.
+ *
+ * @param <P> The type of the path elements.
+ * @param <V> The type of the values.
+ * @author Xavier DURY
+ */
+public final class PathTrie<P, V> {
+
+    /**
+     * The path from the root to this node.
+     */
+    private final Path<P> path;
+
+    /**
+     * The children (in insertion order).
+     */
+    private final Map<P, PathTrie<P, V>> children = new LinkedHashMap<>();
+
+    /**
+     * Was a path ending at this node added?
+     */
+    private boolean terminal;
+
+    /**
+     * The value associated with the path ending at this node.
+     */
+    private V value;
+
+    /**
+     * Create an empty trie.
+     */
+    public PathTrie() {
+        this(Path.root());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param path The path from the root to this node.
+     */
+    private PathTrie(Path<P> path) {
+        this.path = path;
+    }
+
+    /**
+     * Add a path (which may be a prefix of other paths) and associate it with a value.
+     *
+     * @param path  The path.
+     * @param value The value (which replaces any previous value for the same path).
+     * @return This trie.
+     */
+    public PathTrie<P, V> put(Path<P> path, V value) {
+        PathTrie<P, V> node = this;
+        for (P element : path) {
+            node = node.children.computeIfAbsent(element, node::child);
+        }
+        node.terminal = true;
+        node.value = value;
+        return this;
+    }
+
+    /**
+     * Create a child node.
+     *
+     * @param element The child element.
+     * @return The child.
+     */
+    private PathTrie<P, V> child(P element) {
+        return new PathTrie<>(path.append(element));
+    }
+
+    /**
+     * Get the path from the root to this node.
+     *
+     * @return The path.
+     */
+    public Path<P> getPath() {
+        return path;
+    }
+
+    /**
+     * Check if a path ending at this node was added.
+     *
+     * @return <code>true</code> if this node terminates a path.
+     */
+    public boolean isTerminal() {
+        return terminal;
+    }
+
+    /**
+     * Get the value associated with the path ending at this node.
+     *
+     * @return The value (or null).
+     */
+    public V getValue() {
+        return value;
+    }
+
+    /**
+     * Get the children of this node indexed by path element (in insertion order).
+     *
+     * @return An unmodifiable map of children.
+     */
+    public Map<P, PathTrie<P, V>> getChildren() {
+        return Collections.unmodifiableMap(children);
+    }
+}
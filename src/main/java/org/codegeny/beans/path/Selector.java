@@ -0,0 +1,276 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.path;
+
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Element of a path pattern (see {@link Path#parse(String)}). A selector matches some of the children of a node: a
+ * property, a list/set index or a map key given by name, all children (<code>*</code>), any number of levels
+ * (<code>**</code>), a range of indexes (<code>[from..to]</code>) or the children for which a nested property has a
+ * given value (<code>[name=value]</code>).
+ *
+ * @author Xavier DURY
+ */
+public final class Selector {
+
+    /**
+     * The selector kind.
+     */
+    public enum Kind {
+
+        /**
+         * A property name, an index or a map key (compared by string representation).
+         */
+        NAME,
+
+        /**
+         * All children.
+         */
+        ANY,
+
+        /**
+         * Zero or more levels of children.
+         */
+        ANY_DEPTH,
+
+        /**
+         * A range of indexes (inclusive).
+         */
+        RANGE,
+
+        /**
+         * Children for which a nested property has a given value (compared by string representation).
+         */
+        WHERE
+    }
+
+    /**
+     * Selector for all children.
+     */
+    private static final Selector ANY = new Selector(Kind.ANY, "*", null, 0, 0);
+
+    /**
+     * Selector for any number of levels.
+     */
+    private static final Selector ANY_DEPTH = new Selector(Kind.ANY_DEPTH, "**", null, 0, 0);
+
+    /**
+     * Create a selector which matches a property name, an index or a map key.
+     *
+     * @param name The name.
+     * @return A selector.
+     */
+    public static Selector name(String name) {
+        return new Selector(Kind.NAME, requireNonNull(name), null, 0, 0);
+    }
+
+    /**
+     * Create a selector which matches all children.
+     *
+     * @return A selector.
+     */
+    public static Selector any() {
+        return ANY;
+    }
+
+    /**
+     * Create a selector which matches zero or more levels of children.
+     *
+     * @return A selector.
+     */
+    public static Selector anyDepth() {
+        return ANY_DEPTH;
+    }
+
+    /**
+     * Create a selector which matches a range of indexes.
+     *
+     * @param from The first index (inclusive).
+     * @param to   The last index (inclusive, {@link Integer#MAX_VALUE} for no upper bound).
+     * @return A selector.
+     */
+    public static Selector range(int from, int to) {
+        if (from < 0 || to < from) {
+            throw new IllegalArgumentException(String.format("Invalid range %d..%d", from, to));
+        }
+        return new Selector(Kind.RANGE, null, null, from, to);
+    }
+
+    /**
+     * Create a selector which matches the children for which the nested property (path elements separated by
+     * <code>.</code>) has the given string representation.
+     *
+     * @param name  The nested property name.
+     * @param value The value.
+     * @return A selector.
+     */
+    public static Selector where(String name, String value) {
+        return new Selector(Kind.WHERE, requireNonNull(name), requireNonNull(value), 0, 0);
+    }
+
+    /**
+     * The kind.
+     */
+    private final Kind kind;
+
+    /**
+     * The name (for {@link Kind#NAME} and {@link Kind#WHERE}).
+     */
+    private final String name;
+
+    /**
+     * The value (for {@link Kind#WHERE}).
+     */
+    private final String value;
+
+    /**
+     * The first index (for {@link Kind#RANGE}).
+     */
+    private final int from;
+
+    /**
+     * The last index (for {@link Kind#RANGE}).
+     */
+    private final int to;
+
+    /**
+     * Constructor.
+     *
+     * @param kind  The kind.
+     * @param name  The name.
+     * @param value The value.
+     * @param from  The first index.
+     * @param to    The last index.
+     */
+    private Selector(Kind kind, String name, String value, int from, int to) {
+        this.kind = kind;
+        this.name = name;
+        this.value = value;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Get the kind.
+     *
+     * @return The kind.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Get the name (for {@link Kind#NAME} and {@link Kind#WHERE}).
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the value (for {@link Kind#WHERE}).
+     *
+     * @return The value.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get the first index (for {@link Kind#RANGE}).
+     *
+     * @return The first index (inclusive).
+     */
+    public int getFrom() {
+        return from;
+    }
+
+    /**
+     * Get the last index (for {@link Kind#RANGE}).
+     *
+     * @return The last index (inclusive).
+     */
+    public int getTo() {
+        return to;
+    }
+
+    /**
+     * Check if this selector matches the given key (property name, index or map key) ignoring {@link Kind#WHERE}
+     * conditions which depend on the child value.
+     *
+     * @param key The key.
+     * @return <code>true</code> if it matches.
+     */
+    public boolean matches(Object key) {
+        switch (kind) {
+            case NAME:
+                return name.equals(String.valueOf(key));
+            case RANGE:
+                return key instanceof Integer && (Integer) key >= from && (Integer) key <= to;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, name, value, from, to);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object that) {
+        return this == that || that instanceof Selector && equals((Selector) that);
+    }
+
+    /**
+     * Private equal implementation.
+     *
+     * @param that The other selector.
+     * @return True/false.
+     */
+    private boolean equals(Selector that) {
+        return kind == that.kind && Objects.equals(name, that.name) && Objects.equals(value, that.value) && from == that.from && to == that.to;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        switch (kind) {
+            case RANGE:
+                return from == to ? String.format("[%d]", from) : to == Integer.MAX_VALUE ? String.format("[%d..]", from) : String.format("[%d..%d]", from, to);
+            case WHERE:
+                return String.format("[%s=%s]", name, value);
+            default:
+                return name;
+        }
+    }
+}
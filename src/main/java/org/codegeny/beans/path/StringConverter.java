@@ -0,0 +1,171 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.path;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Converter which parses strings into values of the requested class.
+ * <ul>
+ * <li>Strings are returned as is.</li>
+ * <li>Characters are parsed from single-char strings.</li>
+ * <li>Enums are parsed by name.</li>
+ * <li>Other classes are parsed through a public static <code>parse(CharSequence)</code>,
+ * <code>valueOf(String)</code>, <code>of(String)</code> or <code>fromString(String)</code> method or through a public
+ * <code>String</code> constructor.</li>
+ * </ul>
+ * Parsers are looked up once per class.
+ *
+ * @author Xavier DURY
+ */
+public enum StringConverter implements Converter<String> {
+
+    /**
+     * Singleton.
+     */
+    INSTANCE;
+
+    /**
+     * The names of the public static factory methods which can be used to convert strings to values.
+     */
+    private static final List<String> FACTORY_NAMES = asList("parse", "valueOf", "of", "fromString");
+
+    /**
+     * Parsers cache.
+     */
+    private static final ClassValue<Function<String, ?>> PARSERS = new ClassValue<Function<String, ?>>() {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Function<String, ?> computeValue(Class<?> type) {
+            return lookup(type);
+        }
+    };
+
+    /**
+     * A reflective call.
+     *
+     * @param <T> The result type.
+     */
+    @FunctionalInterface
+    private interface Invocation<T> {
+
+        /**
+         * Invoke.
+         *
+         * @return The result.
+         * @throws ReflectiveOperationException If the call fails.
+         */
+        T invoke() throws ReflectiveOperationException;
+    }
+
+    /**
+     * Get a function which parses strings into values of the given class.
+     *
+     * @param type The class.
+     * @param <T>  The value type.
+     * @return The parser (which throws {@link UnsupportedOperationException} if the class cannot be parsed).
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Function<String, T> parser(Class<? extends T> type) {
+        return (Function<String, T>) PARSERS.get(type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T convert(Type type, String value) {
+        if (!(type instanceof Class<?>)) {
+            throw new UnsupportedOperationException(String.format("Cannot convert a string to %s", type.getTypeName()));
+        }
+        return value == null ? null : (T) parser((Class<?>) type).apply(value);
+    }
+
+    /**
+     * Lookup a parser.
+     *
+     * @param type The class.
+     * @return The parser.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<String, ?> lookup(Class<?> type) {
+        if (type == String.class) {
+            return Function.identity();
+        }
+        if (type == Character.class) {
+            return string -> {
+                if (string.length() != 1) {
+                    throw new IllegalArgumentException(String.format("Expected a single char but got '%s'", string));
+                }
+                return string.charAt(0);
+            };
+        }
+        if (type == Boolean.class) {
+            return Boolean::valueOf;
+        }
+        if (type.isEnum()) {
+            return string -> Enum.valueOf((Class) type, string);
+        }
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) && FACTORY_NAMES.contains(method.getName()) && method.getParameterCount() == 1
+                    && method.getParameterTypes()[0].isAssignableFrom(String.class) && type.isAssignableFrom(method.getReturnType())) {
+                return string -> invoke(() -> method.invoke(null, string));
+            }
+        }
+        try {
+            Constructor<?> constructor = type.getConstructor(String.class);
+            return string -> invoke(() -> constructor.newInstance(string));
+        } catch (NoSuchMethodException exception) {
+            return string -> {
+                throw new UnsupportedOperationException(String.format("Cannot convert a string to %s", type.getName()));
+            };
+        }
+    }
+
+    /**
+     * Perform a reflective call and unwrap exceptions.
+     *
+     * @param invocation The call.
+     * @param <T>        The result type.
+     * @return The result.
+     */
+    private static <T> T invoke(Invocation<T> invocation) {
+        try {
+            return invocation.invoke();
+        } catch (InvocationTargetException exception) {
+            Throwable cause = exception.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalArgumentException(cause);
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
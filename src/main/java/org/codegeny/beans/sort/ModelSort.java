@@ -0,0 +1,243 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.sort;
+
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.ListModel;
+import org.codegeny.beans.model.MapModel;
+import org.codegeny.beans.model.Model;
+import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
+import org.codegeny.beans.model.Property;
+import org.codegeny.beans.model.SetModel;
+import org.codegeny.beans.model.ValueModel;
+import org.codegeny.beans.model.visitor.SortKeyModelVisitor;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.stream.IntStream;
+
+/**
+ * Sort lists of objects according to their {@link Model}.
+ * <p>
+ * Instead of walking the model for each comparison, sort keys (see {@link Model#sortKey(Object)}) are computed once per
+ * element (decorate-sort-undecorate) and sorting only compares byte arrays. If the model contains values which cannot
+ * be encoded, the key only covers the leading encodable properties of the bean and the compiled model comparator (see
+ * {@link Model#comparator()}) is used to break ties. Polymorphic models are only sorted with the model comparator.
+ *
+ * @author Xavier DURY
+ */
+public final class ModelSort {
+
+    /**
+     * Sort the given list (in place) according to the given model, using multiple threads to compute sort keys and to
+     * sort. This sort is stable.
+     *
+     * @param list  The list to sort.
+     * @param model The model of the elements.
+     * @param <T>   The type of elements.
+     */
+    public static <T> void parallelSort(List<T> list, Model<T> model) {
+        sort(list, model, true);
+    }
+
+    /**
+     * Sort the given list (in place) according to the given model. This sort is stable.
+     *
+     * @param list  The list to sort.
+     * @param model The model of the elements.
+     * @param <T>   The type of elements.
+     */
+    public static <T> void sort(List<T> list, Model<T> model) {
+        sort(list, model, false);
+    }
+
+    /**
+     * Sort the given list (in place) according to the given model.
+     *
+     * @param list     The list to sort.
+     * @param model    The model of the elements.
+     * @param parallel Should the sort be done in parallel?
+     * @param <T>      The type of elements.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void sort(List<T> list, Model<T> model, boolean parallel) {
+        T[] elements = (T[]) list.toArray();
+        Model<T> keyModel = model.accept(new KeyModelVisitor<>());
+        if (keyModel == null) {
+            Comparator<T> comparator = model.comparator();
+            if (parallel) {
+                Arrays.parallelSort(elements, comparator);
+            } else {
+                Arrays.sort(elements, comparator);
+            }
+        } else {
+            Keyed<T>[] keyed = (Keyed<T>[]) new Keyed<?>[elements.length];
+            IntStream indexes = IntStream.range(0, elements.length);
+            (parallel ? indexes.parallel() : indexes).forEach(i -> keyed[i] = new Keyed<>(keyModel.sortKey(elements[i]), elements[i]));
+            Comparator<Keyed<T>> comparator = Comparator.comparing(Keyed::getKey, SortKeys.COMPARATOR);
+            if (keyModel != model) {
+                comparator = comparator.thenComparing(Keyed::getValue, model.comparator());
+            }
+            if (parallel) {
+                Arrays.parallelSort(keyed, comparator);
+            } else {
+                Arrays.sort(keyed, comparator);
+            }
+            for (int i = 0; i < keyed.length; i++) {
+                elements[i] = keyed[i].getValue();
+            }
+        }
+        ListIterator<T> iterator = list.listIterator();
+        for (T element : elements) {
+            iterator.next();
+            iterator.set(element);
+        }
+    }
+
+    /**
+     * Not instantiable.
+     */
+    private ModelSort() {
+        throw new InternalError();
+    }
+
+    /**
+     * An element decorated with its sort key.
+     *
+     * @param <T> The element type.
+     */
+    private static final class Keyed<T> {
+
+        /**
+         * The sort key.
+         */
+        private final byte[] key;
+
+        /**
+         * The element.
+         */
+        private final T value;
+
+        /**
+         * Constructor.
+         *
+         * @param key   The sort key.
+         * @param value The element.
+         */
+        Keyed(byte[] key, T value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Get the sort key.
+         *
+         * @return The sort key.
+         */
+        byte[] getKey() {
+            return key;
+        }
+
+        /**
+         * Get the element.
+         *
+         * @return The element.
+         */
+        T getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Visitor which returns the model to be used to compute sort keys: either the model itself if it is fully supported,
+     * a bean model restricted to the leading supported properties or null if no sort key can be computed.
+     *
+     * @param <T> The model type.
+     */
+    private static final class KeyModelVisitor<T> implements ModelVisitor<T, Model<T>> {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public Model<T> visitBean(BeanModel<T> bean) {
+            List<Property<? super T, ?>> properties = bean.getProperties();
+            int count = 0;
+            while (count < properties.size() && SortKeyModelVisitor.isSupported(properties.get(count).getModel())) {
+                count++;
+            }
+            return count == properties.size() ? bean : count == 0 ? null : Model.bean(bean.getType(), (Property<? super T, ?>[]) properties.subList(0, count).toArray(new Property<?, ?>[0]));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Model<T> visitList(ListModel<T, E> list) {
+            return supported(list);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <K, V> Model<T> visitMap(MapModel<T, K, V> map) {
+            return supported(map);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> Model<T> visitSet(SetModel<T, E> set) {
+            return supported(set);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Model<T> visitValue(ValueModel<T> value) {
+            return supported(value);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Model<T> visitPolymorphic(PolymorphicModel<T> polymorphic) {
+            return null;
+        }
+
+        /**
+         * Return the given model if sort keys can be computed for it.
+         *
+         * @param model The model.
+         * @return The model or null.
+         */
+        private Model<T> supported(Model<T> model) {
+            return SortKeyModelVisitor.isSupported(model) ? model : null;
+        }
+    }
+}
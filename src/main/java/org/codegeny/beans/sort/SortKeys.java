@@ -0,0 +1,60 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.sort;
+
+import java.util.Comparator;
+
+/**
+ * Utilities for sort keys as produced by {@link org.codegeny.beans.model.Model#sortKey(Object)}.
+ * Sort keys are byte arrays whose unsigned lexicographic order is the same as the order defined by the model.
+ *
+ * @author Xavier DURY
+ */
+public final class SortKeys {
+
+    /**
+     * A comparator for sort keys (unsigned lexicographic order).
+     */
+    public static final Comparator<byte[]> COMPARATOR = SortKeys::compare;
+
+    /**
+     * Compare 2 sort keys using an unsigned lexicographic order.
+     *
+     * @param left  The left key.
+     * @param right The right key.
+     * @return An integer indicating the result of the comparison.
+     */
+    public static int compare(byte[] left, byte[] right) {
+        int length = Math.min(left.length, right.length);
+        for (int i = 0; i < length; i++) {
+            if (left[i] != right[i]) {
+                return (left[i] & 0xFF) - (right[i] & 0xFF);
+            }
+        }
+        return left.length - right.length;
+    }
+
+    /**
+     * Not instantiable.
+     */
+    private SortKeys() {
+        throw new InternalError();
+    }
+}
@@ -0,0 +1,431 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.table;
+
+import org.codegeny.beans.diff.Diff;
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.LazyModel;
+import org.codegeny.beans.model.ListModel;
+import org.codegeny.beans.model.MapModel;
+import org.codegeny.beans.model.Model;
+import org.codegeny.beans.model.ModelVisitor;
+import org.codegeny.beans.model.PolymorphicModel;
+import org.codegeny.beans.model.Property;
+import org.codegeny.beans.model.PropertyIndex;
+import org.codegeny.beans.model.SetModel;
+import org.codegeny.beans.model.ValueModel;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * In-memory columnar (struct-of-arrays) representation of a collection of beans described by a {@link BeanModel}.
+ * Nested beans are flattened so that each leaf of the model gets its own {@link Column} named after the path of
+ * property names (joined with dots) in model order:
+ * <ul>
+ * <li>{@link Long}s go to a {@link LongColumn}, {@link Double}s and {@link Float}s to a {@link DoubleColumn}.</li>
+ * <li>{@link Integer}s, {@link Short}s, {@link Byte}s, {@link Character}s, {@link Boolean}s and enums go to an
+ * {@link IntColumn}.</li>
+ * <li>{@link String}s go to a dictionary-encoded {@link StringColumn}.</li>
+ * <li>All other values (including values with a custom comparator, lists, sets and maps) go to an
+ * {@link ObjectColumn}.</li>
+ * </ul>
+ * As a null bean compares as if all its properties were null, comparing rows column by column gives the same result as
+ * comparing the beans with the model.
+ *
+ * @param <B> The bean type.
+ * @author Xavier DURY
+ */
+public final class BeanTable<B> {
+
+    /**
+     * Visitor which flattens a model into columns.
+     *
+     * @param <T> The type of the current node.
+     */
+    private static final class ColumnModelVisitor<T> implements ModelVisitor<T, List<Column<?>>> {
+
+        /**
+         * The column name of the current node.
+         */
+        private final String name;
+
+        /**
+         * Function which extracts the current node value from a row.
+         */
+        private final Function<Object, ? extends T> accessor;
+
+        /**
+         * The rows.
+         */
+        private final Object[] rows;
+
+        /**
+         * The columns.
+         */
+        private final List<Column<?>> columns;
+
+        /**
+         * Constructor.
+         *
+         * @param name     The column name of the current node.
+         * @param accessor Function which extracts the current node value from a row.
+         * @param rows     The rows.
+         * @param columns  The columns.
+         */
+        ColumnModelVisitor(String name, Function<Object, ? extends T> accessor, Object[] rows, List<Column<?>> columns) {
+            this.name = name;
+            this.accessor = accessor;
+            this.rows = rows;
+            this.columns = columns;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Column<?>> visitBean(BeanModel<T> bean) {
+            bean.getProperties().forEach(this::visitProperty);
+            return columns;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> List<Column<?>> visitList(ListModel<T, E> list) {
+            return add(new ObjectColumn<>(name, list, values()));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <K, V> List<Column<?>> visitMap(MapModel<T, K, V> map) {
+            return add(new ObjectColumn<>(name, map, values()));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <E> List<Column<?>> visitSet(SetModel<T, E> set) {
+            return add(new ObjectColumn<>(name, set, values()));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Column<?>> visitLazy(LazyModel<T> lazy) {
+            return lazy.compile(ColumnModelVisitor.class, model -> model.accept(this), recursive -> {
+                throw new IllegalArgumentException(String.format("Cannot flatten recursive model at %s", name));
+            });
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public List<Column<?>> visitValue(ValueModel<T> value) {
+            Class<?> type = value.getType();
+            Object[] values = values();
+            if (value.getComparator() != Comparator.naturalOrder()) {
+                return add(new ObjectColumn<>(name, value, values));
+            }
+            Model model = value;
+            if (type == Long.class) {
+                return add(new LongColumn(name, model, values));
+            }
+            if (type == Double.class) {
+                return add(new DoubleColumn<Double>(name, model, values, Double::valueOf));
+            }
+            if (type == Float.class) {
+                return add(new DoubleColumn<Float>(name, model, values, d -> (float) d));
+            }
+            if (type == Integer.class) {
+                return add(new IntColumn<Integer>(name, model, values, Integer::intValue, Integer::valueOf));
+            }
+            if (type == Short.class) {
+                return add(new IntColumn<Short>(name, model, values, Short::intValue, i -> (short) i));
+            }
+            if (type == Byte.class) {
+                return add(new IntColumn<Byte>(name, model, values, Byte::intValue, i -> (byte) i));
+            }
+            if (type == Character.class) {
+                return add(new IntColumn<Character>(name, model, values, c -> c, i -> (char) i));
+            }
+            if (type == Boolean.class) {
+                return add(new IntColumn<Boolean>(name, model, values, b -> b ? 1 : 0, i -> i != 0));
+            }
+            if (type.isEnum()) {
+                Enum<?>[] constants = (Enum<?>[]) type.getEnumConstants();
+                return add(new IntColumn<Enum<?>>(name, model, values, Enum::ordinal, i -> constants[i]));
+            }
+            if (type == String.class) {
+                return add(new StringColumn(name, model, values));
+            }
+            return add(new ObjectColumn<>(name, value, values));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<Column<?>> visitPolymorphic(PolymorphicModel<T> polymorphic) {
+            throw new IllegalArgumentException(String.format("Cannot flatten polymorphic model at %s", name));
+        }
+
+        /**
+         * Visit a property.
+         *
+         * @param property The property.
+         * @param <P>      The property type.
+         */
+        private <P> void visitProperty(Property<? super T, P> property) {
+            String propertyName = name.isEmpty() ? property.getName() : name + "." + property.getName();
+            property.accept(new ColumnModelVisitor<>(propertyName, row -> property.get(accessor.apply(row)), rows, columns));
+        }
+
+        /**
+         * Extract the values of the current node for all rows.
+         *
+         * @return The values.
+         */
+        private Object[] values() {
+            Object[] values = new Object[rows.length];
+            for (int row = 0; row < rows.length; row++) {
+                values[row] = accessor.apply(rows[row]);
+            }
+            return values;
+        }
+
+        /**
+         * Add a column.
+         *
+         * @param column The column.
+         * @return The columns.
+         */
+        private List<Column<?>> add(Column<?> column) {
+            columns.add(column);
+            return columns;
+        }
+    }
+
+    /**
+     * Create a table from a collection of beans.
+     *
+     * @param model The bean model.
+     * @param beans The beans (one row per bean, in iteration order).
+     * @param <B>   The bean type.
+     * @return The table.
+     */
+    @SuppressWarnings("unchecked")
+    public static <B> BeanTable<B> of(BeanModel<B> model, Collection<? extends B> beans) {
+        Object[] rows = beans.toArray();
+        List<Column<?>> columns = model.accept(new ColumnModelVisitor<>("", row -> (B) row, rows, new ArrayList<>()));
+        return new BeanTable<>(model, rows.length, columns);
+    }
+
+    /**
+     * The bean model.
+     */
+    private final BeanModel<B> model;
+
+    /**
+     * The number of rows.
+     */
+    private final int size;
+
+    /**
+     * The columns in model order.
+     */
+    private final List<Column<?>> columns;
+
+    /**
+     * The column names index.
+     */
+    private final PropertyIndex index;
+
+    /**
+     * Constructor.
+     *
+     * @param model   The bean model.
+     * @param size    The number of rows.
+     * @param columns The columns in model order.
+     */
+    private BeanTable(BeanModel<B> model, int size, List<Column<?>> columns) {
+        this.model = model;
+        this.size = size;
+        this.columns = unmodifiableList(columns);
+        this.index = new PropertyIndex(columns.stream().map(Column::getName).collect(toList()));
+    }
+
+    /**
+     * Get the bean model.
+     *
+     * @return The model.
+     */
+    public BeanModel<B> getModel() {
+        return model;
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return The number of rows.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the columns in model order.
+     *
+     * @return The columns.
+     */
+    public List<Column<?>> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get a column by name (property names joined with dots, i.e. <code>address.street</code>).
+     *
+     * @param name The column name.
+     * @return The column or null.
+     */
+    public Column<?> getColumn(String name) {
+        int position = index.indexOf(requireNonNull(name));
+        return position < 0 ? null : columns.get(position);
+    }
+
+    /**
+     * Get a column by name and type.
+     *
+     * @param name The column name.
+     * @param type The column type (i.e. {@link LongColumn} or {@link StringColumn}).
+     * @param <C>  The column type.
+     * @return The column.
+     * @throws IllegalArgumentException If there is no such column.
+     */
+    public <C extends Column<?>> C getColumn(String name, Class<C> type) {
+        Column<?> column = getColumn(name);
+        if (!type.isInstance(column)) {
+            throw new IllegalArgumentException(String.format("No %s named '%s'", type.getSimpleName(), name));
+        }
+        return type.cast(column);
+    }
+
+    /**
+     * Compare 2 rows of this table (same result as comparing the beans with the model).
+     *
+     * @param left  The left row.
+     * @param right The right row.
+     * @return An integer indicating the result of the comparison.
+     */
+    public int compare(int left, int right) {
+        return compare(left, this, right);
+    }
+
+    /**
+     * Compare a row of this table with a row of another table of the same model.
+     *
+     * @param row      The row in this table.
+     * @param other    The other table.
+     * @param otherRow The row in the other table.
+     * @return An integer indicating the result of the comparison.
+     * @throws IllegalArgumentException If the other table does not share the same model.
+     */
+    public int compare(int row, BeanTable<B> other, int otherRow) {
+        if (other.model != model) {
+            throw new IllegalArgumentException("Tables must share the same model");
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            int result = compare(columns.get(i), row, other.columns.get(i), otherRow);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compute a row-level diff between this table (left) and another table (right) of the same model, row by row.
+     * Rows are scanned column by column.
+     *
+     * @param other The other table.
+     * @return The status of each row (rows only present on the left are {@link Diff.Status#REMOVED}, rows only present
+     * on the right are {@link Diff.Status#ADDED}).
+     * @throws IllegalArgumentException If the other table does not share the same model.
+     */
+    public Diff.Status[] diff(BeanTable<B> other) {
+        if (other.model != model) {
+            throw new IllegalArgumentException("Tables must share the same model");
+        }
+        int common = Math.min(size, other.size);
+        BitSet modified = new BitSet(common);
+        for (int i = 0; i < columns.size(); i++) {
+            markDifferences(columns.get(i), other.columns.get(i), common, modified);
+        }
+        Diff.Status[] statuses = new Diff.Status[Math.max(size, other.size)];
+        for (int row = 0; row < statuses.length; row++) {
+            statuses[row] = row >= size ? Diff.Status.ADDED : row >= other.size ? Diff.Status.REMOVED : modified.get(row) ? Diff.Status.MODIFIED : Diff.Status.UNCHANGED;
+        }
+        return statuses;
+    }
+
+    /**
+     * Compare cells of 2 columns of the same shape.
+     *
+     * @param left     The left column.
+     * @param row      The left row.
+     * @param right    The right column.
+     * @param otherRow The right row.
+     * @param <V>      The value type.
+     * @return An integer indicating the result of the comparison.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> int compare(Column<V> left, int row, Column<?> right, int otherRow) {
+        return left.compare(row, (Column<V>) right, otherRow);
+    }
+
+    /**
+     * Mark the rows which differ between 2 columns of the same shape.
+     *
+     * @param left     The left column.
+     * @param right    The right column.
+     * @param rows     The number of rows to compare.
+     * @param modified The modified rows.
+     * @param <V>      The value type.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> void markDifferences(Column<V> left, Column<?> right, int rows, BitSet modified) {
+        left.markDifferences((Column<V>) right, rows, modified);
+    }
+}
@@ -0,0 +1,188 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.table;
+
+import org.codegeny.beans.model.Model;
+
+import java.util.BitSet;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A column of a {@link BeanTable} which stores the values of one leaf of the bean model for all rows.
+ * Concrete columns store their values in primitive arrays whenever possible and keep track of nulls in a separate
+ * bitmap.
+ *
+ * @param <V> The value type.
+ * @author Xavier DURY
+ */
+public abstract class Column<V> {
+
+    /**
+     * The column name (property names joined with dots).
+     */
+    private final String name;
+
+    /**
+     * The model of the values.
+     */
+    private final Model<V> model;
+
+    /**
+     * The null bitmap (a bit is set when the value is null).
+     */
+    private final long[] nulls;
+
+    /**
+     * The number of rows.
+     */
+    private final int size;
+
+    /**
+     * Constructor.
+     *
+     * @param name   The column name.
+     * @param model  The model of the values.
+     * @param values The values.
+     */
+    Column(String name, Model<V> model, Object[] values) {
+        this.name = requireNonNull(name);
+        this.model = requireNonNull(model);
+        this.size = values.length;
+        this.nulls = new long[(size + 63) >>> 6];
+        for (int row = 0; row < size; row++) {
+            if (values[row] == null) {
+                nulls[row >>> 6] |= 1L << row;
+            }
+        }
+    }
+
+    /**
+     * Get the column name (property names joined with dots).
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the model of the values.
+     *
+     * @return The model.
+     */
+    public Model<V> getModel() {
+        return model;
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return The number of rows.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Is the value at the given row null?
+     *
+     * @param row The row.
+     * @return <code>true</code> if the value is null.
+     */
+    public boolean isNull(int row) {
+        return (nulls[row >>> 6] >>> row & 1) != 0;
+    }
+
+    /**
+     * Get the value at the given row.
+     *
+     * @param row The row.
+     * @return The value (may be null).
+     */
+    public abstract V get(int row);
+
+    /**
+     * Scan the column and select the rows for which the (non-null) value matches the given predicate.
+     *
+     * @param predicate The predicate.
+     * @return The selected rows.
+     */
+    public BitSet where(Predicate<? super V> predicate) {
+        BitSet rows = new BitSet(size);
+        for (int row = 0; row < size; row++) {
+            if (!isNull(row) && predicate.test(get(row))) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Compare a row of this column with a row of another column of the same shape (nulls last unless overridden).
+     *
+     * @param row      The row in this column.
+     * @param other    The other column (which may be this column).
+     * @param otherRow The row in the other column.
+     * @return An integer indicating the result of the comparison.
+     */
+    int compare(int row, Column<V> other, int otherRow) {
+        boolean leftNull = isNull(row);
+        boolean rightNull = other.isNull(otherRow);
+        if (leftNull || rightNull) {
+            return leftNull == rightNull ? 0 : leftNull ? 1 : -1;
+        }
+        return compareValues(row, other, otherRow);
+    }
+
+    /**
+     * Compare the non-null values of a row of this column with a row of another column of the same shape.
+     *
+     * @param row      The row in this column.
+     * @param other    The other column (which may be this column).
+     * @param otherRow The row in the other column.
+     * @return An integer indicating the result of the comparison.
+     */
+    abstract int compareValues(int row, Column<V> other, int otherRow);
+
+    /**
+     * Mark the rows (up to <code>rows</code>) for which this column and the other column differ.
+     *
+     * @param other    The other column.
+     * @param rows     The number of rows to compare.
+     * @param modified The rows which are already known to differ (updated by this method).
+     */
+    void markDifferences(Column<V> other, int rows, BitSet modified) {
+        for (int row = modified.nextClearBit(0); row < rows; row = modified.nextClearBit(row + 1)) {
+            if (compare(row, other, row) != 0) {
+                modified.set(row);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
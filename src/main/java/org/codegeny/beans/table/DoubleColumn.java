@@ -0,0 +1,132 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.table;
+
+import org.codegeny.beans.model.Model;
+
+import java.util.BitSet;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+
+/**
+ * A {@link Column} of floating point numbers ({@link Double}s or {@link Float}s) stored in a <code>double[]</code>.
+ *
+ * @param <V> The value type.
+ * @author Xavier DURY
+ */
+public final class DoubleColumn<V extends Number> extends Column<V> {
+
+    /**
+     * The values (0 for nulls).
+     */
+    private final double[] values;
+
+    /**
+     * Function which converts a double back to a value.
+     */
+    private final DoubleFunction<V> decoder;
+
+    /**
+     * Constructor.
+     *
+     * @param name    The column name.
+     * @param model   The model of the values.
+     * @param values  The values.
+     * @param decoder Function which converts a double back to a value.
+     */
+    DoubleColumn(String name, Model<V> model, Object[] values, DoubleFunction<V> decoder) {
+        super(name, model, values);
+        this.decoder = decoder;
+        this.values = new double[values.length];
+        for (int row = 0; row < values.length; row++) {
+            if (values[row] != null) {
+                this.values[row] = ((Number) values[row]).doubleValue();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(int row) {
+        return isNull(row) ? null : decoder.apply(values[row]);
+    }
+
+    /**
+     * Get the primitive value at the given row.
+     *
+     * @param row The row.
+     * @return The value (0 for nulls).
+     */
+    public double getDouble(int row) {
+        return values[row];
+    }
+
+    /**
+     * Scan the column and select the rows for which the (non-null) value matches the given predicate.
+     *
+     * @param predicate The predicate.
+     * @return The selected rows.
+     */
+    public BitSet whereDouble(DoublePredicate predicate) {
+        BitSet rows = new BitSet(values.length);
+        for (int row = 0; row < values.length; row++) {
+            if (predicate.test(values[row]) && !isNull(row)) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Sum all non-null values.
+     *
+     * @return The sum.
+     */
+    public double sum() {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int compareValues(int row, Column<V> other, int otherRow) {
+        return Double.compare(values[row], ((DoubleColumn<V>) other).values[otherRow]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void markDifferences(Column<V> other, int rows, BitSet modified) {
+        double[] otherValues = ((DoubleColumn<V>) other).values;
+        for (int row = 0; row < rows; row++) {
+            if (Double.doubleToLongBits(values[row]) != Double.doubleToLongBits(otherValues[row]) || isNull(row) != other.isNull(row)) {
+                modified.set(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.table;
+
+import org.codegeny.beans.model.Model;
+
+import java.util.BitSet;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link Column} of values which can be encoded as order-preserving <code>int</code> codes ({@link Integer}s,
+ * {@link Short}s, {@link Byte}s, {@link Character}s, {@link Boolean}s and enums by ordinal) stored in an
+ * <code>int[]</code>.
+ *
+ * @param <V> The value type.
+ * @author Xavier DURY
+ */
+public final class IntColumn<V> extends Column<V> {
+
+    /**
+     * The codes (0 for nulls).
+     */
+    private final int[] codes;
+
+    /**
+     * Function which converts a code back to a value.
+     */
+    private final IntFunction<V> decoder;
+
+    /**
+     * Constructor.
+     *
+     * @param name    The column name.
+     * @param model   The model of the values.
+     * @param values  The values.
+     * @param encoder Function which converts a value to a code.
+     * @param decoder Function which converts a code back to a value.
+     */
+    @SuppressWarnings("unchecked")
+    IntColumn(String name, Model<V> model, Object[] values, ToIntFunction<? super V> encoder, IntFunction<V> decoder) {
+        super(name, model, values);
+        this.decoder = decoder;
+        this.codes = new int[values.length];
+        for (int row = 0; row < values.length; row++) {
+            if (values[row] != null) {
+                this.codes[row] = encoder.applyAsInt((V) values[row]);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(int row) {
+        return isNull(row) ? null : decoder.apply(codes[row]);
+    }
+
+    /**
+     * Get the code at the given row (the value itself for integers, the ordinal for enums, 0 or 1 for booleans).
+     *
+     * @param row The row.
+     * @return The code (0 for nulls).
+     */
+    public int getInt(int row) {
+        return codes[row];
+    }
+
+    /**
+     * {@inheritDoc}
+     * The predicate is evaluated once per distinct value.
+     */
+    @Override
+    public BitSet where(Predicate<? super V> predicate) {
+        BitSet rows = new BitSet(codes.length);
+        BitSet tested = new BitSet();
+        BitSet matching = new BitSet();
+        for (int row = 0; row < codes.length; row++) {
+            if (!isNull(row)) {
+                int code = codes[row];
+                if (code < 0 || code > 0xFFFF) {
+                    if (predicate.test(decoder.apply(code))) {
+                        rows.set(row);
+                    }
+                } else {
+                    if (!tested.get(code)) {
+                        tested.set(code);
+                        matching.set(code, predicate.test(decoder.apply(code)));
+                    }
+                    if (matching.get(code)) {
+                        rows.set(row);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int compareValues(int row, Column<V> other, int otherRow) {
+        return Integer.compare(codes[row], ((IntColumn<V>) other).codes[otherRow]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void markDifferences(Column<V> other, int rows, BitSet modified) {
+        int[] otherCodes = ((IntColumn<V>) other).codes;
+        for (int row = 0; row < rows; row++) {
+            if (codes[row] != otherCodes[row] || isNull(row) != other.isNull(row)) {
+                modified.set(row);
+            }
+        }
+    }
+}
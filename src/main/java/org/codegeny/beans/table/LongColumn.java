@@ -0,0 +1,123 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.table;
+
+import org.codegeny.beans.model.Model;
+
+import java.util.BitSet;
+import java.util.function.LongPredicate;
+
+/**
+ * A {@link Column} of {@link Long}s stored in a <code>long[]</code>.
+ *
+ * @author Xavier DURY
+ */
+public final class LongColumn extends Column<Long> {
+
+    /**
+     * The values (0 for nulls).
+     */
+    private final long[] values;
+
+    /**
+     * Constructor.
+     *
+     * @param name   The column name.
+     * @param model  The model of the values.
+     * @param values The values.
+     */
+    LongColumn(String name, Model<Long> model, Object[] values) {
+        super(name, model, values);
+        this.values = new long[values.length];
+        for (int row = 0; row < values.length; row++) {
+            if (values[row] != null) {
+                this.values[row] = (Long) values[row];
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Long get(int row) {
+        return isNull(row) ? null : values[row];
+    }
+
+    /**
+     * Get the primitive value at the given row.
+     *
+     * @param row The row.
+     * @return The value (0 for nulls).
+     */
+    public long getLong(int row) {
+        return values[row];
+    }
+
+    /**
+     * Scan the column and select the rows for which the (non-null) value matches the given predicate.
+     *
+     * @param predicate The predicate.
+     * @return The selected rows.
+     */
+    public BitSet whereLong(LongPredicate predicate) {
+        BitSet rows = new BitSet(values.length);
+        for (int row = 0; row < values.length; row++) {
+            if (predicate.test(values[row]) && !isNull(row)) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Sum all non-null values.
+     *
+     * @return The sum.
+     */
+    public long sum() {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int compareValues(int row, Column<Long> other, int otherRow) {
+        return Long.compare(values[row], ((LongColumn) other).values[otherRow]);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void markDifferences(Column<Long> other, int rows, BitSet modified) {
+        long[] otherValues = ((LongColumn) other).values;
+        for (int row = 0; row < rows; row++) {
+            if (values[row] != otherValues[row] || isNull(row) != other.isNull(row)) {
+                modified.set(row);
+            }
+        }
+    }
+}
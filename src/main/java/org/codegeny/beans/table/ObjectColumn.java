@@ -0,0 +1,76 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.table;
+
+import org.codegeny.beans.model.Model;
+
+/**
+ * A {@link Column} for values which cannot be stored in primitive arrays (collections, maps or values with a custom
+ * comparator). Values are compared with their model.
+ *
+ * @param <V> The value type.
+ * @author Xavier DURY
+ */
+public final class ObjectColumn<V> extends Column<V> {
+
+    /**
+     * The values.
+     */
+    private final Object[] values;
+
+    /**
+     * Constructor.
+     *
+     * @param name   The column name.
+     * @param model  The model of the values.
+     * @param values The values.
+     */
+    ObjectColumn(String name, Model<V> model, Object[] values) {
+        super(name, model, values);
+        this.values = values;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(int row) {
+        return (V) values[row];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Nulls are compared by the model as well (i.e. a null collection is equivalent to an empty one).
+     */
+    @Override
+    int compare(int row, Column<V> other, int otherRow) {
+        return getModel().compare(get(row), other.get(otherRow));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int compareValues(int row, Column<V> other, int otherRow) {
+        return compare(row, other, otherRow);
+    }
+}
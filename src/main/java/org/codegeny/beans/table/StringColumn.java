@@ -0,0 +1,119 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.table;
+
+import org.codegeny.beans.model.Model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Predicate;
+
+/**
+ * A dictionary-encoded {@link Column} of {@link String}s. Distinct strings are stored once in a sorted dictionary and
+ * each row only stores the <code>int</code> code of its string (so that comparing codes is the same as comparing
+ * strings).
+ *
+ * @author Xavier DURY
+ */
+public final class StringColumn extends Column<String> {
+
+    /**
+     * The sorted dictionary of distinct strings.
+     */
+    private final String[] dictionary;
+
+    /**
+     * The codes (indexes in the dictionary, 0 for nulls).
+     */
+    private final int[] codes;
+
+    /**
+     * Constructor.
+     *
+     * @param name   The column name.
+     * @param model  The model of the values.
+     * @param values The values.
+     */
+    StringColumn(String name, Model<String> model, Object[] values) {
+        super(name, model, values);
+        this.dictionary = Arrays.stream(values).filter(value -> value != null).map(String.class::cast).distinct().sorted().toArray(String[]::new);
+        this.codes = new int[values.length];
+        for (int row = 0; row < values.length; row++) {
+            if (values[row] != null) {
+                this.codes[row] = Arrays.binarySearch(dictionary, values[row]);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get(int row) {
+        return isNull(row) ? null : dictionary[codes[row]];
+    }
+
+    /**
+     * Get the code of the string at the given row.
+     *
+     * @param row The row.
+     * @return The code (index in the dictionary, 0 for nulls).
+     */
+    public int getCode(int row) {
+        return codes[row];
+    }
+
+    /**
+     * Get the number of distinct strings.
+     *
+     * @return The size of the dictionary.
+     */
+    public int getCardinality() {
+        return dictionary.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The predicate is evaluated once per distinct string.
+     */
+    @Override
+    public BitSet where(Predicate<? super String> predicate) {
+        BitSet matching = new BitSet(dictionary.length);
+        for (int code = 0; code < dictionary.length; code++) {
+            matching.set(code, predicate.test(dictionary[code]));
+        }
+        BitSet rows = new BitSet(codes.length);
+        for (int row = 0; row < codes.length; row++) {
+            if (matching.get(codes[row]) && !isNull(row)) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int compareValues(int row, Column<String> other, int otherRow) {
+        StringColumn that = (StringColumn) other;
+        return that == this ? Integer.compare(codes[row], codes[otherRow]) : dictionary[codes[row]].compareTo(that.dictionary[that.codes[otherRow]]);
+    }
+}
@@ -42,7 +42,7 @@ import static org.codegeny.beans.model.Property.set;
 
 public class Person {
 
-    public static final Model<Person> MODEL = bean(Person.class, //
+    public static final Model<Person> MODEL = bean(Person.class, Person::new, //
             property("firstName", Person::getFirstName, Person::setFirstName, STRING), //
             property("middleNames", list(Person::getMiddleNames, p -> i -> e -> p.setMiddleName(i, e)), list(STRING)), //
             property("lastName", Person::getLastName, STRING), //
@@ -0,0 +1,108 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.binary;
+
+import org.codegeny.beans.Person;
+import org.codegeny.beans.model.Model;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BinaryModelCodecTest {
+
+    @Test
+    public void valuesShouldSurviveRoundTrips() throws IOException {
+        BinaryModelCodec<Map<Instant, List<BigDecimal>>> codec = new BinaryModelCodec<>(Model.map(Model.value(Instant.class), Model.list(Model.value(BigDecimal.class))));
+        Map<Instant, List<BigDecimal>> expected = new LinkedHashMap<>();
+        expected.put(Instant.ofEpochSecond(-1, 5), Arrays.asList(new BigDecimal("-123.456e-7"), null, BigDecimal.ONE));
+        expected.put(null, new ArrayList<>());
+        expected.put(Instant.EPOCH, null);
+        assertEquals(expected, codec.decode(codec.encode(expected)));
+
+        assertNotEquals(codec.getFingerprint(), new BinaryModelCodec<>(Model.map(Model.value(Instant.class), Model.set(Model.value(BigDecimal.class)))).getFingerprint());
+
+        BinaryModelCodec<List<UUID>> uuids = new BinaryModelCodec<>(Model.list(Model.value(UUID.class)));
+        List<UUID> ids = Arrays.asList(UUID.randomUUID(), UUID.randomUUID());
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        uuids.encode(ids, stream);
+        uuids.encode(null, stream);
+        ByteArrayInputStream input = new ByteArrayInputStream(stream.toByteArray());
+        assertEquals(ids, uuids.decode(input));
+        assertNull(uuids.decode(input));
+
+        BinaryModelCodec<List<String>> strings = new BinaryModelCodec<>(Model.list(Model.STRING));
+        List<String> values = Arrays.asList("", "é", "😀", "\ud800", null);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        strings.encode(values, buffer);
+        buffer.flip();
+        assertEquals(values, strings.decode(buffer));
+    }
+
+    @Test
+    public void beansShouldSurviveRoundTrips() {
+        BinaryModelCodec<Person> codec = new BinaryModelCodec<>(Person.MODEL);
+        Person person = new Person().setFirstName("John").setLastName("Doe").setBirthDate(LocalDate.of(1970, 1, 1));
+        person.getHints().put("key", "value");
+        byte[] bytes = codec.encode(person);
+        Person decoded = codec.decode(bytes);
+
+        assertEquals(person.getFirstName(), decoded.getFirstName());
+        assertEquals(person.getBirthDate(), decoded.getBirthDate());
+        assertEquals(person.getHints(), decoded.getHints());
+        assertNull(decoded.getLastName());
+        assertEquals(0, Person.MODEL.compare(person.setLastName(null), decoded));
+    }
+
+    @Test
+    public void schemaMismatchShouldBeDetected() {
+        byte[] bytes = new BinaryModelCodec<>(Model.list(Model.INTEGER)).encode(Arrays.asList(1, 2, 3));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryModelCodec<>(Model.list(Model.LONG)).decode(bytes));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryModelCodec<>(Model.list(Model.INTEGER)).decode(Arrays.copyOf(bytes, bytes.length - 1)));
+    }
+
+    @Test
+    public void implausibleLengthsShouldNotBeAllocated() {
+        BinaryModelCodec<String> codec = new BinaryModelCodec<>(Model.STRING);
+        byte[] bytes = codec.encode("x");
+        assertEquals('x', bytes[bytes.length - 1]);
+        byte[] malformed = Arrays.copyOf(bytes, bytes.length + 3);
+        System.arraycopy(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}, 0, malformed, bytes.length - 2, 5);
+        assertThrows(EOFException.class, () -> codec.decode(new ByteArrayInputStream(malformed)));
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(malformed));
+    }
+}
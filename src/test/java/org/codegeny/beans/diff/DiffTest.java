@@ -20,10 +20,13 @@
 package org.codegeny.beans.diff;
 
 import org.codegeny.beans.Person;
+import org.codegeny.beans.model.BeanModel;
 import org.codegeny.beans.model.Model;
+import org.codegeny.beans.model.Property;
 import org.codegeny.beans.path.Path;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.stream.Collectors;
 
@@ -34,6 +37,9 @@ import static org.codegeny.beans.diff.Diff.Status.MODIFIED;
 import static org.codegeny.beans.diff.Diff.Status.REMOVED;
 import static org.codegeny.beans.diff.Diff.Status.UNCHANGED;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class DiffTest {
 
@@ -124,4 +130,35 @@ public class DiffTest {
         assertEquals(UNCHANGED, diff.get(Path.of("currentAddress")).getStatus());
         assertEquals(UNCHANGED, diff.get(Path.of("formerAddresses")).getStatus());
     }
+
+    @Test
+    public void beanDiffsShouldShareTheModelPropertyIndex() {
+        BeanModel<Person> model = (BeanModel<Person>) MODEL;
+        BeanDiff<Person> diff = (BeanDiff<Person>) MODEL.diff(createDefaultPerson(), createDefaultPerson().setFirstName("Jack"));
+        assertSame(model.getIndex(), diff.getPropertyIndex());
+        assertSame(diff.getProperty("firstName"), diff.getProperty(model.getIndex().indexOf("firstName")));
+        assertEquals(model.getProperties().stream().map(Property::getName).collect(Collectors.toList()), new ArrayList<>(diff.getProperties().keySet()));
+        assertEquals(MODIFIED, diff.getProperties().get("firstName").getStatus());
+        assertNull(diff.getProperty("unknown"));
+        assertThrows(UnsupportedOperationException.class, () -> diff.getProperties().clear());
+    }
+
+    @Test
+    public void retentionShouldDropValuesButKeepStatuses() {
+        Person left = createDefaultPerson();
+        Person right = createDefaultPerson().setFirstName("Jack");
+
+        Diff<Person> changedLeaves = MODEL.diff(left, right, Diff.Retention.CHANGED_LEAVES);
+        assertNull(changedLeaves.getLeft());
+        assertEquals(MODIFIED, changedLeaves.getStatus());
+        assertEquals("John", changedLeaves.get(Path.of("firstName")).getLeft());
+        assertEquals("Jack", changedLeaves.get(Path.of("firstName")).getRight());
+        assertNull(changedLeaves.get(Path.of("lastName")).getLeft());
+        assertEquals(UNCHANGED, changedLeaves.get(Path.of("middleNames", 0)).getStatus());
+
+        Diff<Person> none = MODEL.diff(left, right, Diff.Retention.NONE);
+        assertEquals(MODIFIED, none.get(Path.of("firstName")).getStatus());
+        assertNull(none.get(Path.of("firstName")).getLeft());
+        assertSame(MODEL.diff(left, right).getLeft(), MODEL.diff(left, right, Diff.Retention.ALL).getLeft());
+    }
 }
@@ -0,0 +1,162 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.flat;
+
+import org.codegeny.beans.Person;
+import org.codegeny.beans.model.Model;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.codegeny.beans.model.Model.INTEGER;
+import static org.codegeny.beans.model.Model.STRING;
+import static org.codegeny.beans.model.Model.bean;
+import static org.codegeny.beans.model.Model.list;
+import static org.codegeny.beans.model.Model.property;
+import static org.codegeny.beans.model.Model.value;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FlatFormatTest {
+
+    public static class Size {
+
+        private Integer width;
+        private Integer height;
+
+        public Integer getWidth() {
+            return width;
+        }
+
+        public void setWidth(Integer width) {
+            this.width = width;
+        }
+
+        public Integer getHeight() {
+            return height;
+        }
+
+        public void setHeight(Integer height) {
+            this.height = height;
+        }
+    }
+
+    public static class Item {
+
+        private String name;
+        private DayOfWeek day;
+        private Size size;
+        private List<String> tags = new ArrayList<>();
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public DayOfWeek getDay() {
+            return day;
+        }
+
+        public void setDay(DayOfWeek day) {
+            this.day = day;
+        }
+
+        public Size getSize() {
+            return size;
+        }
+
+        public void setSize(Size size) {
+            this.size = size;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+    }
+
+    private static final Model<Size> SIZE = bean(Size.class, Size::new, //
+            property("width", Size::getWidth, Size::setWidth, INTEGER), //
+            property("height", Size::getHeight, Size::setHeight, INTEGER));
+
+    private static final Model<Item> ITEM = bean(Item.class, Item::new, //
+            property("name", Item::getName, Item::setName, STRING), //
+            property("day", Item::getDay, Item::setDay, value(DayOfWeek.class)), //
+            property("size", Item::getSize, Item::setSize, SIZE), //
+            property("tags", Item::getTags, list(STRING)));
+
+    @Test
+    public void csvShouldRoundTrip() throws IOException {
+        Item first = new Item();
+        first.setName("a, \"quoted\"\nname");
+        first.setDay(DayOfWeek.MONDAY);
+        first.setSize(new Size());
+        first.getSize().setWidth(10);
+        first.getTags().addAll(Arrays.asList("x", "y"));
+        Item second = new Item();
+        second.setName("");
+
+        FlatFormat<Item> format = FlatFormat.csv(ITEM);
+        StringWriter writer = new StringWriter();
+        format.write(Arrays.asList(first, second), writer);
+        assertEquals("name,day,size.width,size.height,tags\r\n"
+                + "\"a, \"\"quoted\"\"\nname\",MONDAY,10,,\"[\"\"x\"\",\"\"y\"\"]\"\r\n"
+                + "\"\",,,,[]\r\n", writer.toString());
+
+        List<Item> items = format.read(new StringReader(writer.toString()));
+        assertEquals(2, items.size());
+        assertEquals(first.getName(), items.get(0).getName());
+        assertEquals(DayOfWeek.MONDAY, items.get(0).getDay());
+        assertEquals(Integer.valueOf(10), items.get(0).getSize().getWidth());
+        assertNull(items.get(0).getSize().getHeight());
+        assertEquals(Arrays.asList("x", "y"), items.get(0).getTags());
+        assertEquals("", items.get(1).getName());
+        assertNull(items.get(1).getSize());
+    }
+
+    @Test
+    public void tsvShouldMapColumnsByName() throws IOException {
+        List<Item> items = FlatFormat.tsv(ITEM).read(new StringReader("size.height\tunknown\tname\n7\t?\tb\n\t\t\n"));
+        assertEquals(2, items.size());
+        assertEquals(Integer.valueOf(7), items.get(0).getSize().getHeight());
+        assertNull(items.get(0).getSize().getWidth());
+        assertEquals("b", items.get(0).getName());
+        assertNull(items.get(1).getSize());
+        assertNull(items.get(1).getName());
+        assertThrows(IllegalArgumentException.class, () -> FlatFormat.tsv(ITEM).read(new StringReader("size.height\n1.5\n")));
+    }
+
+    @Test
+    public void columnsShouldFollowModelLeaves() {
+        assertEquals(Arrays.asList("firstName", "middleNames", "lastName", "birthDate", "currentAddress.street", "currentAddress.zipCode",
+                "currentAddress.country", "formerAddresses", "hints"), FlatFormat.csv(Person.MODEL).getColumns().stream()
+                .map(path -> path.toString(".", "", "")).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,101 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.json;
+
+import org.codegeny.beans.Person;
+import org.codegeny.beans.model.Model;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonModelReaderTest {
+
+    @Test
+    public void readerShouldPopulateBeans() throws IOException {
+        String json = "{\"firstName\":\"J\\u00e9r\\u00f4me \\\"\\ud83d\\ude00\\\"\", \"unknown\": [1, {\"a\": null}], \"lastName\": \"Smith\",\n"
+                + " \"middleNames\": [\"A\", \"B\"], \"birthDate\": \"2000-01-31\", \"currentAddress\": {\"street\": \"Main Street\"},"
+                + " \"hints\": {\"a\": \"b\"}}";
+        Person existing = Person.createDefaultPerson();
+        Person person = new JsonModelReader<>(Person.MODEL).read(new ByteArrayInputStream(json.getBytes("UTF-8")), existing);
+
+        assertSame(existing, person);
+        assertEquals("Jérôme \"😀\"", person.getFirstName());
+        assertEquals("Doe", person.getLastName());
+        assertEquals(Arrays.asList("A", "B"), person.getMiddleNames());
+        assertEquals(LocalDate.of(2000, 1, 31), person.getBirthDate());
+        assertEquals("Evergreen Terrasse", person.getCurrentAddress().getStreet());
+        assertEquals("b", person.getHints().get("a"));
+
+        Person newPerson = new JsonModelReader<>(Person.MODEL).fromJson("{\"firstName\": \"Jane\", \"currentAddress\": {}}");
+        assertEquals("Jane", newPerson.getFirstName());
+        assertNull(newPerson.getCurrentAddress());
+    }
+
+    @Test
+    public void writerOutputShouldBeReadBack() {
+        Model<Map<DayOfWeek, List<Long>>> model = Model.map(Model.value(DayOfWeek.class), Model.list(Model.LONG));
+        Map<DayOfWeek, List<Long>> expected = new LinkedHashMap<>();
+        expected.put(DayOfWeek.MONDAY, Arrays.asList(Long.MIN_VALUE, -1L, null, Long.MAX_VALUE));
+        expected.put(DayOfWeek.FRIDAY, null);
+        assertEquals(expected, new JsonModelReader<>(model).read(new JsonModelWriter<>(model).toBytes(expected)));
+
+        Model<List<Double>> doubles = Model.list(Model.DOUBLE);
+        List<Double> values = Arrays.asList(0.1, -2.5e-300, 3.0, Double.NaN, null);
+        assertEquals(values, new JsonModelReader<>(doubles).read(new JsonModelWriter<>(doubles).toBytes(values)));
+    }
+
+    @Test
+    public void malformedJsonShouldBeRejected() {
+        JsonModelReader<List<Integer>> reader = new JsonModelReader<>(Model.list(Model.INTEGER));
+        assertThrows(IllegalArgumentException.class, () -> reader.fromJson("[1, 2"));
+        assertThrows(IllegalArgumentException.class, () -> reader.fromJson("[1.5]"));
+        assertThrows(IllegalArgumentException.class, () -> reader.fromJson("[1] 2"));
+        assertThrows(IllegalArgumentException.class, () -> reader.fromJson("[2147483648]"));
+        assertEquals(Arrays.asList(Integer.MIN_VALUE, Integer.MAX_VALUE), reader.fromJson("[-2147483648, 2147483647]"));
+    }
+
+    @Test
+    public void malformedUtf8ShouldBeRejected() {
+        JsonModelReader<String> reader = new JsonModelReader<>(Model.STRING);
+        for (int[] sequence : new int[][]{{0x80}, {0xBF}, {0xC0, 0xAF}, {0xC1, 0xBF}, {0xE0, 0x80, 0xAF}, {0xED, 0xA0, 0x80},
+                {0xF0, 0x80, 0x80, 0xAF}, {0xF4, 0x90, 0x80, 0x80}, {0xF8, 0x80, 0x80, 0x80}, {0xFF}}) {
+            byte[] bytes = new byte[sequence.length + 2];
+            bytes[0] = bytes[bytes.length - 1] = '"';
+            for (int i = 0; i < sequence.length; i++) {
+                bytes[i + 1] = (byte) sequence[i];
+            }
+            assertThrows(IllegalArgumentException.class, () -> reader.read(bytes), Arrays.toString(sequence));
+        }
+        assertEquals("\u00e9\u20ac\ud83d\ude00", reader.read(new byte[]{'"', (byte) 0xC3, (byte) 0xA9, (byte) 0xE2, (byte) 0x82, (byte) 0xAC,
+                (byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x80, '"'}));
+    }
+}
@@ -0,0 +1,69 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.json;
+
+import org.codegeny.beans.Address;
+import org.codegeny.beans.Person;
+import org.codegeny.beans.model.Model;
+import org.junit.jupiter.api.Test;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JsonModelWriterTest {
+
+    @Test
+    public void writerShouldProduceValidJson() throws IOException {
+        Person person = Person.createDefaultPerson().setFirstName("Frédéric \"😀\"\n");
+        JsonModelWriter<Person> writer = new JsonModelWriter<>(Person.MODEL);
+        byte[] bytes = writer.toBytes(person);
+
+        JsonObject json = Json.createReader(new ByteArrayInputStream(bytes)).readObject();
+        assertEquals(person.getFirstName(), json.getString("firstName"));
+        assertEquals(person.getBirthDate().toString(), json.getString("birthDate"));
+        assertEquals(person.getCurrentAddress().getStreet(), json.getJsonObject("currentAddress").getString("street"));
+        assertEquals(person.getFormerAddresses().size(), json.getJsonArray("formerAddresses").size());
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        writer.write(person, stream);
+        assertArrayEquals(bytes, stream.toByteArray());
+
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
+        writer.write(person, buffer);
+        assertArrayEquals(bytes, buffer.array());
+    }
+
+    @Test
+    public void numbersShouldBeWrittenAsNumbers() {
+        assertEquals("[1,-42,-9223372036854775808,null]", new JsonModelWriter<>(Model.list(Model.LONG)).toJson(Arrays.asList(1L, -42L, Long.MIN_VALUE, null)));
+        assertEquals("[0.5,3,-0.0,\"NaN\"]", new JsonModelWriter<>(Model.list(Model.DOUBLE)).toJson(Arrays.asList(0.5, 3.0, -0.0, Double.NaN)));
+        List<Address> addresses = Arrays.asList(new Address("a", "1000", "Belgium"), null);
+        assertEquals("[{\"street\":\"a\",\"zipCode\":\"1000\",\"country\":\"Belgium\"},null]", new JsonModelWriter<>(Model.list(Address.MODEL)).toJson(addresses));
+    }
+}
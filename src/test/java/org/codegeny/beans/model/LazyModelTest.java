@@ -0,0 +1,119 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+import org.codegeny.beans.binary.BinaryModelCodec;
+import org.codegeny.beans.diff.Diff;
+import org.codegeny.beans.json.JsonModelReader;
+import org.codegeny.beans.json.JsonModelWriter;
+import org.codegeny.beans.model.visitor.TypeModelVisitor;
+import org.codegeny.beans.path.Path;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LazyModelTest {
+
+    public static class Node {
+
+        private String name;
+        private List<Node> children = new ArrayList<>();
+
+        public Node() {
+        }
+
+        Node(String name, Node... children) {
+            this.name = name;
+            for (Node child : children) {
+                this.children.add(child);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<Node> getChildren() {
+            return children;
+        }
+    }
+
+    private static final Model<Node> MODEL = Model.recursive(self -> Model.bean(Node.class, Node::new,
+            Model.property("name", Node::getName, Node::setName, Model.STRING),
+            Model.property("children", Node::getChildren, Model.list(self))));
+
+    private static Node tree(String leaf) {
+        return new Node("root", new Node("a", new Node(leaf)), new Node("b"));
+    }
+
+    @Test
+    public void recursiveModelShouldSupportAllVisitors() {
+        Node left = tree("c");
+        Node right = tree("d");
+
+        assertEquals(0, MODEL.compare(left, tree("c")));
+        assertEquals(Integer.signum(MODEL.compare(left, right)), Integer.signum(MODEL.comparator().compare(left, right)));
+        assertEquals(MODEL.toString(left), ModelCompiler.of(MODEL).toString(left));
+        assertEquals(Diff.Status.MODIFIED, MODEL.diff(left, right).getStatus());
+        assertEquals(Diff.Status.MODIFIED, ModelCompiler.of(MODEL).diff(left, right).getStatus());
+        assertEquals(ModelCompiler.of(MODEL).hashCode(left), ModelCompiler.of(MODEL).hashCode(tree("c")));
+        assertEquals("c", MODEL.get(left, Path.<Object>of("children", 0, "children", 0, "name")));
+        assertEquals(Node.class, TypeModelVisitor.typeOf(MODEL));
+        assertTrue(MODEL.describe().contains("Recursive[" + Node.class.getName() + "]"));
+
+        assertEquals(0, MODEL.compare(left, new JsonModelReader<>(MODEL).fromJson(new JsonModelWriter<>(MODEL).toJson(left))));
+        BinaryModelCodec<Node> codec = new BinaryModelCodec<>(MODEL);
+        assertEquals(0, MODEL.compare(left, codec.decode(codec.encode(left))));
+    }
+
+    @Test
+    public void lazyModelShouldResolveOnce() {
+        int[] count = {0};
+        LazyModel<String> lazy = Model.lazy(() -> {
+            count[0]++;
+            return Model.STRING;
+        });
+        assertEquals(0, count[0]);
+        assertSame(Model.STRING, lazy.getModel());
+        assertSame(Model.STRING, lazy.getModel());
+        assertEquals(1, count[0]);
+        assertThrows(IllegalStateException.class, () -> Model.<String>recursive(self -> {
+            self.compare("a", "b");
+            return Model.STRING;
+        }));
+    }
+
+    @Test
+    public void deriveShouldSupportRecursiveTypes() {
+        Model<Node> model = Model.derive(Node.class);
+        assertEquals(0, model.compare(tree("c"), tree("c")));
+        assertTrue(model.compare(tree("c"), tree("d")) < 0);
+    }
+}
@@ -0,0 +1,71 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+import org.codegeny.beans.Address;
+import org.codegeny.beans.Person;
+import org.codegeny.beans.diff.Diff;
+import org.codegeny.beans.path.Path;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ModelCompilerTest {
+
+    @Test
+    public void compiledModelShouldMatchModel() {
+        ModelCompiler<Person> compiler = ModelCompiler.of(Person.MODEL);
+        assertSame(compiler, ModelCompiler.of(Person.MODEL));
+
+        List<Person> persons = Arrays.asList(
+                Person.createDefaultPerson(),
+                Person.createDefaultPerson(),
+                Person.createDefaultPerson().setFirstName("Jack"),
+                Person.createDefaultPerson().setFirstName(null),
+                Person.createDefaultPerson().addMiddleName("Michael"),
+                Person.createDefaultPerson().setCurrentAddress(null),
+                Person.createDefaultPerson().addFormerAddress(new Address("Via Roma", "00100", "Italy")),
+                new Person(),
+                null
+        );
+        persons.get(1).getHints().put("a", null);
+        for (Person left : persons) {
+            assertEquals(Person.MODEL.toString(left), compiler.toString(left));
+            for (Person right : persons) {
+                int comparison = Person.MODEL.compare(left, right);
+                assertEquals(Integer.signum(comparison), Integer.signum(compiler.compare(left, right)));
+                assertEquals(comparison == 0, compiler.equals(left, right));
+                if (comparison == 0) {
+                    assertEquals(compiler.hashCode(left), compiler.hashCode(right));
+                }
+                Diff<Person> expected = Person.MODEL.diff(left, right);
+                Diff<Person> actual = compiler.diff(left, right);
+                assertEquals(expected.getStatus(), actual.getStatus());
+                for (String property : Arrays.asList("firstName", "middleNames", "currentAddress", "formerAddresses", "hints")) {
+                    assertEquals(expected.get(Path.of(property)).getStatus(), actual.get(Path.of(property)).getStatus());
+                }
+            }
+        }
+    }
+}
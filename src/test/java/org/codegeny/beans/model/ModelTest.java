@@ -19,20 +19,74 @@
  */
 package org.codegeny.beans.model;
 
+import org.codegeny.beans.Address;
 import org.codegeny.beans.Person;
+import org.codegeny.beans.model.visitor.ToStringModelVisitor;
 import org.codegeny.beans.model.visitor.TraversingModelVisitor;
+import org.codegeny.beans.model.visitor.TypeModelVisitor;
+import org.codegeny.beans.path.CompiledPath;
 import org.codegeny.beans.path.Converter;
+import org.codegeny.beans.path.ConverterRegistry;
 import org.codegeny.beans.path.JsonConverter;
 import org.codegeny.beans.path.Path;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringWriter;
+import java.lang.reflect.ParameterizedType;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ModelTest {
 
+    public static final class Tag {
+
+        private final String id;
+        private String label;
+
+        Tag(String id, String label) {
+            this.id = id;
+            this.label = label;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public boolean equals(Object that) {
+            return that instanceof Tag && id.equals(((Tag) that).id);
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
+    }
+
     @Test
     public void extractPath() {
 
@@ -57,6 +111,252 @@ public class ModelTest {
         assertEquals("Grand Place", Person.MODEL.get(Person.createDefaultPerson(), Path.of("formerAddresses", 1, "street")));
     }
 
+    @Test
+    public void compiledPathShouldGetAndSet() {
+        Converter<String> jsonConverter = new JsonConverter();
+        Person person = Person.createDefaultPerson();
+
+        CompiledPath<Person, String> middleName = Person.MODEL.compile(Path.of("\"middleNames\"", "1"), jsonConverter);
+        assertEquals("Fitzgerald", middleName.get(person));
+        middleName.set(person, "\"Francis\"", jsonConverter);
+        assertEquals(Arrays.asList("Patrick", "Francis"), person.getMiddleNames());
+
+        CompiledPath<Person, String> street = Person.MODEL.compile(Path.of("formerAddresses", 1, "street"));
+        assertEquals("Grand Place", street.get(person));
+        assertEquals(String.class, street.getType());
+        assertEquals(List.class, ((ParameterizedType) Person.MODEL.compile(Path.of("middleNames")).getType()).getRawType());
+
+        CompiledPath<Person, LocalDate> birthDate = Person.MODEL.compile(Path.of("birthDate"));
+        birthDate.set(person, LocalDate.of(2018, 1, 1));
+        assertEquals(LocalDate.of(2018, 1, 1), person.getBirthDate());
+
+        assertThrows(IllegalArgumentException.class, () -> Person.MODEL.compile(Path.of("unknown")));
+        assertThrows(UnsupportedOperationException.class, () -> Person.MODEL.compile(Path.of("firstName", "x")));
+        assertThrows(UnsupportedOperationException.class, () -> Person.MODEL.compile(Path.root()).set(person, person));
+    }
+
+    @Test
+    public void compiledPathShouldSetReadOnlyCollectionsInPlace() {
+        Map<String, String> hints = new LinkedHashMap<>();
+        hints.put("a", "1");
+        Person expected = Person.createDefaultPerson();
+        Person.MODEL.set(expected, Path.of("hints"), hints);
+        Person actual = Person.createDefaultPerson();
+        Person.MODEL.<Map<String, String>>compile(Path.of("hints")).set(actual, hints);
+        assertEquals(expected.getHints(), actual.getHints());
+        assertEquals(hints, actual.getHints());
+
+        Person.MODEL.<Set<Address>>compile(Path.of("formerAddresses")).set(actual, Collections.singleton(new Address("Abbey Road", "NW8", "UK")));
+        assertEquals(1, actual.getFormerAddresses().size());
+    }
+
+    @Test
+    public void selectShouldMatchPatterns() {
+        Person person = Person.createDefaultPerson();
+        person.getHints().put("a", "1");
+
+        assertEquals(Arrays.asList("Champs Elysées", "Grand Place"), Person.MODEL.select(person, Path.parse("formerAddresses/*/street")).map(Map.Entry::getValue).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(Path.of("formerAddresses", 1, "street")), Person.MODEL.select(person, Path.parse("formerAddresses/[country=Belgium]/street")).map(Map.Entry::getKey).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("Fitzgerald"), Person.MODEL.select(person, Path.parse("middleNames[1..5]")).map(Map.Entry::getValue).collect(Collectors.toList()));
+        assertEquals(3, Person.MODEL.select(person, Path.parse("**/zipCode")).count());
+        Person.MODEL.select(person, Path.parse("**")).forEach(match -> assertEquals(Person.MODEL.get(person, match.getKey()), match.getValue()));
+        assertEquals("1", Person.MODEL.select(person, Path.parse("hints/a")).findFirst().map(Map.Entry::getValue).orElse(null));
+    }
+
+    @Test
+    public void selectShouldStopWalkingOnceSatisfied() {
+        AtomicInteger calls = new AtomicInteger();
+        Model<Tag> tag = Model.bean(Tag.class, Model.property("label", (Tag bean) -> {
+            calls.incrementAndGet();
+            return bean.getLabel();
+        }, Model.STRING));
+        ListModel<List<List<Tag>>, List<Tag>> model = Model.list(Model.list(tag));
+        List<List<Tag>> tags = Collections.nCopies(100, Collections.nCopies(100, new Tag("a", "label")));
+        assertEquals("label", model.select(tags, Path.parse("*/*/label")).findFirst().map(Map.Entry::getValue).orElse(null));
+        assertEquals(1, calls.get());
+        assertEquals(Path.of(0, 0), model.select(tags, Path.parse("**")).skip(2).findFirst().map(Map.Entry::getKey).orElse(null));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void setElementsShouldBeAddressable() {
+        SetModel<Set<Integer>, Integer> model = Model.set(Model.INTEGER);
+        Set<Integer> sorted = new TreeSet<>(Arrays.asList(5, 1, 4, 2, 3));
+        Set<Integer> hashed = new HashSet<>(sorted);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Integer.valueOf(i + 1), model.getElement(sorted, i));
+            assertEquals(Integer.valueOf(i + 1), model.get(sorted, Path.of(i)));
+            assertEquals(Integer.valueOf(i + 1), model.findElement(hashed, i + 1));
+        }
+        assertNull(model.getElement(sorted, 5));
+        assertNull(model.findElement(hashed, 6));
+    }
+
+    @Test
+    public void pathsShouldUpdateTheElementsHeldByHashSets() {
+        SetModel<Set<Tag>, Tag> model = Model.set(Model.bean(Tag.class, Model.property("id", Tag::getId, Model.STRING), Model.property("label", Tag::getLabel, Tag::setLabel, Model.STRING)));
+        Tag held = new Tag("a", "old");
+        Set<Tag> tags = new HashSet<>(Collections.singleton(held));
+        assertSame(held, model.findElement(tags, new Tag("a", null)));
+        model.set(tags, Path.of(new Tag("a", null), "label"), "new");
+        assertEquals("new", held.getLabel());
+        model.setAll(tags, Collections.singletonMap(Path.of(new Tag("a", null), "label"), "newer"));
+        assertEquals("newer", held.getLabel());
+    }
+
+    @Test
+    public void getAllShouldMatchGet() {
+        Person person = Person.createDefaultPerson();
+        List<Path<Object>> paths = Arrays.asList(Path.of("formerAddresses", 1, "street"), Path.of("formerAddresses", 1), Path.of("middleNames", 0),
+                Path.of("formerAddresses", 0, "country"), Path.of("firstName"), Path.root());
+        Map<Path<Object>, Object> values = Person.MODEL.getAll(person, paths);
+        assertEquals(paths.size(), values.size());
+        paths.forEach(path -> assertEquals(Person.MODEL.get(person, path), values.get(path)));
+        assertEquals("Patrick", Person.MODEL.getAll(person, Arrays.asList(Path.of("\"middleNames\"", "0")), new JsonConverter()).get(Path.of("\"middleNames\"", "0")));
+    }
+
+    @Test
+    public void setAllShouldMatchSet() {
+        Person person = Person.createDefaultPerson();
+        Map<Path<String>, String> values = new LinkedHashMap<>();
+        values.put(Path.of("\"middleNames\"", "0"), "\"Yannick\"");
+        values.put(Path.of("\"middleNames\"", "1"), "\"Francis\"");
+        values.put(Path.of("\"birthDate\""), "\"2018-01-01\"");
+        values.put(Path.of("\"firstName\""), "\"Jack\"");
+        values.put(Path.of("\"hints\"", "\"a\""), "\"1\"");
+        Person.MODEL.setAll(person, values, new JsonConverter());
+        assertEquals(Arrays.asList("Yannick", "Francis"), person.getMiddleNames());
+        assertEquals(LocalDate.of(2018, 1, 1), person.getBirthDate());
+        assertEquals("Jack", person.getFirstName());
+        assertEquals("1", person.getHints().get("a"));
+        assertThrows(UnsupportedOperationException.class, () -> Person.MODEL.setAll(person, Collections.singletonMap(Path.root(), person)));
+    }
+
+    @Test
+    public void registryShouldConvertStringPaths() {
+        ConverterRegistry registry = ConverterRegistry.defaults();
+        Person person = Person.createDefaultPerson();
+        Person.MODEL.set(person, Path.of("middleNames", "1"), "Francis", registry);
+        Person.MODEL.set(person, Path.of("birthDate"), "2018-01-01", registry);
+        assertEquals(Arrays.asList("Patrick", "Francis"), person.getMiddleNames());
+        assertEquals(LocalDate.of(2018, 1, 1), person.getBirthDate());
+        assertEquals("Grand Place", Person.MODEL.get(person, Path.of("formerAddresses", "1", "street"), registry));
+
+        assertEquals(Integer.valueOf(42), registry.convert(int.class, "42"));
+        assertEquals(DayOfWeek.MONDAY, registry.convert(DayOfWeek.class, "MONDAY"));
+        assertThrows(IllegalArgumentException.class, () -> registry.convert(Boolean.class, "yes"));
+        assertEquals(Arrays.asList(1, 2), registry.withFallback(new JsonConverter()).convert(TypeModelVisitor.typeOf(Model.list(Model.INTEGER)), "[1, 2]"));
+        assertEquals("x", registry.with(String.class, String::trim).convert(String.class, " x "));
+    }
+
+    @Test
+    public void compiledComparatorShouldMatchCompare() {
+        Comparator<Person> comparator = Person.MODEL.comparator();
+        List<Person> persons = Arrays.asList(
+                Person.createDefaultPerson(),
+                Person.createDefaultPerson().setFirstName("Jack"),
+                Person.createDefaultPerson().setFirstName(null),
+                Person.createDefaultPerson().addMiddleName("Michael"),
+                Person.createDefaultPerson().setCurrentAddress(null),
+                Person.createDefaultPerson().addFormerAddress(new Address("Via Roma", "00100", "Italy")),
+                null
+        );
+        for (Person left : persons) {
+            for (Person right : persons) {
+                assertEquals(Integer.signum(Person.MODEL.compare(left, right)), Integer.signum(comparator.compare(left, right)));
+            }
+        }
+    }
+
+    @Test
+    public void propertiesShouldBeIndexedInDeclarationOrder() {
+        BeanModel<Person> model = (BeanModel<Person>) Person.MODEL;
+        List<String> names = Arrays.asList("firstName", "middleNames", "lastName", "birthDate", "currentAddress", "formerAddresses", "hints");
+        assertEquals(names, model.getProperties().stream().map(Property::getName).collect(Collectors.toList()));
+        for (int i = 0; i < names.size(); i++) {
+            assertEquals(i, model.getIndex().indexOf(names.get(i)));
+            assertEquals(i, model.getIndex().indexOf(new StringBuilder(names.get(i))));
+            assertEquals(names.get(i), model.getProperty(names.get(i)).getName());
+        }
+        assertEquals(-1, model.getIndex().indexOf("unknown"));
+        assertNull(model.getProperty("unknown"));
+    }
+
+    @Test
+    public void writeToShouldStreamTheStringRepresentation() {
+        Person person = Person.createDefaultPerson();
+        person.getHints().put("b", "2");
+        person.getHints().put("a", "1");
+        assertEquals(Person.MODEL.toString(person), Person.MODEL.writeTo(person, new StringWriter()).toString());
+    }
+
+    @Test
+    public void toStringShouldKeepTheOutputFormat() {
+        Person person = Person.createDefaultPerson()
+                .setBirthDate(LocalDate.of(1970, 1, 1))
+                .setLastName(null)
+                .addFormerAddress(new Address("Abbey Road", "NW8", "UK"));
+        person.getHints().put("b", "2");
+        person.getHints().put("a", "1");
+        String expected = String.join("\n",
+                "{",
+                "  firstName: John,",
+                "  middleNames: [",
+                "    Patrick,",
+                "    Fitzgerald",
+                "  ],",
+                "  lastName: null,",
+                "  birthDate: 1970-01-01,",
+                "  currentAddress: {",
+                "    street: Evergreen Terrasse,",
+                "    zipCode: 90210,",
+                "    country: USA",
+                "  },",
+                "  formerAddresses: [",
+                "    {",
+                "      street: Abbey Road,",
+                "      zipCode: NW8,",
+                "      country: UK",
+                "    },",
+                "    {",
+                "      street: Champs Elysées,",
+                "      zipCode: 1000,",
+                "      country: France",
+                "    },",
+                "    {",
+                "      street: Grand Place,",
+                "      zipCode: 1000,",
+                "      country: Belgium",
+                "    }",
+                "  ],",
+                "  hints: [",
+                "    a: 1,",
+                "    b: 2",
+                "  ]",
+                "}");
+        assertEquals(expected, Person.MODEL.toString(person));
+        assertEquals(expected, Person.MODEL.accept(new ToStringModelVisitor<>(person)).toString());
+        assertEquals("[]", Model.list(Model.STRING).toString(Collections.emptyList()));
+    }
+
+    @Test
+    public void deriveShouldBuildBeanModels() {
+        Model<Person> model = Model.derive(Person.class);
+        assertSame(model, Model.derive(Person.class));
+        assertSame(Model.INTEGER, Model.derive(int.class));
+        assertEquals(Arrays.asList("birthDate", "currentAddress", "firstName", "formerAddresses", "hints", "lastName", "middleNames"),
+                ((BeanModel<Person>) model).getProperties().stream().map(Property::getName).collect(Collectors.toList()));
+
+        Person person = Person.createDefaultPerson();
+        Person other = Person.createDefaultPerson();
+        assertEquals(0, model.compare(person, other));
+        model.set(other, Path.of("firstName"), "Jane");
+        assertEquals("Jane", other.getFirstName());
+        assertEquals(Person.MODEL.compare(person, other), model.compare(person, other));
+        assertEquals(Person.MODEL.diff(person, other).getStatus(), model.diff(person, other).getStatus());
+        assertThrows(IllegalArgumentException.class, () -> Model.derive(Object.class));
+    }
+
     @Test
     public void testToString() {
         System.out.println(Person.MODEL.toString(Person.createDefaultPerson()));
@@ -71,4 +371,11 @@ public class ModelTest {
     public void describe() {
         System.out.println(Person.MODEL.describe());
     }
+
+    @Test
+    public void readOnlyPropertiesShouldIgnoreNullBeans() {
+        Property<Person, String> property = Model.property("firstName", Person::getFirstName, Model.STRING);
+        property.set(null, "John");
+        assertThrows(UnsupportedOperationException.class, () -> property.set(new Person(), "John"));
+    }
 }
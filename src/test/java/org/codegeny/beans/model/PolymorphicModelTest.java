@@ -0,0 +1,153 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+import org.codegeny.beans.binary.BinaryModelCodec;
+import org.codegeny.beans.diff.Diff;
+import org.codegeny.beans.diff.ListDiff;
+import org.codegeny.beans.flat.FlatFormat;
+import org.codegeny.beans.json.JsonModelReader;
+import org.codegeny.beans.json.JsonModelWriter;
+import org.codegeny.beans.path.Path;
+import org.codegeny.beans.sort.ModelSort;
+import org.codegeny.beans.table.BeanTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PolymorphicModelTest {
+
+    public static class Shape {
+
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Circle extends Shape {
+
+        private int radius;
+
+        Circle(String name, int radius) {
+            setName(name);
+            this.radius = radius;
+        }
+
+        public int getRadius() {
+            return radius;
+        }
+    }
+
+    public static class Square extends Shape {
+
+        private int side;
+
+        Square(String name, int side) {
+            setName(name);
+            this.side = side;
+        }
+
+        public int getSide() {
+            return side;
+        }
+    }
+
+    public static class ColoredSquare extends Square {
+
+        ColoredSquare(String name, int side) {
+            super(name, side);
+        }
+    }
+
+    private static final Property<Shape, String> NAME = Model.property("name", Shape::getName, Shape::setName, Model.STRING);
+
+    private static final PolymorphicModel<Shape> MODEL = Model.polymorphic(Model.bean(Shape.class, NAME),
+            Model.bean(Circle.class, NAME, Model.intProperty("radius", Circle::getRadius)),
+            Model.bean(Square.class, NAME, Model.intProperty("side", Square::getSide)));
+
+    @Test
+    public void polymorphicModelShouldResolveConcreteModels() {
+        assertSame(MODEL.getBaseModel(), MODEL.modelOf(new Shape()));
+        assertSame(MODEL.getModels().get(1), MODEL.modelOf(new Circle("c", 1)));
+        assertSame(MODEL.getModels().get(2), MODEL.modelOf(new ColoredSquare("s", 1)));
+        assertEquals(2, MODEL.get(new Circle("c", 2), Path.of("radius")));
+        assertTrue(MODEL.toString(new Square("s", 3)).contains("side"));
+        assertThrows(IllegalArgumentException.class, () -> Model.polymorphic(Model.bean(Shape.class, NAME), Model.bean(Circle.class), Model.bean(Circle.class)));
+    }
+
+    @Test
+    public void polymorphicModelShouldCompareAndDiffAcrossTypes() {
+        ModelCompiler<Shape> compiler = ModelCompiler.of(MODEL);
+        Shape circle = new Circle("a", 1);
+        Shape square = new Square("a", 1);
+
+        assertEquals(0, MODEL.compare(circle, new Circle("a", 1)));
+        assertTrue(MODEL.compare(circle, square) < 0);
+        assertTrue(MODEL.comparator().compare(circle, square) < 0);
+        assertTrue(compiler.equals(circle, new Circle("a", 1)));
+        assertFalse(compiler.equals(circle, square));
+        assertEquals(compiler.hashCode(circle), compiler.hashCode(new Circle("a", 1)));
+        assertEquals(MODEL.toString(square), compiler.toString(square));
+
+        assertEquals(Diff.Status.MODIFIED, MODEL.diff(circle, square).getStatus());
+        assertEquals(Diff.Status.MODIFIED, compiler.diff(circle, square).getStatus());
+        assertEquals(Diff.Status.MODIFIED, MODEL.diff(circle, new Circle("a", 2)).getStatus());
+        assertEquals(Diff.Status.UNCHANGED, compiler.diff(circle, new Circle("a", 1)).getStatus());
+
+        ListModel<List<Shape>, Shape> list = Model.list(MODEL);
+        ListDiff<List<Shape>, Shape> diff = (ListDiff<List<Shape>, Shape>) list.diff(singletonList(circle), singletonList(square));
+        assertEquals(Arrays.asList(Diff.Status.REMOVED, Diff.Status.ADDED), diff.getList().stream().map(Diff::getStatus).collect(toList()));
+    }
+
+    @Test
+    public void serializersAndTablesShouldRejectPolymorphicModels() {
+        BeanModel<Square> holder = Model.bean(Square.class, Model.property("shape", square -> (Shape) square, MODEL));
+        assertThrows(IllegalArgumentException.class, () -> new JsonModelWriter<>(Model.list(MODEL)));
+        assertThrows(IllegalArgumentException.class, () -> new JsonModelReader<>(Model.list(MODEL)));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryModelCodec<>(Model.list(MODEL)));
+        assertThrows(IllegalArgumentException.class, () -> FlatFormat.csv(holder));
+        assertThrows(IllegalArgumentException.class, () -> BeanTable.of(holder, singletonList(new Square("s", 1))));
+    }
+
+    @Test
+    public void sortShouldUseThePolymorphicComparator() {
+        List<Shape> shapes = new ArrayList<>(Arrays.asList(new Square("a", 1), new Circle("b", 1), new Shape(), new Circle("a", 2)));
+        List<Shape> expected = new ArrayList<>(shapes);
+        expected.sort(MODEL);
+        ModelSort.sort(shapes, MODEL);
+        assertEquals(expected, shapes);
+    }
+}
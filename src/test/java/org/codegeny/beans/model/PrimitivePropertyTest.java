@@ -0,0 +1,159 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.model;
+
+import org.codegeny.beans.binary.BinaryModelCodec;
+import org.codegeny.beans.json.JsonModelWriter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrimitivePropertyTest {
+
+    public static class Quote {
+
+        private int size;
+        private long time;
+        private double price;
+        private boolean firm;
+
+        public Quote() {
+        }
+
+        Quote(int size, long time, double price, boolean firm) {
+            this.size = size;
+            this.time = time;
+            this.price = price;
+            this.firm = firm;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public void setTime(long time) {
+            this.time = time;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public void setPrice(double price) {
+            this.price = price;
+        }
+
+        public boolean isFirm() {
+            return firm;
+        }
+
+        public void setFirm(boolean firm) {
+            this.firm = firm;
+        }
+    }
+
+    private static final Model<Quote> PRIMITIVE = Model.bean(Quote.class, Quote::new,
+            Model.intProperty("size", Quote::getSize, Quote::setSize),
+            Model.longProperty("time", Quote::getTime, Quote::setTime),
+            Model.doubleProperty("price", Quote::getPrice, Quote::setPrice),
+            Model.booleanProperty("firm", Quote::isFirm, Quote::setFirm));
+
+    private static final Model<Quote> BOXED = Model.bean(Quote.class, Quote::new,
+            Model.property("size", Quote::getSize, Quote::setSize, Model.INTEGER),
+            Model.property("time", Quote::getTime, Quote::setTime, Model.LONG),
+            Model.property("price", Quote::getPrice, Quote::setPrice, Model.DOUBLE),
+            Model.property("firm", Quote::isFirm, Quote::setFirm, Model.BOOLEAN));
+
+    @Test
+    public void primitivePropertiesShouldBehaveLikeBoxedProperties() {
+        for (Quote[] pair : Arrays.asList(
+                new Quote[]{new Quote(1, 2L, 3.0, true), new Quote(1, 2L, 3.0, true)},
+                new Quote[]{new Quote(1, 2L, 3.0, true), new Quote(1, 2L, 3.5, true)},
+                new Quote[]{new Quote(2, 2L, 3.0, true), new Quote(1, 2L, 3.0, false)},
+                new Quote[]{new Quote(1, 2L, 3.0, true), null})) {
+            Quote left = pair[0];
+            Quote right = pair[1];
+            assertEquals(Integer.signum(BOXED.compare(left, right)), Integer.signum(PRIMITIVE.compare(left, right)));
+            assertEquals(Integer.signum(BOXED.compare(left, right)), Integer.signum(PRIMITIVE.comparator().compare(left, right)));
+            assertEquals(ModelCompiler.of(BOXED).equals(left, right), ModelCompiler.of(PRIMITIVE).equals(left, right));
+            assertEquals(ModelCompiler.of(BOXED).hashCode(right), ModelCompiler.of(PRIMITIVE).hashCode(right));
+            assertEquals(ModelCompiler.of(BOXED).diff(left, right).toString(), ModelCompiler.of(PRIMITIVE).diff(left, right).toString());
+            assertEquals(BOXED.toString(left), ModelCompiler.of(PRIMITIVE).toString(left));
+        }
+    }
+
+    @Test
+    public void primitivePropertiesShouldBeSerializedLikeBoxedProperties() {
+        Quote quote = new Quote(-42, 1234567890123L, 1.5, true);
+        assertEquals(new JsonModelWriter<>(BOXED).toJson(quote), new JsonModelWriter<>(PRIMITIVE).toJson(quote));
+        byte[] bytes = new BinaryModelCodec<>(BOXED).encode(quote);
+        assertArrayEquals(bytes, new BinaryModelCodec<>(PRIMITIVE).encode(quote));
+        assertEquals(0, BOXED.compare(quote, new BinaryModelCodec<>(PRIMITIVE).decode(bytes)));
+    }
+
+    @Test
+    public void deriveShouldCreatePrimitiveProperties() {
+        BeanModel<Quote> model = (BeanModel<Quote>) Model.derive(Quote.class);
+        assertTrue(model.getProperty("size") instanceof IntProperty<?>);
+        assertTrue(model.getProperty("time") instanceof LongProperty<?>);
+        assertTrue(model.getProperty("price") instanceof DoubleProperty<?>);
+        assertTrue(model.getProperty("firm") instanceof BooleanProperty<?>);
+        assertEquals(0, model.compare(new Quote(1, 2L, 3.0, true), new Quote(1, 2L, 3.0, true)));
+    }
+
+    @Test
+    public void primitivePropertiesShouldDispatchToTheirOwnVisitorMethod() {
+        PropertyVisitor<Quote, Object, String> visitor = new PropertyVisitor<Quote, Object, String>() {
+
+            @Override
+            public String visitProperty(Property<? super Quote, Object> property) {
+                return "boxed " + property.getName();
+            }
+
+            @Override
+            public String visitInt(IntProperty<? super Quote> property) {
+                return "int " + property.getName();
+            }
+        };
+        BeanModel<Quote> primitive = (BeanModel<Quote>) PRIMITIVE;
+        BeanModel<Quote> boxed = (BeanModel<Quote>) BOXED;
+        assertEquals("int size", accept(primitive.getProperty("size"), visitor));
+        assertEquals("boxed time", accept(primitive.getProperty("time"), visitor));
+        assertEquals("boxed firm", accept(primitive.getProperty("firm"), visitor));
+        assertEquals("boxed size", accept(boxed.getProperty("size"), visitor));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> R accept(Property<? super Quote, ?> property, PropertyVisitor<Quote, Object, R> visitor) {
+        return ((Property<? super Quote, Object>) property).accept(visitor);
+    }
+}
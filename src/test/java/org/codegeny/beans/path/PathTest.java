@@ -0,0 +1,68 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.path;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PathTest {
+
+    @Test
+    public void pathsShouldShareTheirPrefix() {
+        Path<Object> parent = Path.of("a", 1);
+        Path<Object> child = parent.append("b");
+        assertSame(parent, child.parent());
+        assertEquals("b", child.last());
+        assertEquals(3, child.size());
+        assertEquals(Path.of("a", 1, "b"), child);
+        assertEquals(Arrays.asList("a", 1, "b").hashCode(), child.hashCode());
+        assertNotEquals(Path.of("a", 2, "b"), child);
+        assertEquals(Path.of("x", "a", 1, "b", null), child.prepend("x").append((Object) null));
+        assertEquals(Path.of("a", 1, "b", "a", 1), child.append(parent));
+        List<Object> elements = new ArrayList<>();
+        child.forEach(elements::add);
+        assertEquals(Arrays.asList("a", 1, "b"), elements);
+        assertEquals("/a/1/b", child.toString());
+        assertTrue(Path.root().isRoot());
+        assertThrows(NoSuchElementException.class, () -> Path.root().parent());
+    }
+
+    @Test
+    public void patternsShouldBeParsed() {
+        Path<Selector> pattern = Path.parse("/formerAddresses[1..]/**/**/[country=Belgium]/*");
+        assertEquals(Path.of(Selector.name("formerAddresses"), Selector.range(1, Integer.MAX_VALUE), Selector.anyDepth(), Selector.where("country", "Belgium"), Selector.any()), pattern);
+        assertEquals("/formerAddresses/[1..]/**/[country=Belgium]/*", pattern.toString());
+        assertSame(pattern, Path.parse("/formerAddresses[1..]/**/**/[country=Belgium]/*"));
+        assertEquals(Path.of(Selector.range(2, 2)), Path.parse("[2]"));
+        assertTrue(Path.parse("/").isRoot());
+        assertThrows(IllegalArgumentException.class, () -> Path.parse("a//b"));
+        assertThrows(IllegalArgumentException.class, () -> Path.parse("a/[x..y]"));
+    }
+}
@@ -0,0 +1,78 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.sort;
+
+import org.codegeny.beans.Address;
+import org.codegeny.beans.Person;
+import org.codegeny.beans.model.Model;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ModelSortTest {
+
+    private static List<Person> persons() {
+        Random random = new Random(42);
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Person person = Person.createDefaultPerson()
+                    .setFirstName(random.nextInt(10) == 0 ? null : "name" + random.nextInt(50))
+                    .setBirthDate(LocalDate.ofEpochDay(random.nextInt(100)));
+            if (random.nextBoolean()) {
+                person.addFormerAddress(new Address("street" + random.nextInt(5), "1000", "Belgium"));
+            }
+            persons.add(person);
+        }
+        return persons;
+    }
+
+    @Test
+    public void parallelSortShouldSortLikeTheModel() {
+        List<Person> expected = persons();
+        List<Person> actual = new LinkedList<>(expected);
+        expected.sort(Person.MODEL);
+        ModelSort.parallelSort(actual, Person.MODEL);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void unsupportedPropertiesShouldBreakTies() {
+        Model<Address> model = Model.bean(Address.class,
+                Model.property("zipCode", Address::getZipCode, Model.STRING),
+                Model.property("street", Address::getStreet, Model.value(String.class, String.CASE_INSENSITIVE_ORDER)));
+        List<Address> expected = new ArrayList<>();
+        for (String street : new String[]{"b", "A", "c", "B", "a"}) {
+            expected.add(new Address(street, "2000", "Belgium"));
+            expected.add(new Address(street, "1000", "Belgium"));
+        }
+        Collections.shuffle(expected, new Random(42));
+        List<Address> actual = new ArrayList<>(expected);
+        expected.sort(model);
+        ModelSort.sort(actual, model);
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.sort;
+
+import org.codegeny.beans.Address;
+import org.codegeny.beans.Person;
+import org.codegeny.beans.model.Model;
+import org.codegeny.beans.model.visitor.SortKeyModelVisitor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SortKeysTest {
+
+    private static <T> void assertSameOrder(Model<T> model, List<T> values) {
+        for (T left : values) {
+            for (T right : values) {
+                assertEquals(Integer.signum(model.compare(left, right)), Integer.signum(SortKeys.compare(model.sortKey(left), model.sortKey(right))), () -> left + " <=> " + right);
+            }
+        }
+    }
+
+    @Test
+    public void numbersShouldKeepTheirOrder() {
+        assertSameOrder(Model.INTEGER, Arrays.asList(Integer.MIN_VALUE, -1000, -1, 0, 1, 255, 256, Integer.MAX_VALUE, null));
+        assertSameOrder(Model.LONG, Arrays.asList(Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE, null));
+        assertSameOrder(Model.DOUBLE, Arrays.asList(Double.NEGATIVE_INFINITY, -1.5, -0.0, 0.0, Double.MIN_VALUE, 2.5, Double.POSITIVE_INFINITY, Double.NaN, null));
+        assertSameOrder(Model.FLOAT, Arrays.asList(Float.NEGATIVE_INFINITY, -1.5F, -0.0F, 0.0F, 2.5F, Float.NaN, null));
+        assertSameOrder(Model.SHORT, Arrays.asList(Short.MIN_VALUE, (short) -1, (short) 0, Short.MAX_VALUE, null));
+        assertSameOrder(Model.BYTE, Arrays.asList(Byte.MIN_VALUE, (byte) -1, (byte) 0, Byte.MAX_VALUE, null));
+    }
+
+    @Test
+    public void stringsShouldKeepTheirOrder() {
+        assertSameOrder(Model.STRING, Arrays.asList("", "\u0000", "a", "a\u0000", "ab", "b", "\u007F", "é", "䁾", "䁿", "😀", "￿", null));
+    }
+
+    @Test
+    public void beansShouldKeepTheirOrder() {
+        assertSameOrder(Person.MODEL, Arrays.asList(
+                Person.createDefaultPerson(),
+                Person.createDefaultPerson().setFirstName("Jack"),
+                Person.createDefaultPerson().setFirstName(null),
+                Person.createDefaultPerson().setBirthDate(LocalDate.of(1970, 1, 1)),
+                Person.createDefaultPerson().addMiddleName("Michael"),
+                Person.createDefaultPerson().removeMiddleName(name -> true),
+                Person.createDefaultPerson().setCurrentAddress(null),
+                Person.createDefaultPerson().addFormerAddress(new Address("Via Roma", "00100", "Italy")),
+                Person.createDefaultPerson().removeFormerAddress(address -> true),
+                null
+        ));
+    }
+
+    @Test
+    public void customComparatorsShouldNotBeSupported() {
+        assertTrue(SortKeyModelVisitor.isSupported(Person.MODEL));
+        assertFalse(SortKeyModelVisitor.isSupported(Model.value(String.class, String.CASE_INSENSITIVE_ORDER)));
+    }
+}
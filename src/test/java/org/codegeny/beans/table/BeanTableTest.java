@@ -0,0 +1,112 @@
+/*-
+ * #%L
+ * codegeny-beans
+ * %%
+ * Copyright (C) 2016 - 2018 Codegeny
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.codegeny.beans.table;
+
+import org.codegeny.beans.Address;
+import org.codegeny.beans.Person;
+import org.codegeny.beans.diff.Diff;
+import org.codegeny.beans.model.BeanModel;
+import org.codegeny.beans.model.Model;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BeanTableTest {
+
+    private static final BeanModel<Person> MODEL = (BeanModel<Person>) Person.MODEL;
+
+    private static List<Person> persons() {
+        Random random = new Random(42);
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            persons.add(new Person()
+                    .setFirstName(random.nextInt(10) == 0 ? null : "name" + random.nextInt(20))
+                    .setBirthDate(LocalDate.ofEpochDay(random.nextInt(10)))
+                    .setCurrentAddress(random.nextBoolean() ? null : new Address("street" + random.nextInt(3), "1000", "Belgium")));
+        }
+        return persons;
+    }
+
+    @Test
+    public void rowsShouldCompareLikeBeans() {
+        List<Person> persons = persons();
+        BeanTable<Person> table = BeanTable.of(MODEL, persons);
+        assertEquals(Arrays.asList("firstName", "middleNames", "lastName", "birthDate", "currentAddress.street", "currentAddress.zipCode", "currentAddress.country", "formerAddresses", "hints"),
+                table.getColumns().stream().map(Column::getName).collect(Collectors.toList()));
+        for (int i = 0; i < persons.size(); i += 7) {
+            for (int j = 0; j < persons.size(); j += 3) {
+                assertEquals(Integer.signum(MODEL.compare(persons.get(i), persons.get(j))), Integer.signum(table.compare(i, j)));
+            }
+        }
+    }
+
+    @Test
+    public void columnsShouldBeScanned() {
+        List<Person> persons = persons();
+        StringColumn firstNames = BeanTable.of(MODEL, persons).getColumn("firstName", StringColumn.class);
+        assertEquals(persons.stream().filter(p -> p.getFirstName() != null && p.getFirstName().endsWith("1")).count(), firstNames.where(s -> s.endsWith("1")).cardinality());
+        assertEquals(persons.get(3).getFirstName(), firstNames.get(3));
+        assertNull(BeanTable.of(MODEL, persons).getColumn("unknown"));
+    }
+
+    @Test
+    public void tablesShouldBeDiffed() {
+        List<Person> left = persons();
+        List<Person> right = persons();
+        right.get(1).setFirstName("changed");
+        right.get(2).setCurrentAddress(new Address("elsewhere", "1000", "Belgium"));
+        right.remove(right.size() - 1);
+        Diff.Status[] statuses = BeanTable.of(MODEL, left).diff(BeanTable.of(MODEL, right));
+        assertEquals(left.size(), statuses.length);
+        assertArrayEquals(new Diff.Status[]{Diff.Status.UNCHANGED, Diff.Status.MODIFIED, Diff.Status.MODIFIED, Diff.Status.UNCHANGED}, Arrays.copyOf(statuses, 4));
+        assertEquals(Diff.Status.REMOVED, statuses[statuses.length - 1]);
+    }
+
+    @Test
+    public void nullCollectionsShouldCompareLikeEmptyOnes() {
+        BeanModel<Person> model = Model.bean(Person.class, Model.property("names", p -> p.getFirstName() == null ? null : Collections.<String>emptyList(), Model.list(Model.STRING)));
+        List<Person> persons = Arrays.asList(new Person(), new Person().setFirstName("John"));
+        BeanTable<Person> table = BeanTable.of(model, persons);
+        assertEquals(0, model.compare(persons.get(0), persons.get(1)));
+        assertEquals(0, table.compare(0, 1));
+        assertEquals(0, table.compare(1, 0));
+    }
+
+    @Test
+    public void tablesOfDifferentModelsShouldNotBeCompared() {
+        BeanModel<Person> model = Model.bean(Person.class, Model.property("firstName", Person::getFirstName, Model.STRING));
+        List<Person> persons = persons();
+        BeanTable<Person> table = BeanTable.of(MODEL, persons);
+        BeanTable<Person> other = BeanTable.of(model, persons);
+        assertThrows(IllegalArgumentException.class, () -> table.compare(0, other, 0));
+        assertThrows(IllegalArgumentException.class, () -> table.diff(other));
+    }
+}